@@ -0,0 +1,284 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.benchmarks;
+
+import java.io.File;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.cfar.swim.worldwind.jaxb.ScenarioUnmarshaller;
+import com.cfar.swim.worldwind.planners.LifelongPlanner;
+import com.cfar.swim.worldwind.planners.OnlinePlanner;
+import com.cfar.swim.worldwind.planners.Planner;
+import com.cfar.swim.worldwind.planning.Trajectory;
+import com.cfar.swim.worldwind.registries.Specification;
+import com.cfar.swim.worldwind.registries.planners.PlannerFactory;
+import com.cfar.swim.worldwind.session.Scenario;
+import com.cfar.swim.worldwind.session.Session;
+
+import gov.nasa.worldwind.geom.Position;
+
+/**
+ * Realizes a planner benchmark which plans saved scenarios with planners
+ * created according to the planner specifications of a session. Each
+ * benchmark is parameterized by a scenario file and a planner specification
+ * identifier. Every invocation plans a freshly loaded scenario with a fresh
+ * planner such that no planner or environment state is carried over between
+ * invocations. The planning time is the primary result, the allocation rate
+ * is reported by the garbage collection profiler, and the numbers of feasible
+ * and infeasible plans as well as the total trajectory cost of the feasible
+ * plans are reported as auxiliary counters.
+ * 
+ * <p>
+ * The benchmarks are built by the <code>benchmark</code> profile and run
+ * either through the main method of this class, which discovers all offline
+ * planner specifications and the scenario files of a directory, or through
+ * the JMH runner specifying the parameters explicitly:
+ * </p>
+ * 
+ * <pre>
+ * mvn -P benchmark package
+ * java -cp target/benchmarks.jar com.cfar.swim.worldwind.ui.benchmarks.PlannerBenchmark scenarios/
+ * java -jar target/benchmarks.jar -p scenario=a.xml -p planner=ARA* -prof gc
+ * </pre>
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlannerBenchmark {
+	
+	/** the session identifier of the planner benchmark */
+	public static final String SESSION_ID = "Planner Benchmark";
+	
+	/** the scenario file of this planner benchmark */
+	@Param({""})
+	public String scenario;
+	
+	/** the planner specification identifier of this planner benchmark */
+	@Param({""})
+	public String planner;
+	
+	/** the planner specification of this planner benchmark */
+	private Specification<Planner> plannerSpec;
+	
+	/** the planner of the current invocation of this planner benchmark */
+	private Planner invocationPlanner;
+	
+	/** the estimated time of departure of the current invocation of this planner benchmark */
+	private ZonedDateTime etd;
+	
+	/** the origin of this planner benchmark */
+	private Position origin;
+	
+	/** the destination of this planner benchmark */
+	private Position destination;
+	
+	/** the intermediate waypoints of this planner benchmark */
+	private List<Position> waypoints;
+	
+	/**
+	 * Looks up the planner specification of this planner benchmark.
+	 */
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		Session session = new Session(PlannerBenchmark.SESSION_ID);
+		for (Specification<Planner> plannerSpec : session.getPlannerSpecifications()) {
+			if (plannerSpec.getId().equals(this.planner)) {
+				this.plannerSpec = plannerSpec;
+			}
+		}
+		if (null == this.plannerSpec) {
+			throw new IllegalArgumentException("invalid planner " + this.planner);
+		}
+	}
+	
+	/**
+	 * Loads the scenario and creates the planner of the next invocation of
+	 * this planner benchmark such that each invocation plans a fresh
+	 * environment with a fresh planner.
+	 * 
+	 * @throws Exception if the scenario cannot be loaded
+	 */
+	@Setup(Level.Invocation)
+	public void setupInvocation() throws Exception {
+		Scenario scenario = new ScenarioUnmarshaller().unmarshalScenario(new File(this.scenario));
+		PlannerFactory factory = new PlannerFactory(scenario);
+		factory.setSpecification(this.plannerSpec);
+		this.invocationPlanner = factory.createInstance();
+		this.etd = scenario.getTime();
+		
+		this.waypoints = new ArrayList<Position>();
+		this.waypoints.addAll(scenario.getWaypoints());
+		if (2 > this.waypoints.size()) {
+			throw new IllegalArgumentException("insufficient waypoints in " + this.scenario);
+		}
+		this.origin = this.waypoints.remove(0);
+		this.destination = this.waypoints.remove(this.waypoints.size() - 1);
+	}
+	
+	/**
+	 * Realizes the plan counters of a planner benchmark which are reported
+	 * as auxiliary counters of the benchmark results. The average trajectory
+	 * cost is the total trajectory cost divided by the feasible plans.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class PlanCounters {
+		
+		/** the number of feasible plans of these plan counters */
+		public long feasiblePlans;
+		
+		/** the number of infeasible plans of these plan counters */
+		public long infeasiblePlans;
+		
+		/** the total trajectory cost of the feasible plans of these plan counters */
+		public double trajectoryCost;
+		
+		/**
+		 * Resets these plan counters before each iteration.
+		 */
+		@Setup(Level.Iteration)
+		public void reset() {
+			this.feasiblePlans = 0;
+			this.infeasiblePlans = 0;
+			this.trajectoryCost = 0d;
+		}
+	}
+	
+	/**
+	 * Plans the freshly loaded scenario of this planner benchmark with the
+	 * fresh planner of the current invocation.
+	 * 
+	 * @param counters the plan counters of the benchmark
+	 * 
+	 * @return the planned trajectory
+	 */
+	@Benchmark
+	public Trajectory plan(PlanCounters counters) {
+		Trajectory trajectory;
+		if (this.waypoints.isEmpty()) {
+			trajectory = this.invocationPlanner.plan(this.origin, this.destination, this.etd);
+		} else {
+			trajectory = this.invocationPlanner.plan(this.origin, this.destination, this.waypoints, this.etd);
+		}
+		
+		if ((null != trajectory) && !trajectory.isEmpty()) {
+			counters.feasiblePlans++;
+			counters.trajectoryCost += trajectory.getCost();
+		} else {
+			counters.infeasiblePlans++;
+		}
+		return trajectory;
+	}
+	
+	/**
+	 * Runs the planner benchmark for all scenario files of a directory (or
+	 * a single scenario file) and all offline planner specifications of the
+	 * session. Online planners requiring communications and lifelong
+	 * planners whose planning may never return are only benchmarked if
+	 * specified explicitly.
+	 * 
+	 * @param args the scenario directory or file followed by optional
+	 *             planner specification identifiers restricting the
+	 *             benchmarked planners
+	 * 
+	 * @throws RunnerException if the benchmark fails
+	 */
+	public static void main(String[] args) throws RunnerException {
+		if (0 == args.length) {
+			System.err.println("usage: PlannerBenchmark <scenario directory|file> [planner...]");
+			System.exit(1);
+		}
+		
+		List<String> scenarios = new ArrayList<>();
+		File location = new File(args[0]);
+		if (location.isDirectory()) {
+			File[] files = location.listFiles((dir, name) -> name.endsWith(".xml"));
+			for (File file : files) {
+				scenarios.add(file.getAbsolutePath());
+			}
+		} else {
+			scenarios.add(location.getAbsolutePath());
+		}
+		
+		List<String> planners = new ArrayList<>();
+		for (int index = 1; index < args.length; index++) {
+			planners.add(args[index]);
+		}
+		if (planners.isEmpty()) {
+			Session session = new Session(PlannerBenchmark.SESSION_ID);
+			for (Specification<Planner> plannerSpec : session.getPlannerSpecifications()) {
+				session.getPlannerFactory().setSpecification(plannerSpec);
+				Planner planner = session.getPlannerFactory().createInstance();
+				if (!(planner instanceof OnlinePlanner) && !(planner instanceof LifelongPlanner)) {
+					planners.add(plannerSpec.getId());
+				}
+			}
+		}
+		
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.include(PlannerBenchmark.class.getSimpleName())
+				.param("scenario", scenarios.toArray(new String[scenarios.size()]))
+				.param("planner", planners.toArray(new String[planners.size()]))
+				.addProfiler(GCProfiler.class);
+		new Runner(options.build()).run();
+	}
+	
+}
@@ -0,0 +1,471 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.cfar.swim.worldwind.data.SwimLoader;
+import com.cfar.swim.worldwind.data.SwimResource;
+import com.cfar.swim.worldwind.jaxb.ScenarioUnmarshaller;
+import com.cfar.swim.worldwind.planners.LifelongPlanner;
+import com.cfar.swim.worldwind.planners.Planner;
+import com.cfar.swim.worldwind.planning.Trajectory;
+import com.cfar.swim.worldwind.planning.Waypoint;
+import com.cfar.swim.worldwind.registries.Specification;
+import com.cfar.swim.worldwind.render.Obstacle;
+import com.cfar.swim.worldwind.session.Scenario;
+import com.cfar.swim.worldwind.session.Session;
+
+import gov.nasa.worldwind.geom.Position;
+
+/**
+ * Realizes a headless batch planner which plans all scenario files of a
+ * directory with a single planner specification across a thread pool.
+ * Optional SWIM files are loaded as obstacles into every scenario. Each
+ * feasible trajectory is written to a CSV file and the timing statistics
+ * of all scenarios are written to a statistics CSV file. The batch planner
+ * neither creates any JavaFX nor any OpenGL objects.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class BatchPlanner {
+	
+	/** the file name of the statistics file of a batch planner */
+	public static final String STATISTICS_FILE = "statistics.csv";
+	
+	/** the file suffix of the trajectory files of a batch planner */
+	public static final String TRAJECTORY_SUFFIX = ".trajectory.csv";
+	
+	/** the session identifier prefix of a batch planner */
+	private static final String SESSION_ID = "Batch Planner";
+	
+	/** the scenario directory of this batch planner */
+	private final File scenarioDirectory;
+	
+	/** the planner specification identifier of this batch planner */
+	private final String plannerId;
+	
+	/** the output directory of this batch planner */
+	private final File outputDirectory;
+	
+	/** the SWIM files of this batch planner */
+	private final List<File> swimFiles;
+	
+	/** the number of planning threads of this batch planner */
+	private int threads = Runtime.getRuntime().availableProcessors();
+	
+	/** the planning timeout of this batch planner, zero if none */
+	private Duration timeout = Duration.ZERO;
+	
+	/** the watchdog of this batch planner enforcing the planning timeout */
+	private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+	
+	/**
+	 * Constructs a new batch planner.
+	 * 
+	 * @param scenarioDirectory the directory of the scenario files
+	 * @param plannerId the planner specification identifier
+	 * @param outputDirectory the output directory
+	 * @param swimFiles the SWIM files to be loaded into every scenario
+	 */
+	public BatchPlanner(
+			File scenarioDirectory, String plannerId,
+			File outputDirectory, List<File> swimFiles) {
+		this.scenarioDirectory = scenarioDirectory;
+		this.plannerId = plannerId;
+		this.outputDirectory = outputDirectory;
+		this.swimFiles = new ArrayList<>(swimFiles);
+	}
+	
+	/**
+	 * Sets the number of planning threads of this batch planner.
+	 * 
+	 * @param threads the number of planning threads to be set
+	 * 
+	 * @throws IllegalArgumentException if the number of threads is not positive
+	 */
+	public void setThreads(int threads) {
+		if (0 >= threads) {
+			throw new IllegalArgumentException("invalid number of threads");
+		}
+		this.threads = threads;
+	}
+	
+	/**
+	 * Sets the planning timeout of this batch planner. Planners exceeding
+	 * the timeout are interrupted and terminated. Planners which do not
+	 * return within another timeout thereafter are abandoned and their
+	 * scenarios are recorded as timed out.
+	 * 
+	 * @param timeout the planning timeout to be set, zero if none
+	 */
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+	
+	/**
+	 * Plans all scenario files of the scenario directory of this batch
+	 * planner and writes the trajectories and statistics to the output
+	 * directory.
+	 * 
+	 * @return the batch results in scenario file name order
+	 * 
+	 * @throws IOException if the output cannot be written
+	 */
+	public List<BatchResult> run() throws IOException {
+		File[] files = this.scenarioDirectory.listFiles((dir, name) -> name.endsWith(".xml"));
+		if (null == files) {
+			throw new IOException("invalid scenario directory " + this.scenarioDirectory);
+		}
+		Arrays.sort(files);
+		this.outputDirectory.mkdirs();
+		
+		ThreadPoolExecutor pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(this.threads);
+		List<BatchJob> jobs = new ArrayList<>();
+		List<Future<BatchResult>> futures = new ArrayList<>();
+		for (File file : files) {
+			BatchJob job = new BatchJob(file);
+			jobs.add(job);
+			futures.add(pool.submit(job));
+		}
+		
+		List<BatchResult> results = new ArrayList<>();
+		try {
+			for (int index = 0; index < files.length; index++) {
+				try {
+					results.add(this.await(jobs.get(index), futures.get(index), pool));
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					results.add(new BatchResult(
+							files[index], BatchResult.Status.FAILED,
+							Duration.ZERO, Duration.ZERO,
+							Double.POSITIVE_INFINITY, 0, null));
+				}
+			}
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+			Thread.currentThread().interrupt();
+		} finally {
+			pool.shutdownNow();
+			this.watchdog.shutdownNow();
+		}
+		
+		File statisticsFile = new File(this.outputDirectory, BatchPlanner.STATISTICS_FILE);
+		try (PrintWriter writer = new PrintWriter(statisticsFile, StandardCharsets.UTF_8)) {
+			writer.println(BatchResult.getCsvHeader());
+			for (BatchResult result : results) {
+				writer.println(result.toCsv());
+			}
+		}
+		
+		return Collections.unmodifiableList(results);
+	}
+	
+	/**
+	 * Awaits the batch result of a batch job. If a planning timeout is set,
+	 * a batch job whose planner has not returned within twice the planning
+	 * timeout, after the watchdog has already interrupted and terminated it,
+	 * is abandoned and recorded as timed out. The pool receives an additional
+	 * thread in place of the thread occupied by the abandoned planner.
+	 * 
+	 * @param job the batch job
+	 * @param future the future batch result of the batch job
+	 * @param pool the pool running the batch job
+	 * 
+	 * @return the batch result of the batch job
+	 * 
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws ExecutionException if the batch job has failed
+	 */
+	private BatchResult await(BatchJob job, Future<BatchResult> future, ThreadPoolExecutor pool)
+			throws InterruptedException, ExecutionException {
+		if (this.timeout.isZero()) {
+			return future.get();
+		}
+		
+		while (true) {
+			try {
+				return future.get(this.timeout.toNanos(), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				long planningStart = job.planningStart;
+				if ((0 != planningStart)
+						&& ((System.nanoTime() - planningStart) > (2 * this.timeout.toNanos()))) {
+					future.cancel(true);
+					synchronized (pool) {
+						pool.setMaximumPoolSize(pool.getMaximumPoolSize() + 1);
+						pool.setCorePoolSize(pool.getCorePoolSize() + 1);
+					}
+					return new BatchResult(
+							job.scenarioFile, BatchResult.Status.TIMEOUT,
+							job.loading, Duration.ofNanos(System.nanoTime() - planningStart),
+							Double.POSITIVE_INFINITY, 0, null);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Writes a trajectory to a CSV file.
+	 * 
+	 * @param trajectory the trajectory to be written
+	 * @param file the CSV file
+	 * 
+	 * @return the number of written waypoints
+	 * 
+	 * @throws IOException if the trajectory cannot be written
+	 */
+	private static int writeTrajectory(Trajectory trajectory, File file) throws IOException {
+		int waypoints = 0;
+		try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+			writer.println("latitude,longitude,altitude,eto,cost");
+			for (Waypoint waypoint : trajectory.getWaypoints()) {
+				writer.printf("%s,%s,%s,%s,%s%n",
+						waypoint.getLatitude().degrees,
+						waypoint.getLongitude().degrees,
+						waypoint.getAltitude(),
+						(null == waypoint.getEto()) ? "" : waypoint.getEto().toString(),
+						waypoint.getCost());
+				waypoints++;
+			}
+		}
+		return waypoints;
+	}
+	
+	/**
+	 * Realizes a batch job planning a single scenario file in its own
+	 * session.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class BatchJob implements Callable<BatchResult> {
+		
+		/** the scenario file of this batch job */
+		private final File scenarioFile;
+		
+		/** the loading duration of this batch job */
+		private volatile Duration loading = Duration.ZERO;
+		
+		/** the planning start time of this batch job in nanoseconds, zero if not started */
+		private volatile long planningStart = 0;
+		
+		/**
+		 * Constructs a new batch job for a scenario file.
+		 * 
+		 * @param scenarioFile the scenario file to be planned
+		 */
+		private BatchJob(File scenarioFile) {
+			this.scenarioFile = scenarioFile;
+		}
+		
+		/**
+		 * Loads and plans the scenario file of this batch job.
+		 * 
+		 * @return the batch result of this batch job
+		 * 
+		 * @throws Exception if the scenario cannot be loaded or planned
+		 * 
+		 * @see Callable#call()
+		 */
+		@Override
+		public BatchResult call() throws Exception {
+			long start = System.nanoTime();
+			Scenario scenario = new ScenarioUnmarshaller().unmarshalScenario(this.scenarioFile);
+			for (File swimFile : swimFiles) {
+				Set<Obstacle> obstacles = new SwimLoader().load(new SwimResource(swimFile.toURI()));
+				// apply the obstacles before planning
+				for (Obstacle obstacle : obstacles) {
+					scenario.addObstacle(obstacle);
+				}
+			}
+			
+			// isolate planner factories of concurrent jobs
+			Session session = new Session(BatchPlanner.SESSION_ID + " " + this.scenarioFile.getName());
+			session.addScenario(scenario);
+			session.setActiveScenario(scenario);
+			
+			Specification<Planner> plannerSpec = null;
+			for (Specification<Planner> spec : session.getPlannerSpecifications()) {
+				if (spec.getId().equals(plannerId)) {
+					plannerSpec = spec;
+				}
+			}
+			if (null == plannerSpec) {
+				throw new IllegalArgumentException("invalid planner " + plannerId);
+			}
+			session.getPlannerFactory().setSpecification(plannerSpec);
+			Planner planner = session.getPlannerFactory().createInstance();
+			Duration loading = Duration.ofNanos(System.nanoTime() - start);
+			this.loading = loading;
+			
+			List<Position> waypoints = new ArrayList<Position>();
+			waypoints.addAll(scenario.getWaypoints());
+			if (!planner.supports(planner.getAircraft()) ||
+				!planner.supports(planner.getEnvironment()) ||
+				!planner.supports(waypoints) ||
+				(2 > waypoints.size())) {
+				return new BatchResult(
+						this.scenarioFile, BatchResult.Status.UNSUPPORTED,
+						loading, Duration.ZERO, Double.POSITIVE_INFINITY, 0, null);
+			}
+			Position origin = waypoints.remove(0);
+			Position destination = waypoints.remove(waypoints.size() - 1);
+			
+			AtomicBoolean settled = new AtomicBoolean(false);
+			AtomicBoolean timedOut = new AtomicBoolean(false);
+			ScheduledFuture<?> timer = null;
+			if (!timeout.isZero()) {
+				Thread thread = Thread.currentThread();
+				timer = watchdog.schedule(new Runnable() {
+					@Override
+					public void run() {
+						synchronized (settled) {
+							if (settled.compareAndSet(false, true)) {
+								timedOut.set(true);
+								if (planner instanceof LifelongPlanner) {
+									((LifelongPlanner) planner).terminate();
+								}
+								thread.interrupt();
+							}
+						}
+					}
+				}, timeout.toNanos(), TimeUnit.NANOSECONDS);
+			}
+			
+			start = System.nanoTime();
+			this.planningStart = start;
+			Trajectory trajectory;
+			try {
+				if (waypoints.isEmpty()) {
+					trajectory = planner.plan(origin, destination, scenario.getTime());
+				} else {
+					trajectory = planner.plan(origin, destination, waypoints, scenario.getTime());
+				}
+			} finally {
+				if (null != timer) {
+					timer.cancel(false);
+				}
+				synchronized (settled) {
+					settled.set(true);
+					// clear a pending interrupt of the watchdog
+					Thread.interrupted();
+				}
+			}
+			Duration planning = Duration.ofNanos(System.nanoTime() - start);
+			
+			if (timedOut.get()) {
+				return new BatchResult(
+						this.scenarioFile, BatchResult.Status.TIMEOUT,
+						loading, planning, Double.POSITIVE_INFINITY, 0, null);
+			} else if ((null == trajectory) || trajectory.isEmpty()) {
+				return new BatchResult(
+						this.scenarioFile, BatchResult.Status.INFEASIBLE,
+						loading, planning, Double.POSITIVE_INFINITY, 0, null);
+			}
+			
+			String name = this.scenarioFile.getName().replaceFirst("\\.xml$", "");
+			File trajectoryFile = new File(outputDirectory, name + BatchPlanner.TRAJECTORY_SUFFIX);
+			int size = BatchPlanner.writeTrajectory(trajectory, trajectoryFile);
+			return new BatchResult(
+					this.scenarioFile, BatchResult.Status.FEASIBLE,
+					loading, planning, trajectory.getCost(), size, trajectoryFile);
+		}
+	}
+	
+	/**
+	 * Runs the batch planner.
+	 * 
+	 * <pre>
+	 * BatchPlanner &lt;scenario directory&gt; &lt;planner&gt; &lt;output directory&gt; [SWIM file...]
+	 * </pre>
+	 * 
+	 * The number of planning threads and the planning timeout in seconds
+	 * can be set by the <code>batch.threads</code> and
+	 * <code>batch.timeout</code> system properties.
+	 * 
+	 * @param args the batch planner arguments
+	 */
+	public static void main(String[] args) {
+		if (3 > args.length) {
+			System.err.println("usage: BatchPlanner <scenario directory> <planner> <output directory> [SWIM file...]");
+			System.exit(1);
+		}
+		
+		// never initialize any display
+		System.setProperty("java.awt.headless", "true");
+		
+		List<File> swimFiles = new ArrayList<>();
+		for (int index = 3; index < args.length; index++) {
+			swimFiles.add(new File(args[index]));
+		}
+		
+		BatchPlanner batchPlanner = new BatchPlanner(
+				new File(args[0]), args[1], new File(args[2]), swimFiles);
+		if (null != System.getProperty("batch.threads")) {
+			batchPlanner.setThreads(Integer.parseInt(System.getProperty("batch.threads")));
+		}
+		if (null != System.getProperty("batch.timeout")) {
+			batchPlanner.setTimeout(Duration.ofSeconds(Long.parseLong(System.getProperty("batch.timeout"))));
+		}
+		
+		try {
+			List<BatchResult> results = batchPlanner.run();
+			long feasible = results.stream()
+					.filter(result -> BatchResult.Status.FEASIBLE == result.getStatus())
+					.count();
+			System.out.printf("planned %d scenarios, %d feasible%n", results.size(), feasible);
+			System.exit(0);
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+	
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.batch;
+
+import java.io.File;
+import java.time.Duration;
+
+/**
+ * Realizes the result of planning a single scenario in a batch.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class BatchResult {
+	
+	/**
+	 * Enumerates the possible states of a batch result.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	public enum Status {
+		FEASIBLE,
+		INFEASIBLE,
+		UNSUPPORTED,
+		TIMEOUT,
+		FAILED
+	}
+	
+	/** the scenario file of this batch result */
+	private final File scenarioFile;
+	
+	/** the status of this batch result */
+	private final Status status;
+	
+	/** the loading duration of this batch result */
+	private final Duration loading;
+	
+	/** the planning duration of this batch result */
+	private final Duration planning;
+	
+	/** the trajectory cost of this batch result */
+	private final double cost;
+	
+	/** the number of trajectory waypoints of this batch result */
+	private final int waypoints;
+	
+	/** the trajectory file of this batch result */
+	private final File trajectoryFile;
+	
+	/**
+	 * Constructs a new batch result.
+	 * 
+	 * @param scenarioFile the scenario file
+	 * @param status the status
+	 * @param loading the loading duration
+	 * @param planning the planning duration
+	 * @param cost the trajectory cost
+	 * @param waypoints the number of trajectory waypoints
+	 * @param trajectoryFile the trajectory file, null if none
+	 */
+	public BatchResult(
+			File scenarioFile, Status status,
+			Duration loading, Duration planning,
+			double cost, int waypoints, File trajectoryFile) {
+		this.scenarioFile = scenarioFile;
+		this.status = status;
+		this.loading = loading;
+		this.planning = planning;
+		this.cost = cost;
+		this.waypoints = waypoints;
+		this.trajectoryFile = trajectoryFile;
+	}
+	
+	/**
+	 * Gets the scenario file of this batch result.
+	 * 
+	 * @return the scenario file of this batch result
+	 */
+	public File getScenarioFile() {
+		return this.scenarioFile;
+	}
+	
+	/**
+	 * Gets the status of this batch result.
+	 * 
+	 * @return the status of this batch result
+	 */
+	public Status getStatus() {
+		return this.status;
+	}
+	
+	/**
+	 * Gets the loading duration of this batch result.
+	 * 
+	 * @return the loading duration of this batch result
+	 */
+	public Duration getLoading() {
+		return this.loading;
+	}
+	
+	/**
+	 * Gets the planning duration of this batch result.
+	 * 
+	 * @return the planning duration of this batch result
+	 */
+	public Duration getPlanning() {
+		return this.planning;
+	}
+	
+	/**
+	 * Gets the trajectory cost of this batch result.
+	 * 
+	 * @return the trajectory cost of this batch result,
+	 *         positive infinity if there is no feasible trajectory
+	 */
+	public double getCost() {
+		return this.cost;
+	}
+	
+	/**
+	 * Gets the number of trajectory waypoints of this batch result.
+	 * 
+	 * @return the number of trajectory waypoints of this batch result
+	 */
+	public int getWaypoints() {
+		return this.waypoints;
+	}
+	
+	/**
+	 * Gets the trajectory file of this batch result.
+	 * 
+	 * @return the trajectory file of this batch result, null if none
+	 */
+	public File getTrajectoryFile() {
+		return this.trajectoryFile;
+	}
+	
+	/**
+	 * Gets the CSV header of batch results.
+	 * 
+	 * @return the CSV header of batch results
+	 */
+	public static String getCsvHeader() {
+		return "scenario,status,loading_ms,planning_ms,cost,waypoints,trajectory";
+	}
+	
+	/**
+	 * Gets the CSV record of this batch result.
+	 * 
+	 * @return the CSV record of this batch result
+	 */
+	public String toCsv() {
+		return String.format("%s,%s,%d,%d,%s,%d,%s",
+				this.scenarioFile.getName(), this.status,
+				this.loading.toMillis(), this.planning.toMillis(),
+				Double.isInfinite(this.cost) ? "" : Double.toString(this.cost),
+				this.waypoints,
+				(null == this.trajectoryFile) ? "" : this.trajectoryFile.getName());
+	}
+	
+}
@@ -29,14 +29,14 @@
  */
 package com.cfar.swim.worldwind.ui.environment;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.net.URL;
 import java.util.ResourceBundle;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.inject.Inject;
+
 import com.cfar.swim.worldwind.environments.Environment;
 import com.cfar.swim.worldwind.environments.HierarchicalEnvironment;
 import com.cfar.swim.worldwind.environments.MultiResolutionEnvironment;
@@ -44,6 +44,10 @@ import com.cfar.swim.worldwind.session.Scenario;
 import com.cfar.swim.worldwind.session.Session;
 import com.cfar.swim.worldwind.session.SessionManager;
 import com.cfar.swim.worldwind.ui.WorldwindPlanner;
+import com.cfar.swim.worldwind.ui.world.WorldEvent;
+import com.cfar.swim.worldwind.ui.world.WorldEventListener;
+import com.cfar.swim.worldwind.ui.world.WorldEventType;
+import com.cfar.swim.worldwind.ui.world.WorldService;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -74,8 +78,9 @@ public class EnvironmentPresenter implements Initializable {
 	/** the active planning scenario (model) of this environment presenter */
 	private Scenario scenario = null;
 	
-	/** the environment change listener of this environment presenter */
-	private final EnvironmentChangeListener ecl = new EnvironmentChangeListener();
+	/** the world service of this environment presenter */
+	@Inject
+	private WorldService worldService;
 	
 	/** the sequential executor of this environment presenter */
 	private final Executor executor = Executors.newSingleThreadExecutor();
@@ -91,23 +96,17 @@ public class EnvironmentPresenter implements Initializable {
 	@Override
 	public void initialize(URL location, ResourceBundle resources) {
 		this.environment.setCellFactory(TextFieldTreeCell.forTreeView(new EnvironmentConverter()));
-		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-		session.addActiveScenarioChangeListener(new ActiveScenarioChangeListener());
+		this.worldService.subscribe(new WorldChangeListener(),
+				WorldEventType.ACTIVE_SCENARIO, WorldEventType.ENVIRONMENT);
 		initScenario();
 		initEnvironment();
 	}
 	
 	/**
-	 * Initializes the active scenario of this environment presenter
-	 * registering an environment change listener.
+	 * Initializes the active scenario of this environment presenter.
 	 */
 	public void initScenario() {
-		// remove change listeners from the previous scenario if any
-		if (null != this.scenario) {
-			this.scenario.removePropertyChangeListener(this.ecl);
-		}
-		this.scenario = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE).getActiveScenario();
-		this.scenario.addEnvironmentChangeListener(this.ecl);
+		this.scenario = this.worldService.getActiveScenario();
 	}
 	
 	/**
@@ -229,53 +228,35 @@ public class EnvironmentPresenter implements Initializable {
 	}
 	
 	/**
-	 * Realizes an active scenario change listener.
+	 * Realizes a world change listener.
 	 * 
 	 * @author Stephan Heinemann
 	 *
 	 */
-	private class ActiveScenarioChangeListener implements PropertyChangeListener {
-
-		/**
-		 * Initializes the scenario and environment if the active scenario changes.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initScenario();
-			requiresUpdate.set(true);
-			if (!isUpdating.getAndSet(true)) {
-				initEnvironment();
-			}
-		}
-	}
-	
-	/**
-	 * Realizes an environment change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class EnvironmentChangeListener implements PropertyChangeListener {
+	private class WorldChangeListener implements WorldEventListener {
 		
 		/**
-		 * Initializes the environment if the environment changes.
+		 * Initializes the scenario and environment if the active scenario
+		 * changes, and the environment if the environment changes.
 		 * 
-		 * @param evt the property change event
+		 * @param event the world event
 		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 * @see WorldEventListener#worldChanged(WorldEvent)
 		 */
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			// restrict updates to avoid structural changes (edge creation) in
-			// a planning continuum to cause invoke-later overflow and rapid
-			// heap increase potentially leading to an out-of-memory error
-			requiresUpdate.set(true);
-			if (!isUpdating.getAndSet(true)) {
-				initEnvironment();
+		public void worldChanged(WorldEvent event) {
+			switch (event.getType()) {
+			case ACTIVE_SCENARIO:
+				initScenario();
+			case ENVIRONMENT:
+				// restrict updates to avoid structural changes (edge creation) in
+				// a planning continuum to cause invoke-later overflow and rapid
+				// heap increase potentially leading to an out-of-memory error
+				requiresUpdate.set(true);
+				if (!isUpdating.getAndSet(true)) {
+					initEnvironment();
+				}
+				break;
 			}
 		}
 	}
@@ -29,8 +29,6 @@
  */
 package com.cfar.swim.worldwind.ui.plan;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.net.URL;
 import java.util.Collections;
 import java.util.Comparator;
@@ -47,16 +45,17 @@ import javax.inject.Inject;
 import com.cfar.swim.worldwind.planning.Waypoint;
 import com.cfar.swim.worldwind.render.annotations.DepictionAnnotation;
 import com.cfar.swim.worldwind.session.Scenario;
-import com.cfar.swim.worldwind.session.Session;
-import com.cfar.swim.worldwind.session.SessionManager;
-import com.cfar.swim.worldwind.ui.WorldwindPlanner;
 import com.cfar.swim.worldwind.ui.plan.waypoint.WaypointDialog;
+import com.cfar.swim.worldwind.ui.util.SymbolCache;
+import com.cfar.swim.worldwind.ui.world.WorldEvent;
+import com.cfar.swim.worldwind.ui.world.WorldEventListener;
+import com.cfar.swim.worldwind.ui.world.WorldEventType;
+import com.cfar.swim.worldwind.ui.world.WorldService;
 import com.cfar.swim.worldwind.util.Depiction;
 
 import gov.nasa.worldwind.geom.Angle;
 import gov.nasa.worldwind.geom.LatLon;
 import gov.nasa.worldwind.geom.Position;
-import gov.nasa.worldwind.symbology.milstd2525.MilStd2525GraphicFactory;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyDoubleWrapper;
 import javafx.beans.property.ReadOnlyStringWrapper;
@@ -121,14 +120,9 @@ public class PlanPresenter implements Initializable {
 	/** the active planning scenario (model) of this plan presenter */
 	private Scenario scenario = null;
 	
-	/** the waypoints change listener of this plan presenter */
-	private final WaypointsChangeListener wcl = new WaypointsChangeListener();
-	
-	/** the trajectory change listener of this plan presenter */
-	private final TrajectoryChangeListener tcl = new TrajectoryChangeListener();
-	
-	/** the military symbol factory of this plan presenter */
-	private final MilStd2525GraphicFactory symbolFactory = new MilStd2525GraphicFactory();
+	/** the world service of this plan presenter */
+	@Inject
+	private WorldService worldService;
 	
 	/** the executor of this plan presenter */
 	private final ExecutorService executor = Executors.newSingleThreadExecutor();
@@ -165,25 +159,17 @@ public class PlanPresenter implements Initializable {
 		this.estimatedTimeOverColumn.setCellValueFactory(new EtoCellValueFactory());
 		this.actualTimeOverColumn.setCellValueFactory(new AtoCellValueFactory());
 		
-		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-		session.addActiveScenarioChangeListener(new ActiveScenarioChangeListener());
+		this.worldService.subscribe(new WorldChangeListener(), WorldEventType.ACTIVE_SCENARIO,
+				WorldEventType.WAYPOINTS, WorldEventType.TRAJECTORY);
 		this.initScenario();
 		this.initPlan();
 	}
 	
 	/**
-	 * Initializes the active scenario of this plan presenter registering
-	 * change listeners.
+	 * Initializes the active scenario of this plan presenter.
 	 */
 	public void initScenario() {
-		// remove change listeners from the previous scenario if any
-		if (null != this.scenario) {
-			this.scenario.removePropertyChangeListener(this.wcl);
-			this.scenario.removePropertyChangeListener(this.tcl);
-		}
-		this.scenario = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE).getActiveScenario();
-		this.scenario.addWaypointsChangeListener(this.wcl);
-		this.scenario.addTrajectoryChangeListener(this.tcl);
+		this.scenario = this.worldService.getActiveScenario();
 	}
 	
 	/**
@@ -237,7 +223,7 @@ public class PlanPresenter implements Initializable {
 		Optional<Waypoint> optWaypoint = waypointDialog.showAndWait();
 		if (optWaypoint.isPresent()) {
 			Waypoint waypoint = optWaypoint.get();
-			waypoint.setDepiction(new Depiction(symbolFactory.createPoint(Waypoint.SIDC_NAV_WAYPOINT_POI, waypoint, null)));
+			waypoint.setDepiction(new Depiction(SymbolCache.getInstance().createPoint(Waypoint.SIDC_NAV_WAYPOINT_POI, waypoint, null)));
 			waypoint.getDepiction().setAnnotation(new DepictionAnnotation(this.waypointSymbol, "?", waypoint));
 			waypoint.getDepiction().setVisible(true);
 			
@@ -263,7 +249,7 @@ public class PlanPresenter implements Initializable {
 			Optional<Waypoint> optWaypoint = waypointDialog.showAndWait();
 			if (optWaypoint.isPresent()) {
 				Waypoint editedWaypoint = optWaypoint.get();
-				editedWaypoint.setDepiction(new Depiction(symbolFactory.createPoint(Waypoint.SIDC_NAV_WAYPOINT_POI, editedWaypoint, null)));
+				editedWaypoint.setDepiction(new Depiction(SymbolCache.getInstance().createPoint(Waypoint.SIDC_NAV_WAYPOINT_POI, editedWaypoint, null)));
 				editedWaypoint.getDepiction().setAnnotation(new DepictionAnnotation(this.waypointSymbol, editedWaypoint.getDesignator(), editedWaypoint));
 				editedWaypoint.getDepiction().setVisible(true);
 				boolean firstSelected = this.plan.getSelectionModel().isSelected(0);
@@ -328,66 +314,33 @@ public class PlanPresenter implements Initializable {
 	}
 	
 	/**
-	 * Realizes a waypoints change listener.
+	 * Realizes a world change listener.
 	 * 
 	 * @author Stephan Heinemann
 	 *
 	 */
-	private class WaypointsChangeListener implements PropertyChangeListener {
+	private class WorldChangeListener implements WorldEventListener {
 		
 		/**
-		 * Initializes the plan if the waypoints change.
+		 * Initializes the scenario and plan if the active scenario changes,
+		 * and the plan if the waypoints or trajectory change.
 		 * 
-		 * @param evt the property change event
+		 * @param event the world event
 		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 * @see WorldEventListener#worldChanged(WorldEvent)
 		 */
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initPlan();
-		}
-	}
-	
-	/**
-	 * Realizes a trajectory change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class TrajectoryChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the plan if the trajectory changes.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initPlan();
-		}
-	}
-	
-	/**
-	 * Realizes an active scenario change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class ActiveScenarioChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the scenario and plan if the active scenario changes.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initScenario();
-			initPlan();
+		public void worldChanged(WorldEvent event) {
+			switch (event.getType()) {
+			case ACTIVE_SCENARIO:
+				initScenario();
+				initPlan();
+				break;
+			case WAYPOINTS:
+			case TRAJECTORY:
+				initPlan();
+				break;
+			}
 		}
 	}
 	
@@ -29,19 +29,14 @@
  */
 package com.cfar.swim.worldwind.ui.plan.waypoint;
 
-import java.awt.image.BufferedImage;
-
 import com.cfar.swim.worldwind.planning.Waypoint;
 import com.cfar.swim.worldwind.ui.util.ResourceBundleLoader;
+import com.cfar.swim.worldwind.ui.util.SymbolCache;
 
-import gov.nasa.worldwind.Configuration;
-import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.geom.Angle;
 import gov.nasa.worldwind.geom.Position;
-import gov.nasa.worldwind.symbology.milstd2525.MilStd2525PointGraphicRetriever;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.TextField;
@@ -112,10 +107,7 @@ public class WaypointDialog extends Dialog<Waypoint> {
 		this.setTitle(title);
 		this.setHeaderText(header);
 		
-		String iconPath = Configuration.getStringValue(AVKey.MIL_STD_2525_ICON_RETRIEVER_PATH);
-		MilStd2525PointGraphicRetriever iconRetriever = new MilStd2525PointGraphicRetriever(iconPath);
-		BufferedImage icon = iconRetriever.createIcon(Waypoint.SIDC_NAV_WAYPOINT_POI, null);
-		ImageView imageView = new ImageView(SwingFXUtils.toFXImage(icon, null));
+		ImageView imageView = new ImageView(SymbolCache.getInstance().getImage(Waypoint.SIDC_NAV_WAYPOINT_POI, null));
 		imageView.setPreserveRatio(true);
 		imageView.setFitHeight(50d);
 		this.setGraphic(imageView);
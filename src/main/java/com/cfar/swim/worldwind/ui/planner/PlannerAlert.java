@@ -75,6 +75,21 @@ public class PlannerAlert extends Alert {
 			ResourceBundleLoader.getDictionaryBundle()
 			.getString("alert.invalid.planner.content");
 	
+	/** the title of a busy planner alert */
+	public static final String ALERT_TITLE_PLANNER_BUSY =
+			ResourceBundleLoader.getDictionaryBundle()
+			.getString("alert.busy.planner.title");
+	
+	/** the header of a busy planner alert */
+	public static final String ALERT_HEADER_PLANNER_BUSY =
+			ResourceBundleLoader.getDictionaryBundle()
+			.getString("alert.busy.planner.header");
+	
+	/** the content of a busy planner alert */
+	public static final String ALERT_CONTENT_PLANNER_BUSY =
+			ResourceBundleLoader.getDictionaryBundle()
+			.getString("alert.busy.planner.content");
+	
 	/** the title of an invalid SWIM setup alert */
 	public static final String ALERT_TITLE_SWIM_INVALID =
 			ResourceBundleLoader.getDictionaryBundle()
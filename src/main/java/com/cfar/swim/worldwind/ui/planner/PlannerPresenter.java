@@ -45,6 +45,8 @@ import com.cfar.swim.worldwind.ui.threshold.ThresholdView;
 import com.cfar.swim.worldwind.ui.time.TimeView;
 import com.cfar.swim.worldwind.ui.timer.TimerView;
 import com.cfar.swim.worldwind.ui.util.ResourceBundleLoader;
+import com.cfar.swim.worldwind.ui.world.LoadingProgress;
+import com.cfar.swim.worldwind.ui.world.PlanningProgress;
 import com.cfar.swim.worldwind.ui.world.WorldModel;
 import com.cfar.swim.worldwind.ui.world.WorldView;
 
@@ -53,8 +55,10 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Accordion;
 import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.AnchorPane;
 
 /**
@@ -90,6 +94,13 @@ public class PlannerPresenter implements Initializable {
 	@FXML
 	private ProgressIndicator progressIndicator;
 	
+	/** the race menu item of the planner view */
+	@FXML
+	private CheckMenuItem raceMenuItem;
+	
+	/** the planning progress tooltip of the progress bar */
+	private final Tooltip progressTooltip = new Tooltip();
+	
 	/** the world model of this planner presenter */
 	@Inject
 	private WorldModel worldModel;
@@ -155,6 +166,8 @@ public class PlannerPresenter implements Initializable {
 		
 		this.progressIndicator.setVisible(false);
 		this.worldModel.addWorldModeChangeListener(new ModeChangeListener());
+		this.worldModel.addPlanningProgressChangeListener(new PlanningProgressChangeListener());
+		this.worldModel.addLoadingProgressChangeListener(new LoadingProgressChangeListener());
 	}
 	
 	/**
@@ -165,6 +178,14 @@ public class PlannerPresenter implements Initializable {
 		System.exit(0);
 	}
 	
+	/**
+	 * Enables or disables the race planning mode of the planner application
+	 * according to the race menu item.
+	 */
+	public void race() {
+		this.worldModel.setRacing(this.raceMenuItem.isSelected());
+	}
+	
 	/**
 	 * Opens the about dialog of the planner application.
 	 */
@@ -222,4 +243,71 @@ public class PlannerPresenter implements Initializable {
 		}
 	}
 	
+	/**
+	 * Realizes a planning progress change listener.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class PlanningProgressChangeListener implements PropertyChangeListener {
+		
+		/**
+		 * Reports the planning progress at the progress bar while planning.
+		 * 
+		 * @param evt the property change event
+		 * 
+		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 */
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			PlanningProgress progress = (PlanningProgress) evt.getNewValue();
+			Platform.runLater(new Runnable() {
+				@Override
+				public void run() {
+					if ((null == progress) || progress.isDone()) {
+						progressBar.setTooltip(null);
+					} else {
+						progressTooltip.setText(progress.toString());
+						progressBar.setTooltip(progressTooltip);
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Realizes a loading progress change listener.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class LoadingProgressChangeListener implements PropertyChangeListener {
+		
+		/**
+		 * Reports the loading progress at the progress bar and indicator
+		 * while loading.
+		 * 
+		 * @param evt the property change event
+		 * 
+		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 */
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			LoadingProgress progress = (LoadingProgress) evt.getNewValue();
+			Platform.runLater(new Runnable() {
+				@Override
+				public void run() {
+					if ((null != progress) && worldModel.isLoading()) {
+						progressBar.setProgress(progress.getFraction());
+						progressIndicator.setProgress(progress.getFraction());
+						progressTooltip.setText(progress.toString());
+						progressBar.setTooltip(progressTooltip);
+					} else {
+						progressBar.setTooltip(null);
+					}
+				}
+			});
+		}
+	}
+	
 }
@@ -0,0 +1,444 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.scenario;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import com.cfar.swim.worldwind.jaxb.ScenarioUnmarshaller;
+import com.cfar.swim.worldwind.session.Scenario;
+
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * Realizes a content-addressed on-disk cache of parsed scenarios. Scenario
+ * files are keyed by the SHA-256 hash of their content and cached as
+ * uncompressed scenario snapshots. A modified scenario file hashes to a
+ * different key and thereby invalidates its cached snapshot automatically.
+ * The content hash of a scenario file is recorded in an index together with
+ * the path, size and modification time of the file such that the file is
+ * only hashed again if one of them changes. A cache hit therefore merely
+ * reads the pre-parsed snapshot. A parsed scenario is only cached if its
+ * snapshot restores an equivalent scenario such that a cache hit is
+ * indistinguishable from parsing the scenario file. The total size of the
+ * cache is capped and the least recently used snapshots are evicted first
+ * together with their index entries.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class ScenarioCache {
+	
+	/** the file suffix of cached scenario snapshots */
+	public static final String SNAPSHOT_SUFFIX = ".wws";
+	
+	/** the index file name of a scenario cache */
+	public static final String INDEX_FILE = "index.properties";
+	
+	/** the default size cap of a scenario cache in bytes */
+	public static final long DEFAULT_CAPACITY = 512L << 20;
+	
+	/** the directory of this scenario cache */
+	private final File directory;
+	
+	/** the size cap of this scenario cache in bytes */
+	private long capacity = ScenarioCache.DEFAULT_CAPACITY;
+	
+	/** the content hash index of this scenario cache */
+	private Properties index = null;
+	
+	/** the annotation symbol of restored scenario waypoints of this scenario cache */
+	private String waypointSymbol = null;
+	
+	/** the number of cache hits of this scenario cache */
+	private long hits = 0;
+	
+	/** the number of cache misses of this scenario cache */
+	private long misses = 0;
+	
+	/**
+	 * Constructs a new scenario cache in a directory.
+	 * 
+	 * @param directory the directory of the scenario cache
+	 */
+	public ScenarioCache(File directory) {
+		this.directory = directory;
+	}
+	
+	/**
+	 * Gets the directory of this scenario cache.
+	 * 
+	 * @return the directory of this scenario cache
+	 */
+	public File getDirectory() {
+		return this.directory;
+	}
+	
+	/**
+	 * Gets the size cap of this scenario cache.
+	 * 
+	 * @return the size cap of this scenario cache in bytes
+	 */
+	public synchronized long getCapacity() {
+		return this.capacity;
+	}
+	
+	/**
+	 * Sets the size cap of this scenario cache evicting the least recently
+	 * used snapshots exceeding the size cap.
+	 * 
+	 * @param capacity the size cap to be set in bytes
+	 * 
+	 * @throws IllegalArgumentException if the size cap is negative
+	 */
+	public synchronized void setCapacity(long capacity) {
+		if (0 > capacity) {
+			throw new IllegalArgumentException("invalid capacity");
+		}
+		this.capacity = capacity;
+		this.evict();
+	}
+	
+	/**
+	 * Gets the annotation symbol of restored scenario waypoints of this
+	 * scenario cache.
+	 * 
+	 * @return the annotation symbol of restored scenario waypoints,
+	 *         null if restored scenario waypoints are not annotated
+	 */
+	public synchronized String getWaypointSymbol() {
+		return this.waypointSymbol;
+	}
+	
+	/**
+	 * Sets the annotation symbol of restored scenario waypoints of this
+	 * scenario cache.
+	 * 
+	 * @param waypointSymbol the annotation symbol to be set, null if restored
+	 *                       scenario waypoints are not annotated
+	 */
+	public synchronized void setWaypointSymbol(String waypointSymbol) {
+		this.waypointSymbol = waypointSymbol;
+	}
+	
+	/**
+	 * Gets the number of cache hits of this scenario cache.
+	 * 
+	 * @return the number of cache hits of this scenario cache
+	 */
+	public synchronized long getHits() {
+		return this.hits;
+	}
+	
+	/**
+	 * Gets the number of cache misses of this scenario cache.
+	 * 
+	 * @return the number of cache misses of this scenario cache
+	 */
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+	
+	/**
+	 * Loads a scenario file using the cached snapshot of its content if
+	 * available. Otherwise, the scenario file is unmarshalled and a snapshot
+	 * of the parsed scenario is cached.
+	 * 
+	 * @param file the scenario file to be loaded
+	 * 
+	 * @return the loaded scenario
+	 * 
+	 * @throws Exception if the scenario file cannot be loaded
+	 */
+	public Scenario load(File file) throws Exception {
+		String key = this.key(file);
+		File snapshotFile = new File(this.directory, key + ScenarioCache.SNAPSHOT_SUFFIX);
+		
+		if (snapshotFile.isFile()) {
+			try {
+				ScenarioSnapshot snapshot = new ScenarioSnapshot();
+				snapshot.setWaypointSymbol(this.getWaypointSymbol());
+				Scenario scenario = snapshot.read(snapshotFile);
+				// record the access for the least recently used eviction
+				snapshotFile.setLastModified(System.currentTimeMillis());
+				synchronized (this) {
+					this.hits++;
+				}
+				return scenario;
+			} catch (Exception e) {
+				// discard corrupt or outdated snapshot
+				e.printStackTrace();
+				snapshotFile.delete();
+			}
+		}
+		
+		synchronized (this) {
+			this.misses++;
+		}
+		ScenarioUnmarshaller marshaller = new ScenarioUnmarshaller();
+		Scenario scenario = marshaller.unmarshalScenario(file);
+		if (null != scenario) {
+			this.store(scenario, snapshotFile);
+		}
+		return scenario;
+	}
+	
+	/**
+	 * Gets the cache key of a scenario file. The content hash is looked up
+	 * in the index of this scenario cache and only computed if the path,
+	 * size or modification time of the scenario file are not indexed.
+	 * 
+	 * @param file the scenario file
+	 * 
+	 * @return the cache key of the scenario file
+	 * 
+	 * @throws IOException if the scenario file cannot be hashed
+	 */
+	private String key(File file) throws IOException {
+		String path = file.getCanonicalPath();
+		String stamp = file.length() + ":" + file.lastModified() + ":";
+		
+		synchronized (this) {
+			String entry = this.getIndex().getProperty(path);
+			if ((null != entry) && entry.startsWith(stamp)) {
+				return entry.substring(stamp.length());
+			}
+		}
+		
+		String key = ScenarioCache.hash(file);
+		synchronized (this) {
+			this.getIndex().setProperty(path, stamp + key);
+			this.saveIndex();
+		}
+		return key;
+	}
+	
+	/**
+	 * Gets the content hash index of this scenario cache loading it if
+	 * required.
+	 * 
+	 * @return the content hash index of this scenario cache
+	 */
+	private Properties getIndex() {
+		if (null == this.index) {
+			this.index = new Properties();
+			File indexFile = new File(this.directory, ScenarioCache.INDEX_FILE);
+			if (indexFile.isFile()) {
+				try (InputStream in = new FileInputStream(indexFile)) {
+					this.index.load(in);
+				} catch (IOException e) {
+					// rebuild a corrupt index
+					e.printStackTrace();
+					this.index.clear();
+				}
+			}
+		}
+		return this.index;
+	}
+	
+	/**
+	 * Saves the content hash index of this scenario cache.
+	 */
+	private void saveIndex() {
+		try {
+			this.directory.mkdirs();
+			File tempFile = File.createTempFile("index", ".tmp", this.directory);
+			try {
+				try (OutputStream out = new FileOutputStream(tempFile)) {
+					this.getIndex().store(out, null);
+				}
+				Files.move(tempFile.toPath(), new File(this.directory, ScenarioCache.INDEX_FILE).toPath(),
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				tempFile.delete();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Stores a snapshot of a scenario in this scenario cache if the snapshot
+	 * restores an equivalent scenario.
+	 * 
+	 * @param scenario the scenario to be stored
+	 * @param snapshotFile the snapshot file of the scenario
+	 */
+	private void store(Scenario scenario, File snapshotFile) {
+		try {
+			ScenarioSnapshot snapshot = new ScenarioSnapshot();
+			snapshot.setCompressed(false);
+			ScenarioSnapshot.Capture capture = snapshot.capture(scenario);
+			byte[] encoded = snapshot.encode(capture);
+			
+			Scenario restored = snapshot.read(new ByteArrayInputStream(encoded));
+			if (!capture.isEquivalent(snapshot.capture(restored))) {
+				Logging.logger().warning(String.format(
+						"scenario %s cannot be cached without loss", scenario.getId()));
+				return;
+			}
+			
+			this.directory.mkdirs();
+			File tempFile = File.createTempFile("snapshot", ".tmp", this.directory);
+			try {
+				Files.write(tempFile.toPath(), encoded);
+				Files.move(tempFile.toPath(), snapshotFile.toPath(),
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				tempFile.delete();
+			}
+			synchronized (this) {
+				this.evict();
+			}
+		} catch (Exception e) {
+			// a scenario that cannot be captured is not cached
+			e.printStackTrace();
+			snapshotFile.delete();
+		}
+	}
+	
+	/**
+	 * Evicts the least recently used snapshots of this scenario cache until
+	 * its size cap is met and prunes the index entries of evicted snapshots
+	 * and deleted scenario files.
+	 */
+	private void evict() {
+		File[] snapshots = this.directory.listFiles(
+				(dir, name) -> name.endsWith(ScenarioCache.SNAPSHOT_SUFFIX));
+		if (null == snapshots) {
+			return;
+		}
+		
+		long size = 0;
+		for (File snapshot : snapshots) {
+			size += snapshot.length();
+		}
+		
+		Set<String> evicted = new HashSet<>();
+		Arrays.sort(snapshots, Comparator.comparingLong(File::lastModified));
+		for (int index = 0; (index < snapshots.length) && (size > this.capacity); index++) {
+			long length = snapshots[index].length();
+			if (snapshots[index].delete()) {
+				size -= length;
+				String name = snapshots[index].getName();
+				evicted.add(name.substring(0, name.length() - ScenarioCache.SNAPSHOT_SUFFIX.length()));
+			}
+		}
+		this.prune(evicted);
+	}
+	
+	/**
+	 * Prunes the index entries of evicted snapshots and deleted scenario
+	 * files from the index of this scenario cache.
+	 * 
+	 * @param evicted the cache keys of the evicted snapshots
+	 */
+	private void prune(Set<String> evicted) {
+		boolean isPruned = false;
+		Iterator<Map.Entry<Object, Object>> entries = this.getIndex().entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<Object, Object> entry = entries.next();
+			String path = (String) entry.getKey();
+			String stamp = (String) entry.getValue();
+			String key = stamp.substring(stamp.lastIndexOf(':') + 1);
+			if (evicted.contains(key) || !new File(path).isFile()) {
+				entries.remove();
+				isPruned = true;
+			}
+		}
+		if (isPruned) {
+			this.saveIndex();
+		}
+	}
+	
+	/**
+	 * Removes all snapshots from this scenario cache.
+	 */
+	public synchronized void clear() {
+		File[] snapshots = this.directory.listFiles(
+				(dir, name) -> name.endsWith(ScenarioCache.SNAPSHOT_SUFFIX));
+		if (null != snapshots) {
+			for (File snapshot : snapshots) {
+				snapshot.delete();
+			}
+		}
+		this.getIndex().clear();
+		new File(this.directory, ScenarioCache.INDEX_FILE).delete();
+	}
+	
+	/**
+	 * Computes the SHA-256 content hash of a file.
+	 * 
+	 * @param file the file to be hashed
+	 * 
+	 * @return the hexadecimal SHA-256 content hash of the file
+	 * 
+	 * @throws IOException if the file cannot be read
+	 */
+	public static String hash(File file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		
+		try (InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+			byte[] buffer = new byte[1 << 16];
+			while (-1 != in.read(buffer)) {
+				// digest the entire content
+			}
+		}
+		
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+	
+}
@@ -0,0 +1,578 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.scenario;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import com.cfar.swim.worldwind.planning.Waypoint;
+import com.cfar.swim.worldwind.session.Scenario;
+import com.cfar.swim.worldwind.ui.world.WorldEvent;
+import com.cfar.swim.worldwind.ui.world.WorldEventListener;
+import com.cfar.swim.worldwind.ui.world.WorldEventType;
+import com.cfar.swim.worldwind.ui.world.WorldModel;
+import com.cfar.swim.worldwind.ui.world.WorldService;
+
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * Realizes a crash-safe autosave journal of the active scenario. The
+ * journal consists of a full scenario snapshot and an append-only file of
+ * mutation records written on a dedicated background thread. Each record
+ * captures the complete state of the mutated scenario property and is
+ * protected by a checksum such that a torn record at the end of the
+ * journal is detected and ignored. Records and snapshots are forced to the
+ * storage device before they are considered written. The journal is
+ * compacted into a new snapshot periodically and whenever obstacles change
+ * since obstacles are only covered by snapshots. Scenario properties and
+ * snapshots are captured while holding the lock of the scenario such that a
+ * concurrent mutation cannot tear them, while snapshots are compressed and
+ * written after releasing the lock. A snapshot that cannot be encoded
+ * removes the stale snapshot and journal files such that no outdated
+ * scenario is recovered, and is reported as autosave failure of the world
+ * model until a later compaction succeeds. A clean shutdown removes the
+ * journal while a remaining journal is replayed on the next startup.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class ScenarioJournal implements WorldEventListener {
+	
+	/** the magic number of a scenario journal */
+	public static final int MAGIC = 0x53574A4E;
+	
+	/** the current schema version of a scenario journal */
+	public static final short VERSION = 3;
+	
+	/** the snapshot file name of a scenario journal */
+	public static final String SNAPSHOT_FILE = "autosave.wws";
+	
+	/** the journal file name of a scenario journal */
+	public static final String JOURNAL_FILE = "autosave.journal";
+	
+	/** the default compaction period of a scenario journal in seconds */
+	public static final long DEFAULT_COMPACTION_PERIOD = 60;
+	
+	/** the delay of a compaction after an obstacle change in seconds */
+	private static final long OBSTACLE_COMPACTION_DELAY = 2;
+	
+	/** the record type of a time mutation */
+	private static final byte RECORD_TIME = 1;
+	
+	/** the record type of a threshold mutation */
+	private static final byte RECORD_THRESHOLD = 2;
+	
+	/** the record type of a waypoints mutation */
+	private static final byte RECORD_WAYPOINTS = 3;
+	
+	/** the record type of a trajectory mutation */
+	private static final byte RECORD_TRAJECTORY = 4;
+	
+	/** the record type of an obstacles mutation */
+	private static final byte RECORD_OBSTACLES = 5;
+	
+	/** the directory of this scenario journal */
+	private final File directory;
+	
+	/** the writer of this scenario journal */
+	private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+	
+	/** the encoder of this scenario journal */
+	private final ExecutorService encoder = Executors.newSingleThreadExecutor();
+	
+	/** the journaled scenario of this scenario journal */
+	private Scenario scenario = null;
+	
+	/** the world model reporting autosave failures of this scenario journal */
+	private WorldModel worldModel = null;
+	
+	/** the journal output stream of this scenario journal */
+	private DataOutputStream journal = null;
+	
+	/** the journal file output stream of this scenario journal */
+	private FileOutputStream journalFile = null;
+	
+	/** the annotation symbol of replayed scenario waypoints of this scenario journal */
+	private volatile String waypointSymbol = null;
+	
+	/** the number of records since the last compaction of this scenario journal */
+	private long records = 0;
+	
+	/** the scheduled obstacle compaction of this scenario journal */
+	private ScheduledFuture<?> obstacleCompaction = null;
+	
+	/** indicates whether or not this scenario journal has been closed */
+	private boolean isClosed = false;
+	
+	/**
+	 * Constructs a new scenario journal in a directory.
+	 * 
+	 * @param directory the directory of the scenario journal
+	 */
+	public ScenarioJournal(File directory) {
+		this.directory = directory;
+	}
+	
+	/**
+	 * Gets the annotation symbol of replayed scenario waypoints of this
+	 * scenario journal.
+	 * 
+	 * @return the annotation symbol of replayed scenario waypoints,
+	 *         null if replayed scenario waypoints are not annotated
+	 */
+	public String getWaypointSymbol() {
+		return this.waypointSymbol;
+	}
+	
+	/**
+	 * Sets the annotation symbol of replayed scenario waypoints of this
+	 * scenario journal.
+	 * 
+	 * @param waypointSymbol the annotation symbol to be set, null if
+	 *                       replayed scenario waypoints are not annotated
+	 */
+	public void setWaypointSymbol(String waypointSymbol) {
+		this.waypointSymbol = waypointSymbol;
+	}
+	
+	/**
+	 * Recovers the scenario of a previous scenario journal in the directory
+	 * of this scenario journal which has not been closed cleanly.
+	 * 
+	 * @return the recovered scenario, null if there is none
+	 */
+	public Scenario recover() {
+		File snapshotFile = new File(this.directory, ScenarioJournal.SNAPSHOT_FILE);
+		if (!snapshotFile.isFile()) {
+			return null;
+		}
+		
+		Scenario scenario = null;
+		try {
+			ScenarioSnapshot snapshot = new ScenarioSnapshot();
+			snapshot.setWaypointSymbol(this.waypointSymbol);
+			scenario = snapshot.read(snapshotFile);
+			int replayed = this.replay(scenario, new File(this.directory, ScenarioJournal.JOURNAL_FILE));
+			Logging.logger().info(String.format("recovered scenario %s replaying %d journal records",
+					scenario.getId(), replayed));
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return scenario;
+	}
+	
+	/**
+	 * Starts this scenario journal for the active scenario of a world
+	 * service. A shutdown hook closes this scenario journal cleanly.
+	 * 
+	 * @param worldService the world service publishing scenario mutations
+	 * @param worldModel the world model reporting autosave failures
+	 * @param compactionPeriod the compaction period in seconds
+	 */
+	public void start(WorldService worldService, WorldModel worldModel, long compactionPeriod) {
+		this.writer.execute(new Runnable() {
+			@Override
+			public void run() {
+				ScenarioJournal.this.worldModel = worldModel;
+				bind(worldService.getActiveScenario());
+			}
+		});
+		worldService.subscribe(this,
+				WorldEventType.ACTIVE_SCENARIO, WorldEventType.TIME,
+				WorldEventType.THRESHOLD, WorldEventType.WAYPOINTS,
+				WorldEventType.TRAJECTORY, WorldEventType.OBSTACLES);
+		this.writer.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				// retry failed compactions which leave no journal behind
+				if ((0 < records) || (null == journal)) {
+					compact();
+				}
+			}
+		}, compactionPeriod, compactionPeriod, TimeUnit.SECONDS);
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+			@Override
+			public void run() {
+				close();
+			}
+		}, "scenario-journal-shutdown"));
+	}
+	
+	/**
+	 * Closes this scenario journal cleanly removing its snapshot and
+	 * journal files.
+	 */
+	public void close() {
+		this.encoder.shutdown();
+		try {
+			this.encoder.awaitTermination(5, TimeUnit.SECONDS);
+			this.writer.submit(new Runnable() {
+				@Override
+				public void run() {
+					closeJournal();
+					isClosed = true;
+					new File(directory, ScenarioJournal.JOURNAL_FILE).delete();
+					new File(directory, ScenarioJournal.SNAPSHOT_FILE).delete();
+				}
+			}).get(5, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		this.writer.shutdownNow();
+	}
+	
+	/**
+	 * Journals a scenario mutation. The mutated property is encoded on the
+	 * encoder thread and appended on the writer thread of this scenario
+	 * journal.
+	 * 
+	 * @param event the world event of the scenario mutation
+	 * 
+	 * @see WorldEventListener#worldChanged(WorldEvent)
+	 */
+	@Override
+	public void worldChanged(WorldEvent event) {
+		if (this.encoder.isShutdown()) {
+			return;
+		}
+		this.encoder.execute(new Runnable() {
+			@Override
+			public void run() {
+				Scenario scenario = event.getScenario();
+				try {
+					switch (event.getType()) {
+					case ACTIVE_SCENARIO:
+						writer.execute(new Runnable() {
+							@Override
+							public void run() {
+								bind(event.getScenario());
+							}
+						});
+						break;
+					case TIME:
+						append(scenario, ScenarioJournal.RECORD_TIME,
+								ScenarioJournal.encodeTime(scenario.getTime()));
+						break;
+					case THRESHOLD:
+						append(scenario, ScenarioJournal.RECORD_THRESHOLD,
+								ScenarioJournal.encodeThreshold(scenario.getThreshold()));
+						break;
+					case WAYPOINTS:
+						ByteArrayOutputStream waypoints = new ByteArrayOutputStream();
+						synchronized (scenario) {
+							ScenarioSnapshot.writeWaypoints(scenario.getWaypoints(),
+									new DataOutputStream(waypoints));
+						}
+						append(scenario, ScenarioJournal.RECORD_WAYPOINTS, waypoints.toByteArray());
+						break;
+					case TRAJECTORY:
+						ByteArrayOutputStream trajectory = new ByteArrayOutputStream();
+						synchronized (scenario) {
+							ScenarioSnapshot.writeTrajectory(scenario.getTrajectory(),
+									new DataOutputStream(trajectory));
+						}
+						append(scenario, ScenarioJournal.RECORD_TRAJECTORY, trajectory.toByteArray());
+						break;
+					case OBSTACLES:
+						append(scenario, ScenarioJournal.RECORD_OBSTACLES, new byte[0]);
+						break;
+					}
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Binds this scenario journal to a scenario writing a full snapshot and
+	 * starting a new journal. Must be executed on the writer thread.
+	 * 
+	 * @param scenario the scenario to be journaled
+	 */
+	private void bind(Scenario scenario) {
+		if (this.isClosed) {
+			return;
+		}
+		this.scenario = scenario;
+		this.compact();
+	}
+	
+	/**
+	 * Appends a record to the journal of this scenario journal on the writer
+	 * thread unless the record belongs to another scenario.
+	 * 
+	 * @param scenario the mutated scenario
+	 * @param type the record type
+	 * @param payload the record payload
+	 */
+	private void append(Scenario scenario, byte type, byte[] payload) {
+		long timestamp = System.currentTimeMillis();
+		this.writer.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (isClosed || (scenario != ScenarioJournal.this.scenario) || (null == journal)) {
+					return;
+				}
+				
+				try {
+					CRC32 crc = new CRC32();
+					crc.update(type);
+					crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, timestamp));
+					crc.update(payload);
+					
+					journal.writeInt(payload.length);
+					journal.writeByte(type);
+					journal.writeLong(timestamp);
+					journal.write(payload);
+					journal.writeInt((int) crc.getValue());
+					journal.flush();
+					journalFile.getChannel().force(false);
+					records++;
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+				
+				if ((ScenarioJournal.RECORD_OBSTACLES == type)
+						&& ((null == obstacleCompaction) || obstacleCompaction.isDone())) {
+					obstacleCompaction = writer.schedule(new Runnable() {
+						@Override
+						public void run() {
+							compact();
+						}
+					}, ScenarioJournal.OBSTACLE_COMPACTION_DELAY, TimeUnit.SECONDS);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Compacts this scenario journal into a full snapshot of the journaled
+	 * scenario and starts a new empty journal. The snapshot is replaced
+	 * atomically before the journal is truncated such that a crash in
+	 * between merely replays already contained mutations. The snapshot is
+	 * captured while holding the lock of the journaled scenario such that a
+	 * concurrent mutation cannot tear it, and compressed and written after
+	 * releasing the lock. If the snapshot cannot be encoded or written, the
+	 * stale snapshot and journal files are removed and the failure is
+	 * reported. Must be executed on the writer thread.
+	 */
+	private void compact() {
+		if (this.isClosed || (null == this.scenario)) {
+			return;
+		}
+		
+		try {
+			ScenarioSnapshot encoder = new ScenarioSnapshot();
+			ScenarioSnapshot.Capture capture = null;
+			synchronized (this.scenario) {
+				capture = encoder.capture(this.scenario);
+			}
+			byte[] snapshot = encoder.encode(capture);
+			
+			this.directory.mkdirs();
+			File tempFile = File.createTempFile("autosave", ".tmp", this.directory);
+			try {
+				try (FileOutputStream out = new FileOutputStream(tempFile)) {
+					out.write(snapshot);
+					out.getChannel().force(true);
+				}
+				Files.move(tempFile.toPath(),
+						new File(this.directory, ScenarioJournal.SNAPSHOT_FILE).toPath(),
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				tempFile.delete();
+			}
+			
+			this.closeJournal();
+			this.journalFile = new FileOutputStream(new File(this.directory, ScenarioJournal.JOURNAL_FILE));
+			this.journal = new DataOutputStream(this.journalFile);
+			this.journal.writeInt(ScenarioJournal.MAGIC);
+			this.journal.writeShort(ScenarioJournal.VERSION);
+			this.journal.flush();
+			this.journalFile.getChannel().force(true);
+			this.records = 0;
+			this.report(null);
+		} catch (Exception e) {
+			e.printStackTrace();
+			this.closeJournal();
+			new File(this.directory, ScenarioJournal.JOURNAL_FILE).delete();
+			new File(this.directory, ScenarioJournal.SNAPSHOT_FILE).delete();
+			this.report((null == e.getMessage()) ? e.getClass().getSimpleName() : e.getMessage());
+		}
+	}
+	
+	/**
+	 * Reports the autosave failure of this scenario journal at the world
+	 * model if it has changed. Must be executed on the writer thread.
+	 * 
+	 * @param failure the autosave failure, null if the journaled scenario
+	 *                is autosaved
+	 */
+	private void report(String failure) {
+		if ((null != this.worldModel)
+				&& !Objects.equals(failure, this.worldModel.getAutosaveFailure())) {
+			this.worldModel.setAutosaveFailure(failure);
+		}
+	}
+	
+	/**
+	 * Closes the journal output stream of this scenario journal.
+	 */
+	private void closeJournal() {
+		if (null != this.journal) {
+			try {
+				this.journal.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			this.journal = null;
+			this.journalFile = null;
+		}
+	}
+	
+	/**
+	 * Replays the valid records of a journal file on a scenario. Replaying
+	 * stops at the first torn or corrupt record.
+	 * 
+	 * @param scenario the scenario to be mutated
+	 * @param file the journal file
+	 * 
+	 * @return the number of replayed records
+	 * 
+	 * @throws IOException if the journal file cannot be read
+	 */
+	private int replay(Scenario scenario, File file) throws IOException {
+		if (!file.isFile()) {
+			return 0;
+		}
+		
+		int replayed = 0;
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file)))) {
+			if ((ScenarioJournal.MAGIC != in.readInt())
+					|| (ScenarioJournal.VERSION != in.readShort())) {
+				return 0;
+			}
+			
+			while (true) {
+				int length = in.readInt();
+				if ((0 > length) || (length > file.length())) {
+					break;
+				}
+				byte type = in.readByte();
+				long timestamp = in.readLong();
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+				int checksum = in.readInt();
+				
+				CRC32 crc = new CRC32();
+				crc.update(type);
+				crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, timestamp));
+				crc.update(payload);
+				if (checksum != (int) crc.getValue()) {
+					break;
+				}
+				
+				DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+				switch (type) {
+				case ScenarioJournal.RECORD_TIME:
+					scenario.setTime(ScenarioSnapshot.readTime(record));
+					break;
+				case ScenarioJournal.RECORD_THRESHOLD:
+					scenario.setThreshold(record.readDouble());
+					break;
+				case ScenarioJournal.RECORD_WAYPOINTS:
+					scenario.clearWaypoints();
+					for (Waypoint waypoint : ScenarioSnapshot.readWaypoints(record)) {
+						ScenarioSnapshot.depict(waypoint, this.waypointSymbol);
+						scenario.addWaypoint(waypoint);
+					}
+					break;
+				case ScenarioJournal.RECORD_TRAJECTORY:
+					scenario.setTrajectory(ScenarioSnapshot.readTrajectory(record));
+					break;
+				}
+				replayed++;
+			}
+		} catch (EOFException e) {
+			// torn record at the end of the journal
+		}
+		return replayed;
+	}
+	
+	/**
+	 * Encodes a time record payload.
+	 * 
+	 * @param time the time to be encoded
+	 * 
+	 * @return the encoded time record payload
+	 * 
+	 * @throws IOException if the time cannot be encoded
+	 */
+	private static byte[] encodeTime(ZonedDateTime time) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		ScenarioSnapshot.writeTime(time, out);
+		out.flush();
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * Encodes a threshold record payload.
+	 * 
+	 * @param threshold the threshold to be encoded
+	 * 
+	 * @return the encoded threshold record payload
+	 */
+	private static byte[] encodeThreshold(double threshold) {
+		return ByteBuffer.allocate(Double.BYTES).putDouble(threshold).array();
+	}
+	
+}
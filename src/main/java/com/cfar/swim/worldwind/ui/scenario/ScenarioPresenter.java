@@ -33,27 +33,41 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.net.URL;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 
 import com.cfar.swim.worldwind.jaxb.ScenarioMarshaller;
-import com.cfar.swim.worldwind.jaxb.ScenarioUnmarshaller;
 import com.cfar.swim.worldwind.session.Scenario;
 import com.cfar.swim.worldwind.session.Session;
 import com.cfar.swim.worldwind.session.SessionManager;
 import com.cfar.swim.worldwind.ui.WorldwindPlanner;
 import com.cfar.swim.worldwind.ui.util.ResourceBundleLoader;
+import com.cfar.swim.worldwind.ui.world.LoadingProgress;
 import com.cfar.swim.worldwind.ui.world.WorldModel;
+import com.cfar.swim.worldwind.ui.world.WorldService;
+
+import gov.nasa.worldwind.util.Logging;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.ListView;
+import javafx.scene.control.Tooltip;
 import javafx.scene.control.cell.TextFieldListCell;
 import javafx.scene.text.Font;
+import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
@@ -82,10 +96,24 @@ public class ScenarioPresenter implements Initializable {
 			ResourceBundleLoader.getDictionaryBundle()
 			.getString("scenario.dialog.file.description");
 	
+	/** the file chooser scenario snapshot file description */
+	public static final String FILE_CHOOSER_DESCRIPTION_SNAPSHOT =
+			ResourceBundleLoader.getDictionaryBundle()
+			.getString("scenario.dialog.file.snapshot.description");
+	
+	/** the autosave failure tooltip text of the active scenario */
+	public static final String AUTOSAVE_FAILURE =
+			ResourceBundleLoader.getDictionaryBundle()
+			.getString("scenario.autosave.failure");
+	
 	/** the file chooser scenario file extension */
 	@Inject
 	public static String scenarioFileExtension;
 	
+	/** the file chooser scenario snapshot file extension */
+	@Inject
+	public static String snapshotFileExtension;
+	
 	/** the list of scenarios of the scenario view */
 	@FXML
 	private ListView<Scenario> scenarios;
@@ -97,6 +125,47 @@ public class ScenarioPresenter implements Initializable {
 	/** the executor of this scenario presenter */
 	private final ExecutorService executor = Executors.newSingleThreadExecutor();
 	
+	/** the number of scenario parser threads of the scenario view */
+	@Inject
+	private String parserThreads;
+	
+	/** the scenario parser pool of this scenario presenter */
+	private ExecutorService parser;
+	
+	/** indicates whether or not scenario snapshots are compressed */
+	@Inject
+	private String snapshotCompression;
+	
+	/** the waypoint symbol of the scenario view */
+	@Inject
+	private String waypointSymbol;
+	
+	/** the parsed scenario cache directory of the scenario view */
+	@Inject
+	private String scenarioCacheDirectory;
+	
+	/** the parsed scenario cache size cap of the scenario view in megabytes */
+	@Inject
+	private String scenarioCacheCapacity;
+	
+	/** the parsed scenario cache of this scenario presenter */
+	private ScenarioCache scenarioCache;
+	
+	/** the world service of the scenario view */
+	@Inject
+	private WorldService worldService;
+	
+	/** the autosave directory of the scenario view */
+	@Inject
+	private String autosaveDirectory;
+	
+	/** the autosave compaction period of the scenario view in seconds */
+	@Inject
+	private String autosaveCompactionPeriod;
+	
+	/** the autosave journal of this scenario presenter */
+	private ScenarioJournal scenarioJournal;
+	
 	/**
 	 * Initializes this scenario presenter.
 	 * 
@@ -107,11 +176,36 @@ public class ScenarioPresenter implements Initializable {
 	 */
 	@Override
 	public void initialize(URL location, ResourceBundle resources) {
+		this.parser = Executors.newFixedThreadPool(Integer.parseInt(this.parserThreads));
+		File cacheDirectory = this.scenarioCacheDirectory.trim().isEmpty()
+				? new File(System.getProperty("user.home"), ".worldwind-ui/scenarios")
+				: new File(this.scenarioCacheDirectory.trim());
+		this.scenarioCache = new ScenarioCache(cacheDirectory);
+		this.scenarioCache.setCapacity(Long.parseLong(this.scenarioCacheCapacity) << 20);
+		this.scenarioCache.setWaypointSymbol(this.waypointSymbol);
 		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
 		session.addScenariosChangeListener(new ScenariosChangeListener());
 		session.addActiveScenarioChangeListener(new ActiveScenarioChangeListener());
+		this.worldModel.addAutosaveFailureChangeListener(new ActiveScenarioChangeListener());
 		this.scenarios.setCellFactory(listView -> new ScenarioListCell());
 		this.scenarios.getItems().add(session.getActiveScenario());
+		
+		File journalDirectory = this.autosaveDirectory.trim().isEmpty()
+				? new File(System.getProperty("user.home"), ".worldwind-ui/autosave")
+				: new File(this.autosaveDirectory.trim());
+		this.scenarioJournal = new ScenarioJournal(journalDirectory);
+		this.scenarioJournal.setWaypointSymbol(this.waypointSymbol);
+		this.executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				Scenario recovered = scenarioJournal.recover();
+				if (null != recovered) {
+					session.addScenario(recovered);
+					session.setActiveScenario(recovered);
+				}
+				scenarioJournal.start(worldService, worldModel, Long.parseLong(autosaveCompactionPeriod));
+			}
+		});
 	}
 	
 	/**
@@ -180,7 +274,9 @@ public class ScenarioPresenter implements Initializable {
 	}
 	
 	/**
-	 * Loads a scenario.
+	 * Loads one or more scenarios. The selected scenario files are parsed in
+	 * parallel and each scenario is added to the session as soon as it has
+	 * been parsed while the loading progress is reported to the world model.
 	 */
 	public void loadScenario() {
 		if (!this.scenarios.isEditable()) {
@@ -189,23 +285,18 @@ public class ScenarioPresenter implements Initializable {
 			fileChooser.getExtensionFilters().addAll(
 					new ExtensionFilter[] { new ExtensionFilter(
 							ScenarioPresenter.FILE_CHOOSER_DESCRIPTION_SCENARIO,
-							ScenarioPresenter.scenarioFileExtension)});
-			File file = fileChooser.showOpenDialog(null);
+							ScenarioPresenter.scenarioFileExtension),
+							new ExtensionFilter(
+							ScenarioPresenter.FILE_CHOOSER_DESCRIPTION_SNAPSHOT,
+							ScenarioPresenter.snapshotFileExtension)});
+			List<File> files = fileChooser.showOpenMultipleDialog(null);
 			
-			if (null != file) {
+			if ((null != files) && !files.isEmpty()) {
 				executor.execute(new Runnable() {
 					@Override
 					public void run() {
 						if (worldModel.load()) {
-							try {
-								ScenarioUnmarshaller marshaller = new ScenarioUnmarshaller();
-								Scenario scenario = marshaller.unmarshalScenario(file);
-								if ((null != scenario)) {
-									SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE).addScenario(scenario);
-								}
-							} catch (Exception e) {
-								e.printStackTrace();
-							}
+							loadScenarios(files);
 							worldModel.loaded();
 						}
 					}
@@ -214,6 +305,79 @@ public class ScenarioPresenter implements Initializable {
 		}
 	}
 	
+	/**
+	 * Loads scenario files in parallel on the parser pool of this scenario
+	 * presenter and adds each parsed scenario to the session in the order
+	 * of completion.
+	 * 
+	 * @param files the scenario files to be loaded
+	 */
+	private void loadScenarios(List<File> files) {
+		long start = System.nanoTime();
+		long bytes = 0;
+		for (File file : files) {
+			bytes += file.length();
+		}
+		
+		CompletionService<Scenario> completion = new ExecutorCompletionService<>(this.parser);
+		Map<Future<Scenario>, File> pending = new HashMap<>();
+		for (File file : files) {
+			pending.put(completion.submit(new Callable<Scenario>() {
+				@Override
+				public Scenario call() throws Exception {
+					long parseStart = System.nanoTime();
+					Scenario scenario = null;
+					if (ScenarioSnapshot.isSnapshot(file)) {
+						ScenarioSnapshot snapshot = new ScenarioSnapshot();
+						snapshot.setWaypointSymbol(waypointSymbol);
+						scenario = snapshot.read(file);
+					} else {
+						scenario = scenarioCache.load(file);
+					}
+					Logging.logger().info(String.format("parsed scenario %s (%d bytes) in %d ms",
+							file.getName(), file.length(),
+							(System.nanoTime() - parseStart) / 1000000L));
+					return scenario;
+				}
+			}), file);
+		}
+		
+		int completedFiles = 0;
+		int failedFiles = 0;
+		long completedBytes = 0;
+		this.worldModel.setLoadingProgress(new LoadingProgress(
+				files.size(), 0, 0, bytes, 0, Duration.ZERO));
+		
+		while (!pending.isEmpty()) {
+			try {
+				Future<Scenario> future = completion.take();
+				File file = pending.remove(future);
+				try {
+					Scenario scenario = future.get();
+					if ((null != scenario)) {
+						SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE).addScenario(scenario);
+					} else {
+						failedFiles++;
+					}
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					failedFiles++;
+				}
+				completedFiles++;
+				completedBytes += file.length();
+				this.worldModel.setLoadingProgress(new LoadingProgress(
+						files.size(), completedFiles, failedFiles, bytes, completedBytes,
+						Duration.ofNanos(System.nanoTime() - start)));
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+				for (Future<Scenario> future : pending.keySet()) {
+					future.cancel(true);
+				}
+				pending.clear();
+			}
+		}
+	}
+	
 	/**
 	 * Saves a scenario.
 	 */
@@ -223,11 +387,18 @@ public class ScenarioPresenter implements Initializable {
 			if (null != scenario) {
 				FileChooser fileChooser = new FileChooser();
 				fileChooser.setTitle(ScenarioPresenter.FILE_CHOOSER_TITLE_SCENARIO_SAVE);
+				ExtensionFilter snapshotFilter = new ExtensionFilter(
+						ScenarioPresenter.FILE_CHOOSER_DESCRIPTION_SNAPSHOT,
+						ScenarioPresenter.snapshotFileExtension);
 				fileChooser.getExtensionFilters().addAll(
 						new ExtensionFilter[] { new ExtensionFilter(
 								ScenarioPresenter.FILE_CHOOSER_DESCRIPTION_SCENARIO,
-								ScenarioPresenter.scenarioFileExtension)});
+								ScenarioPresenter.scenarioFileExtension),
+								snapshotFilter});
 				File file = fileChooser.showSaveDialog(null);
+				boolean isSnapshot = (snapshotFilter == fileChooser.getSelectedExtensionFilter())
+						|| ((null != file) && file.getName().endsWith(
+								ScenarioPresenter.snapshotFileExtension.replace("*", "")));
 				
 				if (null != file) {
 					executor.execute(new Runnable() {
@@ -235,8 +406,14 @@ public class ScenarioPresenter implements Initializable {
 						public void run() {
 							if (worldModel.save()) {
 								try {
-									ScenarioMarshaller marshaller = new ScenarioMarshaller();
-									marshaller.marshalScenario(scenario, file);
+									if (isSnapshot) {
+										ScenarioSnapshot snapshot = new ScenarioSnapshot();
+										snapshot.setCompressed(Boolean.parseBoolean(snapshotCompression));
+										snapshot.write(scenario, file);
+									} else {
+										ScenarioMarshaller marshaller = new ScenarioMarshaller();
+										marshaller.marshalScenario(scenario, file);
+									}
 								} catch (Exception e) {
 									e.printStackTrace();
 								}
@@ -311,7 +488,8 @@ public class ScenarioPresenter implements Initializable {
 		}
 		
 		/**
-		 * Updates a scenario list cell item and highlights the active scenario.
+		 * Updates a scenario list cell item and highlights the active scenario
+		 * indicating autosave failures of the active scenario.
 		 * 
 		 * @param scenario the scenario
 		 * @param empty indicates an empty update
@@ -330,6 +508,16 @@ public class ScenarioPresenter implements Initializable {
 				} else {
 					this.setFont(Font.font(family, FontWeight.NORMAL, size));
 				}
+				
+				String failure = worldModel.getAutosaveFailure();
+				if (scenario.isEnabled() && (null != failure)) {
+					this.setFont(Font.font(family, FontWeight.BOLD, FontPosture.ITALIC, size));
+					this.setTooltip(new Tooltip(ScenarioPresenter.AUTOSAVE_FAILURE + ": " + failure));
+				} else {
+					this.setTooltip(null);
+				}
+			} else {
+				this.setTooltip(null);
 			}
 		}
 		
@@ -413,7 +601,8 @@ public class ScenarioPresenter implements Initializable {
 	private class ActiveScenarioChangeListener implements PropertyChangeListener {
 		
 		/**
-		 * Updates the scenario view if the active scenario changes.
+		 * Updates the scenario view if the active scenario or its autosave
+		 * failure changes.
 		 * 
 		 * @param evt the property change event
 		 * 
@@ -0,0 +1,1438 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.scenario;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.chrono.ChronoZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.cfar.swim.worldwind.aircraft.Aircraft;
+import com.cfar.swim.worldwind.environments.Environment;
+import com.cfar.swim.worldwind.javafx.TrajectoryStylist;
+import com.cfar.swim.worldwind.jaxb.ScenarioMarshaller;
+import com.cfar.swim.worldwind.jaxb.ScenarioUnmarshaller;
+import com.cfar.swim.worldwind.planning.CostInterval;
+import com.cfar.swim.worldwind.planning.Trajectory;
+import com.cfar.swim.worldwind.planning.Waypoint;
+import com.cfar.swim.worldwind.registries.Properties;
+import com.cfar.swim.worldwind.registries.Specification;
+import com.cfar.swim.worldwind.registries.environments.EnvironmentFactory;
+import com.cfar.swim.worldwind.render.Obstacle;
+import com.cfar.swim.worldwind.render.ObstacleCylinder;
+import com.cfar.swim.worldwind.render.annotations.DepictionAnnotation;
+import com.cfar.swim.worldwind.session.Scenario;
+import com.cfar.swim.worldwind.session.Session;
+import com.cfar.swim.worldwind.session.SessionManager;
+import com.cfar.swim.worldwind.ui.WorldwindPlanner;
+import com.cfar.swim.worldwind.ui.util.SymbolCache;
+import com.cfar.swim.worldwind.util.Depiction;
+
+import gov.nasa.worldwind.geom.LatLon;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+
+/**
+ * Realizes a compact binary scenario snapshot format. A snapshot starts
+ * with an uncompressed header consisting of a magic number, a schema
+ * version and format flags followed by an optionally deflated body of
+ * sections. All sections are encoded directly from the scenario without
+ * any intermediate XML representation except for the obstacle fallback.
+ * Numeric values are packed into primitive arrays per dimension and written
+ * in bulk. Times are recorded with their nanoseconds and time zones.
+ * 
+ * The environment and aircraft are recorded by the identifier of the
+ * session specification they match together with the properties of that
+ * specification, and re-created from these properties. An environment or
+ * aircraft matching no session specification cannot be recorded and fails
+ * the snapshot. Obstacle cylinders are packed natively, while all other
+ * obstacles are recorded in an XML fallback section written by the scenario
+ * marshaller.
+ * 
+ * <pre>
+ * header      := MAGIC:int VERSION:short flags:byte
+ * body        := scenario environment aircraft waypoints cylinders
+ *                trajectory obstacles
+ * scenario    := id:utf time threshold:double
+ * time        := seconds:long nanos:int zone:utf
+ * environment := present:boolean [id:utf properties south:double
+ *                north:double west:double east:double]
+ * aircraft    := present:boolean [id:utf properties latitude:double
+ *                longitude:double altitude:double interval]
+ * interval    := present:boolean [id:utf lower:time upper:time cost:double]
+ * properties  := size:int (name:utf tag:byte value)[size]
+ * zones       := size:int zone:utf[size]
+ * waypoints   := size:int zones latitudes:double[size]
+ *                longitudes:double[size] altitudes:double[size]
+ *                etoSeconds:long[size] etoNanos:int[size] etoZones:int[size]
+ *                costs:double[size] designators:utf[size]
+ * cylinders   := size:int zones latitudes:double[size]
+ *                longitudes:double[size] bottoms:double[size]
+ *                tops:double[size] radii:double[size] costs:double[size]
+ *                lowerSeconds:long[size] upperSeconds:long[size]
+ *                lowerNanos:int[size] upperNanos:int[size]
+ *                lowerZones:int[size] upperZones:int[size] ids:utf[size]
+ * trajectory  := waypoints
+ * obstacles   := length:int xml:byte[length]
+ * </pre>
+ * 
+ * Array sections are read incrementally such that a corrupt size cannot
+ * allocate more memory than the remaining stream actually provides.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class ScenarioSnapshot {
+	
+	/** the magic number of a scenario snapshot */
+	public static final int MAGIC = 0x5357534E;
+	
+	/** the current schema version of a scenario snapshot */
+	public static final short VERSION = 3;
+	
+	/** the compression flag of a scenario snapshot */
+	public static final byte FLAG_COMPRESSED = 0x01;
+	
+	/** the zone index of an absent estimated time over a waypoint */
+	private static final int NO_ETO = -1;
+	
+	/** the encoding of an absent waypoint designator */
+	private static final String NO_DESIGNATOR = "";
+	
+	/** the buffer size of scenario snapshot streams */
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	/** the number of bytes per packed waypoint */
+	private static final int WAYPOINT_BYTES = 4 * Double.BYTES + Long.BYTES + 2 * Integer.BYTES;
+	
+	/** the number of bytes per packed obstacle cylinder */
+	private static final int CYLINDER_BYTES = 6 * Double.BYTES + 2 * Long.BYTES + 4 * Integer.BYTES;
+	
+	/** the canonical order of captured obstacle cylinders */
+	private static final Comparator<ObstacleCylinder> CYLINDER_ORDER =
+			Comparator.<ObstacleCylinder, String>comparing(cylinder -> cylinder.getCostInterval().getId())
+			.thenComparing(cylinder -> cylinder.getCostInterval().getLower().toInstant())
+			.thenComparing(cylinder -> cylinder.getCostInterval().getUpper().toInstant())
+			.thenComparingDouble(cylinder -> cylinder.getCostInterval().getCost())
+			.thenComparingDouble(cylinder -> cylinder.getCenter().getLatitude().degrees)
+			.thenComparingDouble(cylinder -> cylinder.getCenter().getLongitude().degrees)
+			.thenComparingDouble(cylinder -> cylinder.getAltitudes()[0])
+			.thenComparingDouble(cylinder -> cylinder.getAltitudes()[1])
+			.thenComparingDouble(cylinder -> cylinder.getRadii()[1]);
+	
+	/** the property tag of a null value */
+	private static final byte TAG_NULL = 'N';
+	
+	/** the property tag of a boolean value */
+	private static final byte TAG_BOOLEAN = 'Z';
+	
+	/** the property tag of a byte value */
+	private static final byte TAG_BYTE = 'B';
+	
+	/** the property tag of a character value */
+	private static final byte TAG_CHAR = 'C';
+	
+	/** the property tag of a short value */
+	private static final byte TAG_SHORT = 'S';
+	
+	/** the property tag of an integer value */
+	private static final byte TAG_INT = 'I';
+	
+	/** the property tag of a long value */
+	private static final byte TAG_LONG = 'J';
+	
+	/** the property tag of a float value */
+	private static final byte TAG_FLOAT = 'F';
+	
+	/** the property tag of a double value */
+	private static final byte TAG_DOUBLE = 'D';
+	
+	/** the property tag of a string value */
+	private static final byte TAG_STRING = 'T';
+	
+	/** the property tag of an enumeration value */
+	private static final byte TAG_ENUM = 'E';
+	
+	/** indicates whether or not scenario snapshots are compressed */
+	private boolean isCompressed = true;
+	
+	/** the annotation symbol of restored scenario waypoints */
+	private String waypointSymbol = null;
+	
+	/**
+	 * Determines whether or not written scenario snapshots are compressed.
+	 * 
+	 * @return true if written scenario snapshots are compressed,
+	 *         false otherwise
+	 */
+	public boolean isCompressed() {
+		return this.isCompressed;
+	}
+	
+	/**
+	 * Sets whether or not written scenario snapshots are compressed.
+	 * 
+	 * @param isCompressed true if written scenario snapshots are compressed,
+	 *                     false otherwise
+	 */
+	public void setCompressed(boolean isCompressed) {
+		this.isCompressed = isCompressed;
+	}
+	
+	/**
+	 * Gets the annotation symbol of restored scenario waypoints.
+	 * 
+	 * @return the annotation symbol of restored scenario waypoints,
+	 *         null if restored scenario waypoints are not annotated
+	 */
+	public String getWaypointSymbol() {
+		return this.waypointSymbol;
+	}
+	
+	/**
+	 * Sets the annotation symbol of restored scenario waypoints.
+	 * 
+	 * @param waypointSymbol the annotation symbol to be set, null if restored
+	 *                       scenario waypoints are not annotated
+	 */
+	public void setWaypointSymbol(String waypointSymbol) {
+		this.waypointSymbol = waypointSymbol;
+	}
+	
+	/**
+	 * Writes a scenario snapshot to a file.
+	 * 
+	 * @param scenario the scenario to be written
+	 * @param file the snapshot file
+	 * 
+	 * @throws IOException if the scenario cannot be written
+	 */
+	public void write(Scenario scenario, File file) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(
+				new FileOutputStream(file), ScenarioSnapshot.BUFFER_SIZE)) {
+			this.write(scenario, out);
+		}
+	}
+	
+	/**
+	 * Writes a scenario snapshot to an output stream.
+	 * 
+	 * @param scenario the scenario to be written
+	 * @param out the output stream
+	 * 
+	 * @throws IOException if the scenario cannot be written
+	 */
+	public void write(Scenario scenario, OutputStream out) throws IOException {
+		out.write(this.encode(scenario));
+		out.flush();
+	}
+	
+	/**
+	 * Encodes a scenario snapshot in memory.
+	 * 
+	 * @param scenario the scenario to be encoded
+	 * 
+	 * @return the encoded scenario snapshot
+	 * 
+	 * @throws IOException if the scenario cannot be encoded
+	 */
+	public byte[] encode(Scenario scenario) throws IOException {
+		return this.encode(this.capture(scenario));
+	}
+	
+	/**
+	 * Captures the natively encoded sections of a scenario snapshot. The
+	 * scenario is only accessed during the capture such that callers can
+	 * capture a consistent snapshot while holding the lock of a concurrently
+	 * mutated scenario and encode the capture after releasing the lock.
+	 * Obstacle cylinders are captured in a canonical order such that
+	 * equivalent scenarios result in identical captures.
+	 * 
+	 * @param scenario the scenario to be captured
+	 * 
+	 * @return the captured scenario snapshot
+	 * 
+	 * @throws IOException if the scenario cannot be captured
+	 */
+	public Capture capture(Scenario scenario) throws IOException {
+		List<ObstacleCylinder> cylinders = new ArrayList<>();
+		List<Obstacle> obstacles = new ArrayList<>();
+		for (Obstacle obstacle : scenario.getObstacles()) {
+			if (obstacle instanceof Aircraft) {
+				continue;
+			} else if (obstacle instanceof ObstacleCylinder) {
+				cylinders.add((ObstacleCylinder) obstacle);
+			} else {
+				obstacles.add(obstacle);
+			}
+		}
+		cylinders.sort(ScenarioSnapshot.CYLINDER_ORDER);
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(ScenarioSnapshot.BUFFER_SIZE);
+		DataOutputStream sections = new DataOutputStream(bytes);
+		ScenarioSnapshot.writeScenario(scenario, sections);
+		ScenarioSnapshot.writeEnvironment(scenario, sections);
+		ScenarioSnapshot.writeAircraft(scenario, sections);
+		ScenarioSnapshot.writeWaypoints(scenario.getWaypoints(), sections);
+		ScenarioSnapshot.writeCylinders(cylinders, sections);
+		ScenarioSnapshot.writeTrajectory(scenario.getTrajectory(), sections);
+		sections.flush();
+		
+		return new Capture(bytes.toByteArray(), scenario.getId(),
+				scenario.getTime(), scenario.getThreshold(), obstacles);
+	}
+	
+	/**
+	 * Encodes a captured scenario snapshot in memory marshalling its
+	 * obstacles without a native encoding and compressing its sections if
+	 * required.
+	 * 
+	 * @param capture the captured scenario snapshot to be encoded
+	 * 
+	 * @return the encoded scenario snapshot
+	 * 
+	 * @throws IOException if the captured scenario snapshot cannot be encoded
+	 */
+	public byte[] encode(Capture capture) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+				capture.sections.length + ScenarioSnapshot.BUFFER_SIZE);
+		DataOutputStream header = new DataOutputStream(bytes);
+		header.writeInt(ScenarioSnapshot.MAGIC);
+		header.writeShort(ScenarioSnapshot.VERSION);
+		header.writeByte(this.isCompressed ? ScenarioSnapshot.FLAG_COMPRESSED : 0);
+		header.flush();
+		
+		DeflaterOutputStream deflater = null;
+		DataOutputStream body = header;
+		if (this.isCompressed) {
+			deflater = new DeflaterOutputStream(bytes,
+					new Deflater(Deflater.BEST_SPEED), ScenarioSnapshot.BUFFER_SIZE);
+			body = new DataOutputStream(deflater);
+		}
+		
+		body.write(capture.sections);
+		ScenarioSnapshot.writeObstacles(capture, body);
+		
+		body.flush();
+		if (null != deflater) {
+			deflater.finish();
+		}
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * Reads a scenario snapshot from a file.
+	 * 
+	 * @param file the snapshot file
+	 * 
+	 * @return the read scenario
+	 * 
+	 * @throws IOException if the scenario cannot be read
+	 */
+	public Scenario read(File file) throws IOException {
+		try (InputStream in = new BufferedInputStream(
+				new FileInputStream(file), ScenarioSnapshot.BUFFER_SIZE)) {
+			return this.read(in);
+		}
+	}
+	
+	/**
+	 * Reads a scenario snapshot from an input stream.
+	 * 
+	 * @param in the input stream
+	 * 
+	 * @return the read scenario
+	 * 
+	 * @throws IOException if the scenario cannot be read
+	 */
+	public Scenario read(InputStream in) throws IOException {
+		DataInputStream header = new DataInputStream(in);
+		if (ScenarioSnapshot.MAGIC != header.readInt()) {
+			throw new IOException("invalid scenario snapshot");
+		}
+		short version = header.readShort();
+		if (ScenarioSnapshot.VERSION != version) {
+			throw new IOException("unsupported scenario snapshot version " + version);
+		}
+		byte flags = header.readByte();
+		
+		DataInputStream body = header;
+		if (0 != (flags & ScenarioSnapshot.FLAG_COMPRESSED)) {
+			body = new DataInputStream(new InflaterInputStream(in));
+		}
+		
+		Scenario scenario = ScenarioSnapshot.readScenario(body);
+		ScenarioSnapshot.readEnvironment(scenario, body);
+		Aircraft aircraft = ScenarioSnapshot.readAircraft(body);
+		for (Waypoint waypoint : ScenarioSnapshot.readWaypoints(body)) {
+			ScenarioSnapshot.depict(waypoint, this.waypointSymbol);
+			scenario.addWaypoint(waypoint);
+		}
+		if (null != aircraft) {
+			scenario.setAircraft(aircraft);
+		}
+		for (Obstacle obstacle : ScenarioSnapshot.readCylinders(body)) {
+			scenario.addObstacle(obstacle);
+		}
+		Trajectory trajectory = ScenarioSnapshot.readTrajectory(body);
+		for (Obstacle obstacle : ScenarioSnapshot.readObstacles(body)) {
+			scenario.addObstacle(obstacle);
+		}
+		if (!trajectory.isEmpty()) {
+			scenario.setTrajectory(trajectory);
+		}
+		return scenario;
+	}
+	
+	/**
+	 * Determines whether or not a file is a scenario snapshot.
+	 * 
+	 * @param file the file
+	 * 
+	 * @return true if the file is a scenario snapshot, false otherwise
+	 */
+	public static boolean isSnapshot(File file) {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return (ScenarioSnapshot.MAGIC == in.readInt());
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Depicts a restored scenario waypoint the way the plan view depicts
+	 * added waypoints.
+	 * 
+	 * @param waypoint the waypoint to be depicted
+	 * @param symbol the annotation symbol of the waypoint, null if the
+	 *               waypoint is not annotated
+	 */
+	static void depict(Waypoint waypoint, String symbol) {
+		waypoint.setDepiction(new Depiction(SymbolCache.getInstance().createPoint(
+				Waypoint.SIDC_NAV_WAYPOINT_POI, waypoint, null)));
+		if (null != symbol) {
+			String designator = (null == waypoint.getDesignator()) ? "?" : waypoint.getDesignator();
+			waypoint.getDepiction().setAnnotation(new DepictionAnnotation(symbol, designator, waypoint));
+		}
+		waypoint.getDepiction().setVisible(true);
+	}
+	
+	/**
+	 * Writes a time including its nanoseconds and time zone.
+	 * 
+	 * @param time the time to be written
+	 * @param out the data output stream
+	 * 
+	 * @throws IOException if the time cannot be written
+	 */
+	static void writeTime(ChronoZonedDateTime<?> time, DataOutputStream out) throws IOException {
+		out.writeLong(time.toEpochSecond());
+		out.writeInt(time.toLocalTime().getNano());
+		out.writeUTF(time.getZone().getId());
+	}
+	
+	/**
+	 * Reads a time including its nanoseconds and time zone.
+	 * 
+	 * @param in the data input stream
+	 * 
+	 * @return the read time
+	 * 
+	 * @throws IOException if the time cannot be read
+	 */
+	static ZonedDateTime readTime(DataInputStream in) throws IOException {
+		long seconds = in.readLong();
+		int nanos = in.readInt();
+		return ScenarioSnapshot.toTime(seconds, nanos, ScenarioSnapshot.toZone(in.readUTF()));
+	}
+	
+	/**
+	 * Converts an epoch time and a time zone into a time.
+	 * 
+	 * @param seconds the epoch seconds of the time
+	 * @param nanos the nanoseconds of the time
+	 * @param zone the time zone of the time
+	 * 
+	 * @return the time
+	 * 
+	 * @throws IOException if the epoch time is invalid
+	 */
+	private static ZonedDateTime toTime(long seconds, int nanos, ZoneId zone) throws IOException {
+		try {
+			return ZonedDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), zone);
+		} catch (DateTimeException e) {
+			throw new IOException("invalid scenario snapshot time", e);
+		}
+	}
+	
+	/**
+	 * Converts a time zone identifier into a time zone.
+	 * 
+	 * @param id the time zone identifier
+	 * 
+	 * @return the time zone
+	 * 
+	 * @throws IOException if the time zone identifier is invalid
+	 */
+	private static ZoneId toZone(String id) throws IOException {
+		try {
+			return ZoneId.of(id);
+		} catch (DateTimeException e) {
+			throw new IOException("invalid scenario snapshot time zone " + id, e);
+		}
+	}
+	
+	/**
+	 * Writes the scenario section.
+	 * 
+	 * @param scenario the scenario to be written
+	 * @param out the data output stream
+	 * 
+	 * @throws IOException if the scenario cannot be written
+	 */
+	private static void writeScenario(Scenario scenario, DataOutputStream out) throws IOException {
+		out.writeUTF(scenario.getId());
+		ScenarioSnapshot.writeTime(scenario.getTime(), out);
+		out.writeDouble(scenario.getThreshold());
+	}
+	
+	/**
+	 * Reads the scenario section.
+	 * 
+	 * @param in the data input stream
+	 * 
+	 * @return the read scenario
+	 * 
+	 * @throws IOException if the scenario cannot be read
+	 */
+	private static Scenario readScenario(DataInputStream in) throws IOException {
+		Scenario scenario = new Scenario(in.readUTF());
+		scenario.setTime(ScenarioSnapshot.readTime(in));
+		scenario.setThreshold(in.readDouble());
+		return scenario;
+	}
+	
+	/**
+	 * Writes the environment section recording the sector of the scenario
+	 * and the identifier and properties of the session specification the
+	 * environment matches.
+	 * 
+	 * @param scenario the scenario to be written
+	 * @param out the data output stream
+	 * 
+	 * @throws IOException if the environment cannot be written or matches no
+	 *                     session specification
+	 */
+	private static void writeEnvironment(Scenario scenario, DataOutputStream out) throws IOException {
+		Environment environment = scenario.getEnvironment();
+		Sector sector = scenario.getSector();
+		boolean isPresent = (null != environment) && (null != sector);
+		
+		out.writeBoolean(isPresent);
+		if (isPresent) {
+			Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
+			Specification<Environment> envSpec = session.getSetup().getEnvironmentSpecification();
+			if (!environment.matches(envSpec)) {
+				envSpec = null;
+				for (Specification<Environment> spec : session.getEnvironmentSpecifications()) {
+					if (environment.matches(spec)) {
+						envSpec = spec;
+						break;
+					}
+				}
+			}
+			if (null == envSpec) {
+				throw new IOException("unsupported environment " + environment.getClass().getSimpleName());
+			}
+			
+			out.writeUTF(envSpec.getId());
+			ScenarioSnapshot.writeProperties(envSpec.getProperties(), out);
+			out.writeDouble(sector.getMinLatitude().degrees);
+			out.writeDouble(sector.getMaxLatitude().degrees);
+			out.writeDouble(sector.getMinLongitude().degrees);
+			out.writeDouble(sector.getMaxLongitude().degrees);
+		}
+	}
+	
+	/**
+	 * Reads the environment section re-creating the environment of the
+	 * scenario from its recorded specification properties.
+	 * 
+	 * @param scenario the scenario to be restored
+	 * @param in the data input stream
+	 * 
+	 * @throws IOException if the environment cannot be read or its
+	 *                     specification is unknown to the session
+	 */
+	private static void readEnvironment(Scenario scenario, DataInputStream in) throws IOException {
+		if (in.readBoolean()) {
+			String id = in.readUTF();
+			Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
+			Specification<Environment> registered = session.getEnvironmentSpecification(id);
+			if (null == registered) {
+				throw new IOException("unsupported environment " + id);
+			}
+			Properties<Environment> properties = registered.getProperties().clone();
+			ScenarioSnapshot.readProperties(properties, in);
+			Sector sector = Sector.fromDegrees(
+					in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+			
+			scenario.setSector(sector);
+			EnvironmentFactory factory = new EnvironmentFactory(scenario);
+			factory.setSpecification(new Specification<Environment>(id, properties));
+			scenario.setEnvironment(factory.createInstance());
+		}
+	}
+	
+	/**
+	 * Writes the aircraft section recording the identifier and properties of
+	 * the session specification the aircraft matches as well as its position
+	 * and cost interval.
+	 * 
+	 * @param scenario the scenario to be written
+	 * @param out the data output stream
+	 * 
+	 * @throws IOException if the aircraft cannot be written or matches no
+	 *                     session specification
+	 */
+	private static void writeAircraft(Scenario scenario, DataOutputStream out) throws IOException {
+		boolean isPresent = scenario.hasAircraft();
+		
+		out.writeBoolean(isPresent);
+		if (isPresent) {
+			Aircraft aircraft = scenario.getAircraft();
+			Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
+			Specification<Aircraft> aircraftSpec = session.getSetup().getAircraftSpecification();
+			if (!aircraft.matches(aircraftSpec)) {
+				aircraftSpec = null;
+				for (Specification<Aircraft> spec : session.getAircraftSpecifications()) {
+					if (aircraft.matches(spec)) {
+						aircraftSpec = spec;
+						break;
+					}
+				}
+			}
+			if (null == aircraftSpec) {
+				throw new IOException("unsupported aircraft " + aircraft.getClass().getSimpleName());
+			}
+			
+			out.writeUTF(aircraftSpec.getId());
+			ScenarioSnapshot.writeProperties(aircraftSpec.getProperties(), out);
+			Position position = aircraft.getReferencePosition();
+			out.writeDouble(position.getLatitude().degrees);
+			out.writeDouble(position.getLongitude().degrees);
+			out.writeDouble(position.getAltitude());
+			
+			CostInterval interval = aircraft.getCostInterval();
+			out.writeBoolean(null != interval);
+			if (null != interval) {
+				out.writeUTF(interval.getId());
+				ScenarioSnapshot.writeTime(interval.getLower(), out);
+				ScenarioSnapshot.writeTime(interval.getUpper(), out);
+				out.writeDouble(interval.getCost());
+			}
+		}
+	}
+	
+	/**
+	 * Reads the aircraft section re-creating the aircraft from its recorded
+	 * specification properties the way the world view creates aircraft.
+	 * 
+	 * @param in the data input stream
+	 * 
+	 * @return the read aircraft, null if absent
+	 * 
+	 * @throws IOException if the aircraft cannot be read or its specification
+	 *                     is unknown to the session
+	 */
+	private static Aircraft readAircraft(DataInputStream in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		
+		String id = in.readUTF();
+		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
+		Specification<Aircraft> registered = session.getAircraftSpecification(id);
+		if (null == registered) {
+			throw new IOException("unsupported aircraft " + id);
+		}
+		Properties<Aircraft> properties = registered.getProperties().clone();
+		ScenarioSnapshot.readProperties(properties, in);
+		Position position = Position.fromDegrees(in.readDouble(), in.readDouble(), in.readDouble());
+		CostInterval interval = null;
+		if (in.readBoolean()) {
+			interval = new CostInterval(in.readUTF(),
+					ScenarioSnapshot.readTime(in), ScenarioSnapshot.readTime(in), in.readDouble());
+		}
+		
+		Aircraft aircraft = null;
+		synchronized (session) {
+			session.getAircraftFactory().setSpecification(new Specification<Aircraft>(id, properties));
+			aircraft = session.getAircraftFactory().createInstance();
+		}
+		if (null != interval) {
+			aircraft.setCostInterval(interval);
+		}
+		aircraft.moveTo(position);
+		return aircraft;
+	}
+	
+	/**
+	 * Writes the readable and writable bean properties of specification
+	 * properties.
+	 * 
+	 * @param properties the specification properties to be written
+	 * @param out the data output stream
+	 * 
+	 * @throws IOException if the properties cannot be written or contain a
+	 *                     property of an unsupported type
+	 */
+	private static void writeProperties(Object properties, DataOutputStream out) throws IOException {
+		List<PropertyDescriptor> descriptors = ScenarioSnapshot.getDescriptors(properties.getClass());
+		out.writeInt(descriptors.size());
+		for (PropertyDescriptor descriptor : descriptors) {
+			Object value;
+			try {
+				value = descriptor.getReadMethod().invoke(properties);
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				throw new IOException("unreadable property " + descriptor.getName(), e);
+			}
+			
+			out.writeUTF(descriptor.getName());
+			if (null == value) {
+				out.writeByte(ScenarioSnapshot.TAG_NULL);
+			} else if (value instanceof Boolean) {
+				out.writeByte(ScenarioSnapshot.TAG_BOOLEAN);
+				out.writeBoolean((Boolean) value);
+			} else if (value instanceof Byte) {
+				out.writeByte(ScenarioSnapshot.TAG_BYTE);
+				out.writeByte((Byte) value);
+			} else if (value instanceof Character) {
+				out.writeByte(ScenarioSnapshot.TAG_CHAR);
+				out.writeChar((Character) value);
+			} else if (value instanceof Short) {
+				out.writeByte(ScenarioSnapshot.TAG_SHORT);
+				out.writeShort((Short) value);
+			} else if (value instanceof Integer) {
+				out.writeByte(ScenarioSnapshot.TAG_INT);
+				out.writeInt((Integer) value);
+			} else if (value instanceof Long) {
+				out.writeByte(ScenarioSnapshot.TAG_LONG);
+				out.writeLong((Long) value);
+			} else if (value instanceof Float) {
+				out.writeByte(ScenarioSnapshot.TAG_FLOAT);
+				out.writeFloat((Float) value);
+			} else if (value instanceof Double) {
+				out.writeByte(ScenarioSnapshot.TAG_DOUBLE);
+				out.writeDouble((Double) value);
+			} else if (value instanceof String) {
+				out.writeByte(ScenarioSnapshot.TAG_STRING);
+				out.writeUTF((String) value);
+			} else if (value instanceof Enum) {
+				out.writeByte(ScenarioSnapshot.TAG_ENUM);
+				out.writeUTF(((Enum<?>) value).name());
+			} else {
+				throw new IOException("unsupported property " + descriptor.getName()
+						+ " of type " + value.getClass().getSimpleName());
+			}
+		}
+	}
+	
+	/**
+	 * Reads bean properties into specification properties.
+	 * 
+	 * @param properties the specification properties to be read into
+	 * @param in the data input stream
+	 * 
+	 * @throws IOException if the properties cannot be read or contain an
+	 *                     unknown property
+	 */
+	private static void readProperties(Object properties, DataInputStream in) throws IOException {
+		Map<String, PropertyDescriptor> descriptors = new HashMap<>();
+		for (PropertyDescriptor descriptor : ScenarioSnapshot.getDescriptors(properties.getClass())) {
+			descriptors.put(descriptor.getName(), descriptor);
+		}
+		
+		int size = in.readInt();
+		if ((0 > size) || (descriptors.size() < size)) {
+			throw new IOException("invalid scenario snapshot properties size " + size);
+		}
+		for (int index = 0; index < size; index++) {
+			String name = in.readUTF();
+			PropertyDescriptor descriptor = descriptors.get(name);
+			if (null == descriptor) {
+				throw new IOException("unknown property " + name);
+			}
+			
+			Object value = null;
+			byte tag = in.readByte();
+			switch (tag) {
+			case ScenarioSnapshot.TAG_NULL:
+				break;
+			case ScenarioSnapshot.TAG_BOOLEAN:
+				value = in.readBoolean();
+				break;
+			case ScenarioSnapshot.TAG_BYTE:
+				value = in.readByte();
+				break;
+			case ScenarioSnapshot.TAG_CHAR:
+				value = in.readChar();
+				break;
+			case ScenarioSnapshot.TAG_SHORT:
+				value = in.readShort();
+				break;
+			case ScenarioSnapshot.TAG_INT:
+				value = in.readInt();
+				break;
+			case ScenarioSnapshot.TAG_LONG:
+				value = in.readLong();
+				break;
+			case ScenarioSnapshot.TAG_FLOAT:
+				value = in.readFloat();
+				break;
+			case ScenarioSnapshot.TAG_DOUBLE:
+				value = in.readDouble();
+				break;
+			case ScenarioSnapshot.TAG_STRING:
+				value = in.readUTF();
+				break;
+			case ScenarioSnapshot.TAG_ENUM:
+				String constant = in.readUTF();
+				Object[] constants = descriptor.getPropertyType().getEnumConstants();
+				if (null != constants) {
+					for (Object candidate : constants) {
+						if (((Enum<?>) candidate).name().equals(constant)) {
+							value = candidate;
+						}
+					}
+				}
+				if (null == value) {
+					throw new IOException("unknown constant " + constant + " of property " + name);
+				}
+				break;
+			default:
+				throw new IOException("invalid tag " + tag + " of property " + name);
+			}
+			
+			try {
+				descriptor.getWriteMethod().invoke(properties, value);
+			} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+				throw new IOException("unwritable property " + name, e);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the readable and writable bean property descriptors of a type.
+	 * 
+	 * @param type the type
+	 * 
+	 * @return the readable and writable bean property descriptors of the type
+	 * 
+	 * @throws IOException if the type cannot be introspected
+	 */
+	private static List<PropertyDescriptor> getDescriptors(Class<?> type) throws IOException {
+		List<PropertyDescriptor> descriptors = new ArrayList<>();
+		try {
+			for (PropertyDescriptor descriptor :
+					Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+				if ((null != descriptor.getReadMethod()) && (null != descriptor.getWriteMethod())) {
+					descriptors.add(descriptor);
+				}
+			}
+		} catch (IntrospectionException e) {
+			throw new IOException("unsupported properties " + type.getSimpleName(), e);
+		}
+		return descriptors;
+	}
+	
+	/**
+	 * Writes a packed waypoints section.
+	 * 
+	 * @param waypoints the waypoints to be written
+	 * @param out the data output stream
+	 * 
+	 * @throws IOException if the waypoints cannot be written
+	 */
+	static void writeWaypoints(Iterable<? extends Waypoint> waypoints, DataOutputStream out) throws IOException {
+		List<Waypoint> packed = new ArrayList<>();
+		for (Waypoint waypoint : waypoints) {
+			packed.add(waypoint);
+		}
+		
+		int size = packed.size();
+		ZoneTable zones = new ZoneTable();
+		ByteBuffer buffer = ByteBuffer.allocate(size * ScenarioSnapshot.WAYPOINT_BYTES);
+		for (Waypoint waypoint : packed) {
+			buffer.putDouble(waypoint.getLatitude().degrees);
+		}
+		for (Waypoint waypoint : packed) {
+			buffer.putDouble(waypoint.getLongitude().degrees);
+		}
+		for (Waypoint waypoint : packed) {
+			buffer.putDouble(waypoint.getAltitude());
+		}
+		for (Waypoint waypoint : packed) {
+			buffer.putLong((null == waypoint.getEto()) ? 0 : waypoint.getEto().toEpochSecond());
+		}
+		for (Waypoint waypoint : packed) {
+			buffer.putInt((null == waypoint.getEto()) ? 0 : waypoint.getEto().getNano());
+		}
+		for (Waypoint waypoint : packed) {
+			buffer.putInt((null == waypoint.getEto()) ? ScenarioSnapshot.NO_ETO : zones.indexOf(waypoint.getEto()));
+		}
+		for (Waypoint waypoint : packed) {
+			buffer.putDouble(waypoint.getCost());
+		}
+		
+		out.writeInt(size);
+		zones.write(out);
+		out.write(buffer.array());
+		for (Waypoint waypoint : packed) {
+			out.writeUTF((null == waypoint.getDesignator())
+					? ScenarioSnapshot.NO_DESIGNATOR
+					: waypoint.getDesignator());
+		}
+	}
+	
+	/**
+	 * Reads a packed waypoints section. The read waypoints are not depicted.
+	 * 
+	 * @param in the data input stream
+	 * 
+	 * @return the read waypoints
+	 * 
+	 * @throws IOException if the waypoints cannot be read
+	 */
+	static List<Waypoint> readWaypoints(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		ZoneId[] zones = ZoneTable.read(in);
+		ByteBuffer buffer = ScenarioSnapshot.readSection(in, size, ScenarioSnapshot.WAYPOINT_BYTES);
+		double[] latitudes = ScenarioSnapshot.getDoubles(buffer, size);
+		double[] longitudes = ScenarioSnapshot.getDoubles(buffer, size);
+		double[] altitudes = ScenarioSnapshot.getDoubles(buffer, size);
+		long[] etoSeconds = ScenarioSnapshot.getLongs(buffer, size);
+		int[] etoNanos = ScenarioSnapshot.getInts(buffer, size);
+		int[] etoZones = ScenarioSnapshot.getInts(buffer, size);
+		double[] costs = ScenarioSnapshot.getDoubles(buffer, size);
+		
+		List<Waypoint> waypoints = new ArrayList<>(size);
+		for (int index = 0; index < size; index++) {
+			Waypoint waypoint = new Waypoint(Position.fromDegrees(
+					latitudes[index], longitudes[index], altitudes[index]));
+			String designator = in.readUTF();
+			if (!ScenarioSnapshot.NO_DESIGNATOR.equals(designator)) {
+				waypoint.setDesignator(designator);
+			}
+			if (ScenarioSnapshot.NO_ETO != etoZones[index]) {
+				waypoint.setEto(ScenarioSnapshot.toTime(etoSeconds[index], etoNanos[index],
+						ZoneTable.get(zones, etoZones[index])));
+			}
+			waypoint.setCost(costs[index]);
+			waypoints.add(waypoint);
+		}
+		return waypoints;
+	}
+	
+	/**
+	 * Writes a packed obstacle cylinders section.
+	 * 
+	 * @param cylinders the obstacle cylinders to be written
+	 * @param out the data output stream
+	 * 
+	 * @throws IOException if the obstacle cylinders cannot be written
+	 */
+	static void writeCylinders(Collection<ObstacleCylinder> cylinders, DataOutputStream out) throws IOException {
+		int size = cylinders.size();
+		ZoneTable zones = new ZoneTable();
+		ByteBuffer buffer = ByteBuffer.allocate(size * ScenarioSnapshot.CYLINDER_BYTES);
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putDouble(cylinder.getCenter().getLatitude().degrees);
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putDouble(cylinder.getCenter().getLongitude().degrees);
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putDouble(cylinder.getAltitudes()[0]);
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putDouble(cylinder.getAltitudes()[1]);
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putDouble(cylinder.getRadii()[1]);
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putDouble(cylinder.getCostInterval().getCost());
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putLong(cylinder.getCostInterval().getLower().toEpochSecond());
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putLong(cylinder.getCostInterval().getUpper().toEpochSecond());
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putInt(cylinder.getCostInterval().getLower().toLocalTime().getNano());
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putInt(cylinder.getCostInterval().getUpper().toLocalTime().getNano());
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putInt(zones.indexOf(cylinder.getCostInterval().getLower()));
+		}
+		for (ObstacleCylinder cylinder : cylinders) {
+			buffer.putInt(zones.indexOf(cylinder.getCostInterval().getUpper()));
+		}
+		
+		out.writeInt(size);
+		zones.write(out);
+		out.write(buffer.array());
+		for (ObstacleCylinder cylinder : cylinders) {
+			out.writeUTF(cylinder.getCostInterval().getId());
+		}
+	}
+	
+	/**
+	 * Reads a packed obstacle cylinders section.
+	 * 
+	 * @param in the data input stream
+	 * 
+	 * @return the read obstacle cylinders
+	 * 
+	 * @throws IOException if the obstacle cylinders cannot be read
+	 */
+	static List<ObstacleCylinder> readCylinders(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		ZoneId[] zones = ZoneTable.read(in);
+		ByteBuffer buffer = ScenarioSnapshot.readSection(in, size, ScenarioSnapshot.CYLINDER_BYTES);
+		double[] latitudes = ScenarioSnapshot.getDoubles(buffer, size);
+		double[] longitudes = ScenarioSnapshot.getDoubles(buffer, size);
+		double[] bottoms = ScenarioSnapshot.getDoubles(buffer, size);
+		double[] tops = ScenarioSnapshot.getDoubles(buffer, size);
+		double[] radii = ScenarioSnapshot.getDoubles(buffer, size);
+		double[] costs = ScenarioSnapshot.getDoubles(buffer, size);
+		long[] lowerSeconds = ScenarioSnapshot.getLongs(buffer, size);
+		long[] upperSeconds = ScenarioSnapshot.getLongs(buffer, size);
+		int[] lowerNanos = ScenarioSnapshot.getInts(buffer, size);
+		int[] upperNanos = ScenarioSnapshot.getInts(buffer, size);
+		int[] lowerZones = ScenarioSnapshot.getInts(buffer, size);
+		int[] upperZones = ScenarioSnapshot.getInts(buffer, size);
+		
+		List<ObstacleCylinder> cylinders = new ArrayList<>(size);
+		for (int index = 0; index < size; index++) {
+			ObstacleCylinder cylinder = new ObstacleCylinder(
+					LatLon.fromDegrees(latitudes[index], longitudes[index]),
+					bottoms[index], tops[index], radii[index]);
+			cylinder.setCostInterval(new CostInterval(in.readUTF(),
+					ScenarioSnapshot.toTime(lowerSeconds[index], lowerNanos[index],
+							ZoneTable.get(zones, lowerZones[index])),
+					ScenarioSnapshot.toTime(upperSeconds[index], upperNanos[index],
+							ZoneTable.get(zones, upperZones[index])),
+					costs[index]));
+			cylinders.add(cylinder);
+		}
+		return cylinders;
+	}
+	
+	/**
+	 * Writes the XML fallback section of all captured obstacles without a
+	 * native encoding. The obstacles are marshalled within a container
+	 * scenario sharing the time and threshold of the captured scenario such
+	 * that adding the obstacles to the container scenario does not alter
+	 * them.
+	 * 
+	 * @param capture the captured scenario snapshot
+	 * @param out the data output stream
+	 * 
+	 * @throws IOException if the obstacles cannot be written
+	 */
+	static void writeObstacles(Capture capture, DataOutputStream out) throws IOException {
+		if (capture.obstacles.isEmpty()) {
+			out.writeInt(0);
+			return;
+		}
+		
+		Scenario container = new Scenario(capture.id);
+		container.setTime(capture.time);
+		container.setThreshold(capture.threshold);
+		for (Obstacle obstacle : capture.obstacles) {
+			container.addObstacle(obstacle);
+		}
+		
+		File file = File.createTempFile("obstacles", ".xml");
+		try {
+			new ScenarioMarshaller().marshalScenario(container, file);
+			byte[] xml = Files.readAllBytes(file.toPath());
+			out.writeInt(xml.length);
+			out.write(xml);
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException("unsupported obstacles", e);
+		} finally {
+			file.delete();
+		}
+	}
+	
+	/**
+	 * Reads the XML fallback section of all obstacles without a native
+	 * encoding.
+	 * 
+	 * @param in the data input stream
+	 * 
+	 * @return the read obstacles
+	 * 
+	 * @throws IOException if the obstacles cannot be read
+	 */
+	static List<Obstacle> readObstacles(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		List<Obstacle> obstacles = new ArrayList<>();
+		if (0 == length) {
+			return obstacles;
+		}
+		
+		byte[] xml = ScenarioSnapshot.readSection(in, length, 1).array();
+		File file = File.createTempFile("obstacles", ".xml");
+		try {
+			Files.write(file.toPath(), xml);
+			Scenario container = new ScenarioUnmarshaller().unmarshalScenario(file);
+			obstacles.addAll(container.getObstacles());
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException("invalid scenario snapshot obstacles", e);
+		} finally {
+			file.delete();
+		}
+		return obstacles;
+	}
+	
+	/**
+	 * Writes the packed trajectory section.
+	 * 
+	 * @param trajectory the trajectory to be written, possibly null
+	 * @param out the data output stream
+	 * 
+	 * @throws IOException if the trajectory cannot be written
+	 */
+	static void writeTrajectory(Trajectory trajectory, DataOutputStream out) throws IOException {
+		List<Waypoint> waypoints = new ArrayList<>();
+		if (null != trajectory) {
+			for (Waypoint waypoint : trajectory.getWaypoints()) {
+				waypoints.add(waypoint);
+			}
+		}
+		ScenarioSnapshot.writeWaypoints(waypoints, out);
+	}
+	
+	/**
+	 * Reads the packed trajectory section and styles the read trajectory.
+	 * 
+	 * @param in the data input stream
+	 * 
+	 * @return the read trajectory
+	 * 
+	 * @throws IOException if the trajectory cannot be read
+	 */
+	static Trajectory readTrajectory(DataInputStream in) throws IOException {
+		Trajectory trajectory = new Trajectory(ScenarioSnapshot.readWaypoints(in));
+		if (!trajectory.isEmpty()) {
+			TrajectoryStylist.styleTrajectory(trajectory);
+		}
+		return trajectory;
+	}
+	
+	/**
+	 * Reads a packed array section incrementally such that a corrupt size
+	 * cannot allocate more memory than the remaining stream provides.
+	 * 
+	 * @param in the data input stream
+	 * @param size the number of elements of the section
+	 * @param elementBytes the number of bytes per element
+	 * 
+	 * @return the read section
+	 * 
+	 * @throws IOException if the size is invalid or the stream ends early
+	 */
+	static ByteBuffer readSection(DataInputStream in, int size, int elementBytes) throws IOException {
+		long length = (long) size * elementBytes;
+		if ((0 > size) || (Integer.MAX_VALUE < length)) {
+			throw new IOException("invalid scenario snapshot section size " + size);
+		}
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+				(int) Math.min(length, ScenarioSnapshot.BUFFER_SIZE));
+		byte[] chunk = new byte[(int) Math.min(length, ScenarioSnapshot.BUFFER_SIZE)];
+		long remaining = length;
+		while (0 < remaining) {
+			int read = in.read(chunk, 0, (int) Math.min(remaining, chunk.length));
+			if (-1 == read) {
+				throw new EOFException("truncated scenario snapshot section");
+			}
+			bytes.write(chunk, 0, read);
+			remaining -= read;
+		}
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+	
+	/**
+	 * Gets the next packed doubles of a section.
+	 * 
+	 * @param buffer the section buffer
+	 * @param size the number of doubles
+	 * 
+	 * @return the next packed doubles
+	 */
+	private static double[] getDoubles(ByteBuffer buffer, int size) {
+		double[] values = new double[size];
+		buffer.asDoubleBuffer().get(values);
+		buffer.position(buffer.position() + size * Double.BYTES);
+		return values;
+	}
+	
+	/**
+	 * Gets the next packed longs of a section.
+	 * 
+	 * @param buffer the section buffer
+	 * @param size the number of longs
+	 * 
+	 * @return the next packed longs
+	 */
+	private static long[] getLongs(ByteBuffer buffer, int size) {
+		long[] values = new long[size];
+		buffer.asLongBuffer().get(values);
+		buffer.position(buffer.position() + size * Long.BYTES);
+		return values;
+	}
+	
+	/**
+	 * Gets the next packed integers of a section.
+	 * 
+	 * @param buffer the section buffer
+	 * @param size the number of integers
+	 * 
+	 * @return the next packed integers
+	 */
+	private static int[] getInts(ByteBuffer buffer, int size) {
+		int[] values = new int[size];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + size * Integer.BYTES);
+		return values;
+	}
+	
+	/**
+	 * Realizes a captured scenario snapshot consisting of the natively
+	 * encoded sections of a scenario and its obstacles without a native
+	 * encoding. A capture does not reference the mutable state of its
+	 * scenario and can therefore be encoded without holding its lock.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	public static final class Capture {
+		
+		/** the natively encoded sections of this capture */
+		private final byte[] sections;
+		
+		/** the scenario identifier of this capture */
+		private final String id;
+		
+		/** the scenario time of this capture */
+		private final ZonedDateTime time;
+		
+		/** the scenario threshold of this capture */
+		private final double threshold;
+		
+		/** the obstacles without a native encoding of this capture */
+		private final List<Obstacle> obstacles;
+		
+		/**
+		 * Constructs a new capture.
+		 * 
+		 * @param sections the natively encoded sections
+		 * @param id the scenario identifier
+		 * @param time the scenario time
+		 * @param threshold the scenario threshold
+		 * @param obstacles the obstacles without a native encoding
+		 */
+		private Capture(byte[] sections, String id, ZonedDateTime time,
+				double threshold, List<Obstacle> obstacles) {
+			this.sections = sections;
+			this.id = id;
+			this.time = time;
+			this.threshold = threshold;
+			this.obstacles = obstacles;
+		}
+		
+		/**
+		 * Gets the number of obstacles without a native encoding of this
+		 * capture.
+		 * 
+		 * @return the number of obstacles without a native encoding
+		 */
+		public int getFallbackObstacles() {
+			return this.obstacles.size();
+		}
+		
+		/**
+		 * Determines whether or not this capture is equivalent to another
+		 * capture. Equivalent captures share identical natively encoded
+		 * sections and the same number of obstacles without a native
+		 * encoding.
+		 * 
+		 * @param capture the other capture
+		 * 
+		 * @return true if this capture is equivalent to the other capture,
+		 *         false otherwise
+		 */
+		public boolean isEquivalent(Capture capture) {
+			return Arrays.equals(this.sections, capture.sections)
+					&& (this.obstacles.size() == capture.obstacles.size());
+		}
+		
+	}
+	
+	/**
+	 * Realizes a table of the time zones of a packed section such that each
+	 * packed time only records the index of its time zone.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private static class ZoneTable {
+		
+		/** the time zone identifiers of this zone table */
+		private final List<String> zones = new ArrayList<>();
+		
+		/** the indices of the time zone identifiers of this zone table */
+		private final Map<String, Integer> indices = new HashMap<>();
+		
+		/**
+		 * Gets the index of the time zone of a time adding the time zone to
+		 * this zone table if required.
+		 * 
+		 * @param time the time
+		 * 
+		 * @return the index of the time zone of the time
+		 */
+		private int indexOf(ChronoZonedDateTime<?> time) {
+			String zone = time.getZone().getId();
+			Integer index = this.indices.get(zone);
+			if (null == index) {
+				index = this.zones.size();
+				this.zones.add(zone);
+				this.indices.put(zone, index);
+			}
+			return index;
+		}
+		
+		/**
+		 * Writes this zone table.
+		 * 
+		 * @param out the data output stream
+		 * 
+		 * @throws IOException if this zone table cannot be written
+		 */
+		private void write(DataOutputStream out) throws IOException {
+			out.writeInt(this.zones.size());
+			for (String zone : this.zones) {
+				out.writeUTF(zone);
+			}
+		}
+		
+		/**
+		 * Reads a zone table.
+		 * 
+		 * @param in the data input stream
+		 * 
+		 * @return the time zones of the read zone table
+		 * 
+		 * @throws IOException if the zone table cannot be read
+		 */
+		private static ZoneId[] read(DataInputStream in) throws IOException {
+			int size = in.readInt();
+			if (0 > size) {
+				throw new IOException("invalid scenario snapshot zone table size " + size);
+			}
+			// grow incrementally such that a corrupt size cannot over-allocate
+			List<ZoneId> zones = new ArrayList<>();
+			for (int index = 0; index < size; index++) {
+				zones.add(ScenarioSnapshot.toZone(in.readUTF()));
+			}
+			return zones.toArray(new ZoneId[zones.size()]);
+		}
+		
+		/**
+		 * Gets a time zone of a read zone table.
+		 * 
+		 * @param zones the time zones of the read zone table
+		 * @param index the index of the time zone
+		 * 
+		 * @return the time zone at the index
+		 * 
+		 * @throws IOException if the index is invalid
+		 */
+		private static ZoneId get(ZoneId[] zones, int index) throws IOException {
+			if ((0 > index) || (zones.length <= index)) {
+				throw new IOException("invalid scenario snapshot zone index " + index);
+			}
+			return zones[index];
+		}
+	}
+	
+}
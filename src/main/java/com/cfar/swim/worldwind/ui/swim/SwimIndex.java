@@ -0,0 +1,319 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.swim;
+
+import java.time.chrono.ChronoZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.cfar.swim.worldwind.render.Obstacle;
+
+/**
+ * Realizes an incrementally maintained index of obstacles by the identifier
+ * of their cost intervals, that is, the swim item they originate from. The
+ * index keeps the number of obstacles and the time extent per swim item
+ * such that listing swim items and bulk operations on a swim item do not
+ * require scanning all obstacles of a scenario. All mutators return the
+ * identifiers of the affected swim items.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class SwimIndex {
+	
+	/** the indexed obstacles of this swim index */
+	private final Set<Obstacle> indexed = new HashSet<>();
+	
+	/** the swim items of this swim index */
+	private final Map<String, SwimItem> items = new HashMap<>();
+	
+	/**
+	 * Adds obstacles to this swim index.
+	 * 
+	 * @param obstacles the obstacles to be added
+	 * 
+	 * @return the identifiers of the affected swim items
+	 */
+	public synchronized Set<String> add(Collection<? extends Obstacle> obstacles) {
+		Set<String> affected = new HashSet<>();
+		for (Obstacle obstacle : obstacles) {
+			if (this.indexed.add(obstacle)) {
+				String id = obstacle.getCostInterval().getId();
+				this.items.computeIfAbsent(id, k -> new SwimItem()).add(obstacle);
+				affected.add(id);
+			}
+		}
+		return affected;
+	}
+	
+	/**
+	 * Removes obstacles from this swim index.
+	 * 
+	 * @param obstacles the obstacles to be removed
+	 * 
+	 * @return the identifiers of the affected swim items
+	 */
+	public synchronized Set<String> remove(Collection<? extends Obstacle> obstacles) {
+		Set<String> affected = new HashSet<>();
+		for (Obstacle obstacle : obstacles) {
+			if (this.indexed.remove(obstacle)) {
+				String id = obstacle.getCostInterval().getId();
+				SwimItem item = this.items.get(id);
+				if (null != item) {
+					item.remove(obstacle);
+					if (item.isEmpty()) {
+						this.items.remove(id);
+					}
+				}
+				affected.add(id);
+			}
+		}
+		return affected;
+	}
+	
+	/**
+	 * Clears this swim index.
+	 * 
+	 * @return the identifiers of the affected swim items
+	 */
+	public synchronized Set<String> clear() {
+		Set<String> affected = new HashSet<>(this.items.keySet());
+		this.indexed.clear();
+		this.items.clear();
+		return affected;
+	}
+	
+	/**
+	 * Reconciles this swim index with the current obstacles of a scenario
+	 * adding missing and removing stale obstacles.
+	 * 
+	 * @param obstacles the current obstacles
+	 * 
+	 * @return the identifiers of the affected swim items
+	 */
+	public synchronized Set<String> reconcile(Set<? extends Obstacle> obstacles) {
+		Set<Obstacle> stale = new HashSet<>();
+		for (Obstacle obstacle : this.indexed) {
+			if (!obstacles.contains(obstacle)) {
+				stale.add(obstacle);
+			}
+		}
+		Set<String> affected = this.remove(stale);
+		affected.addAll(this.add(obstacles));
+		return affected;
+	}
+	
+	/**
+	 * Gets the number of indexed obstacles of this swim index.
+	 * 
+	 * @return the number of indexed obstacles of this swim index
+	 */
+	public synchronized int size() {
+		return this.indexed.size();
+	}
+	
+	/**
+	 * Determines whether or not this swim index contains a swim item.
+	 * 
+	 * @param id the identifier of the swim item
+	 * 
+	 * @return true if this swim index contains the swim item, false otherwise
+	 */
+	public synchronized boolean contains(String id) {
+		return this.items.containsKey(id);
+	}
+	
+	/**
+	 * Gets the identifiers of all swim items of this swim index.
+	 * 
+	 * @return the identifiers of all swim items of this swim index
+	 */
+	public synchronized Set<String> getIds() {
+		return new HashSet<>(this.items.keySet());
+	}
+	
+	/**
+	 * Gets the obstacles of a swim item of this swim index.
+	 * 
+	 * @param id the identifier of the swim item
+	 * 
+	 * @return the obstacles of the swim item, empty if there are none
+	 */
+	public synchronized Set<Obstacle> getObstacles(String id) {
+		SwimItem item = this.items.get(id);
+		return (null == item) ? new HashSet<>() : new HashSet<>(item.obstacles);
+	}
+	
+	/**
+	 * Gets the number of obstacles of a swim item of this swim index.
+	 * 
+	 * @param id the identifier of the swim item
+	 * 
+	 * @return the number of obstacles of the swim item
+	 */
+	public synchronized int getCount(String id) {
+		SwimItem item = this.items.get(id);
+		return (null == item) ? 0 : item.obstacles.size();
+	}
+	
+	/**
+	 * Gets the earliest start time of the obstacles of a swim item of this
+	 * swim index.
+	 * 
+	 * @param id the identifier of the swim item
+	 * 
+	 * @return the earliest start time of the swim item, null if there is none
+	 */
+	public synchronized ChronoZonedDateTime<?> getStart(String id) {
+		SwimItem item = this.items.get(id);
+		return (null == item) ? null : item.getStart();
+	}
+	
+	/**
+	 * Gets the latest end time of the obstacles of a swim item of this swim
+	 * index.
+	 * 
+	 * @param id the identifier of the swim item
+	 * 
+	 * @return the latest end time of the swim item, null if there is none
+	 */
+	public synchronized ChronoZonedDateTime<?> getEnd(String id) {
+		SwimItem item = this.items.get(id);
+		return (null == item) ? null : item.getEnd();
+	}
+	
+	/**
+	 * Realizes an indexed swim item with its obstacles and time extent. The
+	 * time extent is extended on additions and only recomputed lazily after
+	 * removals.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private static class SwimItem {
+		
+		/** the obstacles of this swim item */
+		private final Set<Obstacle> obstacles = new HashSet<>();
+		
+		/** the earliest start time of this swim item */
+		private ChronoZonedDateTime<?> start = null;
+		
+		/** the latest end time of this swim item */
+		private ChronoZonedDateTime<?> end = null;
+		
+		/** indicates whether or not the time extent of this swim item is stale */
+		private boolean isStale = false;
+		
+		/**
+		 * Adds an obstacle to this swim item.
+		 * 
+		 * @param obstacle the obstacle to be added
+		 */
+		public void add(Obstacle obstacle) {
+			this.obstacles.add(obstacle);
+			if (!this.isStale) {
+				this.extend(obstacle);
+			}
+		}
+		
+		/**
+		 * Removes an obstacle from this swim item.
+		 * 
+		 * @param obstacle the obstacle to be removed
+		 */
+		public void remove(Obstacle obstacle) {
+			this.obstacles.remove(obstacle);
+			this.isStale = true;
+		}
+		
+		/**
+		 * Determines whether or not this swim item is empty.
+		 * 
+		 * @return true if this swim item is empty, false otherwise
+		 */
+		public boolean isEmpty() {
+			return this.obstacles.isEmpty();
+		}
+		
+		/**
+		 * Gets the earliest start time of this swim item.
+		 * 
+		 * @return the earliest start time of this swim item
+		 */
+		public ChronoZonedDateTime<?> getStart() {
+			this.refresh();
+			return this.start;
+		}
+		
+		/**
+		 * Gets the latest end time of this swim item.
+		 * 
+		 * @return the latest end time of this swim item
+		 */
+		public ChronoZonedDateTime<?> getEnd() {
+			this.refresh();
+			return this.end;
+		}
+		
+		/**
+		 * Extends the time extent of this swim item by an obstacle.
+		 * 
+		 * @param obstacle the obstacle
+		 */
+		private void extend(Obstacle obstacle) {
+			ChronoZonedDateTime<?> lower = obstacle.getCostInterval().getLower();
+			ChronoZonedDateTime<?> upper = obstacle.getCostInterval().getUpper();
+			if ((null == this.start) || lower.isBefore(this.start)) {
+				this.start = lower;
+			}
+			if ((null == this.end) || upper.isAfter(this.end)) {
+				this.end = upper;
+			}
+		}
+		
+		/**
+		 * Recomputes the time extent of this swim item if it is stale.
+		 */
+		private void refresh() {
+			if (this.isStale) {
+				this.start = null;
+				this.end = null;
+				for (Obstacle obstacle : this.obstacles) {
+					this.extend(obstacle);
+				}
+				this.isStale = false;
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.swim;
+
+/**
+ * Realizes an immutable statistics snapshot of a watched swim ingestion.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class SwimIngestStatistics {
+	
+	/** the number of ingested files of this swim ingest statistics */
+	private final long files;
+	
+	/** the number of failed files of this swim ingest statistics */
+	private final long failedFiles;
+	
+	/** the number of ingested obstacles of this swim ingest statistics */
+	private final long obstacles;
+	
+	/** the ingest rate of this swim ingest statistics in files per second */
+	private final double rate;
+	
+	/** the number of files waiting to be parsed of this swim ingest statistics */
+	private final int fileQueueDepth;
+	
+	/** the number of parsed files waiting to be submitted of this swim ingest statistics */
+	private final int obstacleQueueDepth;
+	
+	/** the average parse latency of this swim ingest statistics in milliseconds */
+	private final double parseLatency;
+	
+	/** the maximum parse latency of this swim ingest statistics in milliseconds */
+	private final double maxParseLatency;
+	
+	/**
+	 * Constructs a new swim ingest statistics.
+	 * 
+	 * @param files the number of ingested files
+	 * @param failedFiles the number of failed files
+	 * @param obstacles the number of ingested obstacles
+	 * @param rate the ingest rate in files per second
+	 * @param fileQueueDepth the number of files waiting to be parsed
+	 * @param obstacleQueueDepth the number of parsed files waiting to be submitted
+	 * @param parseLatency the average parse latency in milliseconds
+	 * @param maxParseLatency the maximum parse latency in milliseconds
+	 */
+	public SwimIngestStatistics(
+			long files, long failedFiles, long obstacles, double rate,
+			int fileQueueDepth, int obstacleQueueDepth,
+			double parseLatency, double maxParseLatency) {
+		this.files = files;
+		this.failedFiles = failedFiles;
+		this.obstacles = obstacles;
+		this.rate = rate;
+		this.fileQueueDepth = fileQueueDepth;
+		this.obstacleQueueDepth = obstacleQueueDepth;
+		this.parseLatency = parseLatency;
+		this.maxParseLatency = maxParseLatency;
+	}
+	
+	/**
+	 * Gets the number of ingested files of this swim ingest statistics.
+	 * 
+	 * @return the number of ingested files of this swim ingest statistics
+	 */
+	public long getFiles() {
+		return this.files;
+	}
+	
+	/**
+	 * Gets the number of failed files of this swim ingest statistics.
+	 * 
+	 * @return the number of failed files of this swim ingest statistics
+	 */
+	public long getFailedFiles() {
+		return this.failedFiles;
+	}
+	
+	/**
+	 * Gets the number of ingested obstacles of this swim ingest statistics.
+	 * 
+	 * @return the number of ingested obstacles of this swim ingest statistics
+	 */
+	public long getObstacles() {
+		return this.obstacles;
+	}
+	
+	/**
+	 * Gets the ingest rate of this swim ingest statistics.
+	 * 
+	 * @return the ingest rate of this swim ingest statistics in files per second
+	 */
+	public double getRate() {
+		return this.rate;
+	}
+	
+	/**
+	 * Gets the number of files waiting to be parsed of this swim ingest
+	 * statistics.
+	 * 
+	 * @return the number of files waiting to be parsed
+	 */
+	public int getFileQueueDepth() {
+		return this.fileQueueDepth;
+	}
+	
+	/**
+	 * Gets the number of parsed files waiting to be submitted of this swim
+	 * ingest statistics.
+	 * 
+	 * @return the number of parsed files waiting to be submitted
+	 */
+	public int getObstacleQueueDepth() {
+		return this.obstacleQueueDepth;
+	}
+	
+	/**
+	 * Gets the average parse latency of this swim ingest statistics.
+	 * 
+	 * @return the average parse latency in milliseconds
+	 */
+	public double getParseLatency() {
+		return this.parseLatency;
+	}
+	
+	/**
+	 * Gets the maximum parse latency of this swim ingest statistics.
+	 * 
+	 * @return the maximum parse latency in milliseconds
+	 */
+	public double getMaxParseLatency() {
+		return this.maxParseLatency;
+	}
+	
+	/**
+	 * Gets the string representation of this swim ingest statistics.
+	 * 
+	 * @return the string representation of this swim ingest statistics
+	 * 
+	 * @see Object#toString()
+	 */
+	@Override
+	public String toString() {
+		String failed = (0 < this.failedFiles)
+				? String.format(" (%d failed)", this.failedFiles) : "";
+		return String.format("%d files%s | %.1f files/s | queue %d+%d | parse %.0f ms (max %.0f ms)",
+				this.files, failed, this.rate,
+				this.fileQueueDepth, this.obstacleQueueDepth,
+				this.parseLatency, this.maxParseLatency);
+	}
+	
+}
@@ -29,15 +29,36 @@
  */
 package com.cfar.swim.worldwind.ui.swim;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -49,12 +70,26 @@ import com.cfar.swim.worldwind.session.Session;
 import com.cfar.swim.worldwind.session.SessionManager;
 import com.cfar.swim.worldwind.ui.WorldwindPlanner;
 import com.cfar.swim.worldwind.ui.util.ResourceBundleLoader;
+import com.cfar.swim.worldwind.ui.world.LoadingProgress;
+import com.cfar.swim.worldwind.ui.world.WorldEvent;
+import com.cfar.swim.worldwind.ui.world.WorldEventListener;
+import com.cfar.swim.worldwind.ui.world.WorldEventType;
 import com.cfar.swim.worldwind.ui.world.WorldModel;
+import com.cfar.swim.worldwind.ui.world.WorldService;
+
+import gov.nasa.worldwind.util.Logging;
 
 import javafx.application.Platform;
+import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.control.CheckMenuItem;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TitledPane;
+import javafx.scene.control.Tooltip;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 
@@ -71,6 +106,11 @@ public class SwimPresenter implements Initializable {
 			ResourceBundleLoader.getDictionaryBundle()
 			.getString("swim.dialog.file.load.title");
 	
+	/** the directory chooser load swim directory title */
+	public static final String DIRECTORY_CHOOSER_TITLE_SWIM_LOAD =
+			ResourceBundleLoader.getDictionaryBundle()
+			.getString("swim.dialog.directory.load.title");
+	
 	/** the file chooser swim file description */
 	public static final String FILE_CHOOSER_DESCRIPTION_SWIM =
 			ResourceBundleLoader.getDictionaryBundle()
@@ -88,15 +128,91 @@ public class SwimPresenter implements Initializable {
 	@Inject
 	private WorldModel worldModel;
 	
+	/** the world service of this swim presenter */
+	@Inject
+	private WorldService worldService;
+	
 	/** the active scenario of this swim presenter */
 	private Scenario scenario = null;
 	
-	/** the obstacle change listener of this swim presenter */
-	private ObstaclesChangeListener ocl = new ObstaclesChangeListener();
-	
 	/** the executor of this swim presenter */
 	private final ExecutorService executor = Executors.newSingleThreadExecutor();
 	
+	/** the number of swim loader threads of the swim view */
+	@Inject
+	private String loaderThreads;
+	
+	/** the obstacle submission chunk size of the swim view */
+	@Inject
+	private String obstacleChunkSize;
+	
+	/** the swim loader pool of this swim presenter */
+	private ExecutorService loader;
+	
+	/** the pooled swim loaders of this swim presenter, one per loader thread */
+	private final ThreadLocal<SwimLoader> loaders = ThreadLocal.withInitial(SwimLoader::new);
+	
+	/** the swim pane of the swim view */
+	@FXML
+	private TitledPane swimPane;
+	
+	/** the watch menu item of the swim view */
+	@FXML
+	private CheckMenuItem watchMenuItem;
+	
+	/** the number of watched swim directory parser threads of the swim view */
+	@Inject
+	private String watchThreads;
+	
+	/** the watched swim directory queue capacity of the swim view */
+	@Inject
+	private String watchQueueCapacity;
+	
+	/** the maximum watched swim directory ingest rate of the swim view in obstacles per second */
+	@Inject
+	private String watchRate;
+	
+	/** the number of swim replay parser threads of the swim view */
+	@Inject
+	private String replayThreads;
+	
+	/** the number of files a swim replay parses ahead of its replay clock */
+	@Inject
+	private String replayLookahead;
+	
+	/** the swim replay of this swim presenter */
+	private SwimReplay swimReplay = null;
+	
+	/** the scheduled replay statistics report of this swim presenter */
+	private ScheduledFuture<?> replayReport = null;
+	
+	/** the swim watcher of this swim presenter */
+	private SwimWatcher swimWatcher = null;
+	
+	/** the title of the swim pane of this swim presenter */
+	private String swimPaneTitle;
+	
+	/** the watch statistics reporter of this swim presenter */
+	private final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+	
+	/** the scheduled watch statistics report of this swim presenter */
+	private ScheduledFuture<?> report = null;
+	
+	/** the swim index of the active scenario of this swim presenter */
+	private final SwimIndex swimIndex = new SwimIndex();
+	
+	/** the obstacles submitted to be added to the active scenario but not yet applied */
+	private final Set<Obstacle> pendingAdditions = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	/** the obstacles submitted to be removed from the active scenario but not yet applied */
+	private final Set<Obstacle> pendingRemovals = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	/** indicates whether or not obstacles have been enabled or disabled via this swim presenter */
+	private final AtomicBoolean isToggled = new AtomicBoolean(false);
+	
+	/** the identifiers of the listed swim items of the swim view */
+	private final Set<String> listedIds = new HashSet<>();
+	
 	/**
 	 * Initializes this swim presenter.
 	 * 
@@ -107,8 +223,11 @@ public class SwimPresenter implements Initializable {
 	 */
 	@Override
 	public void initialize(URL location, ResourceBundle resources) {
-		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-		session.addActiveScenarioChangeListener(new ActiveScenarioChangeListener());
+		this.loader = Executors.newFixedThreadPool(Integer.parseInt(this.loaderThreads));
+		this.swimList.setCellFactory(listView -> new SwimListCell());
+		this.swimPaneTitle = this.swimPane.getText();
+		this.worldService.subscribe(new WorldChangeListener(),
+				WorldEventType.ACTIVE_SCENARIO, WorldEventType.OBSTACLES);
 		this.initScenario();
 		this.initObstacles();
 	}
@@ -117,35 +236,113 @@ public class SwimPresenter implements Initializable {
 	 * Initializes the scenario of this swim presenter.
 	 */
 	private void initScenario() {
-		if (null != this.scenario) {
-			this.scenario.removePropertyChangeListener(this.ocl);
-		}
-		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-		this.scenario = session.getActiveScenario();
-		this.scenario.addObstaclesChangeListener(this.ocl);
+		this.scenario = this.worldService.getActiveScenario();
 	}
 	
 	/**
-	 * Initializes the obstacles of this swim presenter.
+	 * Initializes the obstacles of this swim presenter rebuilding the swim
+	 * index from the obstacles of the active scenario.
 	 */
 	private void initObstacles() {
 		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
 		Set<Obstacle> obstacles = session.getActiveScenario().getObstacles();
+		synchronized (this.pendingAdditions) {
+			this.pendingAdditions.clear();
+			this.pendingRemovals.clear();
+			this.pendingAdditions.notifyAll();
+		}
+		this.swimIndex.clear();
+		this.swimIndex.add(obstacles);
+		Set<String> ids = this.swimIndex.getIds();
 		Platform.runLater(new Runnable() {
 			@Override
 			public void run() {
+				listedIds.clear();
+				listedIds.addAll(ids);
 				swimList.getItems().clear();
-				swimList.getItems().addAll(obstacles.stream()
-						.map(o -> o.getCostInterval().getId())
-						.distinct()
-						.collect(Collectors.toSet()));
+				swimList.getItems().addAll(ids);
 				swimList.refresh();
 			}
 		});
 	}
 	
 	/**
-	 * Adds a swim item to the swim view.
+	 * Updates the obstacles of this swim presenter. Pending submissions of
+	 * this swim presenter which have been applied to the active scenario are
+	 * transferred to the swim index such that obstacles are only indexed
+	 * once they are part of the scenario. Once no submissions are pending
+	 * anymore, the swim index is reconciled with the obstacles of the active
+	 * scenario to capture changes made other than via this swim presenter,
+	 * that is, if the number of indexed obstacles disagrees with the scenario
+	 * or the change has not been caused by this swim presenter.
+	 */
+	private void updateObstacles() {
+		Set<Obstacle> obstacles = this.scenario.getObstacles();
+		Set<String> ids = new HashSet<>();
+		boolean isPending = false;
+		boolean isOwn = this.isToggled.getAndSet(false);
+		
+		synchronized (this.pendingAdditions) {
+			List<Obstacle> added = new ArrayList<>();
+			Iterator<Obstacle> additions = this.pendingAdditions.iterator();
+			while (additions.hasNext()) {
+				Obstacle obstacle = additions.next();
+				if (obstacles.contains(obstacle)) {
+					added.add(obstacle);
+					additions.remove();
+				}
+			}
+			
+			List<Obstacle> removed = new ArrayList<>();
+			Iterator<Obstacle> removals = this.pendingRemovals.iterator();
+			while (removals.hasNext()) {
+				Obstacle obstacle = removals.next();
+				if (!obstacles.contains(obstacle)) {
+					removed.add(obstacle);
+					removals.remove();
+				}
+			}
+			
+			ids.addAll(this.swimIndex.add(added));
+			ids.addAll(this.swimIndex.remove(removed));
+			isPending = !this.pendingAdditions.isEmpty() || !this.pendingRemovals.isEmpty();
+			isOwn |= !added.isEmpty() || !removed.isEmpty();
+			this.pendingAdditions.notifyAll();
+		}
+		
+		if (!isPending && (!isOwn || (obstacles.size() != this.swimIndex.size()))) {
+			ids.addAll(this.swimIndex.reconcile(obstacles));
+		}
+		this.updateSwimItems(ids);
+	}
+	
+	/**
+	 * Updates the affected swim items of the swim view.
+	 * 
+	 * @param ids the identifiers of the affected swim items
+	 */
+	private void updateSwimItems(Set<String> ids) {
+		Platform.runLater(new Runnable() {
+			@Override
+			public void run() {
+				for (String id : ids) {
+					if (swimIndex.contains(id)) {
+						if (listedIds.add(id)) {
+							swimList.getItems().add(id);
+						}
+					} else if (listedIds.remove(id)) {
+						swimList.getItems().remove(id);
+					}
+				}
+				swimList.refresh();
+			}
+		});
+	}
+	
+	/**
+	 * Adds one or more swim items to the swim view. The selected swim files
+	 * are loaded in parallel and their obstacles are submitted in chunks to
+	 * the active scenario as soon as they have been loaded.
 	 */
 	public void addSwimItem() {
 		FileChooser fileChooser = new FileChooser();
@@ -154,17 +351,48 @@ public class SwimPresenter implements Initializable {
 				new ExtensionFilter[] { new ExtensionFilter(
 						SwimPresenter.FILE_CHOOSER_DESCRIPTION_SWIM,
 						SwimPresenter.swimFileExtension)});
-		File file = fileChooser.showOpenDialog(null);
+		List<File> files = fileChooser.showOpenMultipleDialog(null);
 		
-		if (null != file) {
+		if ((null != files) && !files.isEmpty()) {
 			executor.execute(new Runnable() {
 				@Override
 				public void run() {
 					if (worldModel.load()) {
-						SwimResource resource = new SwimResource(file.toURI());
-						SwimLoader loader = new SwimLoader();
-						Set<Obstacle> obstacles = loader.load(resource);
-						scenario.submitAddObstacles(obstacles);
+						loadSwimFiles(files);
+						worldModel.loaded();
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Adds the swim items of a directory including its sub-directories to
+	 * the swim view.
+	 */
+	public void addSwimDirectory() {
+		DirectoryChooser directoryChooser = new DirectoryChooser();
+		directoryChooser.setTitle(SwimPresenter.DIRECTORY_CHOOSER_TITLE_SWIM_LOAD);
+		File directory = directoryChooser.showDialog(null);
+		
+		if (null != directory) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					String suffix = SwimPresenter.swimFileExtension.replace("*", "");
+					List<File> files = new ArrayList<>();
+					try (Stream<Path> paths = Files.walk(directory.toPath())) {
+						files.addAll(paths
+								.filter(path -> Files.isRegularFile(path))
+								.filter(path -> path.getFileName().toString().endsWith(suffix))
+								.map(Path::toFile)
+								.collect(Collectors.toList()));
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+					
+					if (!files.isEmpty() && worldModel.load()) {
+						loadSwimFiles(files);
 						worldModel.loaded();
 					}
 				}
@@ -172,6 +400,256 @@ public class SwimPresenter implements Initializable {
 		}
 	}
 	
+	/**
+	 * Starts or stops watching a swim spool directory. Swim files landing in
+	 * the watched directory are ingested into the active scenario as they
+	 * arrive while the ingest statistics are shown in the swim view.
+	 */
+	public void watchSwimDirectory() {
+		if (this.watchMenuItem.isSelected()) {
+			DirectoryChooser directoryChooser = new DirectoryChooser();
+			directoryChooser.setTitle(SwimPresenter.DIRECTORY_CHOOSER_TITLE_SWIM_LOAD);
+			File directory = directoryChooser.showDialog(null);
+			
+			if (null != directory) {
+				int chunkSize = Math.max(1, Integer.parseInt(this.obstacleChunkSize));
+				SwimWatcher watcher = new SwimWatcher(directory.toPath(),
+						SwimPresenter.swimFileExtension.replace("*", ""),
+						Integer.parseInt(this.watchThreads),
+						Integer.parseInt(this.watchQueueCapacity),
+						new AppliedConsumer(chunkSize));
+				watcher.setRate(Double.parseDouble(this.watchRate));
+				try {
+					watcher.start();
+					this.swimWatcher = watcher;
+					this.report = this.reporter.scheduleAtFixedRate(new Runnable() {
+						@Override
+						public void run() {
+							SwimIngestStatistics statistics = watcher.getStatistics();
+							Platform.runLater(new Runnable() {
+								@Override
+								public void run() {
+									swimPane.setText(swimPaneTitle + " | " + statistics.toString());
+								}
+							});
+						}
+					}, 1, 1, TimeUnit.SECONDS);
+				} catch (IOException e) {
+					e.printStackTrace();
+					this.watchMenuItem.setSelected(false);
+				}
+			} else {
+				this.watchMenuItem.setSelected(false);
+			}
+		} else if (null != this.swimWatcher) {
+			this.report.cancel(false);
+			this.swimWatcher.stop();
+			this.swimWatcher = null;
+			this.swimPane.setText(this.swimPaneTitle);
+		}
+	}
+	
+	/**
+	 * Replays the recorded swim files of a directory at the speed given by
+	 * the user data of the replay menu item while the replay statistics are
+	 * shown in the swim view. The replay blocks until its previous
+	 * submission has been applied to the active scenario.
+	 * 
+	 * @param event the action event of the replay menu item
+	 */
+	public void replaySwimDirectory(ActionEvent event) {
+		double speed = Double.parseDouble(((MenuItem) event.getSource()).getUserData().toString());
+		DirectoryChooser directoryChooser = new DirectoryChooser();
+		directoryChooser.setTitle(SwimPresenter.DIRECTORY_CHOOSER_TITLE_SWIM_LOAD);
+		File directory = directoryChooser.showDialog(null);
+		
+		if (null != directory) {
+			this.stopSwimReplay();
+			int chunkSize = Math.max(1, Integer.parseInt(this.obstacleChunkSize));
+			SwimReplay replay = new SwimReplay(directory.toPath(),
+					SwimPresenter.swimFileExtension.replace("*", ""), speed,
+					Integer.parseInt(this.replayThreads),
+					Integer.parseInt(this.replayLookahead),
+					new AppliedConsumer(chunkSize),
+					obstacles -> submitRemoveObstacles(scenario, obstacles));
+			this.worldService.subscribe(replay, WorldEventType.OBSTACLES, WorldEventType.TRAJECTORY);
+			replay.start();
+			this.swimReplay = replay;
+			this.replayReport = this.reporter.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					SwimReplayStatistics statistics = replay.getStatistics();
+					Platform.runLater(new Runnable() {
+						@Override
+						public void run() {
+							swimPane.setText(swimPaneTitle + " | " + statistics.toString());
+						}
+					});
+				}
+			}, 1, 1, TimeUnit.SECONDS);
+		}
+	}
+	
+	/**
+	 * Stops the swim replay of the swim view.
+	 */
+	public void stopSwimReplay() {
+		if (null != this.swimReplay) {
+			this.replayReport.cancel(false);
+			this.worldService.unsubscribe(this.swimReplay);
+			this.swimReplay.stop();
+			this.swimReplay = null;
+			this.swimPane.setText(this.swimPaneTitle);
+		}
+	}
+	
+	/**
+	 * Loads swim files in parallel on the loader pool of this swim presenter
+	 * and submits the obstacles of each loaded swim file in bounded chunks
+	 * to the active scenario in the order of completion.
+	 * 
+	 * @param files the swim files to be loaded
+	 */
+	private void loadSwimFiles(List<File> files) {
+		Scenario scenario = this.scenario;
+		int chunkSize = Math.max(1, Integer.parseInt(this.obstacleChunkSize));
+		long start = System.nanoTime();
+		long bytes = 0;
+		for (File file : files) {
+			bytes += file.length();
+		}
+		
+		CompletionService<Set<Obstacle>> completion = new ExecutorCompletionService<>(this.loader);
+		Map<Future<Set<Obstacle>>, File> pending = new HashMap<>();
+		for (File file : files) {
+			pending.put(completion.submit(new Callable<Set<Obstacle>>() {
+				@Override
+				public Set<Obstacle> call() throws Exception {
+					long loadStart = System.nanoTime();
+					Set<Obstacle> obstacles = loaders.get().load(new SwimResource(file.toURI()));
+					Logging.logger().info(String.format("loaded swim file %s (%d bytes) in %d ms",
+							file.getName(), file.length(),
+							(System.nanoTime() - loadStart) / 1000000L));
+					return obstacles;
+				}
+			}), file);
+		}
+		
+		int completedFiles = 0;
+		int failedFiles = 0;
+		long completedBytes = 0;
+		this.worldModel.setLoadingProgress(new LoadingProgress(
+				files.size(), 0, 0, bytes, 0, Duration.ZERO));
+		
+		while (!pending.isEmpty()) {
+			try {
+				Future<Set<Obstacle>> future = completion.take();
+				File file = pending.remove(future);
+				try {
+					Set<Obstacle> obstacles = future.get();
+					if (null != obstacles) {
+						this.submitAddObstacles(scenario, obstacles, chunkSize);
+					} else {
+						failedFiles++;
+					}
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					failedFiles++;
+				}
+				completedFiles++;
+				completedBytes += file.length();
+				this.worldModel.setLoadingProgress(new LoadingProgress(
+						files.size(), completedFiles, failedFiles, bytes, completedBytes,
+						Duration.ofNanos(System.nanoTime() - start)));
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+				for (Future<Set<Obstacle>> future : pending.keySet()) {
+					future.cancel(true);
+				}
+				pending.clear();
+			}
+		}
+	}
+	
+	/**
+	 * Submits obstacles to be added to a scenario in bounded chunks.
+	 * 
+	 * @param scenario the scenario
+	 * @param obstacles the obstacles to be added
+	 * @param chunkSize the maximum number of obstacles per submission
+	 */
+	private void submitAddObstacles(Scenario scenario, Set<Obstacle> obstacles, int chunkSize) {
+		// submissions are asynchronous, hence a new chunk each time
+		Set<Obstacle> chunk = new HashSet<>(chunkSize);
+		for (Obstacle obstacle : obstacles) {
+			chunk.add(obstacle);
+			if (chunk.size() == chunkSize) {
+				this.submitAddObstacles(scenario, chunk);
+				chunk = new HashSet<>(chunkSize);
+			}
+		}
+		if (!chunk.isEmpty()) {
+			this.submitAddObstacles(scenario, chunk);
+		}
+	}
+	
+	/**
+	 * Submits obstacles to be added to a scenario and records them as pending
+	 * additions if the scenario is the active scenario. Pending additions are
+	 * indexed once the scenario has applied them.
+	 * 
+	 * @param scenario the scenario
+	 * @param obstacles the obstacles to be added
+	 */
+	private void submitAddObstacles(Scenario scenario, Set<Obstacle> obstacles) {
+		if (scenario == this.scenario) {
+			synchronized (this.pendingAdditions) {
+				this.pendingAdditions.addAll(obstacles);
+			}
+		}
+		scenario.submitAddObstacles(obstacles);
+	}
+	
+	/**
+	 * Waits until obstacles submitted to be added to the active scenario are
+	 * no longer pending, that is, the scenario has applied them or they have
+	 * been withdrawn.
+	 * 
+	 * @param obstacles the submitted obstacles
+	 * 
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private void awaitAddObstacles(Set<Obstacle> obstacles) throws InterruptedException {
+		synchronized (this.pendingAdditions) {
+			while (obstacles.stream().anyMatch(this.pendingAdditions::contains)) {
+				this.pendingAdditions.wait();
+			}
+		}
+	}
+	
+	/**
+	 * Submits obstacles to be removed from a scenario and records them as
+	 * pending removals if the scenario is the active scenario. Pending
+	 * removals are removed from the swim index once the scenario has applied
+	 * them, whereas obstacles which have not been indexed yet are merely no
+	 * longer expected to be added.
+	 * 
+	 * @param scenario the scenario
+	 * @param obstacles the obstacles to be removed
+	 */
+	private void submitRemoveObstacles(Scenario scenario, Set<Obstacle> obstacles) {
+		if (scenario == this.scenario) {
+			synchronized (this.pendingAdditions) {
+				for (Obstacle obstacle : obstacles) {
+					if (!this.pendingAdditions.remove(obstacle)) {
+						this.pendingRemovals.add(obstacle);
+					}
+				}
+			}
+		}
+		scenario.submitRemoveObstacles(obstacles);
+	}
+	
 	/**
 	 * Removes a swim item from the swim view.
 	 */
@@ -181,10 +659,7 @@ public class SwimPresenter implements Initializable {
 			@Override
 			public void run() {
 				if (null != swimId) {
-					Set<Obstacle> obstacles = scenario.getObstacles().stream()
-							.filter(o -> o.getCostInterval().getId().equals(swimId))
-							.collect(Collectors.toSet());
-					scenario.submitRemoveObstacles(obstacles);
+					submitRemoveObstacles(scenario, swimIndex.getObstacles(swimId));
 				}
 			}
 		});
@@ -197,6 +672,14 @@ public class SwimPresenter implements Initializable {
 		this.executor.execute(new Runnable() {
 			@Override
 			public void run() {
+				// indexed obstacles are removed from the index once cleared
+				synchronized (pendingAdditions) {
+					pendingAdditions.clear();
+					pendingAdditions.notifyAll();
+					for (String id : swimIndex.getIds()) {
+						pendingRemovals.addAll(swimIndex.getObstacles(id));
+					}
+				}
 				scenario.submitClearObstacles();
 			}
 		});
@@ -211,10 +694,8 @@ public class SwimPresenter implements Initializable {
 			@Override
 			public void run() {
 				if (null != swimId) {
-					Set<Obstacle> obstacles = scenario.getObstacles().stream()
-							.filter(o -> o.getCostInterval().getId().equals(swimId))
-							.collect(Collectors.toSet());
-					scenario.submitEnableObstacles(obstacles);
+					isToggled.set(true);
+					scenario.submitEnableObstacles(swimIndex.getObstacles(swimId));
 				}
 			}
 		});
@@ -229,55 +710,120 @@ public class SwimPresenter implements Initializable {
 			@Override
 			public void run() {
 				if (null != swimId) {
-					Set<Obstacle> obstacles = scenario.getObstacles().stream()
-							.filter(o -> o.getCostInterval().getId().equals(swimId))
-							.collect(Collectors.toSet());
-					scenario.submitDisableObstacles(obstacles);
+					isToggled.set(true);
+					scenario.submitDisableObstacles(swimIndex.getObstacles(swimId));
 				}
 			}
 		});
 	}
 	
 	/**
-	 * Realizes an obstacle change listener.
+	 * Realizes a world change listener.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class WorldChangeListener implements WorldEventListener {
+		
+		/**
+		 * Initializes the scenario and obstacles if the active scenario has
+		 * changed, and updates the obstacles if they have changed.
+		 * 
+		 * @param event the world event
+		 * 
+		 * @see WorldEventListener#worldChanged(WorldEvent)
+		 */
+		@Override
+		public void worldChanged(WorldEvent event) {
+			switch (event.getType()) {
+			case ACTIVE_SCENARIO:
+				initScenario();
+				initObstacles();
+				break;
+			case OBSTACLES:
+				if (event.getScenario() == scenario) {
+					updateObstacles();
+				}
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Realizes an obstacle consumer submitting obstacles to the active
+	 * scenario in chunks and blocking until the previous submission has been
+	 * applied. One submission remains pending while the next one is prepared
+	 * such that the scenario is kept busy without accumulating a backlog.
 	 * 
 	 * @author Stephan Heinemann
 	 *
 	 */
-	private class ObstaclesChangeListener implements PropertyChangeListener {
+	private class AppliedConsumer implements Consumer<Set<Obstacle>> {
+		
+		/** the maximum number of obstacles per submission of this applied consumer */
+		private final int chunkSize;
+		
+		/** the previously submitted obstacles of this applied consumer */
+		private Set<Obstacle> previous = Collections.emptySet();
 		
 		/**
-		 * Initializes the obstacles if they have changed.
+		 * Constructs a new applied consumer.
 		 * 
-		 * @param evt the property change event associated with the obstacle change
+		 * @param chunkSize the maximum number of obstacles per submission
+		 */
+		public AppliedConsumer(int chunkSize) {
+			this.chunkSize = chunkSize;
+		}
+		
+		/**
+		 * Submits obstacles to the active scenario and waits until the
+		 * previously submitted obstacles have been applied.
+		 * 
+		 * @param obstacles the obstacles to be submitted
 		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 * @see Consumer#accept(Object)
 		 */
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initObstacles();
+		public void accept(Set<Obstacle> obstacles) {
+			submitAddObstacles(scenario, obstacles, this.chunkSize);
+			try {
+				awaitAddObstacles(this.previous);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.previous = obstacles;
 		}
 	}
 	
 	/**
-	 * Realizes an active scenario change listener.
+	 * Realizes a swim list cell showing the number of obstacles and the time
+	 * extent of a swim item.
 	 * 
 	 * @author Stephan Heinemann
 	 *
 	 */
-	private class ActiveScenarioChangeListener implements PropertyChangeListener {
+	private class SwimListCell extends ListCell<String> {
 		
 		/**
-		 * Initializes the scenario and obstacles if the active scenario has changed.
+		 * Updates a swim list cell item.
 		 * 
-		 * @param evt the property change event associate with the active scenario change
+		 * @param id the identifier of the swim item
+		 * @param empty indicates an empty update
 		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 * @see ListCell#updateItem(Object, boolean)
 		 */
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initScenario();
-			initObstacles();
+		public void updateItem(String id, boolean empty) {
+			super.updateItem(id, empty);
+			
+			if (empty || (null == id)) {
+				this.setText(null);
+				this.setTooltip(null);
+			} else {
+				this.setText(String.format("%s (%d)", id, swimIndex.getCount(id)));
+				this.setTooltip(new Tooltip(String.format("%s - %s",
+						swimIndex.getStart(id), swimIndex.getEnd(id))));
+			}
 		}
 	}
 	
@@ -0,0 +1,502 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.swim;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.cfar.swim.worldwind.data.SwimLoader;
+import com.cfar.swim.worldwind.data.SwimResource;
+import com.cfar.swim.worldwind.render.Obstacle;
+import com.cfar.swim.worldwind.ui.world.WorldEvent;
+import com.cfar.swim.worldwind.ui.world.WorldEventListener;
+
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * Realizes a time-scaled replay of recorded swim traffic. The swim files of
+ * a directory are replayed in the order of their recording time scaled by
+ * the replay speed. The recording time is the first time position of the
+ * swim content, the time stamp of the file name, or the last modification
+ * time of the file, whichever is found first, since copies of recordings do
+ * not necessarily preserve modification times. Each replayed swim item
+ * supersedes the obstacles previously replayed for the same swim item such
+ * that obstacles are added and removed as in live traffic. Files are parsed
+ * ahead of the replay clock on a bounded window. The directory is listed
+ * and the recording times are determined on the replay thread such that
+ * starting a replay does not block the caller. The obstacle adder may block
+ * until previous submissions have been applied to exert backpressure on the
+ * replay, which then lags behind its clock instead of accumulating a backlog.
+ * 
+ * As a world event listener of obstacle and trajectory changes, the replay
+ * measures how far the world view and planner lag behind its submissions.
+ * An obstacle change only observes a submission if the changed scenario
+ * contains the last obstacle of that submission. A trajectory change only
+ * observes submissions applied before the previous trajectory change such
+ * that the planner has started at least one full revision after their
+ * application.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class SwimReplay implements WorldEventListener {
+	
+	/** the number of leading bytes of a swim file searched for a time position */
+	private static final int TIME_SEARCH_BYTES = 1 << 16;
+	
+	/** the pattern of a time position in swim content */
+	private static final Pattern CONTENT_TIME = Pattern.compile(
+			"<(?:\\w+:)?(?:timePosition|issueTime)[^>]*>\\s*"
+			+ "(\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}(?::\\d{2}(?:\\.\\d+)?)?(?:Z|[+-]\\d{2}:\\d{2}))");
+	
+	/** the pattern of a time stamp in a swim file name */
+	private static final Pattern NAME_TIME = Pattern.compile(
+			"(\\d{4})-?(\\d{2})-?(\\d{2})[T_-]?(\\d{2}):?(\\d{2}):?(\\d{2})?");
+	
+	/** the replayed directory of this swim replay */
+	private final Path directory;
+	
+	/** the swim file suffix of this swim replay */
+	private final String suffix;
+	
+	/** the replay speed of this swim replay */
+	private final double speed;
+	
+	/** the number of files parsed ahead of the replay clock of this swim replay */
+	private final int lookahead;
+	
+	/** the obstacle adder of this swim replay */
+	private final Consumer<Set<Obstacle>> adder;
+	
+	/** the obstacle remover of this swim replay */
+	private final Consumer<Set<Obstacle>> remover;
+	
+	/** the parser of this swim replay */
+	private final ExecutorService parser;
+	
+	/** the replayed files of this swim replay in recording order */
+	private final List<Path> files = new ArrayList<>();
+	
+	/** the recording times of the replayed files of this swim replay */
+	private final List<Instant> times = new ArrayList<>();
+	
+	/** the replay thread of this swim replay */
+	private Thread thread = null;
+	
+	/** the replay start of this swim replay in nanoseconds */
+	private long start = 0;
+	
+	/** the number of replayed files of this swim replay */
+	private int replayedFiles = 0;
+	
+	/** the number of submitted obstacles of this swim replay */
+	private long submittedObstacles = 0;
+	
+	/** the last lag of the submissions behind the replay clock in nanoseconds */
+	private long scheduleLag = 0;
+	
+	/** the submissions not yet observed by the world view of this swim replay */
+	private final Deque<Submission> unapplied = new ArrayDeque<>();
+	
+	/** the submissions observed by the world view but not yet by the planner */
+	private final Deque<Submission> unplanned = new ArrayDeque<>();
+	
+	/** the last lag of the world view behind the submissions in nanoseconds */
+	private long viewLag = 0;
+	
+	/** the last lag of the planner behind the submissions in nanoseconds */
+	private long plannerLag = -1;
+	
+	/** the time of the last trajectory change in nanoseconds */
+	private long lastTrajectory = 0;
+	
+	/**
+	 * Constructs a new swim replay.
+	 * 
+	 * @param directory the directory of recorded swim files
+	 * @param suffix the suffix of recorded swim files
+	 * @param speed the replay speed relative to real time
+	 * @param parsers the number of parser threads
+	 * @param lookahead the number of files parsed ahead of the replay clock
+	 * @param adder the consumer of obstacles to be added, possibly blocking
+	 *              until previously added obstacles have been applied
+	 * @param remover the consumer of obstacles to be removed
+	 */
+	public SwimReplay(Path directory, String suffix, double speed, int parsers, int lookahead,
+			Consumer<Set<Obstacle>> adder, Consumer<Set<Obstacle>> remover) {
+		this.directory = directory;
+		this.suffix = suffix;
+		this.speed = speed;
+		this.lookahead = Math.max(1, lookahead);
+		this.adder = adder;
+		this.remover = remover;
+		this.parser = Executors.newFixedThreadPool(Math.max(1, parsers));
+	}
+	
+	/**
+	 * Starts this swim replay on its replay thread.
+	 */
+	public synchronized void start() {
+		this.thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					index();
+					replay();
+				} catch (IOException e) {
+					e.printStackTrace();
+					parser.shutdownNow();
+				}
+			}
+		}, "swim-replay");
+		this.thread.setDaemon(true);
+		this.start = System.nanoTime();
+		this.thread.start();
+	}
+	
+	/**
+	 * Indexes the recorded swim files of the replayed directory in the order
+	 * of their recording time. Must be executed on the replay thread.
+	 * 
+	 * @throws IOException if the recorded swim files cannot be listed
+	 */
+	private void index() throws IOException {
+		List<Path> paths = new ArrayList<>();
+		try (Stream<Path> stream = Files.list(this.directory)) {
+			paths.addAll(stream
+					.filter(path -> Files.isRegularFile(path))
+					.filter(path -> path.getFileName().toString().endsWith(this.suffix))
+					.collect(Collectors.toList()));
+		}
+		Map<Path, Instant> recorded = new HashMap<>();
+		for (Path path : paths) {
+			recorded.put(path, SwimReplay.getRecordingTime(path));
+		}
+		paths.sort(Comparator.comparing((Path path) -> recorded.get(path)).thenComparing(path -> path));
+		synchronized (this) {
+			for (Path path : paths) {
+				this.files.add(path);
+				this.times.add(recorded.get(path));
+			}
+			// the replay clock starts once the recordings are indexed
+			this.start = System.nanoTime();
+		}
+		Logging.logger().info(String.format("replaying %d swim files of %s at %.0fx",
+				this.files.size(), this.directory, this.speed));
+	}
+	
+	/**
+	 * Stops this swim replay.
+	 */
+	public synchronized void stop() {
+		if (null != this.thread) {
+			this.thread.interrupt();
+		}
+		this.parser.shutdownNow();
+	}
+	
+	/**
+	 * Gets the current statistics of this swim replay.
+	 * 
+	 * @return the current statistics of this swim replay
+	 */
+	public synchronized SwimReplayStatistics getStatistics() {
+		long now = System.nanoTime();
+		long elapsed = now - this.start;
+		Instant clock = this.times.isEmpty() ? Instant.EPOCH : this.times.get(0)
+				.plusNanos((long) (elapsed * this.speed));
+		if ((this.replayedFiles == this.files.size()) && !this.times.isEmpty()) {
+			clock = this.times.get(this.times.size() - 1);
+		}
+		
+		// unobserved submissions contribute their current age to the lag,
+		// but only to the planner lag once the planner has been observed
+		long viewLag = this.unapplied.isEmpty()
+				? this.viewLag : Math.max(this.viewLag, now - this.unapplied.peek().submitted);
+		long plannerPending = this.unplanned.isEmpty()
+				? (this.unapplied.isEmpty() ? 0 : this.unapplied.peek().submitted)
+				: this.unplanned.peek().submitted;
+		long plannerLag = ((0 == plannerPending) || (0 > this.plannerLag))
+				? this.plannerLag : Math.max(this.plannerLag, now - plannerPending);
+		
+		return new SwimReplayStatistics(this.speed, clock,
+				this.replayedFiles, this.files.size(), this.submittedObstacles,
+				this.submittedObstacles / Math.max(elapsed / 1E9d, 1E-3d),
+				this.scheduleLag / 1E6d, viewLag / 1E6d,
+				(0 > plannerLag) ? -1d : plannerLag / 1E6d);
+	}
+	
+	/**
+	 * Observes obstacle and trajectory changes in order to measure the lag
+	 * of the world view and planner behind the submissions of this swim
+	 * replay. An obstacle change observes the latest submission whose last
+	 * obstacle is contained in the changed scenario and all earlier ones,
+	 * since submissions are applied in order. A trajectory change observes
+	 * the submissions applied before the previous trajectory change.
+	 * 
+	 * @param event the world event
+	 * 
+	 * @see WorldEventListener#worldChanged(WorldEvent)
+	 */
+	@Override
+	public void worldChanged(WorldEvent event) {
+		switch (event.getType()) {
+		case OBSTACLES:
+			Set<Obstacle> obstacles = event.getScenario().getObstacles();
+			synchronized (this) {
+				long now = System.nanoTime();
+				Submission observed = null;
+				Iterator<Submission> submissions = this.unapplied.descendingIterator();
+				while ((null == observed) && submissions.hasNext()) {
+					Submission submission = submissions.next();
+					if (obstacles.contains(submission.last)) {
+						observed = submission;
+					}
+				}
+				if (null != observed) {
+					Submission applied = null;
+					do {
+						applied = this.unapplied.poll();
+						applied.applied = now;
+						this.unplanned.add(applied);
+					} while (applied != observed);
+					this.viewLag = now - observed.submitted;
+				}
+			}
+			break;
+		case TRAJECTORY:
+			synchronized (this) {
+				long now = System.nanoTime();
+				while (!this.unplanned.isEmpty() && (this.unplanned.peek().applied < this.lastTrajectory)) {
+					this.plannerLag = now - this.unplanned.poll().submitted;
+				}
+				this.lastTrajectory = now;
+			}
+			break;
+		}
+	}
+	
+	/**
+	 * Replays the recorded swim files according to the replay clock.
+	 */
+	private void replay() {
+		Map<String, Set<Obstacle>> live = new HashMap<>();
+		Deque<Future<Set<Obstacle>>> window = new ArrayDeque<>();
+		int next = 0;
+		
+		try {
+			for (int index = 0; index < this.files.size(); index++) {
+				while ((next < this.files.size()) && (window.size() < this.lookahead)) {
+					window.add(this.parse(this.files.get(next++)));
+				}
+				Future<Set<Obstacle>> future = window.poll();
+				
+				long due = this.start + (long) (Duration.between(
+						this.times.get(0), this.times.get(index)).toNanos() / this.speed);
+				long delay = due - System.nanoTime();
+				if (0 < delay) {
+					TimeUnit.NANOSECONDS.sleep(delay);
+				}
+				
+				Set<Obstacle> parsed = null;
+				try {
+					parsed = future.get();
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+				}
+				
+				if (null != parsed) {
+					Map<String, Set<Obstacle>> items = parsed.stream()
+							.collect(Collectors.groupingBy(o -> o.getCostInterval().getId(), Collectors.toSet()));
+					Set<Obstacle> superseded = new HashSet<>();
+					for (Map.Entry<String, Set<Obstacle>> item : items.entrySet()) {
+						Set<Obstacle> previous = live.put(item.getKey(), item.getValue());
+						if (null != previous) {
+							superseded.addAll(previous);
+						}
+					}
+					if (!superseded.isEmpty()) {
+						this.remover.accept(superseded);
+					}
+					this.adder.accept(parsed);
+				}
+				this.submitted(due, parsed);
+			}
+			Logging.logger().info("swim replay finished: " + this.getStatistics());
+		} catch (InterruptedException e) {
+			// stopped
+		} finally {
+			this.parser.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Parses a recorded swim file on the parser of this swim replay.
+	 * 
+	 * @param path the path of the recorded swim file
+	 * 
+	 * @return the future obstacles of the recorded swim file
+	 */
+	private Future<Set<Obstacle>> parse(Path path) {
+		return this.parser.submit(new Callable<Set<Obstacle>>() {
+			@Override
+			public Set<Obstacle> call() throws Exception {
+				return new SwimLoader().load(new SwimResource(path.toUri()));
+			}
+		});
+	}
+	
+	/**
+	 * Records a submission of this swim replay. The last submitted obstacle
+	 * is submitted in the last chunk and identifies the submission in the
+	 * scenario.
+	 * 
+	 * @param due the due time of the submission in nanoseconds
+	 * @param obstacles the submitted obstacles, possibly null
+	 */
+	private synchronized void submitted(long due, Set<Obstacle> obstacles) {
+		long now = System.nanoTime();
+		this.replayedFiles++;
+		this.scheduleLag = Math.max(0, now - due);
+		if ((null != obstacles) && !obstacles.isEmpty()) {
+			this.submittedObstacles += obstacles.size();
+			Obstacle last = null;
+			for (Obstacle obstacle : obstacles) {
+				last = obstacle;
+			}
+			this.unapplied.add(new Submission(now, last));
+		}
+	}
+	
+	/**
+	 * Gets the recording time of a swim file. The first time position of the
+	 * swim content is preferred over the time stamp of the file name, and
+	 * the last modification time of the file is used as a fallback.
+	 * 
+	 * @param path the path of the swim file
+	 * 
+	 * @return the recording time of the swim file
+	 * 
+	 * @throws IOException if the swim file cannot be accessed
+	 */
+	private static Instant getRecordingTime(Path path) throws IOException {
+		try (InputStream in = Files.newInputStream(path)) {
+			byte[] head = new byte[SwimReplay.TIME_SEARCH_BYTES];
+			int length = 0;
+			int read = 0;
+			while ((length < head.length) && (-1 != (read = in.read(head, length, head.length - length)))) {
+				length += read;
+			}
+			Matcher matcher = SwimReplay.CONTENT_TIME.matcher(
+					new String(head, 0, length, StandardCharsets.UTF_8));
+			if (matcher.find()) {
+				return OffsetDateTime.parse(matcher.group(1)).toInstant();
+			}
+		} catch (DateTimeException e) {
+			// fall back to the file name
+		}
+		
+		Matcher matcher = SwimReplay.NAME_TIME.matcher(path.getFileName().toString());
+		if (matcher.find()) {
+			try {
+				return LocalDateTime.of(
+						Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+						Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)),
+						Integer.parseInt(matcher.group(5)),
+						(null == matcher.group(6)) ? 0 : Integer.parseInt(matcher.group(6)))
+						.toInstant(ZoneOffset.UTC);
+			} catch (DateTimeException e) {
+				// fall back to the modification time
+			}
+		}
+		
+		return Files.getLastModifiedTime(path).toInstant();
+	}
+	
+	/**
+	 * Realizes a submission of a swim replay.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private static class Submission {
+		
+		/** the submission time of this submission in nanoseconds */
+		private final long submitted;
+		
+		/** the last submitted obstacle of this submission */
+		private final Obstacle last;
+		
+		/** the time this submission was observed applied in nanoseconds */
+		private long applied = 0;
+		
+		/**
+		 * Constructs a new submission.
+		 * 
+		 * @param submitted the submission time in nanoseconds
+		 * @param last the last submitted obstacle
+		 */
+		public Submission(long submitted, Obstacle last) {
+			this.submitted = submitted;
+			this.last = last;
+		}
+	}
+	
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.swim;
+
+import java.time.Instant;
+
+/**
+ * Realizes an immutable statistics snapshot of a swim replay.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class SwimReplayStatistics {
+	
+	/** the replay speed of this swim replay statistics */
+	private final double speed;
+	
+	/** the replay clock of this swim replay statistics */
+	private final Instant clock;
+	
+	/** the number of replayed files of this swim replay statistics */
+	private final int files;
+	
+	/** the number of files to be replayed of this swim replay statistics */
+	private final int totalFiles;
+	
+	/** the number of submitted obstacles of this swim replay statistics */
+	private final long obstacles;
+	
+	/** the achieved throughput of this swim replay statistics in obstacles per second */
+	private final double throughput;
+	
+	/** the lag of the submissions behind the replay clock in milliseconds */
+	private final double scheduleLag;
+	
+	/** the lag of the world view behind the submissions in milliseconds */
+	private final double viewLag;
+	
+	/** the lag of the planner behind the submissions in milliseconds, negative if unknown */
+	private final double plannerLag;
+	
+	/**
+	 * Constructs a new swim replay statistics.
+	 * 
+	 * @param speed the replay speed
+	 * @param clock the replay clock
+	 * @param files the number of replayed files
+	 * @param totalFiles the number of files to be replayed
+	 * @param obstacles the number of submitted obstacles
+	 * @param throughput the achieved throughput in obstacles per second
+	 * @param scheduleLag the lag of the submissions behind the replay clock
+	 *                    in milliseconds
+	 * @param viewLag the lag of the world view behind the submissions in
+	 *                milliseconds
+	 * @param plannerLag the lag of the planner behind the submissions in
+	 *                   milliseconds, negative if unknown
+	 */
+	public SwimReplayStatistics(
+			double speed, Instant clock, int files, int totalFiles,
+			long obstacles, double throughput,
+			double scheduleLag, double viewLag, double plannerLag) {
+		this.speed = speed;
+		this.clock = clock;
+		this.files = files;
+		this.totalFiles = totalFiles;
+		this.obstacles = obstacles;
+		this.throughput = throughput;
+		this.scheduleLag = scheduleLag;
+		this.viewLag = viewLag;
+		this.plannerLag = plannerLag;
+	}
+	
+	/**
+	 * Gets the replay speed of this swim replay statistics.
+	 * 
+	 * @return the replay speed of this swim replay statistics
+	 */
+	public double getSpeed() {
+		return this.speed;
+	}
+	
+	/**
+	 * Gets the replay clock of this swim replay statistics.
+	 * 
+	 * @return the replay clock of this swim replay statistics
+	 */
+	public Instant getClock() {
+		return this.clock;
+	}
+	
+	/**
+	 * Gets the number of replayed files of this swim replay statistics.
+	 * 
+	 * @return the number of replayed files of this swim replay statistics
+	 */
+	public int getFiles() {
+		return this.files;
+	}
+	
+	/**
+	 * Gets the number of files to be replayed of this swim replay statistics.
+	 * 
+	 * @return the number of files to be replayed
+	 */
+	public int getTotalFiles() {
+		return this.totalFiles;
+	}
+	
+	/**
+	 * Gets the number of submitted obstacles of this swim replay statistics.
+	 * 
+	 * @return the number of submitted obstacles
+	 */
+	public long getObstacles() {
+		return this.obstacles;
+	}
+	
+	/**
+	 * Gets the achieved throughput of this swim replay statistics.
+	 * 
+	 * @return the achieved throughput in obstacles per second
+	 */
+	public double getThroughput() {
+		return this.throughput;
+	}
+	
+	/**
+	 * Gets the lag of the submissions behind the replay clock of this swim
+	 * replay statistics.
+	 * 
+	 * @return the lag of the submissions behind the replay clock in
+	 *         milliseconds
+	 */
+	public double getScheduleLag() {
+		return this.scheduleLag;
+	}
+	
+	/**
+	 * Gets the lag of the world view behind the submissions of this swim
+	 * replay statistics.
+	 * 
+	 * @return the lag of the world view behind the submissions in
+	 *         milliseconds
+	 */
+	public double getViewLag() {
+		return this.viewLag;
+	}
+	
+	/**
+	 * Gets the lag of the planner behind the submissions of this swim
+	 * replay statistics.
+	 * 
+	 * @return the lag of the planner behind the submissions in milliseconds,
+	 *         negative if unknown
+	 */
+	public double getPlannerLag() {
+		return this.plannerLag;
+	}
+	
+	/**
+	 * Determines whether or not the swim replay has replayed all files.
+	 * 
+	 * @return true if all files have been replayed, false otherwise
+	 */
+	public boolean isDone() {
+		return (this.files == this.totalFiles);
+	}
+	
+	/**
+	 * Gets the string representation of this swim replay statistics.
+	 * 
+	 * @return the string representation of this swim replay statistics
+	 * 
+	 * @see Object#toString()
+	 */
+	@Override
+	public String toString() {
+		String planner = (0d > this.plannerLag)
+				? "-" : String.format("%.0f ms", this.plannerLag);
+		return String.format("replay %.0fx %s | %d/%d files | %.0f obstacles/s | lag %.0f ms, view %.0f ms, planner %s",
+				this.speed, this.clock, this.files, this.totalFiles, this.throughput,
+				this.scheduleLag, this.viewLag, planner);
+	}
+	
+}
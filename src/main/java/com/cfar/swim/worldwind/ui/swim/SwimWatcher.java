@@ -0,0 +1,426 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.swim;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.cfar.swim.worldwind.data.SwimLoader;
+import com.cfar.swim.worldwind.data.SwimResource;
+import com.cfar.swim.worldwind.render.Obstacle;
+
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * Realizes a watcher of a swim spool directory ingesting swim files as they
+ * land. New files are queued by a watcher thread, parsed by a pool of parser
+ * threads and their obstacles are handed to a consumer by a single submitter
+ * thread. Both queues are bounded such that a burst of files blocks the
+ * upstream stages instead of exhausting the heap, and the submitter can be
+ * limited to a maximum obstacle rate in order not to starve the planner.
+ * The consumer is expected to block until earlier submissions have been
+ * applied such that the bounded queues are not drained into an unbounded
+ * downstream backlog.
+ * 
+ * Only files in flight and a bounded history of recently ingested files
+ * are remembered to suppress duplicate watch events and rescans.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class SwimWatcher {
+	
+	/** the default queue capacity of a swim watcher */
+	public static final int DEFAULT_QUEUE_CAPACITY = 64;
+	
+	/** the number of recently ingested files remembered by a swim watcher */
+	private static final int HISTORY_CAPACITY = 4096;
+	
+	/** the time a file has to remain unchanged before it is parsed in milliseconds */
+	private static final long SETTLE_TIME = 250;
+	
+	/** the watched directory of this swim watcher */
+	private final Path directory;
+	
+	/** the swim file suffix of this swim watcher */
+	private final String suffix;
+	
+	/** the obstacle consumer of this swim watcher */
+	private final Consumer<Set<Obstacle>> consumer;
+	
+	/** the number of parser threads of this swim watcher */
+	private final int parsers;
+	
+	/** the files waiting to be parsed of this swim watcher */
+	private final BlockingQueue<Path> files;
+	
+	/** the parsed obstacles waiting to be submitted of this swim watcher */
+	private final BlockingQueue<Set<Obstacle>> obstacles;
+	
+	/** the queued files in flight of this swim watcher */
+	private final Set<Path> queued = ConcurrentHashMap.newKeySet();
+	
+	/** the recently ingested files of this swim watcher */
+	private final Set<Path> ingested = Collections.newSetFromMap(new LinkedHashMap<Path, Boolean>() {
+		
+		/** the default serial identification of this history */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Determines whether or not the least recently ingested file is
+		 * forgotten.
+		 * 
+		 * @param eldest the least recently ingested file
+		 * 
+		 * @return true if the history capacity is exceeded, false otherwise
+		 * 
+		 * @see LinkedHashMap#removeEldestEntry(Map.Entry)
+		 */
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, Boolean> eldest) {
+			return this.size() > SwimWatcher.HISTORY_CAPACITY;
+		}
+	});
+	
+	/** the threads of this swim watcher */
+	private final List<Thread> threads = new ArrayList<>();
+	
+	/** the watch service of this swim watcher */
+	private WatchService watchService = null;
+	
+	/** the maximum submission rate of this swim watcher in obstacles per second */
+	private double rate = 0d;
+	
+	/** the number of ingested files of this swim watcher */
+	private final AtomicLong ingestedFiles = new AtomicLong();
+	
+	/** the number of failed files of this swim watcher */
+	private final AtomicLong failedFiles = new AtomicLong();
+	
+	/** the number of ingested obstacles of this swim watcher */
+	private final AtomicLong ingestedObstacles = new AtomicLong();
+	
+	/** the total parse time of this swim watcher in nanoseconds */
+	private final AtomicLong parseTime = new AtomicLong();
+	
+	/** the maximum parse time of this swim watcher in nanoseconds */
+	private final AtomicLong maxParseTime = new AtomicLong();
+	
+	/** the number of ingested files at the last statistics sample of this swim watcher */
+	private long sampleFiles = 0;
+	
+	/** the time of the last statistics sample of this swim watcher in nanoseconds */
+	private long sampleTime = System.nanoTime();
+	
+	/**
+	 * Constructs a new swim watcher.
+	 * 
+	 * @param directory the directory to be watched
+	 * @param suffix the suffix of swim files to be ingested
+	 * @param parsers the number of parser threads
+	 * @param capacity the capacity of the file and obstacle queues
+	 * @param consumer the consumer of ingested obstacles
+	 */
+	public SwimWatcher(Path directory, String suffix, int parsers, int capacity,
+			Consumer<Set<Obstacle>> consumer) {
+		this.directory = directory;
+		this.suffix = suffix;
+		this.parsers = Math.max(1, parsers);
+		this.files = new ArrayBlockingQueue<>(Math.max(1, capacity));
+		this.obstacles = new ArrayBlockingQueue<>(Math.max(1, capacity));
+		this.consumer = consumer;
+	}
+	
+	/**
+	 * Gets the watched directory of this swim watcher.
+	 * 
+	 * @return the watched directory of this swim watcher
+	 */
+	public Path getDirectory() {
+		return this.directory;
+	}
+	
+	/**
+	 * Sets the maximum submission rate of this swim watcher.
+	 * 
+	 * @param rate the maximum submission rate in obstacles per second,
+	 *             zero or less for an unlimited rate
+	 */
+	public void setRate(double rate) {
+		this.rate = rate;
+	}
+	
+	/**
+	 * Starts this swim watcher ingesting the swim files already present in
+	 * the watched directory and all swim files landing afterwards.
+	 * 
+	 * @throws IOException if the directory cannot be watched
+	 */
+	public synchronized void start() throws IOException {
+		this.watchService = FileSystems.getDefault().newWatchService();
+		this.directory.register(this.watchService,
+				StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		
+		this.threads.add(new Thread(new Runnable() {
+			@Override
+			public void run() {
+				watch();
+			}
+		}, "swim-watcher"));
+		for (int parser = 0; parser < this.parsers; parser++) {
+			this.threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					parse();
+				}
+			}, "swim-parser-" + parser));
+		}
+		this.threads.add(new Thread(new Runnable() {
+			@Override
+			public void run() {
+				submit();
+			}
+		}, "swim-submitter"));
+		
+		for (Thread thread : this.threads) {
+			thread.setDaemon(true);
+			thread.start();
+		}
+		Logging.logger().info("watching swim directory " + this.directory);
+	}
+	
+	/**
+	 * Stops this swim watcher discarding all queued files and obstacles.
+	 */
+	public synchronized void stop() {
+		if (null != this.watchService) {
+			try {
+				this.watchService.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		for (Thread thread : this.threads) {
+			thread.interrupt();
+		}
+		this.threads.clear();
+		this.files.clear();
+		this.obstacles.clear();
+		Logging.logger().info("stopped watching swim directory " + this.directory);
+	}
+	
+	/**
+	 * Gets the current statistics of this swim watcher. The ingest rate is
+	 * averaged since the previous call.
+	 * 
+	 * @return the current statistics of this swim watcher
+	 */
+	public synchronized SwimIngestStatistics getStatistics() {
+		long now = System.nanoTime();
+		long files = this.ingestedFiles.get();
+		double rate = (files - this.sampleFiles) / ((now - this.sampleTime) / 1E9d);
+		this.sampleFiles = files;
+		this.sampleTime = now;
+		
+		long parsed = files + this.failedFiles.get();
+		double parseLatency = (0 < parsed) ? (this.parseTime.get() / 1E6d) / parsed : 0d;
+		return new SwimIngestStatistics(
+				files, this.failedFiles.get(), this.ingestedObstacles.get(), rate,
+				this.files.size(), this.obstacles.size(),
+				parseLatency, this.maxParseTime.get() / 1E6d);
+	}
+	
+	/**
+	 * Watches the directory of this swim watcher queuing new swim files. The
+	 * directory is rescanned initially and whenever watch events have been
+	 * lost while the file queue was full.
+	 */
+	private void watch() {
+		try {
+			this.scan();
+			while (!Thread.currentThread().isInterrupted()) {
+				WatchKey key = this.watchService.take();
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (StandardWatchEventKinds.OVERFLOW == event.kind()) {
+						this.scan();
+					} else {
+						this.enqueue(this.directory.resolve((Path) event.context()));
+					}
+				}
+				if (!key.reset()) {
+					break;
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// stopped
+		}
+	}
+	
+	/**
+	 * Scans the directory of this swim watcher queuing all swim files that
+	 * have not been queued yet.
+	 * 
+	 * @throws InterruptedException if interrupted while waiting for the queue
+	 */
+	private void scan() throws InterruptedException {
+		List<Path> paths = new ArrayList<>();
+		try (Stream<Path> stream = Files.list(this.directory)) {
+			paths.addAll(stream.sorted().collect(Collectors.toList()));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		for (Path path : paths) {
+			this.enqueue(path);
+		}
+	}
+	
+	/**
+	 * Queues a swim file unless it is in flight or has been ingested
+	 * recently, blocking while the file queue is full.
+	 * 
+	 * @param path the path of the swim file
+	 * 
+	 * @throws InterruptedException if interrupted while waiting for the queue
+	 */
+	private void enqueue(Path path) throws InterruptedException {
+		String name = path.getFileName().toString();
+		if (name.endsWith(this.suffix) && !name.startsWith(".") && Files.isRegularFile(path)) {
+			boolean isNew = false;
+			synchronized (this.ingested) {
+				isNew = !this.ingested.contains(path) && this.queued.add(path);
+			}
+			if (isNew) {
+				this.files.put(path);
+			}
+		}
+	}
+	
+	/**
+	 * Parses queued swim files blocking while the obstacle queue is full.
+	 */
+	private void parse() {
+		SwimLoader loader = new SwimLoader();
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				Path path = this.files.take();
+				this.settle(path);
+				long start = System.nanoTime();
+				Set<Obstacle> parsed = null;
+				try {
+					parsed = loader.load(new SwimResource(path.toUri()));
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+				long duration = System.nanoTime() - start;
+				synchronized (this.ingested) {
+					this.ingested.add(path);
+					this.queued.remove(path);
+				}
+				this.parseTime.addAndGet(duration);
+				this.maxParseTime.accumulateAndGet(duration, Math::max);
+				
+				if (null == parsed) {
+					this.failedFiles.incrementAndGet();
+				} else {
+					this.obstacles.put(parsed);
+					this.ingestedFiles.incrementAndGet();
+				}
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		}
+	}
+	
+	/**
+	 * Waits until a swim file has not been changed for the settle time such
+	 * that files still being written by the receiver are not parsed.
+	 * 
+	 * @param path the path of the swim file
+	 * 
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private void settle(Path path) throws InterruptedException {
+		try {
+			long age = System.currentTimeMillis() - Files.getLastModifiedTime(path).toMillis();
+			while (age < SwimWatcher.SETTLE_TIME) {
+				TimeUnit.MILLISECONDS.sleep(SwimWatcher.SETTLE_TIME - age);
+				age = System.currentTimeMillis() - Files.getLastModifiedTime(path).toMillis();
+			}
+		} catch (IOException e) {
+			// parsing will fail and report the missing file
+		}
+	}
+	
+	/**
+	 * Submits parsed obstacles to the consumer of this swim watcher pacing
+	 * the submissions according to the maximum submission rate.
+	 */
+	private void submit() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				Set<Obstacle> parsed = this.obstacles.take();
+				long start = System.nanoTime();
+				this.consumer.accept(parsed);
+				this.ingestedObstacles.addAndGet(parsed.size());
+				
+				if (0d < this.rate) {
+					long pace = (long) (parsed.size() / this.rate * 1E9d) - (System.nanoTime() - start);
+					if (0 < pace) {
+						TimeUnit.NANOSECONDS.sleep(pace);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		}
+	}
+	
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.terrain;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+
+import org.w3c.dom.Element;
+
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.avlist.AVListImpl;
+import gov.nasa.worldwind.terrain.BasicElevationModel;
+import gov.nasa.worldwind.util.BufferWrapper;
+import gov.nasa.worldwind.util.WWIO;
+
+/**
+ * Realizes an elevation model of a local elevation tile pyramid whose tiles
+ * are memory-mapped instead of being read onto the heap. Tiles are only
+ * mapped when requested by the globe such that arbitrarily large pyramids
+ * are served in bounded memory.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class MappedElevationModel extends BasicElevationModel {
+	
+	/**
+	 * Constructs a new mapped elevation model from a data configuration.
+	 * 
+	 * @param domElement the data configuration element
+	 * @param params the parameters overriding the data configuration
+	 */
+	public MappedElevationModel(Element domElement, AVList params) {
+		super(domElement, params);
+	}
+	
+	/**
+	 * Reads the elevations of a tile memory-mapping local binary tiles.
+	 * 
+	 * @param url the location of the tile
+	 * 
+	 * @return the elevations of the tile
+	 * 
+	 * @throws IOException if the tile cannot be read
+	 * 
+	 * @see BasicElevationModel#readElevations(URL)
+	 */
+	@Override
+	protected BufferWrapper readElevations(URL url) throws IOException {
+		File file = WWIO.convertURLToFile(url);
+		if ((null == file) || url.getPath().endsWith("tif")) {
+			return super.readElevations(url);
+		}
+		
+		ByteBuffer buffer = WWIO.mapFile(file);
+		AVList bufferParams = new AVListImpl();
+		bufferParams.setValue(AVKey.DATA_TYPE, this.elevationDataType);
+		bufferParams.setValue(AVKey.BYTE_ORDER, this.elevationDataByteOrder);
+		return BufferWrapper.wrap(buffer, bufferParams);
+	}
+	
+}
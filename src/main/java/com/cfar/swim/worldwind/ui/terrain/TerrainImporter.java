@@ -0,0 +1,330 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.terrain;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Stream;
+
+import org.w3c.dom.Document;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.avlist.AVListImpl;
+import gov.nasa.worldwind.data.TiledElevationProducer;
+import gov.nasa.worldwind.globes.ElevationModel;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.terrain.CompoundElevationModel;
+import gov.nasa.worldwind.util.LevelSet;
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * Realizes an importer of terrain files. Each terrain file is tiled into an
+ * elevation tile pyramid in the data file store on a background pool. The
+ * source raster is read in cached regions, and the produced tiles are served
+ * by a memory-mapped elevation model, such that large terrain files are
+ * tiled and displayed in bounded memory. Each imported terrain registers
+ * with a globe as soon as the level set of its pyramid has been configured
+ * such that tiles appear while they are written. Pyramids are named after
+ * the canonical path, size and modification time of their terrain files such
+ * that distinct or modified terrain files never share a pyramid.
+ * 
+ * A pyramid merely previews its terrain while importing. Once the pyramid
+ * has been produced, the terrain file is handed over to be added to the
+ * scenario, which persists the terrain and publishes a terrain event.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class TerrainImporter {
+	
+	/** the data cache name of imported terrain */
+	public static final String TERRAIN_CACHE_NAME = "Terrain";
+	
+	/** the number of hash bytes in pyramid names */
+	private static final int PYRAMID_HASH_BYTES = 8;
+	
+	/** the pool of this terrain importer */
+	private final ExecutorService pool;
+	
+	/**
+	 * Constructs a new terrain importer.
+	 * 
+	 * @param threads the number of import threads
+	 */
+	public TerrainImporter(int threads) {
+		this.pool = Executors.newFixedThreadPool(Math.max(1, threads));
+	}
+	
+	/**
+	 * Imports a terrain file in the background registering the elevation
+	 * model of its pyramid with a globe before its tiles are written.
+	 * 
+	 * @param name the pyramid name of the imported terrain
+	 * @param file the terrain file
+	 * @param globe the globe to register the imported terrain with
+	 * @param progress the consumer of the import progress in [0, 1]
+	 * @param registered the consumer of the registered elevation model
+	 * @param produced the consumer of the registered elevation model once
+	 *                 its pyramid has been produced, null if the import has
+	 *                 failed and the elevation model has been unregistered
+	 * 
+	 * @return the future elevation model of the imported terrain
+	 */
+	public Future<ElevationModel> importTerrain(String name, File file, Globe globe,
+			DoubleConsumer progress, Consumer<ElevationModel> registered,
+			Consumer<ElevationModel> produced) {
+		return this.pool.submit(new Callable<ElevationModel>() {
+			@Override
+			public ElevationModel call() throws Exception {
+				long start = System.nanoTime();
+				AtomicReference<ElevationModel> elevationModel = new AtomicReference<>();
+				try {
+					tile(name, file, progress, new Consumer<Document>() {
+						@Override
+						public void accept(Document config) {
+							elevationModel.set(new MappedElevationModel(config.getDocumentElement(), null));
+							register(globe, elevationModel.get());
+							registered.accept(elevationModel.get());
+						}
+					});
+					Logging.logger().info(String.format("imported terrain %s (%d bytes) in %d ms",
+							file.getName(), file.length(), (System.nanoTime() - start) / 1000000L));
+				} catch (Exception e) {
+					e.printStackTrace();
+					if (null != elevationModel.get()) {
+						unregister(globe, elevationModel.get());
+					}
+					deletePyramid(name);
+					produced.accept(null);
+					throw e;
+				}
+				produced.accept(elevationModel.get());
+				return elevationModel.get();
+			}
+		});
+	}
+	
+	/**
+	 * Tiles a terrain file into an elevation tile pyramid in the data file
+	 * store.
+	 * 
+	 * @param name the pyramid name of the terrain
+	 * @param file the terrain file
+	 * @param progress the consumer of the tiling progress in [0, 1]
+	 * @param configured the consumer of the pyramid configuration before
+	 *                   any tile is written
+	 * 
+	 * @throws Exception if the terrain file cannot be tiled
+	 */
+	private void tile(String name, File file, DoubleConsumer progress,
+			Consumer<Document> configured) throws Exception {
+		// stale tiles of an earlier import must not be re-tiled into
+		TerrainImporter.deletePyramid(name);
+		
+		AVList params = new AVListImpl();
+		params.setValue(AVKey.FILE_STORE_LOCATION,
+				WorldWind.getDataFileStore().getWriteLocation().getAbsolutePath());
+		params.setValue(AVKey.DATA_CACHE_NAME, TerrainImporter.TERRAIN_CACHE_NAME + "/" + name);
+		params.setValue(AVKey.DATASET_NAME, name);
+		
+		TiledElevationProducer producer = new ConfiguringElevationProducer(configured);
+		producer.setStoreParameters(params);
+		producer.offerDataSource(file, null);
+		producer.addPropertyChangeListener(AVKey.PROGRESS, new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				if (evt.getNewValue() instanceof Double) {
+					progress.accept((Double) evt.getNewValue());
+				}
+			}
+		});
+		
+		try {
+			producer.startProduction();
+		} catch (Exception e) {
+			producer.removeProductionState();
+			throw e;
+		}
+		
+		Iterator<?> results = producer.getProductionResults().iterator();
+		Object result = results.hasNext() ? results.next() : null;
+		if (!(result instanceof Document)) {
+			throw new IllegalStateException("no terrain produced for " + file);
+		}
+		progress.accept(1d);
+	}
+	
+	/**
+	 * Gets the pyramid name of a terrain file. The pyramid name consists of
+	 * the base name of the terrain file and a hash of its canonical path,
+	 * size and modification time.
+	 * 
+	 * @param file the terrain file
+	 * 
+	 * @return the pyramid name of the terrain file
+	 * 
+	 * @throws IOException if the canonical path cannot be resolved
+	 */
+	public static String getPyramidName(File file) throws IOException {
+		String identity = file.getCanonicalPath() + ":" + file.length() + ":" + file.lastModified();
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256")
+					.digest(identity.getBytes(StandardCharsets.UTF_8));
+			StringBuilder name = new StringBuilder(file.getName().replaceFirst("\\.[^.]*$", ""));
+			name.append('-');
+			for (int index = 0; index < TerrainImporter.PYRAMID_HASH_BYTES; index++) {
+				name.append(String.format("%02x", hash[index]));
+			}
+			return name.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+	
+	/**
+	 * Deletes an elevation tile pyramid from the data file store.
+	 * 
+	 * @param name the pyramid name of the terrain
+	 */
+	public static void deletePyramid(String name) {
+		Path pyramid = WorldWind.getDataFileStore().getWriteLocation().toPath()
+				.resolve(TerrainImporter.TERRAIN_CACHE_NAME).resolve(name);
+		if (Files.exists(pyramid)) {
+			try (Stream<Path> paths = Files.walk(pyramid)) {
+				paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Registers an elevation model with a globe.
+	 * 
+	 * @param globe the globe
+	 * @param elevationModel the elevation model to be registered
+	 */
+	public static void register(Globe globe, ElevationModel elevationModel) {
+		synchronized (globe) {
+			ElevationModel current = globe.getElevationModel();
+			if (current instanceof CompoundElevationModel) {
+				((CompoundElevationModel) current).addElevationModel(elevationModel);
+			} else {
+				CompoundElevationModel compound = new CompoundElevationModel();
+				if (null != current) {
+					compound.addElevationModel(current);
+				}
+				compound.addElevationModel(elevationModel);
+				globe.setElevationModel(compound);
+			}
+		}
+	}
+	
+	/**
+	 * Unregisters an elevation model from a globe.
+	 * 
+	 * @param globe the globe
+	 * @param elevationModel the elevation model to be unregistered
+	 */
+	public static void unregister(Globe globe, ElevationModel elevationModel) {
+		synchronized (globe) {
+			ElevationModel current = globe.getElevationModel();
+			if (current instanceof CompoundElevationModel) {
+				((CompoundElevationModel) current).removeElevationModel(elevationModel);
+			}
+		}
+	}
+	
+	/**
+	 * Shuts down this terrain importer cancelling all running imports.
+	 */
+	public void shutdown() {
+		this.pool.shutdownNow();
+	}
+	
+	/**
+	 * Realizes a tiled elevation producer publishing the configuration of
+	 * its pyramid once the level set has been initialized and before any
+	 * tile is installed.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private static class ConfiguringElevationProducer extends TiledElevationProducer {
+		
+		/** the consumer of the pyramid configuration of this producer */
+		private final Consumer<Document> configured;
+		
+		/**
+		 * Constructs a new configuring elevation producer.
+		 * 
+		 * @param configured the consumer of the pyramid configuration
+		 */
+		public ConfiguringElevationProducer(Consumer<Document> configured) {
+			this.configured = configured;
+		}
+		
+		/**
+		 * Publishes the pyramid configuration and installs the tiles of the
+		 * level set.
+		 * 
+		 * @param levelSet the level set to be installed
+		 * @param params the production parameters
+		 * 
+		 * @throws IOException if a tile cannot be installed
+		 * 
+		 * @see TiledElevationProducer#installLevelSet(LevelSet, AVList)
+		 */
+		@Override
+		protected void installLevelSet(LevelSet levelSet, AVList params) throws IOException {
+			this.configured.accept(this.createConfigDoc(params));
+			super.installLevelSet(levelSet, params);
+		}
+	}
+	
+}
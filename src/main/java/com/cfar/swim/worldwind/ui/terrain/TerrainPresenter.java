@@ -29,14 +29,21 @@
  */
 package com.cfar.swim.worldwind.ui.terrain;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
 
@@ -45,17 +52,25 @@ import com.cfar.swim.worldwind.session.Session;
 import com.cfar.swim.worldwind.session.SessionManager;
 import com.cfar.swim.worldwind.ui.WorldwindPlanner;
 import com.cfar.swim.worldwind.ui.util.ResourceBundleLoader;
+import com.cfar.swim.worldwind.ui.world.WorldEvent;
+import com.cfar.swim.worldwind.ui.world.WorldEventListener;
+import com.cfar.swim.worldwind.ui.world.WorldEventType;
 import com.cfar.swim.worldwind.ui.world.WorldModel;
+import com.cfar.swim.worldwind.ui.world.WorldService;
+
+import gov.nasa.worldwind.globes.ElevationModel;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.ListView;
+import javafx.scene.control.TitledPane;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 
 /**
- * Realizes a presenter of a terrain view.
+ * Realizes a presenter of a terrain view. Terrain being imported is listed
+ * by its pyramid name until it has been added to the scenario.
  * 
  * @author Stephan Heinemann
  *
@@ -84,15 +99,40 @@ public class TerrainPresenter implements Initializable {
 	@Inject
 	private WorldModel worldModel;
 	
+	/** the world service of this terrain presenter */
+	@Inject
+	private WorldService worldService;
+	
 	/** the active scenario of this terrain presenter */
 	private Scenario scenario = null;
 	
-	/** the terrain change listener of this terrain presenter */
-	private TerrainChangeListener tcl = new TerrainChangeListener();
-	
 	/** the executor of this terrain presenter */
 	private final ExecutorService executor = Executors.newSingleThreadExecutor();
 	
+	/** the terrain pane of the terrain view */
+	@FXML
+	private TitledPane terrainPane;
+	
+	/** the title of the terrain pane of this terrain presenter */
+	private String terrainPaneTitle;
+	
+	/** the number of terrain import threads of the terrain view */
+	@Inject
+	private String importThreads;
+	
+	/** the terrain importer of this terrain presenter */
+	private TerrainImporter terrainImporter;
+	
+	/** the terrain being imported by this terrain presenter by scenario and pyramid name */
+	private final Map<Scenario, Map<String, ElevationModel>> imports =
+			Collections.synchronizedMap(new IdentityHashMap<>());
+	
+	/** the progress of the running terrain imports of this terrain presenter */
+	private final Map<File, Double> importProgress = new ConcurrentHashMap<>();
+	
+	/** indicates whether or not a terrain import progress display is pending */
+	private final AtomicBoolean isProgressPending = new AtomicBoolean(false);
+	
 	/**
 	 * Initializes this terrain presenter.
 	 * 
@@ -103,8 +143,10 @@ public class TerrainPresenter implements Initializable {
 	 */
 	@Override
 	public void initialize(URL location, ResourceBundle resources) {
-		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-		session.addActiveScenarioChangeListener(new ActiveScenarioChangeListener());
+		this.terrainImporter = new TerrainImporter(Integer.parseInt(this.importThreads));
+		this.terrainPaneTitle = this.terrainPane.getText();
+		this.worldService.subscribe(new WorldChangeListener(),
+				WorldEventType.ACTIVE_SCENARIO, WorldEventType.TERRAIN);
 		this.initScenario();
 		this.initTerrain();
 	}
@@ -113,12 +155,7 @@ public class TerrainPresenter implements Initializable {
 	 * Initializes the scenario of this terrain presenter.
 	 */
 	private void initScenario() {
-		if (null != this.scenario) {
-			this.scenario.removePropertyChangeListener(this.tcl);
-		}
-		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-		this.scenario = session.getActiveScenario();
-		this.scenario.addTerrainChangeListener(this.tcl);
+		this.scenario = this.worldService.getActiveScenario();
 	}
 	
 	/**
@@ -126,7 +163,8 @@ public class TerrainPresenter implements Initializable {
 	 */
 	private void initTerrain() {
 		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-		Set<String> terrainNames = session.getActiveScenario().getTerrainNames();
+		Set<String> terrainNames = new TreeSet<>(session.getActiveScenario().getTerrainNames());
+		terrainNames.addAll(this.getImports(session.getActiveScenario()).keySet());
 		Platform.runLater(new Runnable() {
 			@Override
 			public void run() {
@@ -138,7 +176,24 @@ public class TerrainPresenter implements Initializable {
 	}
 	
 	/**
-	 * Adds a terrain item to the terrain view.
+	 * Gets the terrain being imported into a scenario.
+	 * 
+	 * @param scenario the scenario
+	 * 
+	 * @return the terrain being imported into the scenario by pyramid name
+	 */
+	private Map<String, ElevationModel> getImports(Scenario scenario) {
+		return this.imports.computeIfAbsent(scenario, k -> new ConcurrentHashMap<>());
+	}
+	
+	/**
+	 * Adds one or more terrain items to the terrain view. The selected
+	 * terrain files are tiled in the background, and the pyramid of each
+	 * terrain file previews its tiles on the globe of the scenario while they
+	 * are written and the import progress is shown in the terrain view. Once
+	 * tiled, each terrain file is added to the scenario in the background
+	 * replacing its preview. Terrain files that are being imported unchanged
+	 * are skipped, and terrain removed while importing is not added.
 	 */
 	public void addTerrainItem() {
 		FileChooser fileChooser = new FileChooser();
@@ -147,15 +202,78 @@ public class TerrainPresenter implements Initializable {
 				new ExtensionFilter[] { new ExtensionFilter(
 						TerrainPresenter.FILE_CHOOSER_TERRAIN,
 						TerrainPresenter.terrainFileExtension)});
-		File file = fileChooser.showOpenDialog(null);
+		List<File> files = fileChooser.showOpenMultipleDialog(null);
 		
-		if (null != file) {
-			executor.execute(new Runnable() {
+		if (null != files) {
+			Scenario scenario = this.scenario;
+			Map<String, ElevationModel> imported = this.getImports(scenario);
+			for (File file : files) {
+				String name;
+				try {
+					name = TerrainImporter.getPyramidName(file);
+				} catch (IOException e) {
+					e.printStackTrace();
+					continue;
+				}
+				if (imported.containsKey(name) || this.importProgress.containsKey(file)) {
+					continue;
+				}
+				this.importProgress.put(file, 0d);
+				this.terrainImporter.importTerrain(name, file, scenario.getGlobe(),
+						fraction -> displayProgress(file, fraction),
+						elevationModel -> {
+							imported.put(name, elevationModel);
+							if (scenario == TerrainPresenter.this.scenario) {
+								initTerrain();
+							}
+						},
+						elevationModel -> {
+							if ((null != elevationModel) && (null != imported.remove(name))) {
+								// the scenario persists the terrain and publishes a terrain event
+								scenario.addTerrain(file);
+								TerrainImporter.unregister(scenario.getGlobe(), elevationModel);
+							} else {
+								imported.remove(name);
+							}
+							TerrainImporter.deletePyramid(name);
+							importProgress.remove(file);
+							if (scenario == TerrainPresenter.this.scenario) {
+								initTerrain();
+							}
+							displayProgress(null, 0d);
+						});
+			}
+			this.displayProgress(null, 0d);
+		}
+	}
+	
+	/**
+	 * Displays the progress of the running terrain imports in the terrain
+	 * view. Progress displays are coalesced while one is pending.
+	 * 
+	 * @param file the terrain file whose progress has changed, null if none
+	 * @param fraction the progress of the terrain file in [0, 1]
+	 */
+	private void displayProgress(File file, double fraction) {
+		if ((null != file) && this.importProgress.containsKey(file)) {
+			this.importProgress.put(file, fraction);
+		}
+		
+		if (this.isProgressPending.compareAndSet(false, true)) {
+			Platform.runLater(new Runnable() {
 				@Override
 				public void run() {
-					if (worldModel.load()) {
-						scenario.addTerrain(file);
-						worldModel.loaded();
+					isProgressPending.set(false);
+					Map<File, Double> progress = new HashMap<>(importProgress);
+					if (progress.isEmpty()) {
+						terrainPane.setText(terrainPaneTitle);
+					} else {
+						double total = 0d;
+						for (double value : progress.values()) {
+							total += value;
+						}
+						terrainPane.setText(String.format("%s | importing %d files | %.0f %%",
+								terrainPaneTitle, progress.size(), 100d * total / progress.size()));
 					}
 				}
 			});
@@ -171,7 +289,14 @@ public class TerrainPresenter implements Initializable {
 			@Override
 			public void run() {
 				if (null != terrain) {
-					scenario.removeTerrain(terrain);
+					ElevationModel elevationModel = getImports(scenario).remove(terrain);
+					if (null != elevationModel) {
+						TerrainImporter.unregister(scenario.getGlobe(), elevationModel);
+						TerrainImporter.deletePyramid(terrain);
+						initTerrain();
+					} else {
+						scenario.removeTerrain(terrain);
+					}
 				}
 			}
 		});
@@ -184,51 +309,47 @@ public class TerrainPresenter implements Initializable {
 		this.executor.execute(new Runnable() {
 			@Override
 			public void run() {
+				Map<String, ElevationModel> imported = getImports(scenario);
+				for (String terrain : imported.keySet()) {
+					ElevationModel elevationModel = imported.remove(terrain);
+					if (null != elevationModel) {
+						TerrainImporter.unregister(scenario.getGlobe(), elevationModel);
+						TerrainImporter.deletePyramid(terrain);
+					}
+				}
 				scenario.clearTerrain();
+				initTerrain();
 			}
 		});
 	}
 	
 	/**
-	 * Realizes a terrain change listener.
+	 * Realizes a world change listener.
 	 * 
 	 * @author Stephan Heinemann
 	 *
 	 */
-	private class TerrainChangeListener implements PropertyChangeListener {
+	private class WorldChangeListener implements WorldEventListener {
 		
 		/**
-		 * Initializes the terrain if it has changed.
+		 * Initializes the scenario and terrain if the active scenario has
+		 * changed, and the terrain if it has changed.
 		 * 
-		 * @param evt the property change event associated with the obstacle change
+		 * @param event the world event
 		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 * @see WorldEventListener#worldChanged(WorldEvent)
 		 */
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initTerrain();
-		}
-	}
-	
-	/**
-	 * Realizes an active scenario change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class ActiveScenarioChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the scenario and terrain if the active scenario has changed.
-		 * 
-		 * @param evt the property change event associate with the active scenario change
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initScenario();
-			initTerrain();
+		public void worldChanged(WorldEvent event) {
+			switch (event.getType()) {
+			case ACTIVE_SCENARIO:
+				initScenario();
+				initTerrain();
+				break;
+			case TERRAIN:
+				initTerrain();
+				break;
+			}
 		}
 	}
 	
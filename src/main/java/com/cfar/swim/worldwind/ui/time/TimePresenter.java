@@ -29,8 +29,6 @@
  */
 package com.cfar.swim.worldwind.ui.time;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.net.URL;
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -39,11 +37,15 @@ import java.time.ZonedDateTime;
 import java.util.ResourceBundle;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Inject;
 
 import com.cfar.swim.worldwind.session.Scenario;
-import com.cfar.swim.worldwind.session.Session;
-import com.cfar.swim.worldwind.session.SessionManager;
-import com.cfar.swim.worldwind.ui.WorldwindPlanner;
+import com.cfar.swim.worldwind.ui.world.WorldEvent;
+import com.cfar.swim.worldwind.ui.world.WorldEventListener;
+import com.cfar.swim.worldwind.ui.world.WorldEventType;
+import com.cfar.swim.worldwind.ui.world.WorldService;
 
 import javafx.application.Platform;
 import javafx.event.EventHandler;
@@ -70,12 +72,16 @@ public class TimePresenter implements Initializable {
 	/** the date and time picker of this time presenter */
 	private LocalDateTimePicker picker;
 	
-	/** the time change listener of this time presenter */
-	private final TimeChangeListener tcl = new TimeChangeListener();
+	/** the world service of this time presenter */
+	@Inject
+	private WorldService worldService;
 	
 	/** the active scenario of this time presenter */
 	private Scenario scenario = null;
 	
+	/** the pending planning time of this time presenter */
+	private final AtomicReference<LocalDateTime> pendingTime = new AtomicReference<>(null);
+	
 	/** the executor of this time presenter */
 	private final ExecutorService executor = Executors.newSingleThreadExecutor();
 	
@@ -98,8 +104,8 @@ public class TimePresenter implements Initializable {
 		AnchorPane.setRightAnchor(this.picker, 5d);
 		AnchorPane.setBottomAnchor(this.picker, 5d);
 		
-		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-		session.addActiveScenarioChangeListener(new ActiveScenarioChangeListener());
+		this.worldService.subscribe(new WorldChangeListener(),
+				WorldEventType.ACTIVE_SCENARIO, WorldEventType.TIME);
 		this.initScenario();
 		this.initTime();
 	}
@@ -108,11 +114,7 @@ public class TimePresenter implements Initializable {
 	 * Initializes the scenario of this time presenter.
 	 */
 	public void initScenario() {
-		if (null != this.scenario) {
-			this.scenario.removePropertyChangeListener(this.tcl);
-		}
-		this.scenario = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE).getActiveScenario();
-		this.scenario.addTimeChangeListener(this.tcl);
+		this.scenario = this.worldService.getActiveScenario();
 	}
 	
 	/**
@@ -138,7 +140,8 @@ public class TimePresenter implements Initializable {
 	private class PlanningTimeCallback implements Callback<LocalDateTime, Boolean> {
 		
 		/**
-		 * Sets the time of the active scenario.
+		 * Sets the time of the active scenario. Rapidly successive times are
+		 * coalesced and only the latest pending time is set.
 		 * 
 		 * @param localDateTime the date and time to be set
 		 * 
@@ -146,14 +149,17 @@ public class TimePresenter implements Initializable {
 		 */
 		@Override
 		public Boolean call(LocalDateTime localDateTime) {
-			executor.execute(new Runnable() {
-				@Override
-				public void run() {
-					if ((null != localDateTime) && !scenario.isTimed()) {
-						scenario.setTime(ZonedDateTime.of(localDateTime, ZoneId.of("UTC")));
+			if ((null != localDateTime) && (null == pendingTime.getAndSet(localDateTime))) {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						LocalDateTime latestDateTime = pendingTime.getAndSet(null);
+						if (!scenario.isTimed()) {
+							scenario.setTime(ZonedDateTime.of(latestDateTime, ZoneId.of("UTC")));
+						}
 					}
-				}
-			});
+				});
+			}
 			
 			return true;
 		}
@@ -212,45 +218,32 @@ public class TimePresenter implements Initializable {
 	}
 	
 	/**
-	 * Realizes a time change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class TimeChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the time if the time changes.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initTime();
-		}
-	}
-	
-	/**
-	 * Realizes an active scenario change listener.
+	 * Realizes a world change listener.
 	 * 
 	 * @author Stephan Heinemann
 	 *
 	 */
-	private class ActiveScenarioChangeListener implements PropertyChangeListener {
+	private class WorldChangeListener implements WorldEventListener {
 		
 		/**
-		 * Initializes the scenario and time if the active scenario changes.
+		 * Initializes the scenario and time if the active scenario changes,
+		 * and the time if the time changes.
 		 * 
-		 * @param evt the property change event
+		 * @param event the world event
 		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 * @see WorldEventListener#worldChanged(WorldEvent)
 		 */
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initScenario();
-			initTime();
+		public void worldChanged(WorldEvent event) {
+			switch (event.getType()) {
+			case ACTIVE_SCENARIO:
+				initScenario();
+				initTime();
+				break;
+			case TIME:
+				initTime();
+				break;
+			}
 		}
 	}
 	
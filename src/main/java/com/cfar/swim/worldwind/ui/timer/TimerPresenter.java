@@ -29,17 +29,18 @@
  */
 package com.cfar.swim.worldwind.ui.timer;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.net.URL;
 import java.util.ResourceBundle;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import javax.inject.Inject;
+
 import com.cfar.swim.worldwind.session.Scenario;
-import com.cfar.swim.worldwind.session.Session;
-import com.cfar.swim.worldwind.session.SessionManager;
-import com.cfar.swim.worldwind.ui.WorldwindPlanner;
+import com.cfar.swim.worldwind.ui.world.WorldEvent;
+import com.cfar.swim.worldwind.ui.world.WorldEventListener;
+import com.cfar.swim.worldwind.ui.world.WorldEventType;
+import com.cfar.swim.worldwind.ui.world.WorldService;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -58,8 +59,9 @@ public class TimerPresenter implements Initializable {
 	@FXML
 	private Label timeLabel;
 	
-	/** the time change listener of this timer presenter */
-	private final TimeChangeListener tcl = new TimeChangeListener();
+	/** the world service of this timer presenter */
+	@Inject
+	private WorldService worldService;
 	
 	/** the active scenario of this timer presenter */
 	private Scenario scenario = null;
@@ -77,8 +79,8 @@ public class TimerPresenter implements Initializable {
 	 */
 	@Override
 	public void initialize(URL location, ResourceBundle resources) {
-		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-		session.addActiveScenarioChangeListener(new ActiveScenarioChangeListener());
+		this.worldService.subscribe(new WorldChangeListener(),
+				WorldEventType.ACTIVE_SCENARIO, WorldEventType.TIME);
 		this.initScenario();
 		this.initTime();
 	}
@@ -87,11 +89,7 @@ public class TimerPresenter implements Initializable {
 	 * Initializes the scenario of this timer presenter.
 	 */
 	public void initScenario() {
-		if (null != this.scenario) {
-			this.scenario.removePropertyChangeListener(this.tcl);
-		}
-		this.scenario = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE).getActiveScenario();
-		this.scenario.addTimeChangeListener(this.tcl);
+		this.scenario = this.worldService.getActiveScenario();
 	}
 	
 	/**
@@ -168,45 +166,32 @@ public class TimerPresenter implements Initializable {
 	}
 	
 	/**
-	 * Realizes a time change listener.
+	 * Realizes a world change listener.
 	 * 
 	 * @author Stephan Heinemann
 	 *
 	 */
-	private class TimeChangeListener implements PropertyChangeListener {
+	private class WorldChangeListener implements WorldEventListener {
 		
 		/**
-		 * Initializes the timer if the time changes.
+		 * Initializes the scenario and time if the active scenario changes,
+		 * and the time if the time changes.
 		 * 
-		 * @param evt the property change event
+		 * @param event the world event
 		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 * @see WorldEventListener#worldChanged(WorldEvent)
 		 */
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initTime();
-		}
-	}
-	
-	/**
-	 * Realizes an active scenario change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class ActiveScenarioChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the scenario and time if the active scenario changes.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initScenario();
-			initTime();
+		public void worldChanged(WorldEvent event) {
+			switch (event.getType()) {
+			case ACTIVE_SCENARIO:
+				initScenario();
+				initTime();
+				break;
+			case TIME:
+				initTime();
+				break;
+			}
 		}
 	}
 	
@@ -0,0 +1,296 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.util;
+
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import gov.nasa.worldwind.Configuration;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.symbology.TacticalPoint;
+import gov.nasa.worldwind.symbology.milstd2525.MilStd2525GraphicFactory;
+import gov.nasa.worldwind.symbology.milstd2525.MilStd2525PointGraphicRetriever;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+
+/**
+ * Realizes an application-wide cache of MIL-STD-2525 symbols. Point graphics
+ * are created by a single shared graphic factory. Symbol icons are rasterized
+ * by a single shared retriever once per symbol identification code (SIDC) and
+ * modifiers, and converted to JavaFX images once per SIDC and modifiers. All
+ * cached items are evicted in least recently used order.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class SymbolCache {
+	
+	/** the default capacity of the symbol cache per cached item type */
+	public static final int DEFAULT_CAPACITY = 64;
+	
+	/** the singleton symbol cache instance */
+	private static final SymbolCache instance = new SymbolCache(SymbolCache.DEFAULT_CAPACITY);
+	
+	/** the graphic factory of this symbol cache */
+	private final MilStd2525GraphicFactory graphicFactory = new MilStd2525GraphicFactory();
+	
+	/** the icon retriever of this symbol cache */
+	private final MilStd2525PointGraphicRetriever iconRetriever = new MilStd2525PointGraphicRetriever(
+			Configuration.getStringValue(AVKey.MIL_STD_2525_ICON_RETRIEVER_PATH));
+	
+	/** the cached icons of this symbol cache */
+	private final LruCache<BufferedImage> icons;
+	
+	/** the cached JavaFX images of this symbol cache */
+	private final LruCache<Image> images;
+	
+	/**
+	 * Constructs a new symbol cache with a specified capacity per cached item
+	 * type.
+	 * 
+	 * @param capacity the capacity per cached item type
+	 */
+	private SymbolCache(int capacity) {
+		this.icons = new LruCache<>(capacity);
+		this.images = new LruCache<>(capacity);
+	}
+	
+	/**
+	 * Gets the symbol cache instance.
+	 * 
+	 * @return the symbol cache instance
+	 */
+	public static SymbolCache getInstance() {
+		return SymbolCache.instance;
+	}
+	
+	/**
+	 * Creates a point graphic at a position using the shared graphic factory
+	 * of this symbol cache.
+	 * 
+	 * @param sidc the symbol identification code
+	 * @param position the position of the point graphic
+	 * @param modifiers the modifiers of the point graphic, may be null
+	 * 
+	 * @return the created point graphic
+	 */
+	public synchronized TacticalPoint createPoint(String sidc, Position position, AVList modifiers) {
+		return this.graphicFactory.createPoint(sidc, position, modifiers);
+	}
+	
+	/**
+	 * Gets the icon of a SIDC and modifiers rasterizing it if required.
+	 * 
+	 * @param sidc the symbol identification code
+	 * @param modifiers the modifiers of the icon, may be null
+	 * 
+	 * @return the icon of the SIDC and modifiers
+	 */
+	public synchronized BufferedImage getIcon(String sidc, AVList modifiers) {
+		String key = SymbolCache.key(sidc, modifiers);
+		BufferedImage icon = this.icons.lookup(key);
+		if (null == icon) {
+			icon = this.iconRetriever.createIcon(sidc, modifiers);
+			this.icons.put(key, icon);
+		}
+		return icon;
+	}
+	
+	/**
+	 * Gets the JavaFX image of a SIDC and modifiers converting the icon if
+	 * required.
+	 * 
+	 * @param sidc the symbol identification code
+	 * @param modifiers the modifiers of the image, may be null
+	 * 
+	 * @return the JavaFX image of the SIDC and modifiers
+	 */
+	public synchronized Image getImage(String sidc, AVList modifiers) {
+		String key = SymbolCache.key(sidc, modifiers);
+		Image image = this.images.lookup(key);
+		if (null == image) {
+			image = SwingFXUtils.toFXImage(this.getIcon(sidc, modifiers), null);
+			this.images.put(key, image);
+		}
+		return image;
+	}
+	
+	/**
+	 * Gets the number of icon cache hits of this symbol cache.
+	 * 
+	 * @return the number of icon cache hits of this symbol cache
+	 */
+	public synchronized long getIconHits() {
+		return this.icons.getHits();
+	}
+	
+	/**
+	 * Gets the number of icon cache misses of this symbol cache.
+	 * 
+	 * @return the number of icon cache misses of this symbol cache
+	 */
+	public synchronized long getIconMisses() {
+		return this.icons.getMisses();
+	}
+	
+	/**
+	 * Gets the number of image cache hits of this symbol cache.
+	 * 
+	 * @return the number of image cache hits of this symbol cache
+	 */
+	public synchronized long getImageHits() {
+		return this.images.getHits();
+	}
+	
+	/**
+	 * Gets the number of image cache misses of this symbol cache.
+	 * 
+	 * @return the number of image cache misses of this symbol cache
+	 */
+	public synchronized long getImageMisses() {
+		return this.images.getMisses();
+	}
+	
+	/**
+	 * Clears this symbol cache.
+	 */
+	public synchronized void clear() {
+		this.icons.clear();
+		this.images.clear();
+	}
+	
+	/**
+	 * Gets the cache key of a SIDC and modifiers.
+	 * 
+	 * @param sidc the symbol identification code
+	 * @param modifiers the modifiers, may be null
+	 * 
+	 * @return the cache key of the SIDC and modifiers
+	 */
+	private static String key(String sidc, AVList modifiers) {
+		String key = sidc;
+		if ((null != modifiers) && !modifiers.getEntries().isEmpty()) {
+			Map<String, String> sorted = new TreeMap<>();
+			for (Map.Entry<String, Object> modifier : modifiers.getEntries()) {
+				sorted.put(modifier.getKey(), String.valueOf(modifier.getValue()));
+			}
+			key = sidc + sorted.toString();
+		}
+		return key;
+	}
+	
+	/**
+	 * Realizes a least recently used cache.
+	 * 
+	 * @param <T> the cached item type
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private static class LruCache<T> extends LinkedHashMap<String, T> {
+		
+		/** the default serial identification of this LRU cache */
+		private static final long serialVersionUID = 1L;
+		
+		/** the capacity of this LRU cache */
+		private final int capacity;
+		
+		/** the number of cache hits of this LRU cache */
+		private long hits = 0;
+		
+		/** the number of cache misses of this LRU cache */
+		private long misses = 0;
+		
+		/**
+		 * Constructs a new LRU cache with a specified capacity.
+		 * 
+		 * @param capacity the capacity of this LRU cache
+		 */
+		public LruCache(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+		
+		/**
+		 * Looks up a cached item counting the cache hit or miss.
+		 * 
+		 * @param key the key of the cached item
+		 * 
+		 * @return the cached item, null if not cached
+		 */
+		public T lookup(String key) {
+			T item = this.get(key);
+			if (null == item) {
+				this.misses++;
+			} else {
+				this.hits++;
+			}
+			return item;
+		}
+		
+		/**
+		 * Gets the number of cache hits of this LRU cache.
+		 * 
+		 * @return the number of cache hits of this LRU cache
+		 */
+		public long getHits() {
+			return this.hits;
+		}
+		
+		/**
+		 * Gets the number of cache misses of this LRU cache.
+		 * 
+		 * @return the number of cache misses of this LRU cache
+		 */
+		public long getMisses() {
+			return this.misses;
+		}
+		
+		/**
+		 * Determines whether or not the least recently used entry is evicted.
+		 * 
+		 * @param eldest the least recently used entry
+		 * 
+		 * @return true if the capacity of this LRU cache is exceeded,
+		 *         false otherwise
+		 * 
+		 * @see LinkedHashMap#removeEldestEntry(Map.Entry)
+		 */
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+			return this.size() > this.capacity;
+		}
+	}
+	
+}
@@ -0,0 +1,424 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import com.cfar.swim.worldwind.render.Obstacle;
+
+import gov.nasa.worldwind.geom.Extent;
+import gov.nasa.worldwind.geom.ExtentHolder;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.render.Renderable;
+
+/**
+ * Realizes a reconciling renderable layer which only contains those of its
+ * candidate renderables whose bounding sectors intersect the visible sector
+ * expanded by a margin. The candidate renderables are indexed by a sector
+ * grid index, and the contents are reconciled incrementally whenever the
+ * visible sector leaves the previously queried sector or becomes
+ * considerably smaller than the queried sector. Candidate renderables
+ * without an extent are always contained. If a time is set, candidate
+ * obstacles are additionally indexed by their cost intervals and only
+ * contained while active at that time. Changes of the candidates or the
+ * time are applied in place by only visiting the changed candidates.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class CullingRenderableLayer extends ReconcilingRenderableLayer {
+	
+	/** the default margin of a culling renderable layer relative to the visible sector */
+	public static final double DEFAULT_MARGIN = 0.5d;
+	
+	/** the area ratio of the queried and visible sectors requiring a new query */
+	private static final double REQUERY_AREA_RATIO = 16d;
+	
+	/** the candidate renderables of this culling renderable layer */
+	private List<Renderable> candidates = new ArrayList<>();
+	
+	/** the identity set of candidate renderables of this culling renderable layer */
+	private Set<Renderable> candidateSet = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	/** the added candidate renderables of this culling renderable layer not yet indexed */
+	private final Set<Renderable> added = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	/** the removed candidate renderables of this culling renderable layer still indexed */
+	private final Set<Renderable> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	/** the candidate renderables of this culling renderable layer without extent */
+	private final Set<Renderable> unbounded = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	/** the sector grid index of the candidate renderables of this culling renderable layer */
+	private final SectorGridIndex<Renderable> index = new SectorGridIndex<>();
+	
+	/** the time interval index of the candidate obstacles of this culling renderable layer */
+	private final TimeIntervalIndex<Renderable> timeIndex = new TimeIntervalIndex<>();
+	
+	/** the time of this culling renderable layer, null if not filtered by time */
+	private Instant time = null;
+	
+	/** the time the contents of this culling renderable layer have been filtered by */
+	private Instant indexTime = null;
+	
+	/** the margin of this culling renderable layer relative to the visible sector */
+	private double margin = CullingRenderableLayer.DEFAULT_MARGIN;
+	
+	/** indicates whether or not the index of this culling renderable layer is stale */
+	private boolean isStale = true;
+	
+	/** the globe of the index of this culling renderable layer */
+	private Globe indexGlobe = null;
+	
+	/** the vertical exaggeration of the index of this culling renderable layer */
+	private double indexExaggeration = Double.NaN;
+	
+	/** the last queried sector of this culling renderable layer */
+	private Sector queried = null;
+	
+	/**
+	 * Gets the margin of this culling renderable layer relative to the
+	 * visible sector.
+	 * 
+	 * @return the margin of this culling renderable layer
+	 */
+	public double getMargin() {
+		return this.margin;
+	}
+	
+	/**
+	 * Sets the margin of this culling renderable layer relative to the
+	 * visible sector.
+	 * 
+	 * @param margin the margin to be set
+	 * 
+	 * @throws IllegalArgumentException if the margin is negative
+	 */
+	public void setMargin(double margin) {
+		if (0d > margin) {
+			throw new IllegalArgumentException("invalid margin");
+		}
+		this.margin = margin;
+		this.queried = null;
+	}
+	
+	/**
+	 * Gets the candidate renderables of this culling renderable layer.
+	 * 
+	 * @return the candidate renderables of this culling renderable layer
+	 */
+	public Iterable<Renderable> getCandidates() {
+		return this.candidates;
+	}
+	
+	/**
+	 * Sets the candidate renderables of this culling renderable layer. The
+	 * contents of this culling renderable layer are reconciled with the
+	 * visible candidates before the next frame is rendered. Only added and
+	 * removed candidates are re-indexed unless most candidates have changed.
+	 * 
+	 * @param candidates the candidate renderables to be set
+	 */
+	public void setCandidates(Iterable<? extends Renderable> candidates) {
+		List<Renderable> renderables = new ArrayList<>();
+		Set<Renderable> renderableSet = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Renderable candidate : candidates) {
+			if ((null != candidate) && renderableSet.add(candidate)) {
+				renderables.add(candidate);
+			}
+		}
+		
+		if (!this.isStale) {
+			for (Renderable renderable : renderables) {
+				if (!this.candidateSet.contains(renderable) && !this.removed.remove(renderable)) {
+					this.added.add(renderable);
+				}
+			}
+			for (Renderable renderable : this.candidateSet) {
+				if (!renderableSet.contains(renderable) && !this.added.remove(renderable)) {
+					this.removed.add(renderable);
+				}
+			}
+			if ((this.added.size() + this.removed.size()) > (renderables.size() / 2)) {
+				this.isStale = true;
+			}
+		}
+		
+		this.candidates = renderables;
+		this.candidateSet = renderableSet;
+	}
+	
+	/**
+	 * Gets the time of this culling renderable layer.
+	 * 
+	 * @return the time of this culling renderable layer,
+	 *         null if not filtered by time
+	 */
+	public Instant getTime() {
+		return this.time;
+	}
+	
+	/**
+	 * Sets the time of this culling renderable layer. Only candidate
+	 * obstacles active at the time are contained. The contents are updated
+	 * by the candidates entering or leaving activity before the next frame
+	 * is rendered.
+	 * 
+	 * @param time the time to be set, null to disable filtering by time
+	 */
+	public void setTime(Instant time) {
+		this.time = time;
+	}
+	
+	/**
+	 * Reconciles the contents of this culling renderable layer with the
+	 * visible candidate renderables and pre-renders them.
+	 * 
+	 * @param dc the draw context
+	 * 
+	 * @see ReconcilingRenderableLayer#doPreRender(DrawContext)
+	 */
+	@Override
+	protected void doPreRender(DrawContext dc) {
+		boolean isRebuilt = false;
+		if (this.isStale
+				|| (dc.getGlobe() != this.indexGlobe)
+				|| (dc.getVerticalExaggeration() != this.indexExaggeration)) {
+			this.rebuild(dc.getGlobe(), dc.getVerticalExaggeration());
+			isRebuilt = true;
+		} else {
+			isRebuilt = !this.update(dc.getGlobe(), dc.getVerticalExaggeration());
+		}
+		
+		Sector visible = dc.getVisibleSector();
+		if (null == visible) {
+			if (isRebuilt) {
+				this.queried = null;
+				this.reconcile(this.filter(new ArrayList<>(this.candidates)));
+			}
+		} else if (isRebuilt || this.requiresQuery(visible)) {
+			this.queried = this.expand(visible);
+			Set<Renderable> renderables = this.index.query(this.queried);
+			renderables.addAll(this.unbounded);
+			this.reconcile(this.filter(renderables));
+		}
+		
+		super.doPreRender(dc);
+	}
+	
+	/**
+	 * Rebuilds the sector grid index of this culling renderable layer.
+	 * 
+	 * @param globe the globe
+	 * @param exaggeration the vertical exaggeration
+	 */
+	private void rebuild(Globe globe, double exaggeration) {
+		this.index.clear();
+		this.unbounded.clear();
+		this.timeIndex.clear();
+		for (Renderable candidate : this.candidates) {
+			this.index(candidate, globe, exaggeration);
+		}
+		this.added.clear();
+		this.removed.clear();
+		this.indexGlobe = globe;
+		this.indexExaggeration = exaggeration;
+		this.indexTime = this.time;
+		this.isStale = false;
+	}
+	
+	/**
+	 * Updates the indices and contents of this culling renderable layer in
+	 * place by the added and removed candidates, and the candidates entering
+	 * or leaving activity since the last update.
+	 * 
+	 * @param globe the globe
+	 * @param exaggeration the vertical exaggeration
+	 * 
+	 * @return true if the contents have been updated in place,
+	 *         false if they have to be reconciled with a new query
+	 */
+	private boolean update(Globe globe, double exaggeration) {
+		Set<Renderable> obsolete = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Renderable renderable : this.removed) {
+			this.index.remove(renderable);
+			this.unbounded.remove(renderable);
+			this.timeIndex.remove(renderable);
+			if (this.contains(renderable)) {
+				obsolete.add(renderable);
+			}
+		}
+		this.removed.clear();
+		
+		boolean isUpdated = true;
+		if ((null != this.time) && (null != this.indexTime)) {
+			Set<Renderable> entering = Collections.newSetFromMap(new IdentityHashMap<>());
+			Set<Renderable> leaving = Collections.newSetFromMap(new IdentityHashMap<>());
+			this.timeIndex.delta(this.indexTime, this.time, entering, leaving);
+			for (Renderable renderable : leaving) {
+				if (this.contains(renderable)) {
+					obsolete.add(renderable);
+				}
+			}
+			for (Renderable renderable : entering) {
+				if (this.isVisible(renderable) && !this.contains(renderable)) {
+					this.addRenderable(renderable);
+				}
+			}
+		} else if (this.time != this.indexTime) {
+			// filtering by time has been enabled or disabled
+			isUpdated = false;
+		}
+		this.indexTime = this.time;
+		
+		if (!obsolete.isEmpty()) {
+			this.removeRenderables(obsolete);
+		}
+		
+		for (Renderable renderable : this.added) {
+			this.index(renderable, globe, exaggeration);
+			if (isUpdated && this.isVisible(renderable)
+					&& ((null == this.time) || this.timeIndex.isActive(renderable, this.time))) {
+				this.addRenderable(renderable);
+			}
+		}
+		this.added.clear();
+		
+		return isUpdated;
+	}
+	
+	/**
+	 * Indexes a candidate renderable of this culling renderable layer by its
+	 * bounding sector and, if it is an obstacle, by its cost interval.
+	 * 
+	 * @param candidate the candidate renderable
+	 * @param globe the globe
+	 * @param exaggeration the vertical exaggeration
+	 */
+	private void index(Renderable candidate, Globe globe, double exaggeration) {
+		Extent extent = null;
+		if (candidate instanceof ExtentHolder) {
+			extent = ((ExtentHolder) candidate).getExtent(globe, exaggeration);
+		}
+		if (null == extent) {
+			this.unbounded.add(candidate);
+		} else {
+			Position center = globe.computePositionFromPoint(extent.getCenter());
+			this.index.add(candidate, Sector.boundingSector(globe, center, extent.getRadius()));
+		}
+		if (candidate instanceof Obstacle) {
+			Obstacle obstacle = (Obstacle) candidate;
+			this.timeIndex.add(candidate,
+					obstacle.getCostInterval().getLower().toInstant(),
+					obstacle.getCostInterval().getUpper().toInstant());
+		}
+	}
+	
+	/**
+	 * Determines whether or not a candidate renderable of this culling
+	 * renderable layer is within the last queried sector.
+	 * 
+	 * @param candidate the candidate renderable
+	 * 
+	 * @return true if the candidate renderable is within the last queried
+	 *         sector, false otherwise
+	 */
+	private boolean isVisible(Renderable candidate) {
+		Sector sector = this.index.getSector(candidate);
+		return (null == this.queried) || (null == sector) || sector.intersects(this.queried);
+	}
+	
+	/**
+	 * Filters candidate renderables of this culling renderable layer by
+	 * their activity at the time of this culling renderable layer.
+	 * 
+	 * @param candidates the candidate renderables to be filtered
+	 * 
+	 * @return the filtered candidate renderables
+	 */
+	private Collection<Renderable> filter(Collection<Renderable> candidates) {
+		if (null != this.time) {
+			Instant time = this.time;
+			candidates.removeIf(candidate -> !this.timeIndex.isActive(candidate, time));
+		}
+		return candidates;
+	}
+	
+	/**
+	 * Determines whether or not a visible sector requires a new query.
+	 * 
+	 * @param visible the visible sector
+	 * 
+	 * @return true if the visible sector requires a new query,
+	 *         false otherwise
+	 */
+	private boolean requiresQuery(Sector visible) {
+		boolean requiresQuery = true;
+		if (null != this.queried) {
+			boolean isContained =
+					(this.queried.getMinLatitude().degrees <= visible.getMinLatitude().degrees)
+					&& (this.queried.getMaxLatitude().degrees >= visible.getMaxLatitude().degrees)
+					&& (this.queried.getMinLongitude().degrees <= visible.getMinLongitude().degrees)
+					&& (this.queried.getMaxLongitude().degrees >= visible.getMaxLongitude().degrees);
+			double queriedArea = this.queried.getDeltaLatDegrees() * this.queried.getDeltaLonDegrees();
+			double visibleArea = visible.getDeltaLatDegrees() * visible.getDeltaLonDegrees();
+			requiresQuery = !isContained || ((visibleArea * REQUERY_AREA_RATIO) < queriedArea);
+		}
+		return requiresQuery;
+	}
+	
+	/**
+	 * Expands a visible sector by the margin of this culling renderable
+	 * layer.
+	 * 
+	 * @param visible the visible sector
+	 * 
+	 * @return the expanded sector
+	 */
+	private Sector expand(Sector visible) {
+		double latitudeMargin = visible.getDeltaLatDegrees() * this.margin;
+		double longitudeMargin = visible.getDeltaLonDegrees() * this.margin;
+		return Sector.fromDegrees(
+				Math.max(-90d, visible.getMinLatitude().degrees - latitudeMargin),
+				Math.min(90d, visible.getMaxLatitude().degrees + latitudeMargin),
+				Math.max(-180d, visible.getMinLongitude().degrees - longitudeMargin),
+				Math.min(180d, visible.getMaxLongitude().degrees + longitudeMargin));
+	}
+	
+}
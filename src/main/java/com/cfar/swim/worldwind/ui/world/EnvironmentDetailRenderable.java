@@ -0,0 +1,313 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.awt.Color;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.cfar.swim.worldwind.environments.Environment;
+import com.cfar.swim.worldwind.environments.HierarchicalEnvironment;
+
+import gov.nasa.worldwind.View;
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.Box;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sphere;
+import gov.nasa.worldwind.geom.Vec4;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.render.BasicShapeAttributes;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.render.Material;
+import gov.nasa.worldwind.render.Path;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.render.ShapeAttributes;
+
+/**
+ * Realizes a renderable adapter rendering a hierarchical environment at a
+ * level of detail depending on the projected screen size of its cells. The
+ * environment hierarchy is walked from the root, cells outside the view
+ * frustum are skipped, and the children of a cell are only visited if the
+ * cell covers at least a threshold number of pixels on the screen. Visited
+ * leaf cells are rendered themselves, whereas cells with children below the
+ * pixel threshold are rendered as outlines of their own box geometry. Like
+ * the cells of the environment, outlines are only rendered if their
+ * aggregated cost exceeds the threshold cost, and they are colored by how far
+ * their aggregated cost exceeds the threshold cost. Environments which are
+ * not hierarchical are rendered as a whole.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class EnvironmentDetailRenderable implements Renderable {
+	
+	/** the default pixel threshold of an environment detail renderable */
+	public static final double DEFAULT_PIXEL_THRESHOLD = 64d;
+	
+	/** the maximum cost of the threshold cost range of an environment detail renderable */
+	private static final double MAX_COST = 100d;
+	
+	/** the maximum number of cached outline materials of an environment detail renderable */
+	private static final int MAX_MATERIALS = 256;
+	
+	/** the corner indices tracing all edges of a box outline */
+	private static final int[] OUTLINE_CORNERS = {0, 1, 2, 3, 0, 4, 5, 1, 5, 6, 2, 6, 7, 3, 7, 4};
+	
+	/** the environment of this environment detail renderable */
+	private final Environment environment;
+	
+	/** the pixel threshold of this environment detail renderable */
+	private double pixelThreshold = EnvironmentDetailRenderable.DEFAULT_PIXEL_THRESHOLD;
+	
+	/** the threshold cost of this environment detail renderable */
+	private volatile double threshold = 0d;
+	
+	/** the outline materials of this environment detail renderable by aggregated cost */
+	private volatile Map<Double, Material> materials = new HashMap<>();
+	
+	/** the outlines of coarsely rendered cells of this environment detail renderable */
+	private Map<Environment, Path> outlines = new IdentityHashMap<>();
+	
+	/** the number of cells rendered by this environment detail renderable in the last frame */
+	private int renderedCells = 0;
+	
+	/**
+	 * Constructs a new environment detail renderable for an environment.
+	 * 
+	 * @param environment the environment to be rendered
+	 */
+	public EnvironmentDetailRenderable(Environment environment) {
+		this.environment = environment;
+	}
+	
+	/**
+	 * Gets the environment of this environment detail renderable.
+	 * 
+	 * @return the environment of this environment detail renderable
+	 */
+	public Environment getEnvironment() {
+		return this.environment;
+	}
+	
+	/**
+	 * Gets the pixel threshold of this environment detail renderable.
+	 * 
+	 * @return the pixel threshold of this environment detail renderable
+	 */
+	public double getPixelThreshold() {
+		return this.pixelThreshold;
+	}
+	
+	/**
+	 * Sets the pixel threshold of this environment detail renderable. The
+	 * children of a cell are only rendered if the cell covers at least the
+	 * pixel threshold on the screen.
+	 * 
+	 * @param pixelThreshold the pixel threshold to be set
+	 * 
+	 * @throws IllegalArgumentException if the pixel threshold is negative
+	 */
+	public void setPixelThreshold(double pixelThreshold) {
+		if (0d > pixelThreshold) {
+			throw new IllegalArgumentException("invalid pixel threshold");
+		}
+		this.pixelThreshold = pixelThreshold;
+	}
+	
+	/**
+	 * Gets the threshold cost of this environment detail renderable.
+	 * 
+	 * @return the threshold cost of this environment detail renderable
+	 */
+	public double getThreshold() {
+		return this.threshold;
+	}
+	
+	/**
+	 * Sets the threshold cost of this environment detail renderable. Only
+	 * cells whose aggregated cost exceeds the threshold cost are outlined.
+	 * 
+	 * @param threshold the threshold cost to be set
+	 */
+	public void setThreshold(double threshold) {
+		this.threshold = threshold;
+		this.materials = new HashMap<>();
+	}
+	
+	/**
+	 * Gets the number of cells rendered by this environment detail renderable
+	 * in the last frame.
+	 * 
+	 * @return the number of cells rendered in the last frame
+	 */
+	public int getRenderedCells() {
+		return this.renderedCells;
+	}
+	
+	/**
+	 * Renders the environment of this environment detail renderable at the
+	 * level of detail of the current view.
+	 * 
+	 * @param dc the draw context
+	 * 
+	 * @see Renderable#render(DrawContext)
+	 */
+	@Override
+	public void render(DrawContext dc) {
+		if (!(this.environment instanceof HierarchicalEnvironment)) {
+			this.environment.render(dc);
+			this.renderedCells = 1;
+			return;
+		}
+		
+		View view = dc.getView();
+		Map<Environment, Path> outlines = new IdentityHashMap<>();
+		ZonedDateTime time = this.environment.getTime();
+		double threshold = this.threshold;
+		Map<Double, Material> materials = this.materials;
+		int renderedCells = 0;
+		
+		Deque<Environment> cells = new ArrayDeque<>();
+		cells.push(this.environment);
+		while (!cells.isEmpty()) {
+			Environment cell = cells.pop();
+			Vec4 center = dc.getGlobe().computePointFromPosition(cell.getCenterPosition());
+			double radius = cell.getDiameter() / 2d;
+			
+			if (view.getFrustumInModelCoordinates().intersects(new Sphere(center, radius))) {
+				HierarchicalEnvironment hierarchicalCell = (HierarchicalEnvironment) cell;
+				if (!hierarchicalCell.hasChildren()) {
+					cell.render(dc);
+					renderedCells++;
+				} else {
+					double distance = Math.max(1d, view.getEyePoint().distanceTo3(center) - radius);
+					double pixels = cell.getDiameter() / view.computePixelSizeAtDistance(distance);
+					
+					if (pixels >= this.pixelThreshold) {
+						for (Environment child : hierarchicalCell.getChildren()) {
+							if (child instanceof HierarchicalEnvironment) {
+								cells.push(child);
+							} else {
+								child.render(dc);
+								renderedCells++;
+							}
+						}
+					} else if (cell instanceof Box) {
+						double cost = cell.getCost(time, time);
+						if (cost > threshold) {
+							Path outline = this.outlines.get(cell);
+							if (null == outline) {
+								outline = EnvironmentDetailRenderable.createOutline((Box) cell, dc.getGlobe());
+							}
+							Material material = materials.get(cost);
+							if (null == material) {
+								if (EnvironmentDetailRenderable.MAX_MATERIALS <= materials.size()) {
+									materials.clear();
+								}
+								material = new Material(EnvironmentDetailRenderable.getCostColor(cost, threshold));
+								materials.put(cost, material);
+							}
+							outline.getAttributes().setOutlineMaterial(material);
+							outlines.put(cell, outline);
+							outline.render(dc);
+							renderedCells++;
+						}
+					} else {
+						// cells without box geometry cannot be outlined
+						for (Environment child : hierarchicalCell.getChildren()) {
+							if (child instanceof HierarchicalEnvironment) {
+								cells.push(child);
+							} else {
+								child.render(dc);
+								renderedCells++;
+							}
+						}
+					}
+				}
+			}
+		}
+		
+		// only retain the outlines of the last frame
+		this.outlines = outlines;
+		this.renderedCells = renderedCells;
+	}
+	
+	/**
+	 * Creates the outline of a cell tracing all edges of its box geometry.
+	 * 
+	 * @param cell the box geometry of the cell
+	 * @param globe the globe of the cell
+	 * 
+	 * @return the outline of the cell
+	 */
+	private static Path createOutline(Box cell, Globe globe) {
+		Vec4[] corners = cell.getCorners();
+		List<Position> positions = new ArrayList<>();
+		for (int corner : EnvironmentDetailRenderable.OUTLINE_CORNERS) {
+			positions.add(globe.computePositionFromPoint(corners[corner]));
+		}
+		
+		ShapeAttributes attributes = new BasicShapeAttributes();
+		attributes.setDrawInterior(false);
+		attributes.setDrawOutline(true);
+		attributes.setOutlineOpacity(0.5d);
+		
+		Path outline = new Path(positions);
+		outline.setAltitudeMode(WorldWind.ABSOLUTE);
+		outline.setPathType(AVKey.LINEAR);
+		outline.setFollowTerrain(false);
+		outline.setAttributes(attributes);
+		return outline;
+	}
+	
+	/**
+	 * Gets the outline color of an aggregated cell cost ranging from green
+	 * for the threshold cost to red for the maximum cost of the threshold
+	 * cost range.
+	 * 
+	 * @param cost the aggregated cost of the cell
+	 * @param threshold the threshold cost
+	 * 
+	 * @return the outline color of the aggregated cell cost
+	 */
+	private static Color getCostColor(double cost, double threshold) {
+		double range = Math.max(Double.MIN_VALUE, EnvironmentDetailRenderable.MAX_COST - threshold);
+		double ratio = Math.min(1d, Math.max(0d, (cost - threshold) / range));
+		return Color.getHSBColor((float) ((1d - ratio) / 3d), 1f, 1f);
+	}
+	
+}
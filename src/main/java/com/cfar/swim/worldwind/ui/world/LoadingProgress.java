@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.time.Duration;
+
+/**
+ * Realizes an immutable progress snapshot of loading several files.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class LoadingProgress {
+	
+	/** the number of files to be loaded of this loading progress */
+	private final int files;
+	
+	/** the number of completed files of this loading progress */
+	private final int completedFiles;
+	
+	/** the number of failed files of this loading progress */
+	private final int failedFiles;
+	
+	/** the total size of the files to be loaded of this loading progress in bytes */
+	private final long bytes;
+	
+	/** the total size of the completed files of this loading progress in bytes */
+	private final long completedBytes;
+	
+	/** the elapsed time of this loading progress */
+	private final Duration elapsed;
+	
+	/**
+	 * Constructs a new loading progress.
+	 * 
+	 * @param files the number of files to be loaded
+	 * @param completedFiles the number of completed files
+	 * @param failedFiles the number of failed files
+	 * @param bytes the total size of the files to be loaded in bytes
+	 * @param completedBytes the total size of the completed files in bytes
+	 * @param elapsed the elapsed time
+	 */
+	public LoadingProgress(
+			int files, int completedFiles, int failedFiles,
+			long bytes, long completedBytes, Duration elapsed) {
+		this.files = files;
+		this.completedFiles = completedFiles;
+		this.failedFiles = failedFiles;
+		this.bytes = bytes;
+		this.completedBytes = completedBytes;
+		this.elapsed = elapsed;
+	}
+	
+	/**
+	 * Gets the number of files to be loaded of this loading progress.
+	 * 
+	 * @return the number of files to be loaded of this loading progress
+	 */
+	public int getFiles() {
+		return this.files;
+	}
+	
+	/**
+	 * Gets the number of completed (loaded or failed) files of this loading
+	 * progress.
+	 * 
+	 * @return the number of completed files of this loading progress
+	 */
+	public int getCompletedFiles() {
+		return this.completedFiles;
+	}
+	
+	/**
+	 * Gets the number of failed files of this loading progress.
+	 * 
+	 * @return the number of failed files of this loading progress
+	 */
+	public int getFailedFiles() {
+		return this.failedFiles;
+	}
+	
+	/**
+	 * Gets the total size of the files to be loaded of this loading progress.
+	 * 
+	 * @return the total size of the files to be loaded in bytes
+	 */
+	public long getBytes() {
+		return this.bytes;
+	}
+	
+	/**
+	 * Gets the total size of the completed files of this loading progress.
+	 * 
+	 * @return the total size of the completed files in bytes
+	 */
+	public long getCompletedBytes() {
+		return this.completedBytes;
+	}
+	
+	/**
+	 * Gets the elapsed time of this loading progress.
+	 * 
+	 * @return the elapsed time of this loading progress
+	 */
+	public Duration getElapsed() {
+		return this.elapsed;
+	}
+	
+	/**
+	 * Gets the completed fraction of this loading progress weighted by file
+	 * size.
+	 * 
+	 * @return the completed fraction of this loading progress in [0, 1]
+	 */
+	public double getFraction() {
+		if (0 < this.bytes) {
+			return Math.min(1d, ((double) this.completedBytes) / this.bytes);
+		} else if (0 < this.files) {
+			return ((double) this.completedFiles) / this.files;
+		}
+		return 1d;
+	}
+	
+	/**
+	 * Determines whether or not the loading of this loading progress has
+	 * finished.
+	 * 
+	 * @return true if all files have been completed, false otherwise
+	 */
+	public boolean isDone() {
+		return (this.completedFiles == this.files);
+	}
+	
+	/**
+	 * Gets the string representation of this loading progress.
+	 * 
+	 * @return the string representation of this loading progress
+	 * 
+	 * @see Object#toString()
+	 */
+	@Override
+	public String toString() {
+		String failed = (0 < this.failedFiles)
+				? String.format(" (%d failed)", this.failedFiles) : "";
+		return String.format("%d/%d files%s | %.1f/%.1f MB | %.1f s",
+				this.completedFiles, this.files, failed,
+				this.completedBytes / 1E6d, this.bytes / 1E6d,
+				this.elapsed.toMillis() / 1000d);
+	}
+	
+}
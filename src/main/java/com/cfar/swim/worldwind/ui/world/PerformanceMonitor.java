@@ -0,0 +1,442 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.event.RenderingEvent;
+import gov.nasa.worldwind.event.RenderingListener;
+import gov.nasa.worldwind.layers.AbstractLayer;
+import gov.nasa.worldwind.layers.AnnotationLayer;
+import gov.nasa.worldwind.layers.Layer;
+import gov.nasa.worldwind.layers.LayerList;
+import gov.nasa.worldwind.layers.MarkerLayer;
+import gov.nasa.worldwind.layers.RenderableLayer;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.render.ScreenAnnotation;
+import gov.nasa.worldwind.render.markers.Marker;
+
+/**
+ * Realizes a performance monitor displaying an on-globe overlay with the
+ * frame rate, frame time percentiles, the render time and renderable count
+ * of monitored layers, the latency of the event dispatch thread and the
+ * number of pending layer updates of a redraw scheduler.
+ * 
+ * Layer render times are measured by probe layers enclosing each monitored
+ * layer and therefore only include the immediate rendering of a layer, but
+ * not its deferred ordered renderables. The latency of the event dispatch
+ * thread is reported instead of its queue depth, which is not accessible,
+ * together with the pending layer updates of the redraw scheduler. A
+ * disabled performance monitor installs neither probe layers nor listeners
+ * and therefore does not cost anything.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class PerformanceMonitor {
+	
+	/** the number of frames of the frame time window of a performance monitor */
+	private static final int FRAME_WINDOW = 256;
+	
+	/** the update period of the overlay of a performance monitor in nanoseconds */
+	private static final long UPDATE_PERIOD = 500000000L;
+	
+	/** the sampling period of the event dispatch thread latency in milliseconds */
+	private static final long LATENCY_PERIOD = 250L;
+	
+	/** the world window of this performance monitor */
+	private final WorldWindow wwd;
+	
+	/** the redraw scheduler of this performance monitor */
+	private final RedrawScheduler redrawScheduler;
+	
+	/** the monitored layers of this performance monitor */
+	private final Map<String, Layer> layers = new LinkedHashMap<>();
+	
+	/** the probe layers of this performance monitor */
+	private final List<ProbeLayer> probes = new ArrayList<>();
+	
+	/** the overlay layer of this performance monitor */
+	private final AnnotationLayer overlayLayer = new AnnotationLayer();
+	
+	/** the overlay annotation of this performance monitor */
+	private final ScreenAnnotation overlay;
+	
+	/** the frame listener of this performance monitor */
+	private final FrameListener frameListener = new FrameListener();
+	
+	/** the latency sampler of this performance monitor */
+	private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+	
+	/** the latency sampling of this performance monitor */
+	private ScheduledFuture<?> sampling = null;
+	
+	/** the frame times of the frame time window of this performance monitor in nanoseconds */
+	private final long[] frameTimes = new long[PerformanceMonitor.FRAME_WINDOW];
+	
+	/** the number of recorded frames of this performance monitor */
+	private long recordedFrames = 0;
+	
+	/** the start of the current frame of this performance monitor */
+	private long frameStart = 0;
+	
+	/** the start of the current update period of this performance monitor */
+	private long periodStart = 0;
+	
+	/** the number of frames in the current update period of this performance monitor */
+	private int periodFrames = 0;
+	
+	/** the latest event dispatch thread latency of this performance monitor in nanoseconds */
+	private volatile long latency = 0;
+	
+	/** the maximum event dispatch thread latency in the current update period */
+	private volatile long maxLatency = 0;
+	
+	/** indicates whether or not this performance monitor is enabled */
+	private boolean isEnabled = false;
+	
+	/**
+	 * Constructs a new performance monitor for a world window and redraw
+	 * scheduler.
+	 * 
+	 * @param wwd the world window to be monitored
+	 * @param redrawScheduler the redraw scheduler to be monitored
+	 */
+	public PerformanceMonitor(WorldWindow wwd, RedrawScheduler redrawScheduler) {
+		this.wwd = wwd;
+		this.redrawScheduler = redrawScheduler;
+		this.overlay = new ScreenAnnotation("", new Point(0, 0));
+		this.overlay.setAlwaysOnTop(true);
+		this.overlay.getAttributes().setAdjustWidthToText(AVKey.SIZE_FIT_TEXT);
+		this.overlay.getAttributes().setTextAlign(AVKey.LEFT);
+		this.overlay.getAttributes().setFont(Font.decode("Monospaced-PLAIN-12"));
+		this.overlay.getAttributes().setTextColor(Color.BLACK);
+		this.overlay.getAttributes().setBackgroundColor(Color.LIGHT_GRAY);
+		this.overlay.getAttributes().setBorderColor(Color.BLACK);
+		this.overlay.getAttributes().setOpacity(0.75d);
+		this.overlayLayer.addAnnotation(this.overlay);
+		this.overlayLayer.setPickEnabled(false);
+	}
+	
+	/**
+	 * Adds a monitored layer to this performance monitor.
+	 * 
+	 * @param name the displayed name of the monitored layer
+	 * @param layer the monitored layer
+	 */
+	public void addLayer(String name, Layer layer) {
+		this.layers.put(name, layer);
+	}
+	
+	/**
+	 * Sets the screen point of the overlay of this performance monitor.
+	 * 
+	 * @param screenPoint the screen point of the overlay
+	 */
+	public void setScreenPoint(Point screenPoint) {
+		this.overlay.setScreenPoint(screenPoint);
+	}
+	
+	/**
+	 * Determines whether or not this performance monitor is enabled.
+	 * 
+	 * @return true if this performance monitor is enabled, false otherwise
+	 */
+	public boolean isEnabled() {
+		return this.isEnabled;
+	}
+	
+	/**
+	 * Enables or disables this performance monitor installing or removing
+	 * its overlay, probe layers and listeners. This method has to be invoked
+	 * on the event dispatch thread.
+	 * 
+	 * @param isEnabled true to enable, false to disable this performance
+	 *                  monitor
+	 */
+	public void setEnabled(boolean isEnabled) {
+		if (isEnabled != this.isEnabled) {
+			this.isEnabled = isEnabled;
+			LayerList layerList = this.wwd.getModel().getLayers();
+			
+			if (isEnabled) {
+				for (Layer layer : this.layers.values()) {
+					int index = layerList.indexOf(layer);
+					if (-1 != index) {
+						ProbeLayer start = new ProbeLayer();
+						ProbeLayer end = new ProbeLayer();
+						layerList.add(index + 1, end);
+						layerList.add(index, start);
+						this.probes.add(start);
+						this.probes.add(end);
+					}
+				}
+				layerList.add(this.overlayLayer);
+				
+				this.recordedFrames = 0;
+				this.periodStart = System.nanoTime();
+				this.periodFrames = 0;
+				this.wwd.addRenderingListener(this.frameListener);
+				this.sampling = this.sampler.scheduleAtFixedRate(new LatencySample(),
+						0L, PerformanceMonitor.LATENCY_PERIOD, TimeUnit.MILLISECONDS);
+				this.overlay.setText("...");
+			} else {
+				this.sampling.cancel(false);
+				this.sampling = null;
+				this.wwd.removeRenderingListener(this.frameListener);
+				layerList.remove(this.overlayLayer);
+				for (ProbeLayer probe : this.probes) {
+					layerList.remove(probe);
+				}
+				this.probes.clear();
+			}
+			this.wwd.redraw();
+		}
+	}
+	
+	/**
+	 * Toggles this performance monitor. This method has to be invoked on the
+	 * event dispatch thread.
+	 */
+	public void toggle() {
+		this.setEnabled(!this.isEnabled);
+	}
+	
+	/**
+	 * Updates the overlay of this performance monitor.
+	 * 
+	 * @param now the current time in nanoseconds
+	 */
+	private void updateOverlay(long now) {
+		double fps = (this.periodFrames * 1E9d) / Math.max(1L, now - this.periodStart);
+		int windowFrames = (int) Math.min(this.recordedFrames, PerformanceMonitor.FRAME_WINDOW);
+		long[] sorted = Arrays.copyOf(this.frameTimes, windowFrames);
+		Arrays.sort(sorted);
+		
+		StringBuilder text = new StringBuilder();
+		text.append(String.format("FPS %6.1f   frame p50 %6.2f  p95 %6.2f  p99 %6.2f ms%n",
+				fps, percentile(sorted, 0.5d), percentile(sorted, 0.95d), percentile(sorted, 0.99d)));
+		int probe = 0;
+		for (Map.Entry<String, Layer> entry : this.layers.entrySet()) {
+			if (probe + 1 < this.probes.size()) {
+				ProbeLayer start = this.probes.get(probe);
+				ProbeLayer end = this.probes.get(probe + 1);
+				double time = (end.getAccumulated() - start.getAccumulated()) / Math.max(1, this.periodFrames) / 1E6d;
+				text.append(String.format("%-12s %8.3f ms %8d%n", entry.getKey(), time, count(entry.getValue())));
+				start.reset();
+				end.reset();
+				probe += 2;
+			}
+		}
+		text.append(String.format("EDT latency %6.2f ms (max %6.2f ms)   pending updates %d",
+				this.latency / 1E6d, this.maxLatency / 1E6d, this.redrawScheduler.getPendingEvents()));
+		
+		this.overlay.setText(text.toString());
+		this.periodStart = now;
+		this.periodFrames = 0;
+		this.maxLatency = 0;
+	}
+	
+	/**
+	 * Gets a percentile of sorted frame times in milliseconds.
+	 * 
+	 * @param sorted the sorted frame times in nanoseconds
+	 * @param percentile the percentile in [0, 1]
+	 * 
+	 * @return the percentile of the sorted frame times in milliseconds
+	 */
+	private static double percentile(long[] sorted, double percentile) {
+		double value = 0d;
+		if (0 < sorted.length) {
+			int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+			value = sorted[Math.max(0, index)] / 1E6d;
+		}
+		return value;
+	}
+	
+	/**
+	 * Counts the rendered items of a layer.
+	 * 
+	 * @param layer the layer
+	 * 
+	 * @return the number of rendered items of the layer, -1 if unknown
+	 */
+	private static int count(Layer layer) {
+		int count = -1;
+		if (layer instanceof RenderableLayer) {
+			count = 0;
+			for (Renderable renderable : ((RenderableLayer) layer).getRenderables()) {
+				if (renderable instanceof EnvironmentDetailRenderable) {
+					count += ((EnvironmentDetailRenderable) renderable).getRenderedCells();
+				} else {
+					count++;
+				}
+			}
+		} else if (layer instanceof MarkerLayer) {
+			count = 0;
+			Iterable<Marker> markers = ((MarkerLayer) layer).getMarkers();
+			if (null != markers) {
+				for (@SuppressWarnings("unused") Marker marker : markers) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Shuts down this performance monitor.
+	 */
+	public void shutdown() {
+		this.sampler.shutdownNow();
+	}
+	
+	/**
+	 * Realizes a probe layer recording the accumulated time it is rendered
+	 * at relative to the start of each frame.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class ProbeLayer extends AbstractLayer {
+		
+		/** the accumulated render time offsets of this probe layer in nanoseconds */
+		private long accumulated = 0;
+		
+		/**
+		 * Constructs a new probe layer.
+		 */
+		public ProbeLayer() {
+			this.setPickEnabled(false);
+		}
+		
+		/**
+		 * Records the render time offset of this probe layer.
+		 * 
+		 * @param dc the draw context
+		 * 
+		 * @see AbstractLayer#doRender(DrawContext)
+		 */
+		@Override
+		protected void doRender(DrawContext dc) {
+			this.accumulated += System.nanoTime() - frameStart;
+		}
+		
+		/**
+		 * Gets the accumulated render time offsets of this probe layer.
+		 * 
+		 * @return the accumulated render time offsets in nanoseconds
+		 */
+		public long getAccumulated() {
+			return this.accumulated;
+		}
+		
+		/**
+		 * Resets the accumulated render time offsets of this probe layer.
+		 */
+		public void reset() {
+			this.accumulated = 0;
+		}
+	}
+	
+	/**
+	 * Realizes a frame listener recording the frame times.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class FrameListener implements RenderingListener {
+		
+		/**
+		 * Records the frame times and updates the overlay periodically.
+		 * 
+		 * @param event the rendering event
+		 * 
+		 * @see RenderingListener#stageChanged(RenderingEvent)
+		 */
+		@Override
+		public void stageChanged(RenderingEvent event) {
+			long now = System.nanoTime();
+			if (RenderingEvent.BEFORE_RENDERING.equals(event.getStage())) {
+				frameStart = now;
+			} else if (RenderingEvent.AFTER_BUFFER_SWAP.equals(event.getStage())) {
+				frameTimes[(int) (recordedFrames % PerformanceMonitor.FRAME_WINDOW)] = now - frameStart;
+				recordedFrames++;
+				periodFrames++;
+				if (PerformanceMonitor.UPDATE_PERIOD <= (now - periodStart)) {
+					updateOverlay(now);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Realizes a latency sample of the event dispatch thread.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class LatencySample implements Runnable {
+		
+		/**
+		 * Posts a time-stamped event to the event dispatch thread.
+		 * 
+		 * @see Runnable#run()
+		 */
+		@Override
+		public void run() {
+			long posted = System.nanoTime();
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					latency = System.nanoTime() - posted;
+					maxLatency = Math.max(maxLatency, latency);
+				}
+			});
+		}
+	}
+	
+}
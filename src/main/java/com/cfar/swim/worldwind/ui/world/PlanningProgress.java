@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.time.Duration;
+
+/**
+ * Realizes an immutable progress snapshot of a planning task.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class PlanningProgress {
+	
+	/** the number of plan revisions of this planning progress */
+	private final int revisions;
+	
+	/** the number of non-empty plan revisions of this planning progress */
+	private final int solutions;
+	
+	/** the best cost so far of this planning progress */
+	private final double bestCost;
+	
+	/** the number of dropped plan revisions of this planning progress */
+	private final long dropped;
+	
+	/** the elapsed time of this planning progress */
+	private final Duration elapsed;
+	
+	/** indicates whether or not the planning of this planning progress has finished */
+	private final boolean done;
+	
+	/** indicates whether or not the planning of this planning progress has been cancelled */
+	private final boolean cancelled;
+	
+	/**
+	 * Constructs a new planning progress.
+	 * 
+	 * @param revisions the number of plan revisions
+	 * @param solutions the number of non-empty plan revisions
+	 * @param bestCost the best cost so far
+	 * @param dropped the number of dropped plan revisions
+	 * @param elapsed the elapsed time
+	 * @param done indicates whether or not the planning has finished
+	 * @param cancelled indicates whether or not the planning has been cancelled
+	 */
+	public PlanningProgress(
+			int revisions, int solutions, double bestCost, long dropped,
+			Duration elapsed, boolean done, boolean cancelled) {
+		this.revisions = revisions;
+		this.solutions = solutions;
+		this.bestCost = bestCost;
+		this.dropped = dropped;
+		this.elapsed = elapsed;
+		this.done = done;
+		this.cancelled = cancelled;
+	}
+	
+	/**
+	 * Gets the number of plan revisions of this planning progress.
+	 * 
+	 * @return the number of plan revisions of this planning progress
+	 */
+	public int getRevisions() {
+		return this.revisions;
+	}
+	
+	/**
+	 * Gets the number of non-empty plan revisions of this planning progress.
+	 * 
+	 * @return the number of non-empty plan revisions of this planning progress
+	 */
+	public int getSolutions() {
+		return this.solutions;
+	}
+	
+	/**
+	 * Gets the best cost so far of this planning progress.
+	 * 
+	 * @return the best cost so far of this planning progress,
+	 *         positive infinity if no solution has been found yet
+	 */
+	public double getBestCost() {
+		return this.bestCost;
+	}
+	
+	/**
+	 * Gets the number of dropped plan revisions of this planning progress.
+	 * Dropped plan revisions have been superseded by later revisions before
+	 * their publication.
+	 * 
+	 * @return the number of dropped plan revisions of this planning progress
+	 */
+	public long getDropped() {
+		return this.dropped;
+	}
+	
+	/**
+	 * Determines whether or not this planning progress has a solution.
+	 * 
+	 * @return true if this planning progress has a solution,
+	 *         false otherwise
+	 */
+	public boolean hasSolution() {
+		return (0 < this.solutions);
+	}
+	
+	/**
+	 * Gets the elapsed time of this planning progress.
+	 * 
+	 * @return the elapsed time of this planning progress
+	 */
+	public Duration getElapsed() {
+		return this.elapsed;
+	}
+	
+	/**
+	 * Determines whether or not the planning of this planning progress
+	 * has finished.
+	 * 
+	 * @return true if the planning has finished, false otherwise
+	 */
+	public boolean isDone() {
+		return this.done;
+	}
+	
+	/**
+	 * Determines whether or not the planning of this planning progress
+	 * has been cancelled.
+	 * 
+	 * @return true if the planning has been cancelled, false otherwise
+	 */
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+	
+	/**
+	 * Gets the string representation of this planning progress.
+	 * 
+	 * @return the string representation of this planning progress
+	 * 
+	 * @see Object#toString()
+	 */
+	@Override
+	public String toString() {
+		String cost = this.hasSolution()
+				? String.format("%.2f", this.bestCost) : "-";
+		return String.format("revisions %d (%d dropped) | cost %s | %.1f s",
+				this.revisions, this.dropped, cost, this.elapsed.toMillis() / 1000d);
+	}
+	
+}
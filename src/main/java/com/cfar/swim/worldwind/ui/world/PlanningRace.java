@@ -0,0 +1,434 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import com.cfar.swim.worldwind.javafx.TrajectoryStylist;
+import com.cfar.swim.worldwind.jaxb.ScenarioMarshaller;
+import com.cfar.swim.worldwind.jaxb.ScenarioUnmarshaller;
+import com.cfar.swim.worldwind.planners.LifelongPlanner;
+import com.cfar.swim.worldwind.planners.OnlinePlanner;
+import com.cfar.swim.worldwind.planners.Planner;
+import com.cfar.swim.worldwind.planning.Trajectory;
+import com.cfar.swim.worldwind.registries.Specification;
+import com.cfar.swim.worldwind.registries.planners.PlannerFactory;
+import com.cfar.swim.worldwind.session.Scenario;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * Realizes a cancellable planning race which runs several planners
+ * concurrently on isolated copies of a scenario. The first feasible
+ * trajectory wins the race and is published to the raced scenario while
+ * all remaining planners are cancelled. Online planners requiring
+ * communications and lifelong planners whose planning may never return are
+ * not raced but settled as unsupported.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class PlanningRace extends FutureTask<Trajectory> {
+	
+	/** the raced scenario of this planning race */
+	private final Scenario scenario;
+	
+	/** the world model of this planning race */
+	private final WorldModel worldModel;
+	
+	/** the racers of this planning race */
+	private final List<Racer> racers = new ArrayList<>();
+	
+	/**
+	 * Constructs a new planning race of planner specifications on a scenario.
+	 * 
+	 * @param scenario the scenario to be raced
+	 * @param specifications the planner specifications of the racers
+	 * @param worldModel the world model to be returned to the view mode
+	 */
+	public PlanningRace(
+			Scenario scenario, List<Specification<Planner>> specifications,
+			WorldModel worldModel) {
+		this(new RaceCallable(), scenario, specifications, worldModel);
+	}
+	
+	/**
+	 * Constructs a new planning race using a race callable.
+	 * 
+	 * @param callable the race callable of the planning race
+	 * @param scenario the scenario to be raced
+	 * @param specifications the planner specifications of the racers
+	 * @param worldModel the world model to be returned to the view mode
+	 */
+	private PlanningRace(
+			RaceCallable callable, Scenario scenario,
+			List<Specification<Planner>> specifications,
+			WorldModel worldModel) {
+		super(callable);
+		callable.race = this;
+		this.scenario = scenario;
+		this.worldModel = worldModel;
+		for (Specification<Planner> specification : specifications) {
+			this.racers.add(new Racer(specification));
+		}
+	}
+	
+	/**
+	 * Starts this planning race on a dedicated race thread.
+	 */
+	public void start() {
+		Thread thread = new Thread(this, "planning-race");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Gets the racers of this planning race.
+	 * 
+	 * @return the racers of this planning race
+	 */
+	public List<Racer> getRacers() {
+		return Collections.unmodifiableList(this.racers);
+	}
+	
+	/**
+	 * Gets the winner of this planning race.
+	 * 
+	 * @return the winner of this planning race, null if there is none
+	 */
+	public Racer getWinner() {
+		for (Racer racer : this.racers) {
+			if (RacerOutcome.WON == racer.getOutcome()) {
+				return racer;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Publishes the winning trajectory, logs the race results and returns
+	 * the world model to the view mode.
+	 * 
+	 * @see FutureTask#done()
+	 */
+	@Override
+	protected void done() {
+		if (!this.isCancelled()) {
+			try {
+				Trajectory trajectory = this.get();
+				if (null != trajectory) {
+					TrajectoryStylist.styleTrajectory(trajectory);
+					this.scenario.setTrajectory(trajectory);
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		StringBuilder results = new StringBuilder("planning race ");
+		Racer winner = this.getWinner();
+		results.append((null == winner) ? "without winner" : "won by " + winner.getId());
+		for (Racer racer : this.racers) {
+			results.append(String.format("%n  %s: %s after %d ms",
+					racer.getId(), racer.getOutcome(), racer.getDuration().toMillis()));
+		}
+		Logging.logger().info(results.toString());
+		
+		this.worldModel.view();
+	}
+	
+	/**
+	 * Enumerates the possible outcomes of a racer.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	public enum RacerOutcome {
+		PENDING,
+		WON,
+		FEASIBLE,
+		INFEASIBLE,
+		UNSUPPORTED,
+		CANCELLED,
+		FAILED
+	}
+	
+	/**
+	 * Realizes a racer of a planning race planning on its own copy of the
+	 * raced scenario.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	public static class Racer implements Callable<Racer> {
+		
+		/** the planner specification of this racer */
+		private final Specification<Planner> specification;
+		
+		/** the scenario file to be copied by this racer */
+		private File scenarioFile = null;
+		
+		/** the planner of this racer */
+		private volatile Planner planner = null;
+		
+		/** the planned trajectory of this racer */
+		private volatile Trajectory trajectory = null;
+		
+		/** the outcome of this racer */
+		private volatile RacerOutcome outcome = RacerOutcome.PENDING;
+		
+		/** the start time of this racer in nanoseconds */
+		private volatile long startTime = 0;
+		
+		/** the duration of this racer in nanoseconds */
+		private volatile long duration = 0;
+		
+		/**
+		 * Constructs a new racer for a planner specification.
+		 * 
+		 * @param specification the planner specification of the racer
+		 */
+		private Racer(Specification<Planner> specification) {
+			this.specification = specification;
+		}
+		
+		/**
+		 * Gets the planner specification identifier of this racer.
+		 * 
+		 * @return the planner specification identifier of this racer
+		 */
+		public String getId() {
+			return this.specification.getId();
+		}
+		
+		/**
+		 * Gets the outcome of this racer.
+		 * 
+		 * @return the outcome of this racer
+		 */
+		public RacerOutcome getOutcome() {
+			return this.outcome;
+		}
+		
+		/**
+		 * Gets the duration of this racer.
+		 * 
+		 * @return the duration of this racer
+		 */
+		public Duration getDuration() {
+			return Duration.ofNanos(this.duration);
+		}
+		
+		/**
+		 * Gets the planned trajectory of this racer.
+		 * 
+		 * @return the planned trajectory of this racer, null if none
+		 */
+		public Trajectory getTrajectory() {
+			return this.trajectory;
+		}
+		
+		/**
+		 * Plans a trajectory on an isolated copy of the raced scenario using
+		 * a planner created according to the specification of this racer.
+		 * 
+		 * @return this racer
+		 * 
+		 * @throws Exception if the scenario cannot be copied or the planner
+		 *                   fails
+		 * 
+		 * @see Callable#call()
+		 */
+		@Override
+		public Racer call() throws Exception {
+			this.startTime = System.nanoTime();
+			try {
+				Scenario copy = new ScenarioUnmarshaller().unmarshalScenario(this.scenarioFile);
+				PlannerFactory factory = new PlannerFactory(copy);
+				factory.setSpecification(this.specification);
+				Planner planner = factory.createInstance();
+				this.planner = planner;
+				
+				List<Position> waypoints = new ArrayList<Position>();
+				waypoints.addAll(copy.getWaypoints());
+				
+				if ((planner instanceof OnlinePlanner) || (planner instanceof LifelongPlanner)) {
+					// online and lifelong planners cannot be raced to completion
+					this.settle(RacerOutcome.UNSUPPORTED);
+				} else if (planner.supports(planner.getAircraft()) &&
+					planner.supports(planner.getEnvironment()) &&
+					planner.supports(waypoints) &&
+					1 < waypoints.size()) {
+					
+					Position origin = waypoints.remove(0);
+					Position destination = waypoints.remove(waypoints.size() - 1);
+					
+					Trajectory trajectory;
+					if (waypoints.isEmpty()) {
+						trajectory = planner.plan(origin, destination, copy.getTime());
+					} else {
+						trajectory = planner.plan(origin, destination, waypoints, copy.getTime());
+					}
+					
+					if (Thread.currentThread().isInterrupted()) {
+						this.settle(RacerOutcome.CANCELLED);
+					} else if ((null == trajectory) || trajectory.isEmpty()) {
+						this.settle(RacerOutcome.INFEASIBLE);
+					} else {
+						this.trajectory = trajectory;
+						this.settle(RacerOutcome.FEASIBLE);
+					}
+				} else {
+					this.settle(RacerOutcome.UNSUPPORTED);
+				}
+			} catch (Exception e) {
+				this.settle(RacerOutcome.FAILED);
+				throw e;
+			} finally {
+				this.duration = System.nanoTime() - this.startTime;
+			}
+			return this;
+		}
+		
+		/**
+		 * Settles the outcome of this racer unless it has already been
+		 * settled.
+		 * 
+		 * @param outcome the outcome to be settled
+		 * 
+		 * @return true if the outcome has been settled, false otherwise
+		 */
+		private synchronized boolean settle(RacerOutcome outcome) {
+			if (RacerOutcome.PENDING == this.outcome) {
+				this.outcome = outcome;
+				return true;
+			}
+			return false;
+		}
+		
+		/**
+		 * Cancels this racer terminating its planner if it is a lifelong
+		 * planner.
+		 */
+		private void cancel() {
+			if (this.settle(RacerOutcome.CANCELLED) && (0 != this.startTime)) {
+				this.duration = System.nanoTime() - this.startTime;
+			}
+			Planner planner = this.planner;
+			if (planner instanceof LifelongPlanner) {
+				((LifelongPlanner) planner).terminate();
+			}
+		}
+	}
+	
+	/**
+	 * Realizes a race callable running all racers of a planning race
+	 * concurrently, each on its own thread, until the first feasible
+	 * trajectory has been found.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private static class RaceCallable implements Callable<Trajectory> {
+		
+		/** the planning race of this race callable */
+		private PlanningRace race = null;
+		
+		/**
+		 * Runs the racers of the planning race of this race callable.
+		 * 
+		 * @return the winning trajectory, null if there is none
+		 * 
+		 * @throws Exception if the raced scenario cannot be copied or the
+		 *                   race is interrupted
+		 * 
+		 * @see Callable#call()
+		 */
+		@Override
+		public Trajectory call() throws Exception {
+			List<Racer> racers = this.race.racers;
+			if (racers.isEmpty()) {
+				return null;
+			}
+			
+			File scenarioFile = File.createTempFile("race", ".xml");
+			// one thread per racer such that no racer is queued behind another
+			ExecutorService pool = Executors.newFixedThreadPool(racers.size());
+			List<Future<Racer>> futures = new ArrayList<>();
+			
+			try {
+				new ScenarioMarshaller().marshalScenario(this.race.scenario, scenarioFile);
+				
+				CompletionService<Racer> completion = new ExecutorCompletionService<>(pool);
+				for (Racer racer : racers) {
+					racer.scenarioFile = scenarioFile;
+					futures.add(completion.submit(racer));
+				}
+				
+				for (int finished = 0; finished < racers.size(); finished++) {
+					Future<Racer> future = completion.take();
+					try {
+						Racer racer = future.get();
+						if (RacerOutcome.FEASIBLE == racer.outcome) {
+							racer.outcome = RacerOutcome.WON;
+							return racer.trajectory;
+						}
+					} catch (ExecutionException e) {
+						e.getCause().printStackTrace();
+					}
+				}
+				return null;
+			} finally {
+				for (Future<Racer> future : futures) {
+					future.cancel(true);
+				}
+				for (Racer racer : racers) {
+					racer.cancel();
+				}
+				pool.shutdownNow();
+				scenarioFile.delete();
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,393 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.cfar.swim.worldwind.planners.LifelongPlanner;
+import com.cfar.swim.worldwind.planners.PlanRevisionListener;
+import com.cfar.swim.worldwind.planners.Planner;
+import com.cfar.swim.worldwind.planning.Trajectory;
+import com.cfar.swim.worldwind.session.Scenario;
+
+import gov.nasa.worldwind.geom.Position;
+
+/**
+ * Realizes a cancellable planning task which plans a trajectory on its own
+ * thread and reports its progress to a world model. A cancelled planning
+ * task releases its caller immediately, terminates lifelong planners and
+ * ignores any late plan revisions of its planner.
+ * 
+ * A planning thread cannot be stopped forcibly. The planner of a cancelled
+ * planning task hence keeps running on its orphaned planning thread until it
+ * observes the interruption or termination, which a non-interruptible planner
+ * may never do. Orphaned planning threads are counted such that callers can
+ * refuse to start further planning tasks beyond a maximum number of them.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class PlanningTask extends FutureTask<Trajectory> implements PlanRevisionListener {
+	
+	/** the default progress period of a planning task in milliseconds */
+	public static final long DEFAULT_PROGRESS_PERIOD = 250;
+	
+	/** the number of orphaned planning threads of all planning tasks */
+	private static final AtomicInteger orphanedThreads = new AtomicInteger(0);
+	
+	/** the planner of this planning task */
+	private final Planner planner;
+	
+	/** the scenario of this planning task */
+	private final Scenario scenario;
+	
+	/** the world model receiving the progress of this planning task */
+	private final WorldModel worldModel;
+	
+	/** the start time of this planning task in nanoseconds */
+	private volatile long startTime = 0;
+	
+	/** the number of plan revisions of this planning task */
+	private int revisions = 0;
+	
+	/** the number of non-empty plan revisions of this planning task */
+	private int solutions = 0;
+	
+	/** the best cost so far of this planning task */
+	private double bestCost = Double.POSITIVE_INFINITY;
+	
+	/** indicates whether or not the planner of this planning task is still running */
+	private final AtomicBoolean plannerRunning = new AtomicBoolean(false);
+	
+	/** indicates whether or not the planning thread of this planning task is orphaned */
+	private final AtomicBoolean threadOrphaned = new AtomicBoolean(false);
+	
+	/** the periodic progress report of this planning task */
+	private ScheduledFuture<?> report = null;
+	
+	/** the revision publication rate of this planning task in revisions per second */
+	private double revisionRate = RevisionConflator.DEFAULT_REVISION_RATE;
+	
+	/** the revision conflator of this planning task */
+	private volatile RevisionConflator conflator = null;
+	
+	/**
+	 * Constructs a new planning task.
+	 * 
+	 * @param planner the planner of the planning task
+	 * @param scenario the scenario to receive the planned trajectory
+	 * @param origin the origin of the planned trajectory
+	 * @param destination the destination of the planned trajectory
+	 * @param waypoints the intermediate waypoints of the planned trajectory
+	 * @param etd the estimated time of departure
+	 * @param worldModel the world model to receive the planning progress
+	 */
+	public PlanningTask(
+			Planner planner, Scenario scenario,
+			Position origin, Position destination, List<Position> waypoints,
+			ZonedDateTime etd, WorldModel worldModel) {
+		this(new PlanningCallable(planner, origin, destination, waypoints, etd),
+				planner, scenario, worldModel);
+	}
+	
+	/**
+	 * Constructs a new planning task using a planning callable.
+	 * 
+	 * @param callable the planning callable of the planning task
+	 * @param planner the planner of the planning task
+	 * @param scenario the scenario to receive the planned trajectory
+	 * @param worldModel the world model to receive the planning progress
+	 */
+	private PlanningTask(
+			PlanningCallable callable, Planner planner,
+			Scenario scenario, WorldModel worldModel) {
+		super(callable);
+		callable.task = this;
+		this.planner = planner;
+		this.scenario = scenario;
+		this.worldModel = worldModel;
+	}
+	
+	/**
+	 * Sets the revision publication rate of this planning task. Revisions
+	 * exceeding this rate are conflated keeping only the latest one.
+	 * 
+	 * @param revisionRate the revision publication rate in revisions per
+	 *                     second
+	 * 
+	 * @throws IllegalArgumentException if the revision rate is not positive
+	 */
+	public void setRevisionRate(double revisionRate) {
+		if (0d >= revisionRate) {
+			throw new IllegalArgumentException("invalid revision rate");
+		}
+		this.revisionRate = revisionRate;
+	}
+	
+	/**
+	 * Starts this planning task on a dedicated planning thread and reports
+	 * its progress periodically.
+	 * 
+	 * @param reporter the scheduled executor reporting the progress and
+	 *                 publishing the revised trajectories
+	 */
+	public void start(ScheduledExecutorService reporter) {
+		this.conflator = new RevisionConflator(this.scenario, reporter, this.revisionRate);
+		this.planner.addPlanRevisionListener(this);
+		this.startTime = System.nanoTime();
+		this.worldModel.setPlanningProgress(this.getProgress());
+		synchronized (this) {
+			this.report = reporter.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					if (!isDone()) {
+						worldModel.setPlanningProgress(getProgress());
+					}
+				}
+			}, PlanningTask.DEFAULT_PROGRESS_PERIOD,
+			PlanningTask.DEFAULT_PROGRESS_PERIOD, TimeUnit.MILLISECONDS);
+		}
+		Thread thread = new Thread(this, "planning-" + this.planner.getClass().getSimpleName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Gets the planner of this planning task.
+	 * 
+	 * @return the planner of this planning task
+	 */
+	public Planner getPlanner() {
+		return this.planner;
+	}
+	
+	/**
+	 * Determines whether or not the planner of this planning task is still
+	 * running. The planner of a cancelled planning task may continue running
+	 * until it observes the interruption and must not be reused before.
+	 * 
+	 * @return true if the planner of this planning task is still running,
+	 *         false otherwise
+	 */
+	public boolean isPlannerRunning() {
+		return this.plannerRunning.get();
+	}
+	
+	/**
+	 * Gets the number of orphaned planning threads, that is, the planning
+	 * threads of cancelled planning tasks whose planners are still running.
+	 * 
+	 * @return the number of orphaned planning threads
+	 */
+	public static int getOrphanedThreads() {
+		return PlanningTask.orphanedThreads.get();
+	}
+	
+	/**
+	 * Releases the orphaned planning thread of this planning task if its
+	 * planner is no longer running.
+	 */
+	private void releaseOrphanedThread() {
+		if (!this.plannerRunning.get() && this.threadOrphaned.compareAndSet(true, false)) {
+			PlanningTask.orphanedThreads.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Gets the current progress of this planning task.
+	 * 
+	 * @return the current progress of this planning task
+	 */
+	public synchronized PlanningProgress getProgress() {
+		Duration elapsed = (0 == this.startTime) ? Duration.ZERO
+				: Duration.ofNanos(System.nanoTime() - this.startTime);
+		long dropped = (null == this.conflator) ? 0 : this.conflator.getDropped();
+		return new PlanningProgress(
+				this.revisions, this.solutions, this.bestCost, dropped,
+				elapsed, this.isDone(), this.isCancelled());
+	}
+	
+	/**
+	 * Offers a revised trajectory to the revision conflator of this planning
+	 * task unless this planning task has already finished or been cancelled.
+	 * Only the latest revised trajectory is styled and published to the
+	 * scenario of this planning task at the revision publication rate.
+	 * 
+	 * @param trajectory the revised trajectory
+	 * 
+	 * @see PlanRevisionListener#revisePlan(Trajectory)
+	 */
+	@Override
+	public void revisePlan(Trajectory trajectory) {
+		if (this.isDone()) {
+			return;
+		}
+		
+		synchronized (this) {
+			this.revisions++;
+			if (!trajectory.isEmpty()) {
+				this.solutions++;
+				this.bestCost = Math.min(this.bestCost, trajectory.getCost());
+			}
+		}
+		
+		this.conflator.offer(trajectory);
+	}
+	
+	/**
+	 * Cancels this planning task interrupting its planning thread and
+	 * terminating its planner if it is a lifelong planner. The planning
+	 * thread is counted as orphaned until its planner has returned.
+	 * 
+	 * @param mayInterruptIfRunning ignored, the planning thread is always
+	 *                              interrupted
+	 * 
+	 * @return true if this planning task has been cancelled, false otherwise
+	 * 
+	 * @see FutureTask#cancel(boolean)
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		boolean cancelled = super.cancel(true);
+		if (cancelled) {
+			if (this.threadOrphaned.compareAndSet(false, true)) {
+				PlanningTask.orphanedThreads.incrementAndGet();
+				this.releaseOrphanedThread();
+			}
+			if (this.planner instanceof LifelongPlanner) {
+				((LifelongPlanner) this.planner).terminate();
+			}
+		}
+		return cancelled;
+	}
+	
+	/**
+	 * Stops the progress report of this planning task, publishes its latest
+	 * revised trajectory unless cancelled, reports its final progress and
+	 * returns the world model to the view mode.
+	 * 
+	 * @see FutureTask#done()
+	 */
+	@Override
+	protected void done() {
+		synchronized (this) {
+			if (null != this.report) {
+				this.report.cancel(false);
+			}
+		}
+		if (null != this.conflator) {
+			if (!this.isCancelled()) {
+				this.conflator.flush();
+			}
+			this.conflator.close();
+		}
+		this.worldModel.setPlanningProgress(this.getProgress());
+		this.worldModel.view();
+	}
+	
+	/**
+	 * Realizes a planning callable invoking the planner of a planning task.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private static class PlanningCallable implements Callable<Trajectory> {
+		
+		/** the planner of this planning callable */
+		private final Planner planner;
+		
+		/** the origin of this planning callable */
+		private final Position origin;
+		
+		/** the destination of this planning callable */
+		private final Position destination;
+		
+		/** the intermediate waypoints of this planning callable */
+		private final List<Position> waypoints;
+		
+		/** the estimated time of departure of this planning callable */
+		private final ZonedDateTime etd;
+		
+		/** the planning task of this planning callable */
+		private PlanningTask task = null;
+		
+		/**
+		 * Constructs a new planning callable.
+		 * 
+		 * @param planner the planner to be invoked
+		 * @param origin the origin of the planned trajectory
+		 * @param destination the destination of the planned trajectory
+		 * @param waypoints the intermediate waypoints of the planned trajectory
+		 * @param etd the estimated time of departure
+		 */
+		private PlanningCallable(
+				Planner planner, Position origin, Position destination,
+				List<Position> waypoints, ZonedDateTime etd) {
+			this.planner = planner;
+			this.origin = origin;
+			this.destination = destination;
+			this.waypoints = new ArrayList<Position>(waypoints);
+			this.etd = etd;
+		}
+		
+		/**
+		 * Plans a trajectory using the planner of this planning callable.
+		 * 
+		 * @return the planned trajectory
+		 * 
+		 * @see Callable#call()
+		 */
+		@Override
+		public Trajectory call() {
+			this.task.plannerRunning.set(true);
+			try {
+				if (this.waypoints.isEmpty()) {
+					return this.planner.plan(this.origin, this.destination, this.etd);
+				} else {
+					return this.planner.plan(this.origin, this.destination, this.waypoints, this.etd);
+				}
+			} finally {
+				this.task.plannerRunning.set(false);
+				this.task.releaseOrphanedThread();
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.layers.RenderableLayer;
+import gov.nasa.worldwind.render.Renderable;
+
+/**
+ * Realizes a renderable layer which reconciles its contents with a new set of
+ * renderables in place. Only renderables which are not yet contained are
+ * added and only renderables which are no longer contained are removed, both
+ * determined by identity. Unchanged renderables remain untouched, and thereby
+ * keep any geometry cached by them.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class ReconcilingRenderableLayer extends RenderableLayer {
+	
+	/** the threshold above which removals are performed in bulk */
+	private static final int BULK_REMOVAL_THRESHOLD = 16;
+	
+	/** the identity set mirroring the renderables of this reconciling renderable layer */
+	private final Set<Renderable> contents = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	/**
+	 * Reconciles the renderables of this reconciling renderable layer with a
+	 * new set of renderables.
+	 * 
+	 * @param renderables the new renderables of this reconciling renderable
+	 *                    layer
+	 * 
+	 * @return true if the renderables of this reconciling renderable layer
+	 *         have changed, false otherwise
+	 */
+	public boolean reconcile(Iterable<? extends Renderable> renderables) {
+		Set<Renderable> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+		boolean changed = false;
+		
+		for (Renderable renderable : renderables) {
+			if (null != renderable) {
+				retained.add(renderable);
+				if (!this.contents.contains(renderable)) {
+					this.addRenderable(renderable);
+					changed = true;
+				}
+			}
+		}
+		
+		if (retained.size() < this.contents.size()) {
+			Set<Renderable> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (Renderable renderable : this.contents) {
+				if (!retained.contains(renderable)) {
+					removed.add(renderable);
+				}
+			}
+			this.removeRenderables(removed);
+			changed = true;
+		}
+		
+		return changed;
+	}
+	
+	/**
+	 * Removes a set of renderables from this reconciling renderable layer.
+	 * Large sets are removed in a single pass over the renderables of this
+	 * reconciling renderable layer.
+	 * 
+	 * @param removed the identity set of renderables to be removed
+	 */
+	protected void removeRenderables(Set<Renderable> removed) {
+		if (BULK_REMOVAL_THRESHOLD < removed.size()) {
+			this.renderables.removeIf(removed::contains);
+			for (Renderable renderable : removed) {
+				if (renderable instanceof AVList) {
+					((AVList) renderable).removePropertyChangeListener(this);
+				}
+			}
+			this.contents.removeAll(removed);
+		} else {
+			for (Renderable renderable : removed) {
+				this.removeRenderable(renderable);
+			}
+		}
+	}
+	
+	/**
+	 * Determines whether or not this reconciling renderable layer contains a
+	 * renderable.
+	 * 
+	 * @param renderable the renderable
+	 * 
+	 * @return true if this reconciling renderable layer contains the
+	 *         renderable, false otherwise
+	 */
+	public boolean contains(Renderable renderable) {
+		return this.contents.contains(renderable);
+	}
+	
+	/**
+	 * Adds a renderable to this reconciling renderable layer.
+	 * 
+	 * @param renderable the renderable to be added
+	 * 
+	 * @see RenderableLayer#addRenderable(Renderable)
+	 */
+	@Override
+	public void addRenderable(Renderable renderable) {
+		super.addRenderable(renderable);
+		this.contents.add(renderable);
+	}
+	
+	/**
+	 * Adds renderables to this reconciling renderable layer.
+	 * 
+	 * @param renderables the renderables to be added
+	 * 
+	 * @see RenderableLayer#addRenderables(Iterable)
+	 */
+	@Override
+	public void addRenderables(Iterable<? extends Renderable> renderables) {
+		super.addRenderables(renderables);
+		for (Renderable renderable : renderables) {
+			if (null != renderable) {
+				this.contents.add(renderable);
+			}
+		}
+	}
+	
+	/**
+	 * Removes a renderable from this reconciling renderable layer.
+	 * 
+	 * @param renderable the renderable to be removed
+	 * 
+	 * @see RenderableLayer#removeRenderable(Renderable)
+	 */
+	@Override
+	public void removeRenderable(Renderable renderable) {
+		super.removeRenderable(renderable);
+		this.contents.remove(renderable);
+	}
+	
+	/**
+	 * Removes all renderables from this reconciling renderable layer.
+	 * 
+	 * @see RenderableLayer#removeAllRenderables()
+	 */
+	@Override
+	public void removeAllRenderables() {
+		super.removeAllRenderables();
+		this.contents.clear();
+	}
+	
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.layers.Layer;
+
+/**
+ * Realizes a redraw scheduler which coalesces layer updates of a world window
+ * and performs them at most once per display frame. Layers are marked dirty
+ * with their latest update which supersedes any pending update of the same
+ * layer. All dirty layers are updated together on the event dispatch thread
+ * followed by a single redraw of the world window.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class RedrawScheduler {
+	
+	/** the default target frame rate of a redraw scheduler in frames per second */
+	public static final double DEFAULT_FRAME_RATE = 30d;
+	
+	/** the world window of this redraw scheduler */
+	private final WorldWindow wwd;
+	
+	/** the pending layer updates of this redraw scheduler */
+	private final Map<Layer, Runnable> updates = new LinkedHashMap<>();
+	
+	/** the frame timer of this redraw scheduler */
+	private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+	
+	/** the frame period of this redraw scheduler in nanoseconds */
+	private long framePeriod = Math.round(1E9d / RedrawScheduler.DEFAULT_FRAME_RATE);
+	
+	/** the time of the last frame of this redraw scheduler in nanoseconds */
+	private long frameTime = System.nanoTime() - this.framePeriod;
+	
+	/** indicates whether or not a frame of this redraw scheduler is pending */
+	private boolean isPending = false;
+	
+	/** the number of events received for the pending frame */
+	private long pendingEvents = 0;
+	
+	/** the total number of events received by this redraw scheduler */
+	private long events = 0;
+	
+	/** the total number of frames performed by this redraw scheduler */
+	private long frames = 0;
+	
+	/** the number of events coalesced in the last frame */
+	private long lastCoalesced = 0;
+	
+	/** the maximum number of events coalesced in a single frame */
+	private long maxCoalesced = 0;
+	
+	/**
+	 * Constructs a new redraw scheduler for a world window with the default
+	 * target frame rate.
+	 * 
+	 * @param wwd the world window to be redrawn
+	 */
+	public RedrawScheduler(WorldWindow wwd) {
+		this.wwd = wwd;
+	}
+	
+	/**
+	 * Gets the target frame rate of this redraw scheduler.
+	 * 
+	 * @return the target frame rate of this redraw scheduler in frames per
+	 *         second
+	 */
+	public synchronized double getFrameRate() {
+		return 1E9d / this.framePeriod;
+	}
+	
+	/**
+	 * Sets the target frame rate of this redraw scheduler.
+	 * 
+	 * @param frameRate the target frame rate to be set in frames per second
+	 * 
+	 * @throws IllegalArgumentException if the frame rate is not positive
+	 */
+	public synchronized void setFrameRate(double frameRate) {
+		if (0d >= frameRate) {
+			throw new IllegalArgumentException("invalid frame rate");
+		}
+		this.framePeriod = Math.round(1E9d / frameRate);
+	}
+	
+	/**
+	 * Schedules an update of a layer for the next frame. A pending update of
+	 * the same layer is superseded by this update.
+	 * 
+	 * @param layer the layer to be updated
+	 * @param update the update to be performed on the event dispatch thread
+	 */
+	public synchronized void update(Layer layer, Runnable update) {
+		this.updates.put(layer, update);
+		this.schedule();
+	}
+	
+	/**
+	 * Schedules a redraw without any layer update for the next frame.
+	 */
+	public synchronized void redraw() {
+		this.schedule();
+	}
+	
+	/**
+	 * Schedules the next frame of this redraw scheduler if it has not been
+	 * scheduled yet. Frames are separated by at least one frame period.
+	 */
+	private void schedule() {
+		this.events++;
+		this.pendingEvents++;
+		
+		if (!this.isPending) {
+			this.isPending = true;
+			long delay = Math.max(0L, (this.frameTime + this.framePeriod) - System.nanoTime());
+			this.timer.schedule(new Runnable() {
+				@Override
+				public void run() {
+					SwingUtilities.invokeLater(new FrameRenderer());
+				}
+			}, delay, TimeUnit.NANOSECONDS);
+		}
+	}
+	
+	/**
+	 * Gets the total number of events received by this redraw scheduler.
+	 * 
+	 * @return the total number of events received by this redraw scheduler
+	 */
+	public synchronized long getEvents() {
+		return this.events;
+	}
+	
+	/**
+	 * Gets the total number of frames performed by this redraw scheduler.
+	 * 
+	 * @return the total number of frames performed by this redraw scheduler
+	 */
+	public synchronized long getFrames() {
+		return this.frames;
+	}
+	
+	/**
+	 * Gets the number of events pending for the next frame of this redraw
+	 * scheduler.
+	 * 
+	 * @return the number of events pending for the next frame
+	 */
+	public synchronized long getPendingEvents() {
+		return this.pendingEvents;
+	}
+	
+	/**
+	 * Gets the total number of events coalesced by this redraw scheduler,
+	 * that is, events which did not require a frame of their own.
+	 * 
+	 * @return the total number of events coalesced by this redraw scheduler
+	 */
+	public synchronized long getCoalesced() {
+		return this.events - this.pendingEvents - this.frames;
+	}
+	
+	/**
+	 * Gets the number of events coalesced in the last frame of this redraw
+	 * scheduler.
+	 * 
+	 * @return the number of events coalesced in the last frame
+	 */
+	public synchronized long getLastCoalesced() {
+		return this.lastCoalesced;
+	}
+	
+	/**
+	 * Gets the maximum number of events coalesced in a single frame of this
+	 * redraw scheduler.
+	 * 
+	 * @return the maximum number of events coalesced in a single frame
+	 */
+	public synchronized long getMaxCoalesced() {
+		return this.maxCoalesced;
+	}
+	
+	/**
+	 * Shuts down this redraw scheduler discarding any pending updates.
+	 */
+	public synchronized void shutdown() {
+		this.updates.clear();
+		this.timer.shutdownNow();
+	}
+	
+	/**
+	 * Realizes a frame renderer performing all pending layer updates of a
+	 * frame followed by a single redraw on the event dispatch thread.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class FrameRenderer implements Runnable {
+		
+		/**
+		 * Performs all pending layer updates and redraws the world window.
+		 * 
+		 * @see Runnable#run()
+		 */
+		@Override
+		public void run() {
+			Map<Layer, Runnable> frameUpdates = null;
+			
+			synchronized (RedrawScheduler.this) {
+				frameUpdates = new LinkedHashMap<>(updates);
+				updates.clear();
+				frames++;
+				lastCoalesced = pendingEvents - 1;
+				maxCoalesced = Math.max(maxCoalesced, lastCoalesced);
+				pendingEvents = 0;
+				frameTime = System.nanoTime();
+				isPending = false;
+			}
+			
+			for (Runnable update : frameUpdates.values()) {
+				update.run();
+			}
+			wwd.redraw();
+		}
+	}
+	
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.cfar.swim.worldwind.javafx.TrajectoryStylist;
+import com.cfar.swim.worldwind.planning.Trajectory;
+import com.cfar.swim.worldwind.session.Scenario;
+
+/**
+ * Realizes a plan revision conflator which keeps only the latest revised
+ * trajectory of a planner. Revisions are offered on the planner thread
+ * without any further work while styling and publishing the latest
+ * trajectory to a scenario happens on a timer thread at a bounded rate.
+ * Revisions superseded before their publication are dropped.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class RevisionConflator {
+	
+	/** the default publication rate of a revision conflator in revisions per second */
+	public static final double DEFAULT_REVISION_RATE = 10d;
+	
+	/** the scenario of this revision conflator */
+	private final Scenario scenario;
+	
+	/** the timer of this revision conflator */
+	private final ScheduledExecutorService timer;
+	
+	/** the pending trajectory of this revision conflator */
+	private final AtomicReference<Trajectory> pending = new AtomicReference<>();
+	
+	/** the publication lock of this revision conflator */
+	private final Object publication = new Object();
+	
+	/** the publication period of this revision conflator in nanoseconds */
+	private final long period;
+	
+	/** the time of the last publication of this revision conflator in nanoseconds */
+	private long publicationTime;
+	
+	/** indicates whether or not a publication of this revision conflator is scheduled */
+	private boolean isScheduled = false;
+	
+	/** indicates whether or not this revision conflator has been closed */
+	private volatile boolean isClosed = false;
+	
+	/** the number of offered revisions of this revision conflator */
+	private final AtomicLong offered = new AtomicLong();
+	
+	/** the number of published revisions of this revision conflator */
+	private final AtomicLong published = new AtomicLong();
+	
+	/** the number of dropped revisions of this revision conflator */
+	private final AtomicLong dropped = new AtomicLong();
+	
+	/**
+	 * Constructs a new revision conflator publishing to a scenario at the
+	 * default revision rate.
+	 * 
+	 * @param scenario the scenario to receive the revised trajectories
+	 * @param timer the timer to publish the revised trajectories
+	 */
+	public RevisionConflator(Scenario scenario, ScheduledExecutorService timer) {
+		this(scenario, timer, RevisionConflator.DEFAULT_REVISION_RATE);
+	}
+	
+	/**
+	 * Constructs a new revision conflator publishing to a scenario at a
+	 * specified revision rate.
+	 * 
+	 * @param scenario the scenario to receive the revised trajectories
+	 * @param timer the timer to publish the revised trajectories
+	 * @param revisionRate the maximum publication rate in revisions per second
+	 * 
+	 * @throws IllegalArgumentException if the revision rate is not positive
+	 */
+	public RevisionConflator(Scenario scenario, ScheduledExecutorService timer, double revisionRate) {
+		if (0d >= revisionRate) {
+			throw new IllegalArgumentException("invalid revision rate");
+		}
+		this.scenario = scenario;
+		this.timer = timer;
+		this.period = Math.round(1E9d / revisionRate);
+		this.publicationTime = System.nanoTime() - this.period;
+	}
+	
+	/**
+	 * Offers a revised trajectory to this revision conflator superseding
+	 * any pending revised trajectory.
+	 * 
+	 * @param trajectory the revised trajectory
+	 */
+	public void offer(Trajectory trajectory) {
+		if (this.isClosed) {
+			return;
+		}
+		
+		this.offered.incrementAndGet();
+		if (null != this.pending.getAndSet(trajectory)) {
+			this.dropped.incrementAndGet();
+		}
+		
+		synchronized (this) {
+			if (!this.isScheduled) {
+				this.isScheduled = true;
+				long delay = Math.max(0L, (this.publicationTime + this.period) - System.nanoTime());
+				this.timer.schedule(new Runnable() {
+					@Override
+					public void run() {
+						synchronized (RevisionConflator.this) {
+							isScheduled = false;
+							publicationTime = System.nanoTime();
+						}
+						publish();
+					}
+				}, delay, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+	
+	/**
+	 * Publishes the pending revised trajectory of this revision conflator,
+	 * if any, to its scenario.
+	 */
+	private void publish() {
+		synchronized (this.publication) {
+			Trajectory trajectory = this.pending.getAndSet(null);
+			if ((null != trajectory) && !this.isClosed) {
+				// TODO: clearing trajectory versus uploading empty trajectory
+				TrajectoryStylist.styleTrajectory(trajectory);
+				this.scenario.setTrajectory(trajectory);
+				this.published.incrementAndGet();
+			}
+		}
+	}
+	
+	/**
+	 * Publishes the pending revised trajectory of this revision conflator
+	 * immediately on the calling thread.
+	 */
+	public void flush() {
+		this.publish();
+	}
+	
+	/**
+	 * Closes this revision conflator discarding any pending revised
+	 * trajectory and ignoring any further revisions.
+	 */
+	public void close() {
+		this.isClosed = true;
+		synchronized (this.publication) {
+			if (null != this.pending.getAndSet(null)) {
+				this.dropped.incrementAndGet();
+			}
+		}
+	}
+	
+	/**
+	 * Gets the number of revisions offered to this revision conflator.
+	 * 
+	 * @return the number of revisions offered to this revision conflator
+	 */
+	public long getOffered() {
+		return this.offered.get();
+	}
+	
+	/**
+	 * Gets the number of revisions published by this revision conflator.
+	 * 
+	 * @return the number of revisions published by this revision conflator
+	 */
+	public long getPublished() {
+		return this.published.get();
+	}
+	
+	/**
+	 * Gets the number of revisions dropped by this revision conflator
+	 * because they were superseded or discarded before their publication.
+	 * 
+	 * @return the number of revisions dropped by this revision conflator
+	 */
+	public long getDropped() {
+		return this.dropped.get();
+	}
+	
+}
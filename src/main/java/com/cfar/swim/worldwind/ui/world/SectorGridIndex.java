@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import gov.nasa.worldwind.geom.Sector;
+
+/**
+ * Realizes a spatial index of items by their bounding sectors based on a
+ * uniform latitude-longitude grid. Each item is registered with all grid
+ * cells its bounding sector intersects, and sector queries only visit the
+ * intersected cells. Items spanning more than a maximum number of cells are
+ * kept in a separate list which is tested linearly.
+ * 
+ * @param <T> the item type of this sector grid index
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class SectorGridIndex<T> {
+	
+	/** the default cell size of a sector grid index in degrees */
+	public static final double DEFAULT_CELL_SIZE = 1d;
+	
+	/** the maximum number of cells an item is registered with */
+	private static final int MAX_ITEM_CELLS = 1024;
+	
+	/** the cell size of this sector grid index in degrees */
+	private final double cellSize;
+	
+	/** the cells of this sector grid index */
+	private final Map<Long, List<T>> cells = new HashMap<>();
+	
+	/** the bounding sectors of the items of this sector grid index */
+	private final Map<T, Sector> sectors = new IdentityHashMap<>();
+	
+	/** the items of this sector grid index spanning too many cells */
+	private final List<T> large = new ArrayList<>();
+	
+	/**
+	 * Constructs a new sector grid index with the default cell size.
+	 */
+	public SectorGridIndex() {
+		this(SectorGridIndex.DEFAULT_CELL_SIZE);
+	}
+	
+	/**
+	 * Constructs a new sector grid index with a specified cell size.
+	 * 
+	 * @param cellSize the cell size in degrees
+	 * 
+	 * @throws IllegalArgumentException if the cell size is not positive
+	 */
+	public SectorGridIndex(double cellSize) {
+		if (0d >= cellSize) {
+			throw new IllegalArgumentException("invalid cell size");
+		}
+		this.cellSize = cellSize;
+	}
+	
+	/**
+	 * Gets the cell size of this sector grid index in degrees.
+	 * 
+	 * @return the cell size of this sector grid index in degrees
+	 */
+	public double getCellSize() {
+		return this.cellSize;
+	}
+	
+	/**
+	 * Gets the number of items of this sector grid index.
+	 * 
+	 * @return the number of items of this sector grid index
+	 */
+	public int size() {
+		return this.sectors.size();
+	}
+	
+	/**
+	 * Adds an item with its bounding sector to this sector grid index.
+	 * 
+	 * @param item the item to be added
+	 * @param sector the bounding sector of the item
+	 */
+	public void add(T item, Sector sector) {
+		this.sectors.put(item, sector);
+		int minRow = this.row(sector.getMinLatitude().degrees);
+		int maxRow = this.row(sector.getMaxLatitude().degrees);
+		int minColumn = this.column(sector.getMinLongitude().degrees);
+		int maxColumn = this.column(sector.getMaxLongitude().degrees);
+		
+		if (MAX_ITEM_CELLS < ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1))) {
+			this.large.add(item);
+		} else {
+			for (int row = minRow; row <= maxRow; row++) {
+				for (int column = minColumn; column <= maxColumn; column++) {
+					this.cells.computeIfAbsent(SectorGridIndex.key(row, column), k -> new ArrayList<>()).add(item);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Removes an item from this sector grid index.
+	 * 
+	 * @param item the item to be removed
+	 */
+	public void remove(T item) {
+		Sector sector = this.sectors.remove(item);
+		if (null != sector) {
+			if (!this.large.removeIf(candidate -> candidate == item)) {
+				int minRow = this.row(sector.getMinLatitude().degrees);
+				int maxRow = this.row(sector.getMaxLatitude().degrees);
+				int minColumn = this.column(sector.getMinLongitude().degrees);
+				int maxColumn = this.column(sector.getMaxLongitude().degrees);
+				for (int row = minRow; row <= maxRow; row++) {
+					for (int column = minColumn; column <= maxColumn; column++) {
+						Long key = SectorGridIndex.key(row, column);
+						List<T> cell = this.cells.get(key);
+						if (null != cell) {
+							cell.removeIf(candidate -> candidate == item);
+							if (cell.isEmpty()) {
+								this.cells.remove(key);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Gets the bounding sector of an item of this sector grid index.
+	 * 
+	 * @param item the item
+	 * 
+	 * @return the bounding sector of the item, null if not contained
+	 */
+	public Sector getSector(T item) {
+		return this.sectors.get(item);
+	}
+	
+	/**
+	 * Removes all items from this sector grid index.
+	 */
+	public void clear() {
+		this.cells.clear();
+		this.sectors.clear();
+		this.large.clear();
+	}
+	
+	/**
+	 * Gets the items of this sector grid index whose bounding sectors
+	 * intersect a sector.
+	 * 
+	 * @param sector the sector
+	 * 
+	 * @return the identity set of items intersecting the sector
+	 */
+	public Set<T> query(Sector sector) {
+		Set<T> items = Collections.newSetFromMap(new IdentityHashMap<>());
+		int minRow = this.row(sector.getMinLatitude().degrees);
+		int maxRow = this.row(sector.getMaxLatitude().degrees);
+		int minColumn = this.column(sector.getMinLongitude().degrees);
+		int maxColumn = this.column(sector.getMaxLongitude().degrees);
+		
+		if (this.cells.size() < ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1))) {
+			// visit the occupied cells if fewer than the intersected cells
+			for (List<T> cell : this.cells.values()) {
+				this.collect(cell, sector, items);
+			}
+		} else {
+			for (int row = minRow; row <= maxRow; row++) {
+				for (int column = minColumn; column <= maxColumn; column++) {
+					List<T> cell = this.cells.get(SectorGridIndex.key(row, column));
+					if (null != cell) {
+						this.collect(cell, sector, items);
+					}
+				}
+			}
+		}
+		this.collect(this.large, sector, items);
+		
+		return items;
+	}
+	
+	/**
+	 * Collects the items of a cell whose bounding sectors intersect a sector.
+	 * 
+	 * @param cell the items of the cell
+	 * @param sector the sector
+	 * @param items the collected items
+	 */
+	private void collect(List<T> cell, Sector sector, Set<T> items) {
+		for (T item : cell) {
+			if (!items.contains(item) && this.sectors.get(item).intersects(sector)) {
+				items.add(item);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the grid row of a latitude.
+	 * 
+	 * @param latitude the latitude in degrees
+	 * 
+	 * @return the grid row of the latitude
+	 */
+	private int row(double latitude) {
+		return (int) Math.floor((Math.max(-90d, Math.min(90d, latitude)) + 90d) / this.cellSize);
+	}
+	
+	/**
+	 * Gets the grid column of a longitude.
+	 * 
+	 * @param longitude the longitude in degrees
+	 * 
+	 * @return the grid column of the longitude
+	 */
+	private int column(double longitude) {
+		return (int) Math.floor((Math.max(-180d, Math.min(180d, longitude)) + 180d) / this.cellSize);
+	}
+	
+	/**
+	 * Gets the key of a grid cell.
+	 * 
+	 * @param row the grid row of the cell
+	 * @param column the grid column of the cell
+	 * 
+	 * @return the key of the grid cell
+	 */
+	private static Long key(int row, int column) {
+		return (((long) row) << 32) | (column & 0xffffffffL);
+	}
+	
+}
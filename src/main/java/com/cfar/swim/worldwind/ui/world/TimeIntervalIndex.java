@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Realizes a temporal index of items by their closed activity intervals.
+ * The start and end times of all items are kept in two ordered maps such
+ * that the items entering or leaving activity between two times are found
+ * by visiting only the start and end times in between. Items can be added
+ * and removed incrementally.
+ * 
+ * @param <T> the item type of this time interval index
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class TimeIntervalIndex<T> {
+	
+	/** the items of this time interval index by their start times */
+	private final NavigableMap<Instant, Set<T>> starts = new TreeMap<>();
+	
+	/** the items of this time interval index by their end times */
+	private final NavigableMap<Instant, Set<T>> ends = new TreeMap<>();
+	
+	/** the activity intervals of the items of this time interval index */
+	private final Map<T, Instant[]> intervals = new IdentityHashMap<>();
+	
+	/**
+	 * Gets the number of items of this time interval index.
+	 * 
+	 * @return the number of items of this time interval index
+	 */
+	public int size() {
+		return this.intervals.size();
+	}
+	
+	/**
+	 * Determines whether or not this time interval index contains an item.
+	 * 
+	 * @param item the item
+	 * 
+	 * @return true if this time interval index contains the item,
+	 *         false otherwise
+	 */
+	public boolean contains(T item) {
+		return this.intervals.containsKey(item);
+	}
+	
+	/**
+	 * Adds an item with its activity interval to this time interval index.
+	 * An already contained item is re-indexed.
+	 * 
+	 * @param item the item to be added
+	 * @param start the start of the activity interval
+	 * @param end the end of the activity interval
+	 * 
+	 * @throws IllegalArgumentException if the end precedes the start
+	 */
+	public void add(T item, Instant start, Instant end) {
+		if (end.isBefore(start)) {
+			throw new IllegalArgumentException("invalid interval");
+		}
+		this.remove(item);
+		this.intervals.put(item, new Instant[] { start, end });
+		TimeIntervalIndex.put(this.starts, start, item);
+		TimeIntervalIndex.put(this.ends, end, item);
+	}
+	
+	/**
+	 * Removes an item from this time interval index.
+	 * 
+	 * @param item the item to be removed
+	 */
+	public void remove(T item) {
+		Instant[] interval = this.intervals.remove(item);
+		if (null != interval) {
+			TimeIntervalIndex.remove(this.starts, interval[0], item);
+			TimeIntervalIndex.remove(this.ends, interval[1], item);
+		}
+	}
+	
+	/**
+	 * Removes all items from this time interval index.
+	 */
+	public void clear() {
+		this.starts.clear();
+		this.ends.clear();
+		this.intervals.clear();
+	}
+	
+	/**
+	 * Determines whether or not an item is active at a time. Items which are
+	 * not contained in this time interval index are always active.
+	 * 
+	 * @param item the item
+	 * @param time the time
+	 * 
+	 * @return true if the item is active at the time, false otherwise
+	 */
+	public boolean isActive(T item, Instant time) {
+		Instant[] interval = this.intervals.get(item);
+		return (null == interval) || TimeIntervalIndex.isActive(interval, time);
+	}
+	
+	/**
+	 * Determines the items of this time interval index entering or leaving
+	 * activity between two times. Only items starting or ending between the
+	 * two times are visited.
+	 * 
+	 * @param from the time before the change
+	 * @param to the time after the change
+	 * @param entering the collected items inactive before and active after
+	 *                 the change
+	 * @param leaving the collected items active before and inactive after
+	 *                the change
+	 */
+	public void delta(Instant from, Instant to, Set<T> entering, Set<T> leaving) {
+		if (from.equals(to)) {
+			return;
+		}
+		Instant earlier = from.isBefore(to) ? from : to;
+		Instant later = from.isBefore(to) ? to : from;
+		
+		for (Set<T> started : this.starts.subMap(earlier, false, later, true).values()) {
+			this.classify(started, from, to, entering, leaving);
+		}
+		for (Set<T> ended : this.ends.subMap(earlier, true, later, false).values()) {
+			this.classify(ended, from, to, entering, leaving);
+		}
+	}
+	
+	/**
+	 * Classifies items as entering or leaving activity between two times.
+	 * 
+	 * @param items the items to be classified
+	 * @param from the time before the change
+	 * @param to the time after the change
+	 * @param entering the collected items entering activity
+	 * @param leaving the collected items leaving activity
+	 */
+	private void classify(Set<T> items, Instant from, Instant to, Set<T> entering, Set<T> leaving) {
+		for (T item : items) {
+			Instant[] interval = this.intervals.get(item);
+			boolean wasActive = TimeIntervalIndex.isActive(interval, from);
+			boolean isActive = TimeIntervalIndex.isActive(interval, to);
+			if (!wasActive && isActive) {
+				entering.add(item);
+			} else if (wasActive && !isActive) {
+				leaving.add(item);
+			}
+		}
+	}
+	
+	/**
+	 * Determines whether or not a closed activity interval contains a time.
+	 * 
+	 * @param interval the activity interval
+	 * @param time the time
+	 * 
+	 * @return true if the activity interval contains the time,
+	 *         false otherwise
+	 */
+	private static boolean isActive(Instant[] interval, Instant time) {
+		return !time.isBefore(interval[0]) && !time.isAfter(interval[1]);
+	}
+	
+	/**
+	 * Puts an item into an ordered map of item sets.
+	 * 
+	 * @param map the ordered map
+	 * @param key the key of the item
+	 * @param item the item
+	 */
+	private static <T> void put(NavigableMap<Instant, Set<T>> map, Instant key, T item) {
+		map.computeIfAbsent(key, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(item);
+	}
+	
+	/**
+	 * Removes an item from an ordered map of item sets.
+	 * 
+	 * @param map the ordered map
+	 * @param key the key of the item
+	 * @param item the item
+	 */
+	private static <T> void remove(NavigableMap<Instant, Set<T>> map, Instant key, T item) {
+		Set<T> items = map.get(key);
+		if (null != items) {
+			items.remove(item);
+			if (items.isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+	
+}
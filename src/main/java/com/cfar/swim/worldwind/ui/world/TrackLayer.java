@@ -0,0 +1,515 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.awt.Point;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import gov.nasa.worldwind.View;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.Vec4;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.layers.MarkerLayer;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.render.markers.Marker;
+import gov.nasa.worldwind.view.orbit.BasicOrbitView;
+
+/**
+ * Realizes a track layer rendering a track marker buffer at a level of detail
+ * depending on the eye distance. The track is simplified by the
+ * Douglas-Peucker algorithm which is run once per track snapshot on a
+ * background thread to determine the significance of each track point and
+ * to materialize all resolution levels with geometrically increasing
+ * tolerances. The render thread only selects the precomputed level matching
+ * the size of a few pixels at the eye distance. The full-resolution track
+ * is rendered when zoomed in close or while no valid snapshot is available.
+ * 
+ * Track points appended after a snapshot are rendered at full resolution
+ * until the snapshot is renewed, which keeps the cost per appended track
+ * point constant in amortization.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class TrackLayer extends MarkerLayer {
+	
+	/** the tolerance of the finest resolution level of a track layer in meters */
+	public static final double BASE_TOLERANCE = 1d;
+	
+	/** the number of resolution levels of a track layer */
+	public static final int LEVEL_COUNT = 24;
+	
+	/** the default pixel tolerance of a track layer */
+	public static final double DEFAULT_PIXEL_TOLERANCE = 2d;
+	
+	/** the minimum number of appended track points renewing a snapshot */
+	private static final int MIN_SNAPSHOT_TAIL = 256;
+	
+	/** the full-resolution track of this track layer */
+	private final TrackMarkerBuffer track;
+	
+	/** the pixel tolerance of this track layer */
+	private double pixelTolerance = TrackLayer.DEFAULT_PIXEL_TOLERANCE;
+	
+	/** the snapshot of this track layer */
+	private Snapshot snapshot = new Snapshot(new ArrayList<>(), 0, -1, null);
+	
+	/** the computed snapshot of this track layer not yet installed */
+	private volatile Snapshot computed = null;
+	
+	/** indicates whether or not a snapshot of this track layer is being computed */
+	private boolean isComputing = false;
+	
+	/** the snapshot executor of this track layer */
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "track-snapshot");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	/** the currently rendered level of this track layer */
+	private int level = -1;
+	
+	/** the currently rendered number of track points appended after the snapshot */
+	private int tail = -1;
+	
+	/**
+	 * Constructs a new track layer rendering a track marker buffer.
+	 * 
+	 * @param track the full-resolution track to be rendered
+	 */
+	public TrackLayer(TrackMarkerBuffer track) {
+		super(track);
+		this.track = track;
+	}
+	
+	/**
+	 * Gets the full-resolution track of this track layer.
+	 * 
+	 * @return the full-resolution track of this track layer
+	 */
+	public TrackMarkerBuffer getTrack() {
+		return this.track;
+	}
+	
+	/**
+	 * Gets the pixel tolerance of this track layer.
+	 * 
+	 * @return the pixel tolerance of this track layer
+	 */
+	public double getPixelTolerance() {
+		return this.pixelTolerance;
+	}
+	
+	/**
+	 * Sets the pixel tolerance of this track layer. Track points deviating
+	 * less than the pixel tolerance from the simplified track are omitted.
+	 * 
+	 * @param pixelTolerance the pixel tolerance to be set
+	 * 
+	 * @throws IllegalArgumentException if the pixel tolerance is negative
+	 */
+	public void setPixelTolerance(double pixelTolerance) {
+		if (0d > pixelTolerance) {
+			throw new IllegalArgumentException("invalid pixel tolerance");
+		}
+		this.pixelTolerance = pixelTolerance;
+	}
+	
+	/**
+	 * Gets the currently rendered resolution level of this track layer.
+	 * 
+	 * @return the currently rendered resolution level of this track layer,
+	 *         -1 if the full-resolution track is rendered
+	 */
+	public int getLevel() {
+		return this.level;
+	}
+	
+	/**
+	 * Renders the track of this track layer at the level of detail of the
+	 * current view.
+	 * 
+	 * @param dc the draw context
+	 * 
+	 * @see MarkerLayer#doRender(DrawContext)
+	 */
+	@Override
+	protected void doRender(DrawContext dc) {
+		this.selectLevel(dc);
+		super.doRender(dc);
+	}
+	
+	/**
+	 * Picks the track of this track layer at the level of detail of the
+	 * current view.
+	 * 
+	 * @param dc the draw context
+	 * @param pickPoint the pick point
+	 * 
+	 * @see MarkerLayer#doPick(DrawContext, Point)
+	 */
+	@Override
+	protected void doPick(DrawContext dc, Point pickPoint) {
+		this.selectLevel(dc);
+		super.doPick(dc, pickPoint);
+	}
+	
+	/**
+	 * Selects the resolution level of the track of this track layer from the
+	 * eye distance of the current view.
+	 * 
+	 * @param dc the draw context
+	 */
+	private void selectLevel(DrawContext dc) {
+		View view = dc.getView();
+		double distance = view.getEyePosition().getElevation();
+		if (view instanceof BasicOrbitView) {
+			distance = ((BasicOrbitView) view).getZoom();
+		}
+		double tolerance = view.computePixelSizeAtDistance(Math.max(1d, distance)) * this.pixelTolerance;
+		
+		int selected = -1;
+		if (TrackLayer.BASE_TOLERANCE <= tolerance) {
+			selected = Math.min(TrackLayer.LEVEL_COUNT - 1,
+					(int) Math.floor(Math.log(tolerance / TrackLayer.BASE_TOLERANCE) / Math.log(2d)));
+		}
+		
+		if (-1 == selected) {
+			if (-1 != this.level) {
+				this.level = -1;
+				this.tail = -1;
+				super.setMarkers(this.track);
+			}
+		} else {
+			Snapshot computed = this.computed;
+			if (null != computed) {
+				this.computed = null;
+				this.isComputing = false;
+				if (computed.isValid(this.track, dc.getGlobe())) {
+					this.snapshot = computed;
+					this.level = -1;
+					this.tail = -1;
+				}
+			}
+			if (!this.isComputing && this.isSnapshotStale(dc.getGlobe())) {
+				this.requestSnapshot(dc.getGlobe());
+			}
+			
+			if (!this.snapshot.isValid(this.track, dc.getGlobe())) {
+				// render the full-resolution track until a valid snapshot is available
+				if (-1 != this.level) {
+					this.level = -1;
+					this.tail = -1;
+					super.setMarkers(this.track);
+				}
+			} else {
+				int selectedTail = (int) Math.min(this.track.size(), this.track.getAppends() - this.snapshot.appends);
+				if ((selected != this.level) || (selectedTail != this.tail)) {
+					this.level = selected;
+					this.tail = selectedTail;
+					super.setMarkers(new LevelMarkers(this.snapshot.getLevel(selected), this.track, selectedTail));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Determines whether or not the snapshot of this track layer is stale.
+	 * 
+	 * @param globe the globe of the current view
+	 * 
+	 * @return true if the snapshot of this track layer is stale,
+	 *         false otherwise
+	 */
+	private boolean isSnapshotStale(Globe globe) {
+		long appended = this.track.getAppends() - this.snapshot.appends;
+		return !this.snapshot.isValid(this.track, globe)
+				|| (appended > Math.max(TrackLayer.MIN_SNAPSHOT_TAIL, this.snapshot.markers.size() / 4));
+	}
+	
+	/**
+	 * Requests a new snapshot of the track of this track layer. The track
+	 * points are copied on the render thread while the significances and
+	 * resolution levels are computed on the snapshot executor of this track
+	 * layer.
+	 * 
+	 * @param globe the globe of the current view
+	 */
+	private void requestSnapshot(Globe globe) {
+		int size = this.track.size();
+		List<Marker> markers = new ArrayList<>(size);
+		for (int index = 0; index < size; index++) {
+			markers.add(this.track.get(index));
+		}
+		Snapshot snapshot = new Snapshot(markers,
+				this.track.getAppends(), this.track.getRestructurings(), globe);
+		
+		this.isComputing = true;
+		this.executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				snapshot.compute();
+				computed = snapshot;
+				// request a redraw to install the computed snapshot
+				firePropertyChange(AVKey.LAYER, null, TrackLayer.this);
+			}
+		});
+	}
+	
+	/**
+	 * Computes the distance of a point from a line segment.
+	 * 
+	 * @param point the point
+	 * @param first the first point of the line segment
+	 * @param last the last point of the line segment
+	 * 
+	 * @return the distance of the point from the line segment
+	 */
+	private static double distance(Vec4 point, Vec4 first, Vec4 last) {
+		Vec4 segment = last.subtract3(first);
+		double lengthSquared = segment.dot3(segment);
+		double t = 0d;
+		if (0d < lengthSquared) {
+			t = Math.max(0d, Math.min(1d, point.subtract3(first).dot3(segment) / lengthSquared));
+		}
+		return point.distanceTo3(first.add3(segment.multiply3(t)));
+	}
+	
+	/**
+	 * Realizes a snapshot of a track with the Douglas-Peucker significance
+	 * of each track point in Cartesian coordinates and the resolution levels
+	 * materialized from the significances.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private static class Snapshot {
+		
+		/** the track points of this snapshot */
+		private final List<Marker> markers;
+		
+		/** the number of track appends at the time of this snapshot */
+		private final long appends;
+		
+		/** the number of track restructurings at the time of this snapshot */
+		private final long restructurings;
+		
+		/** the globe of this snapshot */
+		private final Globe globe;
+		
+		/** the materialized resolution levels of this snapshot */
+		private final List<?>[] levels = new List<?>[TrackLayer.LEVEL_COUNT];
+		
+		/**
+		 * Constructs a new snapshot.
+		 * 
+		 * @param markers the track points of the snapshot
+		 * @param appends the number of track appends at the time of the snapshot
+		 * @param restructurings the number of track restructurings at the
+		 *                       time of the snapshot
+		 * @param globe the globe of the snapshot
+		 */
+		public Snapshot(List<Marker> markers, long appends, long restructurings, Globe globe) {
+			this.markers = markers;
+			this.appends = appends;
+			this.restructurings = restructurings;
+			this.globe = globe;
+			for (int level = 0; level < TrackLayer.LEVEL_COUNT; level++) {
+				this.levels[level] = markers;
+			}
+		}
+		
+		/**
+		 * Determines whether or not this snapshot is valid for a track and
+		 * globe, that is, the track has only been appended to since.
+		 * 
+		 * @param track the track
+		 * @param globe the globe
+		 * 
+		 * @return true if this snapshot is valid, false otherwise
+		 */
+		public boolean isValid(TrackMarkerBuffer track, Globe globe) {
+			return (globe == this.globe) && (track.getRestructurings() == this.restructurings);
+		}
+		
+		/**
+		 * Gets a resolution level of this snapshot.
+		 * 
+		 * @param level the resolution level
+		 * 
+		 * @return the track points of the resolution level
+		 */
+		@SuppressWarnings("unchecked")
+		public List<Marker> getLevel(int level) {
+			return (List<Marker>) this.levels[level];
+		}
+		
+		/**
+		 * Computes the Douglas-Peucker significances of the track points of
+		 * this snapshot and materializes all resolution levels.
+		 */
+		public void compute() {
+			int size = this.markers.size();
+			Vec4[] points = new Vec4[size];
+			for (int index = 0; index < size; index++) {
+				points[index] = this.globe.computePointFromPosition(this.markers.get(index).getPosition());
+			}
+			
+			double[] significances = new double[size];
+			if (0 < size) {
+				significances[0] = Double.POSITIVE_INFINITY;
+				significances[size - 1] = Double.POSITIVE_INFINITY;
+			}
+			
+			// iterative Douglas-Peucker recording the deviation of each split
+			Deque<int[]> segments = new ArrayDeque<>();
+			Deque<Double> bounds = new ArrayDeque<>();
+			if (2 < size) {
+				segments.push(new int[] {0, size - 1});
+				bounds.push(Double.POSITIVE_INFINITY);
+			}
+			while (!segments.isEmpty()) {
+				int[] segment = segments.pop();
+				double bound = bounds.pop();
+				int split = -1;
+				double deviation = -1d;
+				for (int index = segment[0] + 1; index < segment[1]; index++) {
+					double distance = TrackLayer.distance(points[index], points[segment[0]], points[segment[1]]);
+					if (distance > deviation) {
+						deviation = distance;
+						split = index;
+					}
+				}
+				if (-1 != split) {
+					// a split is never more significant than its enclosing split
+					double significance = Math.min(deviation, bound);
+					significances[split] = significance;
+					segments.push(new int[] {segment[0], split});
+					bounds.push(significance);
+					segments.push(new int[] {split, segment[1]});
+					bounds.push(significance);
+				}
+			}
+			
+			for (int level = 0; level < TrackLayer.LEVEL_COUNT; level++) {
+				double tolerance = TrackLayer.BASE_TOLERANCE * Math.pow(2d, level);
+				List<Marker> markers = new ArrayList<>();
+				for (int index = 0; index < size; index++) {
+					if (significances[index] >= tolerance) {
+						markers.add(this.markers.get(index));
+					}
+				}
+				this.levels[level] = markers;
+			}
+		}
+	}
+	
+	/**
+	 * Realizes the track points of a resolution level followed by the
+	 * full-resolution track points appended after the snapshot.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private static class LevelMarkers implements Iterable<Marker> {
+		
+		/** the snapshot track points of the resolution level */
+		private final List<Marker> level;
+		
+		/** the full-resolution track */
+		private final TrackMarkerBuffer track;
+		
+		/** the number of track points appended after the snapshot */
+		private final int tail;
+		
+		/**
+		 * Constructs new level markers.
+		 * 
+		 * @param level the snapshot track points of the resolution level
+		 * @param track the full-resolution track
+		 * @param tail the number of track points appended after the snapshot
+		 */
+		public LevelMarkers(List<Marker> level, TrackMarkerBuffer track, int tail) {
+			this.level = level;
+			this.track = track;
+			this.tail = tail;
+		}
+		
+		/**
+		 * Gets an iterator over the level markers.
+		 * 
+		 * @return an iterator over the level markers
+		 * 
+		 * @see Iterable#iterator()
+		 */
+		@Override
+		public Iterator<Marker> iterator() {
+			return new Iterator<Marker>() {
+				
+				/** the index of the next level marker */
+				private int index = 0;
+				
+				@Override
+				public boolean hasNext() {
+					return (this.index < (level.size() + tail))
+							&& (tail <= track.size());
+				}
+				
+				@Override
+				public Marker next() {
+					if (!this.hasNext()) {
+						throw new NoSuchElementException();
+					}
+					Marker marker = null;
+					if (this.index < level.size()) {
+						marker = level.get(this.index);
+					} else {
+						marker = track.get(track.size() - tail + (this.index - level.size()));
+					}
+					this.index++;
+					return marker;
+				}
+			};
+		}
+	}
+	
+}
@@ -0,0 +1,339 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import gov.nasa.worldwind.render.markers.Marker;
+
+/**
+ * Realizes a fixed-capacity ring buffer of track markers. Markers are appended
+ * at constant cost. If the buffer is full, either the oldest marker is
+ * evicted, or all buffered markers are decimated to half their resolution
+ * which retains the entire track with a resolution decreasing with age.
+ * Decimation costs linear time once per half capacity of appended markers,
+ * and therefore constant amortized time per appended marker.
+ * 
+ * A track marker buffer is not thread-safe and is intended to be modified
+ * and rendered on the event dispatch thread only.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class TrackMarkerBuffer implements Iterable<Marker> {
+	
+	/** the default capacity of a track marker buffer */
+	public static final int DEFAULT_CAPACITY = 10000;
+	
+	/** the markers of this track marker buffer */
+	private Marker[] markers;
+	
+	/** the index of the oldest marker of this track marker buffer */
+	private int head = 0;
+	
+	/** the number of markers of this track marker buffer */
+	private int size = 0;
+	
+	/** the modification count of this track marker buffer */
+	private long modifications = 0;
+	
+	/** the number of markers appended to this track marker buffer */
+	private long appends = 0;
+	
+	/** the number of restructurings of this track marker buffer */
+	private long restructurings = 0;
+	
+	/** indicates whether or not this track marker buffer decimates if full */
+	private boolean isDecimating = false;
+	
+	/**
+	 * Constructs a new track marker buffer with the default capacity evicting
+	 * the oldest markers if full.
+	 */
+	public TrackMarkerBuffer() {
+		this(TrackMarkerBuffer.DEFAULT_CAPACITY, false);
+	}
+	
+	/**
+	 * Constructs a new track marker buffer with a specified capacity either
+	 * decimating or evicting the oldest markers if full.
+	 * 
+	 * @param capacity the capacity of this track marker buffer
+	 * @param isDecimating true if this track marker buffer decimates,
+	 *                     false if it evicts the oldest markers if full
+	 * 
+	 * @throws IllegalArgumentException if the capacity is less than two
+	 */
+	public TrackMarkerBuffer(int capacity, boolean isDecimating) {
+		if (2 > capacity) {
+			throw new IllegalArgumentException("invalid capacity");
+		}
+		this.markers = new Marker[capacity];
+		this.isDecimating = isDecimating;
+	}
+	
+	/**
+	 * Gets the capacity of this track marker buffer.
+	 * 
+	 * @return the capacity of this track marker buffer
+	 */
+	public int getCapacity() {
+		return this.markers.length;
+	}
+	
+	/**
+	 * Sets the capacity of this track marker buffer retaining the newest
+	 * markers which fit the capacity.
+	 * 
+	 * @param capacity the capacity to be set
+	 * 
+	 * @throws IllegalArgumentException if the capacity is less than two
+	 */
+	public void setCapacity(int capacity) {
+		if (2 > capacity) {
+			throw new IllegalArgumentException("invalid capacity");
+		}
+		Marker[] resized = new Marker[capacity];
+		int retained = Math.min(this.size, capacity);
+		for (int index = 0; index < retained; index++) {
+			resized[index] = this.get(this.size - retained + index);
+		}
+		this.markers = resized;
+		this.head = 0;
+		this.size = retained;
+		this.modifications++;
+		this.restructurings++;
+	}
+	
+	/**
+	 * Determines whether or not this track marker buffer decimates its
+	 * markers instead of evicting the oldest markers if full.
+	 * 
+	 * @return true if this track marker buffer decimates if full,
+	 *         false otherwise
+	 */
+	public boolean isDecimating() {
+		return this.isDecimating;
+	}
+	
+	/**
+	 * Sets whether or not this track marker buffer decimates its markers
+	 * instead of evicting the oldest markers if full.
+	 * 
+	 * @param isDecimating true if this track marker buffer decimates if full,
+	 *                     false otherwise
+	 */
+	public void setDecimating(boolean isDecimating) {
+		this.isDecimating = isDecimating;
+	}
+	
+	/**
+	 * Gets the number of markers of this track marker buffer.
+	 * 
+	 * @return the number of markers of this track marker buffer
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Determines whether or not this track marker buffer is empty.
+	 * 
+	 * @return true if this track marker buffer is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return (0 == this.size);
+	}
+	
+	/**
+	 * Gets a marker of this track marker buffer.
+	 * 
+	 * @param index the index of the marker, the oldest marker having index 0
+	 * 
+	 * @return the marker at the index
+	 * 
+	 * @throws IndexOutOfBoundsException if the index is out of bounds
+	 */
+	public Marker get(int index) {
+		if ((0 > index) || (this.size <= index)) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		return this.markers[(this.head + index) % this.markers.length];
+	}
+	
+	/**
+	 * Gets the newest marker of this track marker buffer if any.
+	 * 
+	 * @return the newest marker of this track marker buffer,
+	 *         null if empty
+	 */
+	public Marker getLast() {
+		Marker last = null;
+		if (!this.isEmpty()) {
+			last = this.get(this.size - 1);
+		}
+		return last;
+	}
+	
+	/**
+	 * Appends a marker to this track marker buffer.
+	 * 
+	 * @param marker the marker to be appended
+	 */
+	public void add(Marker marker) {
+		if (this.markers.length == this.size) {
+			if (this.isDecimating) {
+				this.decimate();
+			} else {
+				this.markers[this.head] = null;
+				this.head = (this.head + 1) % this.markers.length;
+				this.size--;
+			}
+		}
+		this.markers[(this.head + this.size) % this.markers.length] = marker;
+		this.size++;
+		this.modifications++;
+		this.appends++;
+	}
+	
+	/**
+	 * Decimates the markers of this track marker buffer to half their
+	 * resolution retaining the newest marker.
+	 */
+	private void decimate() {
+		Marker[] decimated = new Marker[this.markers.length];
+		int decimatedSize = 0;
+		for (int index = (this.size - 1) % 2; index < this.size; index += 2) {
+			decimated[decimatedSize] = this.get(index);
+			decimatedSize++;
+		}
+		this.markers = decimated;
+		this.head = 0;
+		this.size = decimatedSize;
+		this.modifications++;
+		this.restructurings++;
+	}
+	
+	/**
+	 * Removes all markers from this track marker buffer.
+	 */
+	public void clear() {
+		for (int index = 0; index < this.markers.length; index++) {
+			this.markers[index] = null;
+		}
+		this.head = 0;
+		this.size = 0;
+		this.modifications++;
+		this.restructurings++;
+	}
+	
+	/**
+	 * Gets the number of markers appended to this track marker buffer.
+	 * Markers appended after a restructuring are the newest markers of this
+	 * track marker buffer.
+	 * 
+	 * @return the number of markers appended to this track marker buffer
+	 */
+	public long getAppends() {
+		return this.appends;
+	}
+	
+	/**
+	 * Gets the number of restructurings of this track marker buffer. A
+	 * restructuring is any modification other than appending a marker and
+	 * evicting the oldest marker, that is, clearing, decimating and resizing
+	 * this track marker buffer.
+	 * 
+	 * @return the number of restructurings of this track marker buffer
+	 */
+	public long getRestructurings() {
+		return this.restructurings;
+	}
+	
+	/**
+	 * Gets an iterator over the markers of this track marker buffer from the
+	 * oldest to the newest marker.
+	 * 
+	 * @return an iterator over the markers of this track marker buffer
+	 * 
+	 * @see Iterable#iterator()
+	 */
+	@Override
+	public Iterator<Marker> iterator() {
+		return new MarkerIterator();
+	}
+	
+	/**
+	 * Realizes an iterator over the markers of a track marker buffer.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class MarkerIterator implements Iterator<Marker> {
+		
+		/** the index of the next marker of this marker iterator */
+		private int index = 0;
+		
+		/** the expected modification count of this marker iterator */
+		private final long expectedModifications = modifications;
+		
+		/**
+		 * Determines whether or not this marker iterator has a next marker.
+		 * 
+		 * @return true if this marker iterator has a next marker,
+		 *         false otherwise
+		 * 
+		 * @see Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			return (expectedModifications == modifications) && (this.index < size);
+		}
+		
+		/**
+		 * Gets the next marker of this marker iterator.
+		 * 
+		 * @return the next marker of this marker iterator
+		 * 
+		 * @see Iterator#next()
+		 */
+		@Override
+		public Marker next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Marker marker = get(this.index);
+			this.index++;
+			return marker;
+		}
+	}
+	
+}
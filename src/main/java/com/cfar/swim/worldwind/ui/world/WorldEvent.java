@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.world;
+
+import java.beans.PropertyChangeEvent;
+
+import com.cfar.swim.worldwind.session.Scenario;
+
+/**
+ * Realizes a world event published by a world service.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class WorldEvent {
+	
+	/** the type of this world event */
+	private final WorldEventType type;
+	
+	/** the scenario of this world event */
+	private final Scenario scenario;
+	
+	/** the property change event causing this world event */
+	private final PropertyChangeEvent cause;
+	
+	/** the publication time of this world event in nanoseconds */
+	private final long publicationTime;
+	
+	/**
+	 * Constructs a new world event.
+	 * 
+	 * @param type the type of the world event
+	 * @param scenario the scenario of the world event
+	 * @param cause the property change event causing the world event
+	 */
+	public WorldEvent(WorldEventType type, Scenario scenario, PropertyChangeEvent cause) {
+		this.type = type;
+		this.scenario = scenario;
+		this.cause = cause;
+		this.publicationTime = System.nanoTime();
+	}
+	
+	/**
+	 * Gets the type of this world event.
+	 * 
+	 * @return the type of this world event
+	 */
+	public WorldEventType getType() {
+		return this.type;
+	}
+	
+	/**
+	 * Gets the scenario of this world event.
+	 * 
+	 * @return the scenario of this world event
+	 */
+	public Scenario getScenario() {
+		return this.scenario;
+	}
+	
+	/**
+	 * Gets the property change event causing this world event.
+	 * 
+	 * @return the property change event causing this world event
+	 */
+	public PropertyChangeEvent getCause() {
+		return this.cause;
+	}
+	
+	/**
+	 * Gets the publication time of this world event.
+	 * 
+	 * @return the publication time of this world event in nanoseconds
+	 */
+	public long getPublicationTime() {
+		return this.publicationTime;
+	}
+	
+}
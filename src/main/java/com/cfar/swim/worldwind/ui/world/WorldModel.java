@@ -45,6 +45,18 @@ public class WorldModel {
 	
 	/** the view mode of the world model */
 	private ViewMode viewMode;
+	
+	/** the planning progress of the world model */
+	private PlanningProgress planningProgress;
+	
+	/** the loading progress of the world model */
+	private LoadingProgress loadingProgress;
+	
+	/** indicates whether or not the world model plans in race mode */
+	private boolean isRacing = false;
+	
+	/** the autosave failure of the world model */
+	private String autosaveFailure = null;
 
 	/** the property change support of this world model */
 	private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
@@ -96,6 +108,87 @@ public class WorldModel {
 		this.pcs.firePropertyChange("viewMode", null, this.viewMode);
 	}
 	
+	/**
+	 * Gets the planning progress of this world model.
+	 * 
+	 * @return the planning progress of this world model,
+	 *         null if no planning has been started
+	 */
+	public synchronized PlanningProgress getPlanningProgress() {
+		return this.planningProgress;
+	}
+	
+	/**
+	 * Sets the planning progress of this world model.
+	 * 
+	 * @param planningProgress the planning progress to be set
+	 */
+	public synchronized void setPlanningProgress(PlanningProgress planningProgress) {
+		this.planningProgress = planningProgress;
+		this.pcs.firePropertyChange("planningProgress", null, this.planningProgress);
+	}
+	
+	/**
+	 * Gets the loading progress of this world model.
+	 * 
+	 * @return the loading progress of this world model,
+	 *         null if no loading has been started
+	 */
+	public synchronized LoadingProgress getLoadingProgress() {
+		return this.loadingProgress;
+	}
+	
+	/**
+	 * Sets the loading progress of this world model.
+	 * 
+	 * @param loadingProgress the loading progress to be set
+	 */
+	public synchronized void setLoadingProgress(LoadingProgress loadingProgress) {
+		this.loadingProgress = loadingProgress;
+		this.pcs.firePropertyChange("loadingProgress", null, this.loadingProgress);
+	}
+	
+	/**
+	 * Determines whether or not this world model plans in race mode, that
+	 * is, by racing several planners against each other.
+	 * 
+	 * @return true if this world model plans in race mode, false otherwise
+	 */
+	public synchronized boolean isRacing() {
+		return this.isRacing;
+	}
+	
+	/**
+	 * Sets whether or not this world model plans in race mode.
+	 * 
+	 * @param isRacing true if this world model plans in race mode,
+	 *                 false otherwise
+	 */
+	public synchronized void setRacing(boolean isRacing) {
+		this.isRacing = isRacing;
+	}
+	
+	/**
+	 * Gets the autosave failure of this world model.
+	 * 
+	 * @return the autosave failure of this world model,
+	 *         null if the active scenario is autosaved
+	 */
+	public synchronized String getAutosaveFailure() {
+		return this.autosaveFailure;
+	}
+	
+	/**
+	 * Sets the autosave failure of this world model.
+	 * 
+	 * @param autosaveFailure the autosave failure to be set,
+	 *                        null if the active scenario is autosaved
+	 */
+	public synchronized void setAutosaveFailure(String autosaveFailure) {
+		this.autosaveFailure = autosaveFailure;
+		this.pcs.firePropertyChange("autosaveFailure", null, this.autosaveFailure);
+	}
+	
 	/**
 	 * Adds a world mode change listener to this world model.
 	 * 
@@ -114,6 +207,33 @@ public class WorldModel {
 		this.pcs.addPropertyChangeListener("viewMode", listener);
 	}
 	
+	/**
+	 * Adds a planning progress change listener to this world model.
+	 * 
+	 * @param listener the planning progress change listener to be added
+	 */
+	public synchronized void addPlanningProgressChangeListener(PropertyChangeListener listener) {
+		this.pcs.addPropertyChangeListener("planningProgress", listener);
+	}
+	
+	/**
+	 * Adds a loading progress change listener to this world model.
+	 * 
+	 * @param listener the loading progress change listener to be added
+	 */
+	public synchronized void addLoadingProgressChangeListener(PropertyChangeListener listener) {
+		this.pcs.addPropertyChangeListener("loadingProgress", listener);
+	}
+	
+	/**
+	 * Adds an autosave failure change listener to this world model.
+	 * 
+	 * @param listener the autosave failure change listener to be added
+	 */
+	public synchronized void addAutosaveFailureChangeListener(PropertyChangeListener listener) {
+		this.pcs.addPropertyChangeListener("autosaveFailure", listener);
+	}
+	
 	/**
 	 * Transitions this world model into the aircraft mode.
 	 * 
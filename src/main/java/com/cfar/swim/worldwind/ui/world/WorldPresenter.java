@@ -44,12 +44,20 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
 import javax.swing.JPanel;
@@ -62,11 +70,9 @@ import com.cfar.swim.worldwind.connections.Datalink;
 import com.cfar.swim.worldwind.connections.DatalinkTracker;
 import com.cfar.swim.worldwind.connections.SwimConnection;
 import com.cfar.swim.worldwind.environments.Environment;
-import com.cfar.swim.worldwind.javafx.TrajectoryStylist;
 import com.cfar.swim.worldwind.managers.AutonomicManager;
 import com.cfar.swim.worldwind.planners.LifelongPlanner;
 import com.cfar.swim.worldwind.planners.OnlinePlanner;
-import com.cfar.swim.worldwind.planners.PlanRevisionListener;
 import com.cfar.swim.worldwind.planners.Planner;
 import com.cfar.swim.worldwind.planning.CostInterval;
 import com.cfar.swim.worldwind.planning.Trajectory;
@@ -77,6 +83,7 @@ import com.cfar.swim.worldwind.render.annotations.ControlAnnotation;
 import com.cfar.swim.worldwind.session.Scenario;
 import com.cfar.swim.worldwind.session.Session;
 import com.cfar.swim.worldwind.session.SessionManager;
+import com.cfar.swim.worldwind.tracks.AircraftTrack;
 import com.cfar.swim.worldwind.tracks.AircraftTrackPoint;
 import com.cfar.swim.worldwind.ui.WorldwindPlanner;
 import com.cfar.swim.worldwind.ui.planner.PlannerAlert;
@@ -84,6 +91,7 @@ import com.cfar.swim.worldwind.ui.planner.PlannerAlertResult;
 import com.cfar.swim.worldwind.ui.planner.PlannerCountdownAlert;
 import com.cfar.swim.worldwind.ui.setup.SetupDialog;
 import com.cfar.swim.worldwind.ui.setup.SetupModel;
+import com.cfar.swim.worldwind.ui.util.SymbolCache;
 import com.cfar.swim.worldwind.util.Depiction;
 
 import gov.nasa.worldwind.BasicModel;
@@ -94,13 +102,10 @@ import gov.nasa.worldwind.geom.Angle;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.layers.AnnotationLayer;
-import gov.nasa.worldwind.layers.MarkerLayer;
-import gov.nasa.worldwind.layers.RenderableLayer;
 import gov.nasa.worldwind.layers.ViewControlsLayer;
 import gov.nasa.worldwind.layers.ViewControlsSelectListener;
+import gov.nasa.worldwind.render.Renderable;
 import gov.nasa.worldwind.render.ScreenAnnotation;
-import gov.nasa.worldwind.render.markers.Marker;
-import gov.nasa.worldwind.symbology.milstd2525.MilStd2525GraphicFactory;
 import gov.nasa.worldwind.util.StatusBar;
 import gov.nasa.worldwind.view.firstperson.BasicFlyView;
 import gov.nasa.worldwind.view.orbit.BasicOrbitView;
@@ -157,6 +162,36 @@ public class WorldPresenter implements Initializable {
 	/** the manager icon of the world view */
 	@Inject private String managerIcon;
 	
+	/** the performance icon of the world view */
+	@Inject private String performanceIcon;
+	
+	/** the target frame rate of the world view */
+	@Inject private String frameRate;
+	
+	/** the maximum publication rate of plan revisions of the world view */
+	@Inject private String revisionRate;
+	
+	/** the maximum number of orphaned planning threads of the world view */
+	@Inject private String maxOrphanedPlanners;
+	
+	/** the maximum number of rendered track points of the world view */
+	@Inject private String trackCapacity;
+	
+	/** indicates whether or not the rendered track of the world view is decimated if full */
+	@Inject private String trackDecimation;
+	
+	/** the pixel tolerance of the simplified rendered track of the world view */
+	@Inject private String trackPixelTolerance;
+	
+	/** the margin of the rendered obstacles relative to the visible sector of the world view */
+	@Inject private String obstacleMargin;
+	
+	/** the minimum pixel size of rendered environment cells with children of the world view */
+	@Inject private String environmentPixelThreshold;
+	
+	/** the raced planner specification identifiers of the world view, all if empty */
+	@Inject private String racePlanners;
+	
 	/** the no action command */
 	public static final String ACTION_NONE = "WorldPresenter.ActionCommand.None";
 	
@@ -223,6 +258,9 @@ public class WorldPresenter implements Initializable {
 	/** the setup manager action command */
 	public static final String ACTION_MANAGER_SETUP = "WorldPresenter.ActionCommand.ManagerSetup";
 	
+	/** the performance monitor toggle action command */
+	public static final String ACTION_PERFORMANCE_TOGGLE = "WorldPresenter.ActionCommand.PerformanceToggle";
+	
 	/** the world pane of the world view */
 	@FXML
 	private AnchorPane worldNodePane;
@@ -264,6 +302,9 @@ public class WorldPresenter implements Initializable {
 	/** the manager control of this world presenter */
 	private ControlAnnotation managerControl;
 	
+	/** the performance control of this world presenter */
+	private ControlAnnotation performanceControl;
+	
 	/** the status annotation of this world presenter */
 	private ScreenAnnotation statusAnnotation;
 	
@@ -285,49 +326,71 @@ public class WorldPresenter implements Initializable {
 	private final AnnotationLayer statusLayer = new AnnotationLayer();
 	
 	/** the aircraft layer of this world presenter */
-	private final RenderableLayer aircraftLayer = new RenderableLayer();
+	private final ReconcilingRenderableLayer aircraftLayer = new ReconcilingRenderableLayer();
 	
 	/** the environment layer of this world presenter */
-	private final RenderableLayer environmentLayer = new RenderableLayer();
+	private final ReconcilingRenderableLayer environmentLayer = new ReconcilingRenderableLayer();
 	
 	/** the waypoint layer of this world presenter */
-	private final RenderableLayer waypointLayer = new RenderableLayer();
+	private final ReconcilingRenderableLayer waypointLayer = new ReconcilingRenderableLayer();
+	
+	/** the level of detail environment renderable of this world presenter */
+	private EnvironmentDetailRenderable environmentRenderable = null;
 	
 	/** the obstacles layer of this world presenter */
-	private final RenderableLayer obstaclesLayer = new RenderableLayer();
+	private final CullingRenderableLayer obstaclesLayer = new CullingRenderableLayer();
 	
-	/** the track layer of this world presenter */
-	private final MarkerLayer trackLayer = new MarkerLayer();
+	/** indicates whether or not the obstacles have changed since the last obstacles update */
+	private final AtomicBoolean obstaclesChanged = new AtomicBoolean(true);
+	
+	/**
+	 * the obstacles update of this world presenter, a single update for the
+	 * obstacles layer since pending layer updates are superseded
+	 */
+	private final Runnable obstaclesUpdate = new Runnable() {
+		@Override
+		public void run() {
+			if (obstaclesChanged.getAndSet(false)) {
+				// TODO: investigate CME observed here
+				obstaclesLayer.setCandidates(scenario.getObstacles());
+			}
+			obstaclesLayer.setTime(scenario.getTime().toInstant());
+		}
+	};
 	
-	/** the symbol factory of this world presenter */
-	private final MilStd2525GraphicFactory symbolFactory = new MilStd2525GraphicFactory();
+	/** the rendered track markers of this world presenter */
+	private final TrackMarkerBuffer trackMarkers = new TrackMarkerBuffer();
 	
-	/** the sector selector of this world presenter */
-	private final SectorSelector sectorSelector = new SectorSelector(wwd);
+	/** the track layer of this world presenter */
+	private final TrackLayer trackLayer = new TrackLayer(trackMarkers);
 	
-	/** the active scenario of this world presenter */
-	private Scenario scenario = null;
+	/** the received track of the rendered track of this world presenter */
+	private AircraftTrack renderedTrack = null;
 	
-	/** the time change listener of this world presenter */
-	private final TimeChangeListener timeCl = new TimeChangeListener();
+	/** the last received track point of the rendered track of this world presenter */
+	private AircraftTrackPoint renderedLast = null;
 	
-	/** the threshold cost change listener of this world presenter */
-	private final ThresholdChangeListener thresholdCl = new ThresholdChangeListener();
+	/** indicates whether or not the rendered track of this world presenter is to be reset */
+	private final AtomicBoolean trackReset = new AtomicBoolean(true);
 	
-	/** the aircraft change listener of this world presenter */
-	private final AircraftChangeListener aircraftCl = new AircraftChangeListener();
+	/** the track update of this world presenter */
+	private final TrackUpdate trackUpdate = new TrackUpdate();
 	
-	/** the environment change listener of this world presenter */
-	private final EnvironmentChangeListener environmentCl = new EnvironmentChangeListener();
+	/** the redraw scheduler of this world presenter */
+	private final RedrawScheduler redrawScheduler = new RedrawScheduler(wwd);
 	
-	/** the waypoints change listener of this world presenter */
-	private final WaypointsChangeListener waypointsCl = new WaypointsChangeListener();
+	/** the performance monitor of this world presenter */
+	private final PerformanceMonitor performanceMonitor = new PerformanceMonitor(wwd, redrawScheduler);
 	
-	/** the trajectory change listener of this world presenter */
-	private final TrajectoryChangeListener trajectoryCl = new TrajectoryChangeListener();
+	/** the sector selector of this world presenter */
+	private final SectorSelector sectorSelector = new SectorSelector(wwd);
 	
-	/** the obstacles change listener of this world presenter */
-	private final ObstaclesChangeListener obstaclesCl = new ObstaclesChangeListener();
+	/** the world service of this world presenter */
+	@Inject
+	private WorldService worldService;
+	
+	/** the active scenario of this world presenter */
+	private Scenario scenario = null;
 	
 	/** the track change listener of this world presenter */
 	private final TrackChangeListener trackCl = new TrackChangeListener();
@@ -335,6 +398,12 @@ public class WorldPresenter implements Initializable {
 	/** the sequential executor of this world presenter */
 	private final ExecutorService executor = Executors.newCachedThreadPool();
 	
+	/** the planning progress reporter of this world presenter */
+	private final ScheduledExecutorService planningReporter = Executors.newSingleThreadScheduledExecutor();
+	
+	/** the current planning task of this world presenter */
+	private volatile Future<Trajectory> planningTask = null;
+	
 	/**
 	 * Initializes this world presenter.
 	 * 
@@ -350,9 +419,18 @@ public class WorldPresenter implements Initializable {
 		} catch (InvocationTargetException | InterruptedException e) {
 			e.printStackTrace();
 		}
+		this.redrawScheduler.setFrameRate(Double.parseDouble(this.frameRate));
+		this.trackMarkers.setCapacity(Integer.parseInt(this.trackCapacity));
+		this.trackMarkers.setDecimating(Boolean.parseBoolean(this.trackDecimation));
+		this.trackLayer.setPixelTolerance(Double.parseDouble(this.trackPixelTolerance));
+		this.obstaclesLayer.setMargin(Double.parseDouble(this.obstacleMargin));
 		this.worldModel.addWorldModeChangeListener(new ModeChangeListener());
-		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-		session.addActiveScenarioChangeListener(new ActiveScenarioChangeListener());
+		this.worldModel.addPlanningProgressChangeListener(new PlanningProgressChangeListener());
+		this.worldModel.addLoadingProgressChangeListener(new LoadingProgressChangeListener());
+		this.worldService.subscribe(new WorldChangeListener(),
+				WorldEventType.ACTIVE_SCENARIO, WorldEventType.TIME, WorldEventType.THRESHOLD,
+				WorldEventType.AIRCRAFT, WorldEventType.ENVIRONMENT, WorldEventType.WAYPOINTS,
+				WorldEventType.TRAJECTORY, WorldEventType.OBSTACLES);
 		
 		this.sectorSelector.setInteriorColor(Color.MAGENTA);
 		this.sectorSelector.setInteriorOpacity(0.5d);
@@ -373,24 +451,7 @@ public class WorldPresenter implements Initializable {
 	 * Initializes the scenario of this world presenter.
 	 */
 	public void initScenario() {
-		// remove change listeners from the previous scenario if any
-		if (null != this.scenario) {
-			this.scenario.removePropertyChangeListener(this.timeCl);
-			this.scenario.removePropertyChangeListener(this.thresholdCl);
-			this.scenario.removePropertyChangeListener(this.aircraftCl);
-			this.scenario.removePropertyChangeListener(this.environmentCl);
-			this.scenario.removePropertyChangeListener(this.waypointsCl);
-			this.scenario.removePropertyChangeListener(this.trajectoryCl);
-			this.scenario.removePropertyChangeListener(this.obstaclesCl);
-		}
-		this.scenario = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE).getActiveScenario();
-		this.scenario.addTimeChangeListener(this.timeCl);
-		this.scenario.addThresholdChangeListener(this.thresholdCl);
-		this.scenario.addAircraftChangeListener(this.aircraftCl);
-		this.scenario.addEnvironmentChangeListener(this.environmentCl);
-		this.scenario.addWaypointsChangeListener(this.waypointsCl);
-		this.scenario.addTrajectoryChangeListener(this.trajectoryCl);
-		this.scenario.addObstaclesChangeListener(this.obstaclesCl);
+		this.scenario = this.worldService.getActiveScenario();
 		
 		SwingUtilities.invokeLater(new Runnable() {
 			@Override
@@ -405,14 +466,14 @@ public class WorldPresenter implements Initializable {
 	 * Initializes the aircraft of this world presenter.
 	 */
 	public void initAircraft() {
-		SwingUtilities.invokeLater(new Runnable() {
+		this.redrawScheduler.update(this.aircraftLayer, new Runnable() {
 			@Override
 			public void run() {
-				aircraftLayer.removeAllRenderables();
 				if (scenario.hasAircraft()) {
-					aircraftLayer.addRenderable(scenario.getAircraft());
+					aircraftLayer.reconcile(Collections.singleton(scenario.getAircraft()));
+				} else {
+					aircraftLayer.reconcile(Collections.emptySet());
 				}
-				wwd.redraw();
 			}
 		});
 	}
@@ -421,12 +482,16 @@ public class WorldPresenter implements Initializable {
 	 * Initializes the environment of this world presenter.
 	 */
 	public void initEnvironment() {
-		SwingUtilities.invokeLater(new Runnable() {
+		this.redrawScheduler.update(this.environmentLayer, new Runnable() {
 			@Override
 			public void run() {
-				environmentLayer.removeAllRenderables();
-				environmentLayer.addRenderable(scenario.getEnvironment());
-				wwd.redraw();
+				if ((null == environmentRenderable)
+						|| (environmentRenderable.getEnvironment() != scenario.getEnvironment())) {
+					environmentRenderable = new EnvironmentDetailRenderable(scenario.getEnvironment());
+					environmentRenderable.setPixelThreshold(Double.parseDouble(environmentPixelThreshold));
+				}
+				environmentRenderable.setThreshold(scenario.getThreshold());
+				environmentLayer.reconcile(Collections.singleton(environmentRenderable));
 			}
 		});
 	}
@@ -435,28 +500,28 @@ public class WorldPresenter implements Initializable {
 	 * Initializes the obstacles of this world presenter.
 	 */
 	public void initObstacles() {
-		SwingUtilities.invokeLater(new Runnable() {
-			@Override
-			public void run() {
-				obstaclesLayer.removeAllRenderables();
-				// TODO: investigate CME observed here
-				obstaclesLayer.addRenderables(scenario.getObstacles());
-				wwd.redraw();
-			}
-		});
+		this.obstaclesChanged.set(true);
+		this.redrawScheduler.update(this.obstaclesLayer, this.obstaclesUpdate);
+	}
+	
+	/**
+	 * Initializes the obstacle time of this world presenter such that only
+	 * the obstacles entering or leaving activity are updated.
+	 */
+	public void initObstacleTime() {
+		this.redrawScheduler.update(this.obstaclesLayer, this.obstaclesUpdate);
 	}
 	
 	/**
 	 * Initializes the plan of this world presenter.
 	 */
 	public void initPlan() {
-		SwingUtilities.invokeLater(new Runnable() {
+		this.redrawScheduler.update(this.waypointLayer, new Runnable() {
 			@Override
 			public void run() {
-				waypointLayer.removeAllRenderables();
-				waypointLayer.addRenderables(scenario.getWaypoints());
-				waypointLayer.addRenderable(scenario.getTrajectory());
-				wwd.redraw();
+				List<Renderable> plan = new ArrayList<>(scenario.getWaypoints());
+				plan.add(scenario.getTrajectory());
+				waypointLayer.reconcile(plan);
 			}
 		});
 	}
@@ -465,17 +530,28 @@ public class WorldPresenter implements Initializable {
 	 * Initializes the track of this world presenter.
 	 */
 	public void initTrack() {
-		SwingUtilities.invokeLater(new Runnable() {
-			@Override
-			public void run() {
-				ArrayList<Marker> markers = new ArrayList<>();
-				for (AircraftTrackPoint trackPoint : scenario.getDatalink().getAircraftTrack()) {
-					markers.add(trackPoint);
-				}
-				trackLayer.setMarkers(markers);
-				wwd.redraw();
-			}
-		});
+		this.trackReset.set(true);
+		this.redrawScheduler.update(this.trackLayer, this.trackUpdate);
+	}
+	
+	/**
+	 * Appends the received track points to the track of this world
+	 * presenter. Only the track points received after the last rendered
+	 * track point are rendered in addition to the already rendered track
+	 * points.
+	 */
+	public void appendTrack() {
+		this.redrawScheduler.update(this.trackLayer, this.trackUpdate);
+	}
+	
+	/**
+	 * Refreshes the time and threshold dependent rendering of this world
+	 * presenter. The renderables of all layers remain in place and only
+	 * re-evaluate their time and cost dependent attributes, such as obstacle
+	 * activity and environment cost colors, when redrawn.
+	 */
+	public void refresh() {
+		this.redrawScheduler.redraw();
 	}
 	
 	/**
@@ -780,80 +856,96 @@ public class WorldPresenter implements Initializable {
 	}
 	
 	/**
-	 * Plans a trajectory along the waypoints of the active scenario.
+	 * Plans a trajectory along the waypoints of the active scenario
+	 * asynchronously or cancels the running planning task.
 	 */
 	private void plan() {
 		this.executor.execute(new Runnable() {
 			@Override
 			public void run() {
 				if (worldModel.terminate()) {
-					Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-					Planner planner = session.getActiveScenario().getPlanner();
-					
-					// terminate running lifelong planner
-					if (planner instanceof LifelongPlanner) {
-						((LifelongPlanner) planner).terminate();
+					// cancel running planning task releasing its planner thread
+					Future<Trajectory> task = planningTask;
+					if ((null == task) || !task.cancel(true)) {
+						worldModel.view();
 					}
 				} else if (worldModel.plan()) {
-					Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
-					Planner planner = session.getActiveScenario().getPlanner();
-					
-					if (!planner.matches(session.getSetup().getPlannerSpecification())) {
-						// create new planner
-						Specification<Planner> plannerSpec = session.getSetup().getPlannerSpecification();
-						session.getPlannerFactory().setSpecification(plannerSpec);
-						planner = session.getPlannerFactory().createInstance();
-						session.getActiveScenario().setPlanner(planner);
-					} else if (planner instanceof LifelongPlanner) {
-						// recycle terminated lifelong planner
-						((LifelongPlanner) planner).recycle();
-					}
-					
-					if (planner instanceof OnlinePlanner) {
-						setCommunications((OnlinePlanner) planner);
-					}
-					
-					Position origin = null;
-					Position destination = null;
-					List<Position> waypoints = new ArrayList<Position>();
-					waypoints.addAll(session.getActiveScenario().getWaypoints());
-					
-					if (planner.supports(planner.getAircraft()) &&
-						planner.supports(planner.getEnvironment()) &&
-						planner.supports(waypoints) &&
-						1 < waypoints.size()) {
+					if (worldModel.isRacing()) {
+						// race planners on isolated scenario copies
+						Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
+						List<Specification<Planner>> plannerSpecs = new ArrayList<>();
+						List<String> plannerIds = Arrays.asList(racePlanners.split("\\s*,\\s*"));
+						for (Specification<Planner> plannerSpec : session.getPlannerSpecifications()) {
+							if (racePlanners.trim().isEmpty() || plannerIds.contains(plannerSpec.getId())) {
+								plannerSpecs.add(plannerSpec);
+							}
+						}
+						PlanningRace race = new PlanningRace(session.getActiveScenario(), plannerSpecs, worldModel);
+						planningTask = race;
+						race.start();
+					} else {
+						Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
+						Planner planner = session.getActiveScenario().getPlanner();
+						Future<Trajectory> previous = planningTask;
+						boolean busy = (previous instanceof PlanningTask)
+								&& ((PlanningTask) previous).isPlannerRunning()
+								&& (((PlanningTask) previous).getPlanner() == planner);
 						
-						origin = waypoints.remove(0);
-						destination = waypoints.remove(waypoints.size() - 1);
+						if (busy || !planner.matches(session.getSetup().getPlannerSpecification())) {
+							// create new planner (a cancelled planner may still be running)
+							Specification<Planner> plannerSpec = session.getSetup().getPlannerSpecification();
+							session.getPlannerFactory().setSpecification(plannerSpec);
+							planner = session.getPlannerFactory().createInstance();
+							session.getActiveScenario().setPlanner(planner);
+						} else if (planner instanceof LifelongPlanner) {
+							// recycle terminated lifelong planner
+							((LifelongPlanner) planner).recycle();
+						}
 						
-						// listen for plan revisions
-						planner.addPlanRevisionListener(new PlanRevisionListener() {
-							@Override
-							public void revisePlan(Trajectory trajectory) {
-								// TODO: clearing trajectory versus uploading empty trajectory
-								//if (!trajectory.isEmpty()) {
-									TrajectoryStylist.styleTrajectory(trajectory);
-									session.getActiveScenario().setTrajectory(trajectory);
-									Thread.yield();
-								//}
-							}
-						});
+						if (planner instanceof OnlinePlanner) {
+							setCommunications((OnlinePlanner) planner);
+						}
+						
+						Position origin = null;
+						Position destination = null;
+						List<Position> waypoints = new ArrayList<Position>();
+						waypoints.addAll(session.getActiveScenario().getWaypoints());
 						
-						// TODO: consider asynchronous planning
-						if (waypoints.isEmpty()) {
-							planner.plan(origin, destination, session.getActiveScenario().getTime());
+						if (PlanningTask.getOrphanedThreads() >= Integer.parseInt(maxOrphanedPlanners)) {
+							// cancelled planners still occupy too many planning threads
+							alert(
+								AlertType.ERROR,
+								PlannerAlert.ALERT_TITLE_PLANNER_BUSY,
+								PlannerAlert.ALERT_HEADER_PLANNER_BUSY,
+								PlannerAlert.ALERT_CONTENT_PLANNER_BUSY,
+								null);
+							worldModel.view();
+						} else if (planner.supports(planner.getAircraft()) &&
+							planner.supports(planner.getEnvironment()) &&
+							planner.supports(waypoints) &&
+							1 < waypoints.size()) {
+							
+							origin = waypoints.remove(0);
+							destination = waypoints.remove(waypoints.size() - 1);
+							
+							// plan on a dedicated planning thread reporting progress
+							PlanningTask task = new PlanningTask(
+									planner, session.getActiveScenario(),
+									origin, destination, waypoints,
+									session.getActiveScenario().getTime(), worldModel);
+							task.setRevisionRate(Double.parseDouble(revisionRate));
+							planningTask = task;
+							task.start(planningReporter);
 						} else {
-							planner.plan(origin, destination, waypoints, session.getActiveScenario().getTime());
+							alert(
+								AlertType.ERROR,
+								PlannerAlert.ALERT_TITLE_PLANNER_INVALID,
+								PlannerAlert.ALERT_HEADER_PLANNER_INVALID,
+								PlannerAlert.ALERT_CONTENT_PLANNER_INVALID,
+								null);
+							worldModel.view();
 						}
-					} else {
-						alert(
-							AlertType.ERROR,
-							PlannerAlert.ALERT_TITLE_PLANNER_INVALID,
-							PlannerAlert.ALERT_HEADER_PLANNER_INVALID,
-							PlannerAlert.ALERT_CONTENT_PLANNER_INVALID,
-							null);
 					}
-					worldModel.view();
 				}
 			}
 		});
@@ -924,12 +1016,14 @@ public class WorldPresenter implements Initializable {
 						session.getDatalinkFactory().setSpecification(datalinkSpec);
 						datalink = session.getDatalinkFactory().createInstance();
 						session.getActiveScenario().setDatalink(datalink);
+						initTrack();
 					}
 					// connect current datalink
 					datalink.connect();
 					
 					if (datalink.isConnected()) {
 						// enable monitoring
+						initTrack();
 						datalink.addTrackChangeListener(trackCl);
 						datalink.startMonitoring();
 					} else {
@@ -1261,6 +1355,12 @@ public class WorldPresenter implements Initializable {
 			managerControl.setSecondaryActionCommand(WorldPresenter.ACTION_MANAGER_SETUP);
 			managerControl.addActionListener(new ManagerControlListener());
 			
+			performanceControl = new ControlAnnotation(performanceIcon);
+			performanceControl.getAttributes().setDrawOffset(new Point((wwd.getWidth() / 2) + 500, 25));
+			performanceControl.setPrimaryActionCommand(WorldPresenter.ACTION_PERFORMANCE_TOGGLE);
+			performanceControl.setSecondaryActionCommand(WorldPresenter.ACTION_NONE);
+			performanceControl.addActionListener(new PerformanceControlListener());
+			
 			controlLayer.addAnnotation(environmentControl);
 			wwd.addSelectListener(environmentControl);
 			controlLayer.addAnnotation(aircraftControl);
@@ -1283,6 +1383,8 @@ public class WorldPresenter implements Initializable {
 			wwd.addSelectListener(viewControl);
 			controlLayer.addAnnotation(managerControl);
 			wwd.addSelectListener(managerControl);
+			controlLayer.addAnnotation(performanceControl);
+			wwd.addSelectListener(performanceControl);
 			wwd.getModel().getLayers().add(controlLayer);
 			
 			// add on-screen status
@@ -1300,6 +1402,14 @@ public class WorldPresenter implements Initializable {
 			statusLayer.addAnnotation(statusAnnotation);
 			wwd.getModel().getLayers().add(statusLayer);
 			
+			// add optional performance overlay
+			performanceMonitor.addLayer("Aircraft", aircraftLayer);
+			performanceMonitor.addLayer("Environment", environmentLayer);
+			performanceMonitor.addLayer("Waypoints", waypointLayer);
+			performanceMonitor.addLayer("Obstacles", obstaclesLayer);
+			performanceMonitor.addLayer("Track", trackLayer);
+			performanceMonitor.setScreenPoint(new Point(225, wwd.getHeight() - 250));
+			
 			// add resize listener for controls
 			wwd.addComponentListener(new ComponentAdapter() {
 				@Override
@@ -1315,7 +1425,9 @@ public class WorldPresenter implements Initializable {
 					landControl.getAttributes().setDrawOffset(new Point((wwd.getWidth() / 2) + 275, 25));
 					viewControl.getAttributes().setDrawOffset(new Point((wwd.getWidth() / 2) + 350, 25));
 					managerControl.getAttributes().setDrawOffset(new Point((wwd.getWidth() / 2) + 425, 25));
+					performanceControl.getAttributes().setDrawOffset(new Point((wwd.getWidth() / 2) + 500, 25));
 					statusAnnotation.setScreenPoint(new Point(wwd.getWidth() / 2, wwd.getHeight() - 75));
+					performanceMonitor.setScreenPoint(new Point(225, wwd.getHeight() - 250));
 				}
 			});
 			
@@ -1561,7 +1673,7 @@ public class WorldPresenter implements Initializable {
 			Position clickedPosition = wwd.getCurrentPosition();
 			if (null != clickedPosition) {
 				Waypoint waypoint = new Waypoint(clickedPosition);
-				waypoint.setDepiction(new Depiction(symbolFactory.createPoint(Waypoint.SIDC_NAV_WAYPOINT_POI, waypoint, null)));
+				waypoint.setDepiction(new Depiction(SymbolCache.getInstance().createPoint(Waypoint.SIDC_NAV_WAYPOINT_POI, waypoint, null)));
 				waypoint.getDepiction().setVisible(true);
 				
 				if (scenario.hasAircraft() && (0 < scenario.getWaypoints().size())) {
@@ -1608,7 +1720,7 @@ public class WorldPresenter implements Initializable {
 			Position clickedPosition = wwd.getCurrentPosition();
 			if (null != clickedPosition) {
 				Waypoint waypoint = new Waypoint(clickedPosition);
-				waypoint.setDepiction(new Depiction(symbolFactory.createPoint(Waypoint.SIDC_NAV_WAYPOINT_POI, waypoint, null)));
+				waypoint.setDepiction(new Depiction(SymbolCache.getInstance().createPoint(Waypoint.SIDC_NAV_WAYPOINT_POI, waypoint, null)));
 				waypoint.getDepiction().setVisible(true);
 				scenario.addWaypoint(waypoint);
 			}
@@ -1616,157 +1728,57 @@ public class WorldPresenter implements Initializable {
 	}
 	
 	/**
-	 * Realizes a time change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class TimeChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the aircraft, environment and obstacles if the time changes.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			// TODO: possibly only redraw layers
-			initAircraft();
-			initEnvironment();
-			initObstacles();
-		}
-	}
-	
-	/**
-	 * Realizes a threshold cost change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class ThresholdChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the aircraft, environment and obstacles if the threshold
-		 * changes.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			// TODO: possibly only redraw layers
-			initAircraft();
-			initEnvironment();
-			initObstacles();
-		}
-	}
-	
-	/**
-	 * Realizes an aircraft change listener.
+	 * Realizes a world change listener.
 	 * 
 	 * @author Stephan Heinemann
 	 *
 	 */
-	private class AircraftChangeListener implements PropertyChangeListener {
+	private class WorldChangeListener implements WorldEventListener {
 		
 		/**
-		 * Initializes the aircraft if it changes.
+		 * Initializes the scenario, aircraft, environment, obstacles, plan and
+		 * track if the active scenario changes, initializes the obstacle time
+		 * if the time changes, initializes the environment if the threshold
+		 * changes, and initializes the changed aircraft, environment, plan or
+		 * obstacles otherwise.
 		 * 
-		 * @param evt the property change event
+		 * @param event the world event
 		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 * @see WorldEventListener#worldChanged(WorldEvent)
 		 */
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initAircraft();
-			initView();
-		}
-	}
-	
-	/**
-	 * Realizes an environment change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class EnvironmentChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the environment if it changes.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initEnvironment();
-		}
-	}
-	
-	/**
-	 * Realizes a waypoints change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class WaypointsChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the plan if the waypoints change.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initPlan();
-		}
-	}
-	
-	/**
-	 * Realizes a trajectory change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class TrajectoryChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the plan if the trajectory changes.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initPlan();
-		}
-	}
-	
-	/**
-	 * Realizes an obstacles change listener.
-	 * 
-	 * @author Stephan Heinemann
-	 *
-	 */
-	private class ObstaclesChangeListener implements PropertyChangeListener {
-		
-		/**
-		 * Initializes the obstacles if they change.
-		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
-		 */
-		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initObstacles();
+		public void worldChanged(WorldEvent event) {
+			switch (event.getType()) {
+			case ACTIVE_SCENARIO:
+				initScenario();
+				initAircraft();
+				initEnvironment();
+				initObstacles();
+				initPlan();
+				initTrack();
+				initView();
+				break;
+			case TIME:
+				initObstacleTime();
+				break;
+			case THRESHOLD:
+				initEnvironment();
+				break;
+			case AIRCRAFT:
+				initAircraft();
+				initView();
+				break;
+			case ENVIRONMENT:
+				initEnvironment();
+				break;
+			case WAYPOINTS:
+			case TRAJECTORY:
+				initPlan();
+				break;
+			case OBSTACLES:
+				initObstacles();
+				break;
+			}
 		}
 	}
 	
@@ -1779,7 +1791,7 @@ public class WorldPresenter implements Initializable {
 	private class TrackChangeListener implements PropertyChangeListener {
 		
 		/**
-		 * Initializes the track if it changes.
+		 * Appends to the track if it changes.
 		 * 
 		 * @param evt the property change event
 		 * 
@@ -1787,36 +1799,67 @@ public class WorldPresenter implements Initializable {
 		 */
 		@Override
 		public void propertyChange(PropertyChangeEvent evt) {
-			initTrack();
+			appendTrack();
 			initView();
 		}
 	}
 	
 	/**
-	 * Realizes an active scenario change listener.
+	 * Realizes a track update which either resets the rendered track to the
+	 * entire received track, or appends the pending received track points to
+	 * the rendered track.
 	 * 
 	 * @author Stephan Heinemann
 	 *
 	 */
-	private class ActiveScenarioChangeListener implements PropertyChangeListener {
+	private class TrackUpdate implements Runnable {
 		
 		/**
-		 * Initializes the scenario, aircraft, environment, obstacles and plan
-		 * if the active scenario changes.
+		 * Resets or appends to the rendered track. The rendered track is
+		 * reset if requested, if the received track has been replaced, or if
+		 * the last rendered track point is no longer received. Otherwise,
+		 * only the track points received after the last rendered track point
+		 * are visited from the end of the received track and appended, while
+		 * track points trimmed at the beginning of the received track are
+		 * evicted by the rendered track markers themselves.
 		 * 
-		 * @param evt the property change event
-		 * 
-		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 * @see Runnable#run()
 		 */
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			initScenario();
-			initAircraft();
-			initEnvironment();
-			initObstacles();
-			initPlan();
-			initTrack();
-			initView();
+		public void run() {
+			AircraftTrack track = scenario.getDatalink().getAircraftTrack();
+			boolean isReset = trackReset.getAndSet(false) || (track != renderedTrack);
+			Deque<AircraftTrackPoint> trackPoints = new ArrayDeque<>();
+			
+			if (!isReset) {
+				boolean isRendered = (null == renderedLast);
+				Iterator<AircraftTrackPoint> received = track.descendingIterator();
+				while (!isRendered && received.hasNext()) {
+					AircraftTrackPoint trackPoint = received.next();
+					if (trackPoint == renderedLast) {
+						isRendered = true;
+					} else {
+						trackPoints.addFirst(trackPoint);
+					}
+				}
+				isReset = !isRendered;
+				if (null == renderedLast) {
+					trackPoints.addAll(track);
+				}
+			}
+			
+			if (isReset) {
+				trackMarkers.clear();
+				trackPoints.clear();
+				trackPoints.addAll(track);
+				renderedTrack = track;
+				renderedLast = null;
+			}
+			
+			for (AircraftTrackPoint trackPoint : trackPoints) {
+				trackMarkers.add(trackPoint);
+				renderedLast = trackPoint;
+			}
 		}
 	}
 	
@@ -2128,6 +2171,81 @@ public class WorldPresenter implements Initializable {
 		}
 	}
 	
+	/**
+	 * Realizes a performance control listener.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class PerformanceControlListener implements ActionListener {
+		
+		/**
+		 * Performs the performance control action.
+		 * 
+		 * @param e the action event associated with the performance control action
+		 * 
+		 * @see ActionListener#actionPerformed(ActionEvent)
+		 */
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			switch (e.getActionCommand()) {
+			case WorldPresenter.ACTION_PERFORMANCE_TOGGLE:
+				performanceMonitor.toggle();
+				frameControl(performanceControl, performanceMonitor.isEnabled());
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Realizes a planning progress change listener.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class PlanningProgressChangeListener implements PropertyChangeListener {
+		
+		/**
+		 * Displays the planning progress while planning.
+		 * 
+		 * @param evt the property change event
+		 * 
+		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 */
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			PlanningProgress progress = (PlanningProgress) evt.getNewValue();
+			if ((null != progress) && !progress.isDone()
+					&& (WorldMode.PLANNING == worldModel.getWorldMode())) {
+				displayStatus(WorldMode.PLANNING.toString() + " | " + progress.toString());
+			}
+		}
+	}
+	
+	/**
+	 * Realizes a loading progress change listener.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class LoadingProgressChangeListener implements PropertyChangeListener {
+		
+		/**
+		 * Displays the loading progress while loading.
+		 * 
+		 * @param evt the property change event
+		 * 
+		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 */
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			LoadingProgress progress = (LoadingProgress) evt.getNewValue();
+			if ((null != progress) && (WorldMode.LOADING == worldModel.getWorldMode())) {
+				displayStatus(WorldMode.LOADING.toString() + " | " + progress.toString());
+			}
+		}
+	}
+	
 	/**
 	 * Realizes a world mode change listener.
 	 * 
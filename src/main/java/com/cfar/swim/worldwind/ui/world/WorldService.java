@@ -29,27 +29,413 @@
  */
 package com.cfar.swim.worldwind.ui.world;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.cfar.swim.worldwind.session.Scenario;
+import com.cfar.swim.worldwind.session.Session;
+import com.cfar.swim.worldwind.session.SessionManager;
+import com.cfar.swim.worldwind.ui.WorldwindPlanner;
+
 /**
- * Realizes a world service.
+ * Realizes a world service publishing typed world events about the active
+ * scenario of the application session to subscribed world event listeners.
+ * 
+ * The world service bridges the property changes of the active scenario and
+ * re-binds itself whenever the active scenario changes, such that
+ * subscribers do not have to manage scenario listeners themselves.
+ * Publishing a world event only enqueues it for each subscriber and returns
+ * immediately. Each subscriber has a mailbox which is drained asynchronously
+ * and serially, such that a slow subscriber never stalls the publishing
+ * thread or other subscribers. Bursts of world events are batched, that is,
+ * of all queued world events of the same type only the latest one is
+ * delivered.
  * 
  * @author Stephan Heinemann
  *
  */
 public class WorldService {
-
+	
+	/** the mailboxes of the subscribers of this world service */
+	private final Map<WorldEventListener, Mailbox> mailboxes = new ConcurrentHashMap<>();
+	
+	/** the delivery executor of this world service */
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	
+	/** the scenario change listeners bridging the active scenario of this world service */
+	private final List<ScenarioChangeListener> bridges = new ArrayList<>();
+	
+	/** the active scenario of this world service */
+	private Scenario scenario = null;
+	
+	/** the number of world events published by this world service */
+	private final AtomicLong published = new AtomicLong();
+	
+	/** the number of world events delivered by this world service */
+	private final AtomicLong delivered = new AtomicLong();
+	
+	/** the number of world events superseded in batches by this world service */
+	private final AtomicLong superseded = new AtomicLong();
+	
+	/** the accumulated delivery latency of this world service in nanoseconds */
+	private final AtomicLong accumulatedLatency = new AtomicLong();
+	
+	/** the maximum delivery latency of this world service in nanoseconds */
+	private final AtomicLong maxLatency = new AtomicLong();
+	
 	/**
-	 * Creates a new world service.
+	 * Constructs a new world service bridging the active scenario of the
+	 * application session.
 	 */
 	public WorldService() {
-		// TODO: This class is currently not used, the idea
-		// would be to access the session and scenario via
-		// common service methods instead of referencing them
-		// directly from the presenter. The planner package
-		// could also offer a service to be used from all
-		// parts of the application.
-		// Similarly, the world model could be a planner model
-		// sharing the application state in a architecturally
-		// more sound approach.
+		Session session = SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE);
+		session.addActiveScenarioChangeListener(new ActiveScenarioChangeListener());
+		this.bind(session.getActiveScenario());
 	}
-
+	
+	/**
+	 * Gets the active scenario of this world service.
+	 * 
+	 * @return the active scenario of this world service
+	 */
+	public synchronized Scenario getActiveScenario() {
+		return this.scenario;
+	}
+	
+	/**
+	 * Binds this world service to a scenario bridging its property changes.
+	 * 
+	 * @param scenario the scenario to be bound
+	 */
+	private synchronized void bind(Scenario scenario) {
+		if (null != this.scenario) {
+			for (ScenarioChangeListener bridge : this.bridges) {
+				this.scenario.removePropertyChangeListener(bridge);
+			}
+			this.bridges.clear();
+		}
+		
+		this.scenario = scenario;
+		
+		if (null != scenario) {
+			scenario.addTimeChangeListener(this.bridge(WorldEventType.TIME, scenario));
+			scenario.addThresholdChangeListener(this.bridge(WorldEventType.THRESHOLD, scenario));
+			scenario.addAircraftChangeListener(this.bridge(WorldEventType.AIRCRAFT, scenario));
+			scenario.addEnvironmentChangeListener(this.bridge(WorldEventType.ENVIRONMENT, scenario));
+			scenario.addWaypointsChangeListener(this.bridge(WorldEventType.WAYPOINTS, scenario));
+			scenario.addTrajectoryChangeListener(this.bridge(WorldEventType.TRAJECTORY, scenario));
+			scenario.addObstaclesChangeListener(this.bridge(WorldEventType.OBSTACLES, scenario));
+			scenario.addTerrainChangeListener(this.bridge(WorldEventType.TERRAIN, scenario));
+		}
+	}
+	
+	/**
+	 * Creates a scenario change listener bridging a property of a scenario.
+	 * 
+	 * @param type the world event type of the bridged property
+	 * @param scenario the scenario of the bridged property
+	 * 
+	 * @return the scenario change listener bridging the property
+	 */
+	private ScenarioChangeListener bridge(WorldEventType type, Scenario scenario) {
+		ScenarioChangeListener bridge = new ScenarioChangeListener(type, scenario);
+		this.bridges.add(bridge);
+		return bridge;
+	}
+	
+	/**
+	 * Subscribes a world event listener to world events of specified types.
+	 * 
+	 * @param listener the world event listener
+	 * @param types the world event types
+	 */
+	public void subscribe(WorldEventListener listener, WorldEventType... types) {
+		this.mailboxes.put(listener, new Mailbox(listener, EnumSet.copyOf(Arrays.asList(types))));
+	}
+	
+	/**
+	 * Unsubscribes a world event listener from all world events. Pending
+	 * world events are discarded.
+	 * 
+	 * @param listener the world event listener
+	 */
+	public void unsubscribe(WorldEventListener listener) {
+		Mailbox mailbox = this.mailboxes.remove(listener);
+		if (null != mailbox) {
+			mailbox.discard();
+		}
+	}
+	
+	/**
+	 * Publishes a world event to all subscribed world event listeners.
+	 * 
+	 * @param event the world event to be published
+	 */
+	public void publish(WorldEvent event) {
+		this.published.incrementAndGet();
+		for (Mailbox mailbox : this.mailboxes.values()) {
+			mailbox.post(event);
+		}
+	}
+	
+	/**
+	 * Gets the number of world events published by this world service.
+	 * 
+	 * @return the number of world events published by this world service
+	 */
+	public long getPublished() {
+		return this.published.get();
+	}
+	
+	/**
+	 * Gets the number of world events delivered by this world service.
+	 * 
+	 * @return the number of world events delivered by this world service
+	 */
+	public long getDelivered() {
+		return this.delivered.get();
+	}
+	
+	/**
+	 * Gets the number of world events superseded in batches by this world
+	 * service, that is, world events not delivered because a later world
+	 * event of the same type was delivered instead.
+	 * 
+	 * @return the number of world events superseded by this world service
+	 */
+	public long getSuperseded() {
+		return this.superseded.get();
+	}
+	
+	/**
+	 * Gets the number of world events pending delivery by this world service.
+	 * 
+	 * @return the number of world events pending delivery
+	 */
+	public long getPending() {
+		long pending = 0;
+		for (Mailbox mailbox : this.mailboxes.values()) {
+			pending += mailbox.getPending();
+		}
+		return pending;
+	}
+	
+	/**
+	 * Gets the average delivery latency of this world service, that is, the
+	 * average duration between the publication and delivery of world events.
+	 * 
+	 * @return the average delivery latency in nanoseconds
+	 */
+	public long getAverageLatency() {
+		long delivered = this.delivered.get();
+		return (0 == delivered) ? 0 : (this.accumulatedLatency.get() / delivered);
+	}
+	
+	/**
+	 * Gets the maximum delivery latency of this world service.
+	 * 
+	 * @return the maximum delivery latency in nanoseconds
+	 */
+	public long getMaxLatency() {
+		return this.maxLatency.get();
+	}
+	
+	/**
+	 * Realizes a mailbox of a world event listener.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class Mailbox implements Runnable {
+		
+		/** the world event listener of this mailbox */
+		private final WorldEventListener listener;
+		
+		/** the subscribed world event types of this mailbox */
+		private final Set<WorldEventType> types;
+		
+		/** the pending world events of this mailbox */
+		private final Queue<WorldEvent> events = new ConcurrentLinkedQueue<>();
+		
+		/** indicates whether or not a delivery of this mailbox is scheduled */
+		private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+		
+		/** indicates whether or not this mailbox has been discarded */
+		private volatile boolean isDiscarded = false;
+		
+		/**
+		 * Constructs a new mailbox for a world event listener.
+		 * 
+		 * @param listener the world event listener
+		 * @param types the subscribed world event types
+		 */
+		public Mailbox(WorldEventListener listener, Set<WorldEventType> types) {
+			this.listener = listener;
+			this.types = types;
+		}
+		
+		/**
+		 * Posts a world event to this mailbox scheduling its delivery if
+		 * the world event type has been subscribed to.
+		 * 
+		 * @param event the world event to be posted
+		 */
+		public void post(WorldEvent event) {
+			if (this.types.contains(event.getType())) {
+				this.events.add(event);
+				if (this.isScheduled.compareAndSet(false, true)) {
+					executor.execute(this);
+				}
+			}
+		}
+		
+		/**
+		 * Gets the number of pending world events of this mailbox.
+		 * 
+		 * @return the number of pending world events of this mailbox
+		 */
+		public int getPending() {
+			return this.events.size();
+		}
+		
+		/**
+		 * Discards this mailbox and all its pending world events.
+		 */
+		public void discard() {
+			this.isDiscarded = true;
+			this.events.clear();
+		}
+		
+		/**
+		 * Delivers the pending world events of this mailbox in batches until
+		 * no world events are pending anymore.
+		 * 
+		 * @see Runnable#run()
+		 */
+		@Override
+		public void run() {
+			do {
+				while (!this.events.isEmpty() && !this.isDiscarded) {
+					this.deliver(this.batch());
+				}
+				this.isScheduled.set(false);
+			} while (!this.events.isEmpty() && this.isScheduled.compareAndSet(false, true));
+		}
+		
+		/**
+		 * Drains the pending world events of this mailbox into a batch only
+		 * retaining the latest world event of each type in publication order.
+		 * 
+		 * @return the batch of world events
+		 */
+		private List<WorldEvent> batch() {
+			Map<WorldEventType, WorldEvent> batch = new LinkedHashMap<>();
+			WorldEvent event = null;
+			while (null != (event = this.events.poll())) {
+				if (null != batch.remove(event.getType())) {
+					superseded.incrementAndGet();
+				}
+				batch.put(event.getType(), event);
+			}
+			return new ArrayList<>(batch.values());
+		}
+		
+		/**
+		 * Delivers a batch of world events to the world event listener of
+		 * this mailbox.
+		 * 
+		 * @param batch the batch of world events
+		 */
+		private void deliver(List<WorldEvent> batch) {
+			for (WorldEvent event : batch) {
+				long latency = System.nanoTime() - event.getPublicationTime();
+				accumulatedLatency.addAndGet(latency);
+				maxLatency.accumulateAndGet(latency, Math::max);
+				delivered.incrementAndGet();
+				try {
+					this.listener.worldChanged(event);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Realizes a scenario change listener bridging a property of a scenario.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class ScenarioChangeListener implements PropertyChangeListener {
+		
+		/** the world event type of this scenario change listener */
+		private final WorldEventType type;
+		
+		/** the scenario of this scenario change listener */
+		private final Scenario scenario;
+		
+		/**
+		 * Constructs a new scenario change listener.
+		 * 
+		 * @param type the world event type of the bridged property
+		 * @param scenario the scenario of the bridged property
+		 */
+		public ScenarioChangeListener(WorldEventType type, Scenario scenario) {
+			this.type = type;
+			this.scenario = scenario;
+		}
+		
+		/**
+		 * Publishes a world event if the bridged property changes.
+		 * 
+		 * @param evt the property change event
+		 * 
+		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 */
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			publish(new WorldEvent(this.type, this.scenario, evt));
+		}
+	}
+	
+	/**
+	 * Realizes an active scenario change listener.
+	 * 
+	 * @author Stephan Heinemann
+	 *
+	 */
+	private class ActiveScenarioChangeListener implements PropertyChangeListener {
+		
+		/**
+		 * Re-binds this world service and publishes a world event if the
+		 * active scenario changes.
+		 * 
+		 * @param evt the property change event
+		 * 
+		 * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+		 */
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			Scenario scenario = SessionManager.getInstance()
+					.getSession(WorldwindPlanner.APPLICATION_TITLE).getActiveScenario();
+			bind(scenario);
+			publish(new WorldEvent(WorldEventType.ACTIVE_SCENARIO, scenario, evt));
+		}
+	}
+	
 }
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.scenario;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Properties;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.cfar.swim.worldwind.jaxb.ScenarioMarshaller;
+import com.cfar.swim.worldwind.jaxb.ScenarioUnmarshaller;
+import com.cfar.swim.worldwind.planning.CostInterval;
+import com.cfar.swim.worldwind.planning.Waypoint;
+import com.cfar.swim.worldwind.render.ObstacleCylinder;
+import com.cfar.swim.worldwind.session.Scenario;
+import com.cfar.swim.worldwind.session.Session;
+import com.cfar.swim.worldwind.session.SessionManager;
+import com.cfar.swim.worldwind.ui.WorldwindPlanner;
+
+import gov.nasa.worldwind.geom.LatLon;
+import gov.nasa.worldwind.geom.Position;
+
+/**
+ * Performs tests of the scenario cache comparing cached scenarios against
+ * parsed scenarios.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class ScenarioCacheTest {
+	
+	/** the temporary folder of the tested scenario caches */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	/**
+	 * Registers the planner session the snapshot format resolves
+	 * specifications from.
+	 */
+	@BeforeClass
+	public static void setUpSession() {
+		if (null == SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE)) {
+			SessionManager.getInstance().addSession(new Session(WorldwindPlanner.APPLICATION_TITLE));
+		}
+	}
+	
+	/**
+	 * Creates a scenario file with waypoints and obstacle cylinders.
+	 * 
+	 * @param name the name of the scenario file
+	 * 
+	 * @return the created scenario file
+	 * 
+	 * @throws Exception if the scenario file cannot be created
+	 */
+	private File createScenarioFile(String name) throws Exception {
+		ZonedDateTime time = ZonedDateTime.of(2021, 6, 1, 12, 30, 15, 0, ZoneId.of("America/Vancouver"));
+		Scenario scenario = new Scenario(name);
+		scenario.setTime(time);
+		scenario.setThreshold(10d);
+		
+		Waypoint waypoint = new Waypoint(Position.fromDegrees(49.1, -123.2, 100d));
+		waypoint.setDesignator("A");
+		waypoint.setEto(time);
+		scenario.addWaypoint(waypoint);
+		scenario.addWaypoint(new Waypoint(Position.fromDegrees(49.3, -123.0, 300d)));
+		
+		for (int index = 0; index < 3; index++) {
+			ObstacleCylinder cylinder = new ObstacleCylinder(
+					LatLon.fromDegrees(49.15 + index * 0.01, -123.15), 0d, 500d, 1000d);
+			cylinder.setCostInterval(new CostInterval("storm" + index, time, time.plusHours(1), 25d));
+			scenario.addObstacle(cylinder);
+		}
+		
+		File file = this.folder.newFile(name + ".xml");
+		new ScenarioMarshaller().marshalScenario(scenario, file);
+		return file;
+	}
+	
+	/**
+	 * Loads the index of a scenario cache.
+	 * 
+	 * @param cache the scenario cache
+	 * 
+	 * @return the index of the scenario cache
+	 * 
+	 * @throws IOException if the index cannot be loaded
+	 */
+	private static Properties loadIndex(ScenarioCache cache) throws IOException {
+		Properties index = new Properties();
+		File indexFile = new File(cache.getDirectory(), ScenarioCache.INDEX_FILE);
+		if (indexFile.isFile()) {
+			try (InputStream in = new FileInputStream(indexFile)) {
+				index.load(in);
+			}
+		}
+		return index;
+	}
+	
+	/**
+	 * Tests that a cached scenario is equivalent to the parsed scenario.
+	 * 
+	 * @throws Exception if the scenario cannot be loaded
+	 */
+	@Test
+	public void testRoundTrip() throws Exception {
+		File file = this.createScenarioFile("roundtrip");
+		ScenarioCache cache = new ScenarioCache(this.folder.newFolder("cache"));
+		
+		Scenario parsed = new ScenarioUnmarshaller().unmarshalScenario(file);
+		Scenario missed = cache.load(file);
+		Scenario hit = cache.load(file);
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		
+		ScenarioSnapshot snapshot = new ScenarioSnapshot();
+		ScenarioSnapshot.Capture capture = snapshot.capture(parsed);
+		assertTrue(capture.isEquivalent(snapshot.capture(missed)));
+		assertTrue(capture.isEquivalent(snapshot.capture(hit)));
+		assertEquals(parsed.getObstacles().size(), hit.getObstacles().size());
+		assertEquals(parsed.getWaypoints().size(), hit.getWaypoints().size());
+		assertEquals(parsed.getTime(), hit.getTime());
+		assertEquals(parsed.getSector(), hit.getSector());
+		
+		// a second hit has to restore the same scenario again
+		assertTrue(capture.isEquivalent(snapshot.capture(cache.load(file))));
+		assertEquals(2, cache.getHits());
+	}
+	
+	/**
+	 * Tests that the index entries of evicted snapshots are pruned.
+	 * 
+	 * @throws Exception if the scenario cannot be loaded
+	 */
+	@Test
+	public void testEvictionPrunesIndex() throws Exception {
+		File file = this.createScenarioFile("evicted");
+		ScenarioCache cache = new ScenarioCache(this.folder.newFolder("cache"));
+		cache.setCapacity(0);
+		
+		cache.load(file);
+		assertFalse(ScenarioCacheTest.loadIndex(cache).containsKey(file.getCanonicalPath()));
+		cache.load(file);
+		assertEquals(0, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+	
+	/**
+	 * Tests that the index entries of deleted scenario files are pruned.
+	 * 
+	 * @throws Exception if the scenarios cannot be loaded
+	 */
+	@Test
+	public void testDeletionPrunesIndex() throws Exception {
+		File deleted = this.createScenarioFile("deleted");
+		File kept = this.createScenarioFile("kept");
+		ScenarioCache cache = new ScenarioCache(this.folder.newFolder("cache"));
+		
+		cache.load(deleted);
+		assertTrue(ScenarioCacheTest.loadIndex(cache).containsKey(deleted.getCanonicalPath()));
+		String path = deleted.getCanonicalPath();
+		assertTrue(deleted.delete());
+		
+		cache.load(kept);
+		Properties index = ScenarioCacheTest.loadIndex(cache);
+		assertFalse(index.containsKey(path));
+		assertTrue(index.containsKey(kept.getCanonicalPath()));
+	}
+	
+}
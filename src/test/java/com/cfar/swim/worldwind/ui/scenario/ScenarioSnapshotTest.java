@@ -0,0 +1,328 @@
+/**
+ * Copyright (c) 2021, Stephan Heinemann (UVic Center for Aerospace Research)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors
+ * may be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.cfar.swim.worldwind.ui.scenario;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.cfar.swim.worldwind.planning.CostInterval;
+import com.cfar.swim.worldwind.planning.Trajectory;
+import com.cfar.swim.worldwind.planning.Waypoint;
+import com.cfar.swim.worldwind.render.Obstacle;
+import com.cfar.swim.worldwind.render.ObstacleCylinder;
+import com.cfar.swim.worldwind.session.Scenario;
+import com.cfar.swim.worldwind.session.Session;
+import com.cfar.swim.worldwind.session.SessionManager;
+import com.cfar.swim.worldwind.ui.WorldwindPlanner;
+
+import gov.nasa.worldwind.geom.LatLon;
+import gov.nasa.worldwind.geom.Position;
+
+/**
+ * Performs round-trip tests of the scenario snapshot format.
+ * 
+ * @author Stephan Heinemann
+ *
+ */
+public class ScenarioSnapshotTest {
+	
+	/** the time of the tested scenarios */
+	private static final ZonedDateTime TIME = ZonedDateTime.of(
+			2021, 6, 1, 12, 30, 15, 123456789, ZoneId.of("America/Vancouver"));
+	
+	/**
+	 * Registers the planner session the snapshot format resolves
+	 * specifications from.
+	 */
+	@BeforeClass
+	public static void setUpSession() {
+		if (null == SessionManager.getInstance().getSession(WorldwindPlanner.APPLICATION_TITLE)) {
+			SessionManager.getInstance().addSession(new Session(WorldwindPlanner.APPLICATION_TITLE));
+		}
+	}
+	
+	/**
+	 * Creates the waypoints of the tested scenarios with designators, costs
+	 * and estimated times over in different time zones including an absent
+	 * estimated time over.
+	 * 
+	 * @return the waypoints of the tested scenarios
+	 */
+	private static List<Waypoint> createWaypoints() {
+		Waypoint first = new Waypoint(Position.fromDegrees(49.1, -123.2, 100d));
+		first.setDesignator("A");
+		first.setEto(ScenarioSnapshotTest.TIME);
+		first.setCost(1.5d);
+		
+		Waypoint second = new Waypoint(Position.fromDegrees(49.2, -123.1, 200d));
+		second.setEto(ScenarioSnapshotTest.TIME.plusSeconds(90).withZoneSameInstant(ZoneId.of("Europe/Berlin")));
+		second.setCost(2.5d);
+		
+		Waypoint third = new Waypoint(Position.fromDegrees(49.3, -123.0, 300d));
+		third.setDesignator("C");
+		
+		return Arrays.asList(first, second, third);
+	}
+	
+	/**
+	 * Creates the obstacle cylinders of the tested scenarios with cost
+	 * intervals in different time zones.
+	 * 
+	 * @return the obstacle cylinders of the tested scenarios
+	 */
+	private static List<ObstacleCylinder> createCylinders() {
+		ObstacleCylinder first = new ObstacleCylinder(LatLon.fromDegrees(49.15, -123.15), 0d, 500d, 1000d);
+		first.setCostInterval(new CostInterval("storm",
+				ScenarioSnapshotTest.TIME, ScenarioSnapshotTest.TIME.plusHours(1), 25d));
+		
+		ObstacleCylinder second = new ObstacleCylinder(LatLon.fromDegrees(49.25, -123.05), 100d, 800d, 2000d);
+		second.setCostInterval(new CostInterval("restriction",
+				ScenarioSnapshotTest.TIME.withZoneSameInstant(ZoneId.of("UTC")),
+				ScenarioSnapshotTest.TIME.plusMinutes(30).withZoneSameInstant(ZoneId.of("Asia/Tokyo")), 75d));
+		
+		return Arrays.asList(first, second);
+	}
+	
+	/**
+	 * Asserts that two waypoints are equal in all recorded properties.
+	 * 
+	 * @param expected the expected waypoint
+	 * @param actual the actual waypoint
+	 */
+	private static void assertWaypointEquals(Waypoint expected, Waypoint actual) {
+		assertEquals(expected.getLatitude().degrees, actual.getLatitude().degrees, 0d);
+		assertEquals(expected.getLongitude().degrees, actual.getLongitude().degrees, 0d);
+		assertEquals(expected.getAltitude(), actual.getAltitude(), 0d);
+		assertEquals(expected.getDesignator(), actual.getDesignator());
+		assertEquals(expected.getEto(), actual.getEto());
+		assertEquals(expected.getCost(), actual.getCost(), 0d);
+	}
+	
+	/**
+	 * Asserts that two obstacle cylinders are equal in all recorded
+	 * properties.
+	 * 
+	 * @param expected the expected obstacle cylinder
+	 * @param actual the actual obstacle cylinder
+	 */
+	private static void assertCylinderEquals(ObstacleCylinder expected, ObstacleCylinder actual) {
+		assertEquals(expected.getCenter().getLatitude().degrees, actual.getCenter().getLatitude().degrees, 0d);
+		assertEquals(expected.getCenter().getLongitude().degrees, actual.getCenter().getLongitude().degrees, 0d);
+		assertEquals(expected.getAltitudes()[0], actual.getAltitudes()[0], 0d);
+		assertEquals(expected.getAltitudes()[1], actual.getAltitudes()[1], 0d);
+		assertEquals(expected.getRadii()[1], actual.getRadii()[1], 0d);
+		assertEquals(expected.getCostInterval().getId(), actual.getCostInterval().getId());
+		assertEquals(expected.getCostInterval().getLower(), actual.getCostInterval().getLower());
+		assertEquals(expected.getCostInterval().getUpper(), actual.getCostInterval().getUpper());
+		assertEquals(expected.getCostInterval().getCost(), actual.getCostInterval().getCost(), 0d);
+	}
+	
+	/**
+	 * Tests the round-trip of waypoints including their nanoseconds, time
+	 * zones, designators and costs.
+	 * 
+	 * @throws IOException if the waypoints cannot be round-tripped
+	 */
+	@Test
+	public void testWaypoints() throws IOException {
+		List<Waypoint> waypoints = ScenarioSnapshotTest.createWaypoints();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		ScenarioSnapshot.writeWaypoints(waypoints, out);
+		out.flush();
+		
+		List<Waypoint> read = ScenarioSnapshot.readWaypoints(
+				new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(waypoints.size(), read.size());
+		for (int index = 0; index < waypoints.size(); index++) {
+			ScenarioSnapshotTest.assertWaypointEquals(waypoints.get(index), read.get(index));
+		}
+		assertNull(read.get(2).getEto());
+		assertNull(read.get(1).getDesignator());
+	}
+	
+	/**
+	 * Tests the round-trip of obstacle cylinders including the time zones of
+	 * their cost intervals.
+	 * 
+	 * @throws IOException if the obstacle cylinders cannot be round-tripped
+	 */
+	@Test
+	public void testCylinders() throws IOException {
+		List<ObstacleCylinder> cylinders = ScenarioSnapshotTest.createCylinders();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		ScenarioSnapshot.writeCylinders(cylinders, out);
+		out.flush();
+		
+		List<ObstacleCylinder> read = ScenarioSnapshot.readCylinders(
+				new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(cylinders.size(), read.size());
+		for (int index = 0; index < cylinders.size(); index++) {
+			ScenarioSnapshotTest.assertCylinderEquals(cylinders.get(index), read.get(index));
+		}
+	}
+	
+	/**
+	 * Tests the round-trip of a trajectory.
+	 * 
+	 * @throws IOException if the trajectory cannot be round-tripped
+	 */
+	@Test
+	public void testTrajectory() throws IOException {
+		Trajectory trajectory = new Trajectory(ScenarioSnapshotTest.createWaypoints());
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		ScenarioSnapshot.writeTrajectory(trajectory, out);
+		out.flush();
+		
+		Trajectory read = ScenarioSnapshot.readTrajectory(
+				new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		Iterator<? extends Waypoint> expected = trajectory.getWaypoints().iterator();
+		Iterator<? extends Waypoint> actual = read.getWaypoints().iterator();
+		while (expected.hasNext()) {
+			assertTrue(actual.hasNext());
+			ScenarioSnapshotTest.assertWaypointEquals(expected.next(), actual.next());
+		}
+		assertTrue(!actual.hasNext());
+	}
+	
+	/**
+	 * Tests the round-trip of a complete scenario including its environment,
+	 * time, threshold, waypoints and obstacles.
+	 * 
+	 * @throws IOException if the scenario cannot be round-tripped
+	 */
+	@Test
+	public void testScenario() throws IOException {
+		Scenario scenario = new Scenario("test");
+		scenario.setTime(ScenarioSnapshotTest.TIME);
+		scenario.setThreshold(10d);
+		for (Waypoint waypoint : ScenarioSnapshotTest.createWaypoints()) {
+			scenario.addWaypoint(waypoint);
+		}
+		for (ObstacleCylinder cylinder : ScenarioSnapshotTest.createCylinders()) {
+			scenario.addObstacle(cylinder);
+		}
+		
+		for (boolean isCompressed : new boolean[] {true, false}) {
+			ScenarioSnapshot snapshot = new ScenarioSnapshot();
+			snapshot.setCompressed(isCompressed);
+			byte[] encoded = snapshot.encode(scenario);
+			Scenario read = snapshot.read(new ByteArrayInputStream(encoded));
+			
+			assertEquals(scenario.getId(), read.getId());
+			assertEquals(scenario.getTime(), read.getTime());
+			assertEquals(scenario.getThreshold(), read.getThreshold(), 0d);
+			assertEquals(scenario.getSector(), read.getSector());
+			assertEquals(scenario.getEnvironment().getClass(), read.getEnvironment().getClass());
+			
+			List<Waypoint> waypoints = new ArrayList<>(scenario.getWaypoints());
+			List<Waypoint> readWaypoints = new ArrayList<>(read.getWaypoints());
+			assertEquals(waypoints.size(), readWaypoints.size());
+			for (int index = 0; index < waypoints.size(); index++) {
+				ScenarioSnapshotTest.assertWaypointEquals(waypoints.get(index), readWaypoints.get(index));
+			}
+			
+			List<ObstacleCylinder> cylinders = new ArrayList<>();
+			for (Obstacle obstacle : read.getObstacles()) {
+				cylinders.add((ObstacleCylinder) obstacle);
+			}
+			assertEquals(scenario.getObstacles().size(), cylinders.size());
+		}
+	}
+	
+	/**
+	 * Tests that a truncated section is rejected.
+	 * 
+	 * @throws IOException if the waypoints cannot be written
+	 */
+	@Test(expected = IOException.class)
+	public void testTruncatedSection() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		ScenarioSnapshot.writeWaypoints(ScenarioSnapshotTest.createWaypoints(), out);
+		out.flush();
+		
+		byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() / 2);
+		ScenarioSnapshot.readWaypoints(new DataInputStream(new ByteArrayInputStream(truncated)));
+	}
+	
+	/**
+	 * Tests that a corrupt section size is rejected without allocating the
+	 * corrupt size.
+	 * 
+	 * @throws IOException if the section cannot be written
+	 */
+	@Test(expected = IOException.class)
+	public void testCorruptSection() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(Integer.MAX_VALUE);
+		out.writeInt(0);
+		out.flush();
+		
+		ScenarioSnapshot.readCylinders(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+	
+	/**
+	 * Tests that an unsupported snapshot version is rejected.
+	 * 
+	 * @throws IOException if the header cannot be written
+	 */
+	@Test(expected = IOException.class)
+	public void testUnsupportedVersion() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(ScenarioSnapshot.MAGIC);
+		out.writeShort(ScenarioSnapshot.VERSION - 1);
+		out.writeByte(0);
+		out.flush();
+		
+		new ScenarioSnapshot().read(new ByteArrayInputStream(bytes.toByteArray()));
+	}
+	
+}